@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.anttasks.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
+import org.eclipse.pde.api.tools.internal.provisional.RestrictionModifiers;
+import org.eclipse.pde.api.tools.internal.util.Util;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests the tag scan cache of the API description generation task: unchanged sources are
+ * not scanned again and changed sources are.
+ *
+ * @since 1.0.400
+ */
+public class ApiToolingApiGenerationAntTaskTests extends AntRunnerTestCase {
+
+	public String getTestResourcesFolder() {
+		return "apitooling.apigeneration/";
+	}
+
+	/**
+	 * Runs the generation task and returns the restrictions of the types in the generated
+	 * API description by type name
+	 */
+	private Map runTask(IFolder buildFolder) throws Exception {
+		IFolder target = buildFolder.getFolder("target");
+		IFile description = target.getFile(IApiCoreConstants.API_DESCRIPTION_XML_NAME);
+		if (description.exists()) {
+			// the task does not regenerate an existing description
+			description.delete(true, null);
+		}
+		Properties properties = new Properties();
+		properties.put("project_location", buildFolder.getFolder("project").getLocation().toOSString());
+		properties.put("target_location", target.getLocation().toOSString());
+		properties.put("cache_location", buildFolder.getLocation().append("cache").append("tagscan.cache").toOSString());
+		runAntScript(buildFolder.getFile("build.xml").getLocation().toOSString(), new String[] {"run"}, buildFolder.getLocation().toOSString(), properties);
+		assertTrue("The API description must exist", description.exists());
+		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		Document doc = builder.parse(new InputSource(description.getContents()));
+		NodeList types = doc.getElementsByTagName("type");
+		Map restrictions = new HashMap();
+		for (int i = 0; i < types.getLength(); i++) {
+			Element type = (Element) types.item(i);
+			restrictions.put(type.getAttribute("name"), Integer.valueOf(type.getAttribute("restrictions")));
+		}
+		return restrictions;
+	}
+
+	/**
+	 * Returns the line of the task log reporting how many of the sources were scanned
+	 */
+	private String getScannedUnits(IFolder buildFolder) throws Exception {
+		String log = new String(Util.getInputStreamAsCharArray(buildFolder.getFile("log.log").getContents(), -1, "UTF-8"));
+		int start = log.indexOf("Units to scan : ");
+		assertTrue("The log must report the scanned units", start != -1);
+		int end = log.indexOf('\n', start);
+		return log.substring(start, end == -1 ? log.length() : end).trim();
+	}
+
+	/**
+	 * Tests that the restrictions of unchanged sources are taken from the cache and
+	 * that a changed source is scanned again
+	 * @throws Exception
+	 */
+	public void testCache() throws Exception {
+		IFolder buildFolder = newTest(getTestResourcesFolder() + "test1");
+		Map restrictions = runTask(buildFolder);
+		assertEquals("All sources should be scanned without a cache", "Units to scan : 2 of 2", getScannedUnits(buildFolder));
+		assertEquals("Wrong restrictions for A", new Integer(RestrictionModifiers.NO_EXTEND), restrictions.get("A"));
+		assertEquals("Wrong restrictions for B", new Integer(RestrictionModifiers.NO_INSTANTIATE), restrictions.get("B"));
+		assertTrue("The cache must be saved", new File(buildFolder.getLocation().append("cache").append("tagscan.cache").toOSString()).exists());
+
+		restrictions = runTask(buildFolder);
+		assertEquals("Unchanged sources should not be scanned", "Units to scan : 0 of 2", getScannedUnits(buildFolder));
+		assertEquals("Wrong cached restrictions for A", new Integer(RestrictionModifiers.NO_EXTEND), restrictions.get("A"));
+		assertEquals("Wrong cached restrictions for B", new Integer(RestrictionModifiers.NO_INSTANTIATE), restrictions.get("B"));
+
+		IFile source = buildFolder.getFile("project/src/p/A.java");
+		String contents = "package p;\n\n/**\n * @noextend This class is not intended to be subclassed by clients.\n * @noinstantiate This class is not intended to be instantiated by clients.\n */\npublic class A {\n}\n";
+		source.setContents(new ByteArrayInputStream(contents.getBytes("UTF-8")), true, false, null);
+		restrictions = runTask(buildFolder);
+		assertEquals("Only the changed source should be scanned", "Units to scan : 1 of 2", getScannedUnits(buildFolder));
+		assertEquals("Wrong restrictions for the changed A", new Integer(RestrictionModifiers.NO_EXTEND | RestrictionModifiers.NO_INSTANTIATE), restrictions.get("A"));
+		assertEquals("Wrong cached restrictions for B", new Integer(RestrictionModifiers.NO_INSTANTIATE), restrictions.get("B"));
+	}
+}
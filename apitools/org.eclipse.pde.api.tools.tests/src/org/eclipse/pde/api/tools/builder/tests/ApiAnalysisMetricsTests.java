@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisMetrics;
+
+/**
+ * Tests the {@link ApiAnalysisMetrics} collected by the API analyzer
+ * 
+ * @since 1.0.400
+ */
+public class ApiAnalysisMetricsTests extends TestCase {
+
+	/**
+	 * Tests that phase times and counts are accumulated and merged
+	 */
+	public void testRecordAndMergePhases() {
+		ApiAnalysisMetrics metrics = new ApiAnalysisMetrics();
+		assertEquals("An unrecorded phase should have no time", -1, metrics.getPhaseTime(ApiAnalysisMetrics.PHASE_API_USAGE));
+		metrics.recordPhase(ApiAnalysisMetrics.PHASE_API_USAGE, System.currentTimeMillis());
+		metrics.typeScanned();
+		metrics.typeCompared();
+		ApiAnalysisMetrics other = new ApiAnalysisMetrics();
+		other.typeScanned();
+		other.recordPhase(ApiAnalysisMetrics.PHASE_COMPATIBILITY, System.currentTimeMillis());
+		metrics.merge(other);
+		assertTrue("The API usage phase should have been recorded", metrics.getPhaseTime(ApiAnalysisMetrics.PHASE_API_USAGE) >= 0);
+		assertTrue("The compatibility phase should have been merged", metrics.getPhaseTime(ApiAnalysisMetrics.PHASE_COMPATIBILITY) >= 0);
+		assertEquals("There should be two scanned types", 2, metrics.getTypesScanned());
+		assertEquals("There should be one compared type", 1, metrics.getTypesCompared());
+	}
+	
+	/**
+	 * Tests the cache hit rate computation
+	 */
+	public void testCacheHitRate() {
+		ApiAnalysisMetrics metrics = new ApiAnalysisMetrics();
+		assertEquals("There should be no hit rate without cache accesses", -1d, metrics.getCacheHitRate(), 0d);
+		metrics.recordCacheAccess(3, 1);
+		assertEquals("The hit rate should be 0.75", 0.75d, metrics.getCacheHitRate(), 0d);
+	}
+	
+	/**
+	 * Tests that the JSON output contains the recorded phases
+	 */
+	public void testToJSON() {
+		ApiAnalysisMetrics metrics = new ApiAnalysisMetrics();
+		metrics.componentAnalyzed();
+		metrics.recordPhase(ApiAnalysisMetrics.PHASE_TAG_VALIDATION, System.currentTimeMillis());
+		String json = metrics.toJSON();
+		assertTrue("The JSON should start with an object", json.startsWith("{"));
+		assertTrue("The JSON should contain the component count", json.indexOf("\"components\" : 1") > -1);
+		assertTrue("The JSON should contain the tag validation phase", json.indexOf("\"tagValidation\" : { \"time\"") > -1);
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.pde.api.tools.internal.builder.BuildState;
+import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.provisional.RestrictionModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+
+/**
+ * Tests reading and writing the compact {@link BuildState} format
+ *
+ * @since 1.0.400
+ */
+public class BuildStateTests extends TestCase {
+
+	/**
+	 * Creates a state with the given number of types, each with one compatible and one breaking change
+	 * @param types
+	 * @return a new {@link BuildState}
+	 * @throws Exception
+	 */
+	public static BuildState createState(int types) throws Exception {
+		// the constructor is not API, the builder creates the states
+		Constructor constructor = BuildState.class.getDeclaredConstructor(new Class[0]);
+		constructor.setAccessible(true);
+		BuildState state = (BuildState) constructor.newInstance(new Object[0]);
+		for (int i = 0; i < types; i++) {
+			state.addCompatibleChange(createDelta(i, IDelta.ADDED, IDelta.METHOD));
+			state.addBreakingChange(createDelta(i, IDelta.REMOVED, IDelta.FIELD));
+		}
+		state.setBuildPathCRC(42L);
+		return state;
+	}
+
+	/**
+	 * Creates a delta for the type with the given index
+	 * @param index
+	 * @param kind
+	 * @param flags
+	 * @return a new {@link IDelta}
+	 */
+	public static IDelta createDelta(int index, int kind, int flags) {
+		String typeName = "p.Type" + index;
+		return new Delta(null, IDelta.CLASS_ELEMENT_TYPE, kind, flags, RestrictionModifiers.NO_EXTEND, RestrictionModifiers.NO_RESTRICTIONS, 1, 9, typeName, "m()V", new String[] {typeName, "m()"});
+	}
+
+	/**
+	 * Writes the given state to bytes
+	 * @param state
+	 * @return the bytes of the written state
+	 * @throws IOException
+	 */
+	public static byte[] write(BuildState state) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		BuildState.write(state, out);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads a state from the given bytes
+	 * @param bytes
+	 * @return the read state
+	 * @throws IOException
+	 */
+	public static BuildState read(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return BuildState.read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Asserts the given delta arrays contain the same deltas
+	 * @param message
+	 * @param expected
+	 * @param actual
+	 */
+	private void assertSameDeltas(String message, IDelta[] expected, IDelta[] actual) {
+		Set expectedSet = new HashSet(Arrays.asList(expected));
+		Set actualSet = new HashSet(Arrays.asList(actual));
+		assertEquals(message, expectedSet, actualSet);
+	}
+
+	/**
+	 * Tests that all of the recorded changes survive a write and a read
+	 *
+	 * @throws Exception
+	 */
+	public void testRoundTrip() throws Exception {
+		BuildState state = createState(50);
+		state.addApiToolingDependentProject("dependent");
+		BuildState read = read(write(state));
+		assertNotNull("The state should have been read", read);
+		assertEquals("The build path CRC should have been read", 42L, read.getBuildPathCRC());
+		assertTrue("The dependent project should have been read", read.getApiToolingDependentProjects().contains("dependent"));
+		assertSameDeltas("The breaking changes should be the same", state.getBreakingChanges(), read.getBreakingChanges());
+		assertSameDeltas("The compatible changes should be the same", state.getCompatibleChanges(), read.getCompatibleChanges());
+		IDelta delta = read.getBreakingChanges()[0];
+		assertEquals("The current restrictions should have been read", RestrictionModifiers.NO_EXTEND, delta.getCurrentRestrictions());
+		assertEquals("The new modifiers should have been read", 9, delta.getNewModifiers());
+	}
+
+	/**
+	 * Tests that only the changes of the types touched by a build are replaced when the
+	 * state is written again without having been decoded
+	 *
+	 * @throws Exception
+	 */
+	public void testUpdateTouchedTypes() throws Exception {
+		BuildState state = read(write(createState(20)));
+		state.cleanup("p.Type3");
+		state.addCompatibleChange(createDelta(3, IDelta.CHANGED, IDelta.METHOD));
+		state.cleanup("p.Type4");
+		BuildState read = read(write(state));
+		assertEquals("There should be 18 breaking changes", 18, read.getBreakingChanges().length);
+		assertEquals("There should be 19 compatible changes", 19, read.getCompatibleChanges().length);
+		assertTrue("The new change should have been written", Arrays.asList(read.getCompatibleChanges()).contains(createDelta(3, IDelta.CHANGED, IDelta.METHOD)));
+		assertFalse("The old change should have been removed", Arrays.asList(read.getCompatibleChanges()).contains(createDelta(3, IDelta.ADDED, IDelta.METHOD)));
+	}
+
+	/**
+	 * Tests that a state written many times without being decoded keeps its changes
+	 *
+	 * @throws Exception
+	 */
+	public void testRepeatedUpdates() throws Exception {
+		byte[] bytes = write(createState(10));
+		for (int i = 0; i < 20; i++) {
+			BuildState state = read(bytes);
+			state.cleanup("p.Type0");
+			state.addBreakingChange(new Delta(null, IDelta.CLASS_ELEMENT_TYPE, IDelta.REMOVED, IDelta.FIELD, RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, 0, 0, "p.Type0", "f" + i, "f" + i));
+			bytes = write(state);
+		}
+		BuildState read = read(bytes);
+		assertEquals("There should be 10 breaking changes", 10, read.getBreakingChanges().length);
+		assertEquals("There should be 9 compatible changes", 9, read.getCompatibleChanges().length);
+	}
+
+	/**
+	 * Tests that reading all of the changes, as the builder does when it checks the version of a
+	 * component, does not prevent the changes of the types that were not modified from being 
+	 * copied as-is when the state is written again
+	 *
+	 * @throws Exception
+	 */
+	public void testUpdateAfterReadingAllChanges() throws Exception {
+		BuildState state = read(write(createState(20)));
+		assertEquals("There should be 20 breaking changes", 20, state.getBreakingChanges().length);
+		assertEquals("There should be 20 compatible changes", 20, state.getCompatibleChanges().length);
+		state.cleanup("p.Type3");
+		byte[] bytes = write(state);
+		// the string table is only compacted when all of the changes are encoded again, so the
+		// strings of the removed type are still in the table after an incremental write
+		assertTrue("The string table should not have been compacted", new String(bytes, "UTF-8").indexOf("p.Type3") != -1);
+		BuildState read = read(bytes);
+		assertEquals("There should be 19 breaking changes", 19, read.getBreakingChanges().length);
+		assertEquals("There should be 19 compatible changes", 19, read.getCompatibleChanges().length);
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.pde.api.tools.builder.tests.BuildStateTests;
+import org.eclipse.pde.api.tools.internal.builder.BuildState;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+/**
+ * Measures the cost of reading and writing the API build state of a component with
+ * 10000 types, each with one compatible and one breaking change
+ *
+ * @since 1.0.400
+ */
+public class BuildStatePerfTest extends PerformanceTestCase {
+
+	private static final int TYPES = 10000;
+
+	/**
+	 * @return the tests for this class
+	 */
+	public static Test suite() {
+		return new TestSuite(BuildStatePerfTest.class);
+	}
+
+	/**
+	 * Reads the state, reads all of its changes as the builder does when it checks the version
+	 * of the component, updates the changes of one type and writes the state again
+	 *
+	 * @param bytes the saved state
+	 * @return the state written
+	 * @throws Exception
+	 */
+	private byte[] incrementalBuild(byte[] bytes) throws Exception {
+		BuildState state = BuildStateTests.read(bytes);
+		state.getBreakingChanges();
+		state.getCompatibleChanges();
+		state.cleanup("p.Type0");
+		state.addCompatibleChange(BuildStateTests.createDelta(0, IDelta.ADDED, IDelta.METHOD));
+		return BuildStateTests.write(state);
+	}
+
+	/**
+	 * Tests the time it takes to read and write the build state for an incremental build
+	 *
+	 * @throws Exception
+	 */
+	public void testIncrementalBuildState() throws Exception {
+		tagAsSummary("Read and write API build state", Dimension.ELAPSED_PROCESS);
+		byte[] bytes = BuildStateTests.write(BuildStateTests.createState(TYPES));
+
+		// WARM-UP
+		for (int i = 0; i < 5; i++) {
+			bytes = incrementalBuild(bytes);
+		}
+
+		// TEST
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			bytes = incrementalBuild(bytes);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+
+		assertEquals("All of the breaking changes should have been kept", TYPES - 1, BuildStateTests.read(bytes).getBreakingChanges().length);
+	}
+}
@@ -82,7 +82,8 @@ public abstract class PerformanceTest extends ApiBuilderTest {
 			FullSourceBuildTests.class,
 			ApiDescriptionTests.class,
 			IncrementalBuildTests.class,
-			ExternalDependencyPerfTests.class
+			ExternalDependencyPerfTests.class,
+			BuildStatePerfTest.class
 		};
 		return classes;
 	}
@@ -87,6 +87,23 @@ public class ApiModelCacheTests extends TestCase {
 		assertTrue("The cache should be empty", ApiModelCache.getCache().isEmpty());
 	}
 	
+	/**
+	 * Tests that type lookups are counted as cache hits and misses
+	 * 
+	 * @throws Exception
+	 */
+	public void testHitMissCounts() throws Exception {
+		ApiModelCache cache = ApiModelCache.getCache();
+		cacheType("testtype4");
+		long hits = cache.getHitCount();
+		long misses = cache.getMissCount();
+		assertNotNull("The type 'testtype4' should have been retrieved", cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "testtype4", IApiElement.TYPE));
+		assertNull("The type 'testtype5' should not exist in the cache", cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "testtype5", IApiElement.TYPE));
+		assertNull("The type 'a.testtype5$inner' should not exist in the cache", cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "a.testtype5$inner", IApiElement.TYPE));
+		assertEquals("There should have been one cache hit", hits + 1, cache.getHitCount());
+		assertEquals("There should have been two cache misses", misses + 2, cache.getMissCount());
+	}
+	
 	/**
 	 * Tests trying to remove a non-existent type from the cache with cached types
 	 * 
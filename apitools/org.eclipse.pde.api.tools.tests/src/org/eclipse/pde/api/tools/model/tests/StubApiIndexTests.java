@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.pde.api.tools.internal.model.ApiMethod;
+import org.eclipse.pde.api.tools.internal.model.ApiType;
+import org.eclipse.pde.api.tools.internal.model.StubApiIndex;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+
+/**
+ * Tests the lookups of the {@link StubApiIndex}
+ * 
+ * @since 1.0.400
+ */
+public class StubApiIndexTests extends TestCase {
+
+	private StubApiIndex fIndex = null;
+	
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void setUp() throws Exception {
+		List types = new ArrayList();
+		ApiType object = newType("java.lang.Object", Flags.AccPublic, null, null);
+		object.addMethod("toString", "()Ljava/lang/String;", null, Flags.AccPublic, null);
+		types.add(object);
+		ApiType runnable = newType("java.lang.Runnable", Flags.AccPublic | Flags.AccInterface | Flags.AccAbstract, null, null);
+		runnable.addMethod("run", "()V", null, Flags.AccPublic | Flags.AccAbstract, null);
+		types.add(runnable);
+		ApiType base = newType("a.Base", Flags.AccPublic | Flags.AccAbstract, "java.lang.Object", new String[] {"java.lang.Runnable"});
+		base.addField("BASE", null, null, Flags.AccPublic | Flags.AccStatic, null);
+		base.addMethod("create", "(I)La/Base;", null, Flags.AccPublic | Flags.AccStatic, null);
+		types.add(base);
+		ApiType handle = newType("a.Handle", Flags.AccPublic, "a.Base", null);
+		handle.addField("value", null, null, Flags.AccPublic, null);
+		handle.addMethod("invoke", "([Ljava/lang/Object;)Ljava/lang/Object;", null, Flags.AccPublic | ApiMethod.Polymorphic, null);
+		types.add(handle);
+		fIndex = StubApiIndex.create(types);
+	}
+	
+	/**
+	 * Creates a new type
+	 * @param name
+	 * @param flags
+	 * @param superclass
+	 * @param interfaces
+	 * @return a new type
+	 */
+	private ApiType newType(String name, int flags, String superclass, String[] interfaces) {
+		ApiType type = new ApiType(null, name, 'L' + name.replace('.', '/') + ';', null, flags, null, null);
+		type.setSuperclassName(superclass);
+		type.setSuperInterfaceNames(interfaces);
+		return type;
+	}
+	
+	/**
+	 * Tests that the index contains the indexed types only
+	 */
+	public void testResolveType() {
+		assertEquals("There should be 4 types in the index", 4, fIndex.getTypeCount());
+		assertTrue("java.lang.Object should resolve", fIndex.resolveType("java.lang.Object"));
+		assertTrue("a.Handle should resolve", fIndex.resolveType("a.Handle"));
+		assertFalse("java.lang.String should not resolve", fIndex.resolveType("java.lang.String"));
+		assertFalse("a member name should not resolve as a type", fIndex.resolveType("value"));
+	}
+	
+	/**
+	 * Tests that fields are resolved in the type and its superclasses
+	 */
+	public void testResolveField() {
+		assertTrue("a.Handle#value should resolve", fIndex.resolveField("a.Handle", "value"));
+		assertTrue("a.Handle#BASE should resolve from the superclass", fIndex.resolveField("a.Handle", "BASE"));
+		assertFalse("a.Base#value should not resolve", fIndex.resolveField("a.Base", "value"));
+		assertFalse("a.Handle#missing should not resolve", fIndex.resolveField("a.Handle", "missing"));
+		assertFalse("a field of a missing type should not resolve", fIndex.resolveField("a.Missing", "value"));
+	}
+	
+	/**
+	 * Tests that methods are resolved following the lookup rules of the reference kind
+	 */
+	public void testResolveMethod() {
+		assertTrue("a.Handle#toString() should resolve from java.lang.Object",
+				fIndex.resolveMethod("a.Handle", "toString", "()Ljava/lang/String;", IReference.REF_VIRTUALMETHOD));
+		assertTrue("a.Handle#create(int) should resolve from the superclass",
+				fIndex.resolveMethod("a.Handle", "create", "(I)La/Base;", IReference.REF_STATICMETHOD));
+		assertFalse("a.Handle#create(long) should not resolve",
+				fIndex.resolveMethod("a.Handle", "create", "(J)La/Base;", IReference.REF_STATICMETHOD));
+		assertTrue("a.Base#run() should resolve from the interfaces of an abstract type",
+				fIndex.resolveMethod("a.Base", "run", "()V", IReference.REF_VIRTUALMETHOD));
+		assertTrue("a.Base#run() should resolve as an interface method",
+				fIndex.resolveMethod("a.Base", "run", "()V", IReference.REF_INTERFACEMETHOD));
+		assertFalse("java.lang.Object#run() should not resolve",
+				fIndex.resolveMethod("java.lang.Object", "run", "()V", IReference.REF_VIRTUALMETHOD));
+	}
+	
+	/**
+	 * Tests that any signature resolves against a polymorphic method
+	 */
+	public void testResolvePolymorphicMethod() {
+		assertTrue("a.Handle#invoke(String) should resolve to the polymorphic method",
+				fIndex.resolveMethod("a.Handle", "invoke", "(Ljava/lang/String;)V", IReference.REF_VIRTUALMETHOD));
+		assertFalse("a.Handle#invoke(String) should not resolve as a static method",
+				fIndex.resolveMethod("a.Handle", "invoke", "(Ljava/lang/String;)V", IReference.REF_STATICMETHOD));
+	}
+}
@@ -1059,4 +1059,36 @@ public class TagScannerTests extends TestCase {
 		IApiAnnotations description = manifest.resolveAnnotations(Factory.fieldDescriptor("a.b.c.InvalidTagScanField3", "field"));
 		assertNull("there should be no annotations for field 'field'", description);
 	}
+	
+	/**
+	 * Tests that scanning several compilation units in one batch collects the same tags
+	 * as scanning them one at a time, into the description given for each unit
+	 */
+	public void testBatchScan() {
+		IApiDescription fields = newDescription();
+		IApiDescription methods = newDescription();
+		DirectoryApiTypeContainer container = new DirectoryApiTypeContainer(null, BIN_LOC.toOSString());
+		try {
+			TagScanner.newScanner().scan(
+					new CompilationUnit[] {getCompilationUnit("a/b/c/TestField1.java"), getCompilationUnit("a/b/c/TestMethod10.java")},
+					new IApiDescription[] {fields, methods},
+					container,
+					null,
+					null);
+		}
+		catch(CoreException e) {
+			fail("Error scanning in batch");
+		}
+		IApiAnnotations description = fields.resolveAnnotations(Factory.fieldDescriptor("a.b.c.TestField1", "field"));
+		assertNotNull("the description for field 'field' in TestField1 should exist", description);
+		assertEquals("There should be no reference on field 'field'", RestrictionModifiers.NO_REFERENCE, description.getRestrictions());
+		assertNull("TestMethod10 should not be in the description for TestField1",
+				fields.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod10", "one", "(Ljava/lang/String;Ljava/lang/Integer;)V")));
+		description = methods.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod10", "one", "(Ljava/lang/String;Ljava/lang/Integer;)V"));
+		assertNotNull("There should exist a description for method 'void one(String, Integer)'", description);
+		assertEquals("There should be a no reference restriction on method 'void one(String, Integer)'", RestrictionModifiers.NO_REFERENCE, description.getRestrictions());
+		description = methods.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod10", "two", "(Ljava/util/List;Ljava/lang/Runnable;)V"));
+		assertNotNull("There should exist a description for method 'void two(List, Runnable)'", description);
+		assertEquals("There should be a no override restriction on method 'void two(List, Runnable)'", RestrictionModifiers.NO_OVERRIDE, description.getRestrictions());
+	}
 }
@@ -14,6 +14,8 @@ package org.eclipse.pde.api.tools.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.pde.api.tools.builder.tests.ApiAnalysisMetricsTests;
+import org.eclipse.pde.api.tools.builder.tests.BuildStateTests;
 import org.eclipse.pde.api.tools.builder.tests.OSGiLessAnalysisTests;
 import org.eclipse.pde.api.tools.comparator.tests.AllDeltaTests;
 import org.eclipse.pde.api.tools.model.tests.ApiBaselineTests;
@@ -25,6 +27,7 @@ import org.eclipse.pde.api.tools.model.tests.CRCTests;
 import org.eclipse.pde.api.tools.model.tests.ClassFileScannerTests;
 import org.eclipse.pde.api.tools.model.tests.ComponentManifestTests;
 import org.eclipse.pde.api.tools.model.tests.ElementDescriptorTests;
+import org.eclipse.pde.api.tools.model.tests.StubApiIndexTests;
 import org.eclipse.pde.api.tools.model.tests.TagScannerTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiFilterTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiProblemFactoryTests;
@@ -34,6 +37,7 @@ import org.eclipse.pde.api.tools.search.tests.SearchEngineTests;
 import org.eclipse.pde.api.tools.search.tests.SkippedComponentTests;
 import org.eclipse.pde.api.tools.search.tests.UseSearchTests;
 import org.eclipse.pde.api.tools.util.tests.HeadlessApiBaselineManagerTests;
+import org.eclipse.pde.api.tools.util.tests.ParallelRunnerTests;
 import org.eclipse.pde.api.tools.util.tests.SignaturesTests;
 import org.eclipse.pde.api.tools.util.tests.TarEntryTests;
 import org.eclipse.pde.api.tools.util.tests.TarExceptionTests;
@@ -65,8 +69,10 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(UseSearchTests.class));
 		addTest(new TestSuite(HeadlessApiBaselineManagerTests.class));
 		addTest(new TestSuite(TagScannerTests.class));
+		addTest(new TestSuite(StubApiIndexTests.class));
 		addTest(new TestSuite(ComponentManifestTests.class));
 		addTest(new TestSuite(UtilTests.class));
+		addTest(new TestSuite(ParallelRunnerTests.class));
 		addTest(new TestSuite(SignaturesTests.class));
 		addTest(new TestSuite(ApiBaselineTests.class));
 		addTest(new TestSuite(ApiTypeContainerTests.class));
@@ -82,6 +88,8 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(ApiModelCacheTests.class));
 		addTest(new TestSuite(BadClassfileTests.class));
 		addTest(new TestSuite(CRCTests.class));
+		addTest(new TestSuite(ApiAnalysisMetricsTests.class));
+		addTest(new TestSuite(BuildStateTests.class));
 		addTest(new AllDeltaTests());
 	}	
 }
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.util.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.util.ParallelRunner;
+
+/**
+ * Tests the {@link ParallelRunner}
+ * 
+ * @since 1.0.400
+ */
+public class ParallelRunnerTests extends TestCase {
+
+	private static final int COUNT = 1000;
+	
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		ParallelRunner.setParallel(true);
+		System.getProperties().remove(ParallelRunner.PARALLEL_PROPERTY);
+		super.tearDown();
+	}
+	
+	/**
+	 * Runs work that stores a result per index and checks every index was run once
+	 * @throws CoreException
+	 */
+	private void runAll() throws CoreException {
+		final int[] results = new int[COUNT];
+		ParallelRunner.run(COUNT, new ParallelRunner.Work() {
+			public void run(int index) {
+				results[index] += index + 1;
+			}
+		}, null);
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals("the work should have run once for index " + i, i + 1, results[i]);
+		}
+	}
+	
+	/**
+	 * Tests that all of the work is run in parallel mode
+	 * @throws Exception
+	 */
+	public void testRunParallel() throws Exception {
+		ParallelRunner.setParallel(true);
+		runAll();
+	}
+	
+	/**
+	 * Tests that all of the work is run in serial mode, on the calling thread
+	 * @throws Exception
+	 */
+	public void testRunSerial() throws Exception {
+		ParallelRunner.setParallel(false);
+		runAll();
+		final Thread caller = Thread.currentThread();
+		ParallelRunner.run(10, new ParallelRunner.Work() {
+			public void run(int index) {
+				assertSame("serial work should run on the calling thread", caller, Thread.currentThread());
+			}
+		}, null);
+	}
+	
+	/**
+	 * Tests that the system property runs all of the work serially, on the calling thread
+	 * @throws Exception
+	 */
+	public void testSystemPropertySerial() throws Exception {
+		System.setProperty(ParallelRunner.PARALLEL_PROPERTY, "false");
+		assertFalse("the system property should turn parallel mode off", ParallelRunner.isParallel());
+		runAll();
+		final Thread caller = Thread.currentThread();
+		ParallelRunner.run(10, new ParallelRunner.Work() {
+			public void run(int index) {
+				assertSame("serial work should run on the calling thread", caller, Thread.currentThread());
+			}
+		}, null);
+		System.getProperties().remove(ParallelRunner.PARALLEL_PROPERTY);
+		assertTrue("parallel mode should be on without the system property", ParallelRunner.isParallel());
+	}
+	
+	/**
+	 * Tests that an error thrown on a worker thread is thrown to the caller
+	 * @throws Exception
+	 */
+	public void testError() throws Exception {
+		final Error error = new Error("failed");
+		try {
+			ParallelRunner.run(COUNT, new ParallelRunner.Work() {
+				public void run(int index) {
+					if (index == 0) {
+						throw error;
+					}
+				}
+			}, null);
+			fail("the error should have been thrown");
+		}
+		catch (Error e) {
+			assertSame("the error of the work should be thrown", error, e);
+		}
+	}
+	
+	/**
+	 * Tests that a runtime exception thrown on a worker thread is thrown to the caller
+	 * @throws Exception
+	 */
+	public void testRuntimeException() throws Exception {
+		final RuntimeException exception = new IllegalStateException("failed");
+		try {
+			ParallelRunner.run(COUNT, new ParallelRunner.Work() {
+				public void run(int index) {
+					if (index == COUNT / 2) {
+						throw exception;
+					}
+				}
+			}, null);
+			fail("the exception should have been thrown");
+		}
+		catch (RuntimeException e) {
+			assertSame("the exception of the work should be thrown", exception, e);
+		}
+	}
+	
+	/**
+	 * Tests that a failure in the work is thrown to the caller
+	 */
+	public void testFailure() {
+		try {
+			ParallelRunner.run(COUNT, new ParallelRunner.Work() {
+				public void run(int index) throws CoreException {
+					if (index == COUNT / 2) {
+						throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, "failed"));
+					}
+				}
+			}, null);
+			fail("the failure should have been thrown");
+		}
+		catch (CoreException e) {
+			assertEquals("the failure of the work should be thrown", "failed", e.getStatus().getMessage());
+		}
+	}
+	
+	/**
+	 * Tests that the work stops when the monitor is canceled
+	 * @throws Exception
+	 */
+	public void testCancel() throws Exception {
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		final int[] count = new int[1];
+		try {
+			ParallelRunner.run(COUNT, new ParallelRunner.Work() {
+				public void run(int index) {
+					synchronized (count) {
+						count[0]++;
+					}
+					monitor.setCanceled(true);
+				}
+			}, monitor);
+			fail("the cancellation should have been thrown");
+		}
+		catch (OperationCanceledException e) {
+			assertTrue("not all of the work should have run", count[0] < COUNT);
+		}
+	}
+}
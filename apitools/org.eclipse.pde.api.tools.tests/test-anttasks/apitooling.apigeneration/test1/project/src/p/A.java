@@ -0,0 +1,7 @@
+package p;
+
+/**
+ * @noextend This class is not intended to be subclassed by clients.
+ */
+public class A {
+}
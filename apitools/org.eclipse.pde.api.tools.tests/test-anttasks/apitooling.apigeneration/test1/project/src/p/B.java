@@ -0,0 +1,7 @@
+package p;
+
+/**
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ */
+public class B {
+}
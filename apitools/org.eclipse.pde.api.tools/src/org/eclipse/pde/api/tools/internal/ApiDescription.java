@@ -385,7 +385,7 @@ public class ApiDescription implements IApiDescription {
 	 * @param write <code>true</code> if setting a node, <code>false</code> if getting a node
 	 * @return manifest node or <code>null</code>
 	 */
-	protected ManifestNode findNode(IElementDescriptor element, boolean write) {
+	protected synchronized ManifestNode findNode(IElementDescriptor element, boolean write) {
 		if(DEBUG) {
 			StringBuffer buffer = new StringBuffer();
 			buffer.append("Looking up manifest node for element: "); //$NON-NLS-1$
@@ -439,7 +439,7 @@ public class ApiDescription implements IApiDescription {
 	/* (non-Javadoc)
 	 * @see org.eclipse.pde.api.tools.model.component.IApiDescription#resolveAPIDescription(java.lang.String, org.eclipse.pde.api.tools.model.component.IElementDescriptor)
 	 */
-	public IApiAnnotations resolveAnnotations(IElementDescriptor element) {
+	public synchronized IApiAnnotations resolveAnnotations(IElementDescriptor element) {
 		ManifestNode node = findNode(element, false);
 		if (node != null) {
 			return resolveAnnotations(node, element);
@@ -16,6 +16,7 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
 
@@ -29,6 +30,7 @@ public class CompilationUnit {
 
 	private String name = null;
 	private String filepath = null;
+	private String encoding = null;
 	private ICompilationUnit unit = null;
 	
 	/**
@@ -46,6 +48,18 @@ public class CompilationUnit {
 		name = file.getName();
 	}
 	
+	/**
+	 * Constructor
+	 * @param filepath the absolute path to the file. If the path points to a file that does
+	 * not exist an {@link IllegalArgumentException} is thrown
+	 * @param encoding the encoding of the file or <code>null</code> to use the platform encoding
+	 * @since 1.0.400
+	 */
+	public CompilationUnit(String filepath, String encoding) {
+		this(filepath);
+		this.encoding = encoding;
+	}
+	
 	public CompilationUnit(ICompilationUnit compilationUnit) {
 		unit = compilationUnit;
 		name = compilationUnit.getElementName();
@@ -58,6 +72,43 @@ public class CompilationUnit {
 		return name;
 	}
 	
+	/**
+	 * Returns the absolute path to the file or <code>null</code> if this compilation
+	 * unit was created from an {@link ICompilationUnit}
+	 * 
+	 * @return the absolute path to the file or <code>null</code>
+	 * @since 1.0.400
+	 */
+	public String getPath() {
+		return filepath;
+	}
+	
+	/**
+	 * Returns the encoding to use to read the contents of the file. For workspace 
+	 * compilation units this is the charset of the backing resource, otherwise it is the
+	 * encoding this compilation unit was created with or the platform encoding if none
+	 * was specified.
+	 * 
+	 * @return the encoding of the file, never <code>null</code>
+	 * @since 1.0.400
+	 */
+	public String getEncoding() {
+		if (unit != null) {
+			try {
+				IResource resource = unit.getCorrespondingResource();
+				if (resource instanceof IFile) {
+					return ((IFile) resource).getCharset();
+				}
+			} catch (CoreException e) {
+				// fall back to the platform encoding
+			}
+		}
+		else if (encoding != null) {
+			return encoding;
+		}
+		return System.getProperty("file.encoding"); //$NON-NLS-1$
+	}
+	
 	/**
 	 * Returns the input stream of the file
 	 * @return the input stream of the files' contents
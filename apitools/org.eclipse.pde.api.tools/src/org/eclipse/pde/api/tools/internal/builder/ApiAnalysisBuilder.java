@@ -82,6 +82,12 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 	 */
 	static boolean DEBUG = Util.DEBUG;
 	
+	/**
+	 * Constant used for controlling the tracing of analysis metrics in the API tool builder
+	 * @since 1.0.400
+	 */
+	static boolean METRICS = false;
+	
 	/**
 	 * Project relative path to the .settings folder
 	 * @since 1.0.1
@@ -150,6 +156,14 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 		DEBUG = debugValue || Util.DEBUG;
 	}
 	
+	/**
+	 * Method used for initializing the tracing of analysis metrics in the API tool builder
+	 * @since 1.0.400
+	 */
+	public static void setMetricsDebug(boolean debugValue) {
+		METRICS = debugValue;
+	}
+	
 	/**
 	 * The current project for which this builder was defined
 	 */
@@ -420,6 +434,9 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			try {
 				Util.updateMonitor(localMonitor, 0);
 				if(this.analyzer != null) {
+					if(METRICS && this.analyzer instanceof BaseApiAnalyzer) {
+						System.out.println("API analysis metrics for " + this.currentproject.getName() + " : " + ((BaseApiAnalyzer) this.analyzer).getMetrics().toJSON()); //$NON-NLS-1$ //$NON-NLS-2$
+					}
 					this.analyzer.dispose();
 					this.analyzer = null;
 				}
@@ -0,0 +1,406 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.builder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.pde.api.tools.internal.provisional.builder.IApiProblemDetector;
+
+/**
+ * Collects timing and count information for the phases of an API analysis run.
+ * <p>
+ * Phase times are wall-clock times in milliseconds. Phases may be nested (for example
+ * the since tag checks run as part of the compatibility checks), so phase times are not
+ * meant to be summed.
+ * </p>
+ * <p>
+ * Metrics are not thread safe, each analyzer maintains its own instance.
+ * </p>
+ *
+ * @since 1.0.400
+ */
+public final class ApiAnalysisMetrics {
+
+	/**
+	 * Phase for the binary compatibility checks
+	 */
+	public static final String PHASE_COMPATIBILITY = "compatibility"; //$NON-NLS-1$
+	/**
+	 * Phase for the @since tag checks
+	 */
+	public static final String PHASE_SINCE_TAGS = "sinceTags"; //$NON-NLS-1$
+	/**
+	 * Phase for the bundle version checks
+	 */
+	public static final String PHASE_VERSION = "version"; //$NON-NLS-1$
+	/**
+	 * Phase for the API usage scan
+	 */
+	public static final String PHASE_API_USAGE = "apiUsage"; //$NON-NLS-1$
+	/**
+	 * Phase for building the problem detectors used by the API usage scan
+	 */
+	public static final String PHASE_BUILD_DETECTORS = "apiUsage.buildDetectors"; //$NON-NLS-1$
+	/**
+	 * Phase for extracting references during the API usage scan
+	 */
+	public static final String PHASE_EXTRACT_REFERENCES = "apiUsage.extractReferences"; //$NON-NLS-1$
+	/**
+	 * Phase for resolving references during the API usage scan
+	 */
+	public static final String PHASE_RESOLVE_REFERENCES = "apiUsage.resolveReferences"; //$NON-NLS-1$
+	/**
+	 * Phase for creating problems from the problem detectors
+	 */
+	public static final String PHASE_CREATE_PROBLEMS = "apiUsage.createProblems"; //$NON-NLS-1$
+	/**
+	 * Phase for the Javadoc tag validation
+	 */
+	public static final String PHASE_TAG_VALIDATION = "tagValidation"; //$NON-NLS-1$
+	/**
+	 * Phase for the unused problem filter checks
+	 */
+	public static final String PHASE_UNUSED_FILTERS = "unusedFilters"; //$NON-NLS-1$
+	/**
+	 * Phase for the external dependency (API use scan) checks
+	 */
+	public static final String PHASE_EXTERNAL_DEPENDENCIES = "externalDependencies"; //$NON-NLS-1$
+
+	/**
+	 * Time and invocation count of a phase
+	 */
+	static class PhaseInfo {
+		long time = 0;
+		int count = 0;
+	}
+
+	/**
+	 * Reference, problem and time counts of a problem detector
+	 */
+	static class DetectorInfo {
+		long references = 0;
+		long problems = 0;
+		long time = 0;
+	}
+
+	/**
+	 * Map of phase name to {@link PhaseInfo}, sorted by name
+	 */
+	private Map fPhases = new TreeMap();
+	/**
+	 * Map of detector name to {@link DetectorInfo}, sorted by name
+	 */
+	private Map fDetectors = new TreeMap();
+	private int fComponentsAnalyzed = 0;
+	private int fTypesCompared = 0;
+	private int fTypesScanned = 0;
+	private long fReferencesExtracted = 0;
+	private long fUniqueReferences = 0;
+	private long fCacheHits = 0;
+	private long fCacheMisses = 0;
+
+	/**
+	 * Records the time spent in the given phase since the given start time.
+	 *
+	 * @param phase the name of the phase, one of the <code>PHASE_*</code> constants
+	 * @param start the time the phase started, as returned by {@link System#currentTimeMillis()}
+	 */
+	public void recordPhase(String phase, long start) {
+		PhaseInfo info = getPhase(phase);
+		info.time += System.currentTimeMillis() - start;
+		info.count++;
+	}
+
+	/**
+	 * Records that the given detector was interested in the given number of references.
+	 *
+	 * @param detector the detector
+	 * @param count the number of references the detector considered
+	 */
+	public void recordDetectorReferences(IApiProblemDetector detector, int count) {
+		getDetector(detector).references += count;
+	}
+
+	/**
+	 * Records the problems created by the given detector and the time it took to create them.
+	 *
+	 * @param detector the detector
+	 * @param count the number of problems created
+	 * @param time the time in milliseconds spent creating problems
+	 */
+	public void recordDetectorProblems(IApiProblemDetector detector, int count, long time) {
+		DetectorInfo info = getDetector(detector);
+		info.problems += count;
+		info.time += time;
+	}
+
+	/**
+	 * Records that a component has been analyzed
+	 */
+	public void componentAnalyzed() {
+		fComponentsAnalyzed++;
+	}
+
+	/**
+	 * Records that a type has been compared against the baseline
+	 */
+	public void typeCompared() {
+		fTypesCompared++;
+	}
+
+	/**
+	 * Records that a type has been scanned for references
+	 */
+	public void typeScanned() {
+		fTypesScanned++;
+	}
+
+	/**
+	 * Records the reference counts from the API usage scan
+	 *
+	 * @param extracted the number of references retained from the scan
+	 * @param unique the number of unique references that had to be resolved
+	 */
+	public void recordReferences(int extracted, int unique) {
+		fReferencesExtracted += extracted;
+		fUniqueReferences += unique;
+	}
+
+	/**
+	 * Records hits and misses in the API model cache
+	 *
+	 * @param hits
+	 * @param misses
+	 */
+	public void recordCacheAccess(long hits, long misses) {
+		fCacheHits += hits;
+		fCacheMisses += misses;
+	}
+
+	/**
+	 * Adds all of the values from the given metrics to this one
+	 *
+	 * @param other the metrics to merge into this one
+	 */
+	public void merge(ApiAnalysisMetrics other) {
+		if(other == null) {
+			return;
+		}
+		Map.Entry entry = null;
+		for (Iterator iter = other.fPhases.entrySet().iterator(); iter.hasNext();) {
+			entry = (Map.Entry) iter.next();
+			PhaseInfo source = (PhaseInfo) entry.getValue();
+			PhaseInfo target = getPhase((String) entry.getKey());
+			target.time += source.time;
+			target.count += source.count;
+		}
+		for (Iterator iter = other.fDetectors.entrySet().iterator(); iter.hasNext();) {
+			entry = (Map.Entry) iter.next();
+			DetectorInfo source = (DetectorInfo) entry.getValue();
+			DetectorInfo target = getDetector((String) entry.getKey());
+			target.references += source.references;
+			target.problems += source.problems;
+			target.time += source.time;
+		}
+		fComponentsAnalyzed += other.fComponentsAnalyzed;
+		fTypesCompared += other.fTypesCompared;
+		fTypesScanned += other.fTypesScanned;
+		fReferencesExtracted += other.fReferencesExtracted;
+		fUniqueReferences += other.fUniqueReferences;
+		fCacheHits += other.fCacheHits;
+		fCacheMisses += other.fCacheMisses;
+	}
+
+	/**
+	 * Returns the total time spent in the given phase or <code>-1</code> if the phase was
+	 * never recorded
+	 *
+	 * @param phase the phase name
+	 * @return the total time for the phase in milliseconds or <code>-1</code>
+	 */
+	public long getPhaseTime(String phase) {
+		PhaseInfo info = (PhaseInfo) fPhases.get(phase);
+		if(info == null) {
+			return -1;
+		}
+		return info.time;
+	}
+
+	/**
+	 * @return the number of types compared against the baseline
+	 */
+	public int getTypesCompared() {
+		return fTypesCompared;
+	}
+
+	/**
+	 * @return the number of types scanned for references
+	 */
+	public int getTypesScanned() {
+		return fTypesScanned;
+	}
+
+	/**
+	 * Returns the API model cache hit rate in the range <code>[0, 1]</code> or <code>-1</code>
+	 * if the cache was not accessed
+	 *
+	 * @return the cache hit rate
+	 */
+	public double getCacheHitRate() {
+		long total = fCacheHits + fCacheMisses;
+		if(total == 0) {
+			return -1;
+		}
+		return (double) fCacheHits / total;
+	}
+
+	/**
+	 * Returns the metrics as a JSON object
+	 *
+	 * @return the JSON representation of these metrics
+	 */
+	public String toJSON() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("{\n"); //$NON-NLS-1$
+		appendField(buffer, "components", fComponentsAnalyzed).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendField(buffer, "typesCompared", fTypesCompared).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendField(buffer, "typesScanned", fTypesScanned).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendField(buffer, "referencesExtracted", fReferencesExtracted).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendField(buffer, "uniqueReferences", fUniqueReferences).append(",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buffer.append("  \"modelCache\" : { "); //$NON-NLS-1$
+		buffer.append("\"hits\" : ").append(fCacheHits); //$NON-NLS-1$
+		buffer.append(", \"misses\" : ").append(fCacheMisses); //$NON-NLS-1$
+		buffer.append(" },\n"); //$NON-NLS-1$
+		buffer.append("  \"phases\" : {"); //$NON-NLS-1$
+		Map.Entry entry = null;
+		for (Iterator iter = fPhases.entrySet().iterator(); iter.hasNext();) {
+			entry = (Map.Entry) iter.next();
+			PhaseInfo info = (PhaseInfo) entry.getValue();
+			buffer.append("\n    "); //$NON-NLS-1$
+			appendString(buffer, (String) entry.getKey());
+			buffer.append(" : { \"time\" : ").append(info.time); //$NON-NLS-1$
+			buffer.append(", \"count\" : ").append(info.count).append(" }"); //$NON-NLS-1$ //$NON-NLS-2$
+			if(iter.hasNext()) {
+				buffer.append(',');
+			}
+		}
+		buffer.append("\n  },\n"); //$NON-NLS-1$
+		buffer.append("  \"detectors\" : {"); //$NON-NLS-1$
+		for (Iterator iter = fDetectors.entrySet().iterator(); iter.hasNext();) {
+			entry = (Map.Entry) iter.next();
+			DetectorInfo info = (DetectorInfo) entry.getValue();
+			buffer.append("\n    "); //$NON-NLS-1$
+			appendString(buffer, (String) entry.getKey());
+			buffer.append(" : { \"references\" : ").append(info.references); //$NON-NLS-1$
+			buffer.append(", \"problems\" : ").append(info.problems); //$NON-NLS-1$
+			buffer.append(", \"time\" : ").append(info.time).append(" }"); //$NON-NLS-1$ //$NON-NLS-2$
+			if(iter.hasNext()) {
+				buffer.append(',');
+			}
+		}
+		buffer.append("\n  }\n}\n"); //$NON-NLS-1$
+		return buffer.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return toJSON();
+	}
+
+	/**
+	 * Returns the {@link PhaseInfo} for the given phase, creating it if needed
+	 * @param phase
+	 * @return the {@link PhaseInfo}, never <code>null</code>
+	 */
+	private PhaseInfo getPhase(String phase) {
+		PhaseInfo info = (PhaseInfo) fPhases.get(phase);
+		if(info == null) {
+			info = new PhaseInfo();
+			fPhases.put(phase, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Returns the {@link DetectorInfo} for the given detector, creating it if needed
+	 * @param detector
+	 * @return the {@link DetectorInfo}, never <code>null</code>
+	 */
+	private DetectorInfo getDetector(IApiProblemDetector detector) {
+		String name = detector.getClass().getName();
+		return getDetector(name.substring(name.lastIndexOf('.') + 1));
+	}
+
+	/**
+	 * Returns the {@link DetectorInfo} for the given detector name, creating it if needed
+	 * @param name
+	 * @return the {@link DetectorInfo}, never <code>null</code>
+	 */
+	private DetectorInfo getDetector(String name) {
+		DetectorInfo info = (DetectorInfo) fDetectors.get(name);
+		if(info == null) {
+			info = new DetectorInfo();
+			fDetectors.put(name, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Appends a <code>"name" : value</code> pair
+	 * @param buffer
+	 * @param name
+	 * @param value
+	 * @return the given buffer
+	 */
+	private StringBuffer appendField(StringBuffer buffer, String name, long value) {
+		buffer.append("  "); //$NON-NLS-1$
+		appendString(buffer, name);
+		buffer.append(" : ").append(value); //$NON-NLS-1$
+		return buffer;
+	}
+
+	/**
+	 * Appends the given value as a quoted, escaped JSON string
+	 * @param buffer
+	 * @param value
+	 */
+	private void appendString(StringBuffer buffer, String value) {
+		buffer.append('"');
+		for (int i = 0, max = value.length(); i < max; i++) {
+			char c = value.charAt(i);
+			switch(c) {
+				case '"':
+				case '\\': {
+					buffer.append('\\').append(c);
+					break;
+				}
+				default: {
+					if(c < 0x20) {
+						String hex = Integer.toHexString(c);
+						buffer.append("\\u"); //$NON-NLS-1$
+						for (int j = hex.length(); j < 4; j++) {
+							buffer.append('0');
+						}
+						buffer.append(hex);
+					}
+					else {
+						buffer.append(c);
+					}
+				}
+			}
+		}
+		buffer.append('"');
+	}
+}
@@ -67,6 +67,7 @@ import org.eclipse.pde.api.tools.internal.ApiBaselineManager;
 import org.eclipse.pde.api.tools.internal.ApiFilterStore;
 import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
 import org.eclipse.pde.api.tools.internal.model.ProjectComponent;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
 import org.eclipse.pde.api.tools.internal.problems.ApiProblemFactory;
@@ -102,6 +103,7 @@ import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemFilter
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemTypes;
 import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
 import org.eclipse.pde.api.tools.internal.search.UseScanManager;
+import org.eclipse.pde.api.tools.internal.util.ParallelRunner;
 import org.eclipse.pde.api.tools.internal.util.Signatures;
 import org.eclipse.pde.api.tools.internal.util.SinceTagVersion;
 import org.eclipse.pde.api.tools.internal.util.Util;
@@ -162,6 +164,10 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 	 * The current preferences to use when the platform is not running.
 	 */
 	private Properties fPreferences = null;
+	/**
+	 * The timings and counts collected by this analyzer
+	 */
+	private ApiAnalysisMetrics fMetrics = new ApiAnalysisMetrics();
 	/**
 	 * Method used for initializing tracing in the API tool builder
 	 */
@@ -169,6 +175,17 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 		DEBUG = debugValue || Util.DEBUG;
 	}
 	
+	/**
+	 * Returns the timings and counts collected by this analyzer for all of the components
+	 * analyzed since it was created. This method never returns <code>null</code>
+	 * 
+	 * @return the metrics collected by this analyzer
+	 * @since 1.0.400
+	 */
+	public ApiAnalysisMetrics getMetrics() {
+		return fMetrics;
+	}
+	
 	/**
 	 * Constructs an API analyzer
 	 */
@@ -187,7 +204,12 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 			final IBuildContext context,
 			IProgressMonitor monitor) {
 		SubMonitor localMonitor = SubMonitor.convert(monitor, BuilderMessages.BaseApiAnalyzer_analyzing_api, 8);
+		ApiModelCache cache = ApiModelCache.getCache();
+		long cachehits = cache.getHitCount();
+		long cachemisses = cache.getMissCount();
+		long start = 0;
 		try {
+			fMetrics.componentAnalyzed();
 			fJavaProject = getJavaProject(component);
 			this.fFilterStore = filterStore;
 			this.fPreferences = preferences;
@@ -242,6 +264,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					fBuildState = getBuildState();
 				}
 				//compatibility checks
+				start = System.currentTimeMillis();
 				if(reference != null) {
 					localMonitor.subTask(NLS.bind(BuilderMessages.BaseApiAnalyzer_comparing_api_profiles, new String[] {reference.getSymbolicName(), baseline.getName()}));
 					if(bcontext.hasTypes()) {
@@ -258,8 +281,11 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					checkCompatibility(null, component, localMonitor.newChild(1));
 					Util.updateMonitor(localMonitor);
 				}
+				fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_COMPATIBILITY, start);
 				//version checks
+				start = System.currentTimeMillis();
 				checkApiComponentVersion(reference, component);
+				fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_VERSION, start);
 				Util.updateMonitor(localMonitor);
 				checkfilters = true;
 			}
@@ -273,14 +299,20 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 			checkEEDescriptions();
 			
 			//usage checks
+			start = System.currentTimeMillis();
 			checkApiUsage(bcontext, component, localMonitor.newChild(1));
+			fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_API_USAGE, start);
 			Util.updateMonitor(localMonitor);
 			//tag validation
+			start = System.currentTimeMillis();
 			checkTagValidation(bcontext, component, localMonitor.newChild(1));
+			fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_TAG_VALIDATION, start);
 			Util.updateMonitor(localMonitor);
 			if(checkfilters) {
 				//check for unused filters only if the scans have been done
+				start = System.currentTimeMillis();
 				checkUnusedProblemFilters(bcontext, component, localMonitor.newChild(1));
+				fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_UNUSED_FILTERS, start);
 			}
 			Util.updateMonitor(localMonitor);
 			
@@ -298,6 +330,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 			}
 		}
 		finally {
+			fMetrics.recordCacheAccess(cache.getHitCount() - cachehits, cache.getMissCount() - cachemisses);
 			localMonitor.done();
 		}
 	}
@@ -367,6 +400,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 				System.out.println("Checking use scan dependencies for: " + Arrays.asList(apiUseTypes)); //$NON-NLS-1$
 			}
 		}
+		long start = System.currentTimeMillis();
 		SubMonitor localmonitor = SubMonitor.convert(monitor, BuilderMessages.checking_external_dependencies, 10);
 		IReferenceDescriptor[] externalDependencies  = UseScanManager.getInstance().getExternalDependenciesFor(apiComponent, apiUseTypes, localmonitor.newChild(10));
 		try {
@@ -417,6 +451,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 			}
 		}
 		finally {
+			fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_EXTERNAL_DEPENDENCIES, start);
 			localmonitor.done();
 		}
 	}
@@ -549,12 +584,39 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 	 * @param localMonitor
 	 * @throws CoreException
 	 */
-	private void checkCompatibility(String[] changedtypes, IApiComponent reference, IApiComponent component, SubMonitor localMonitor) throws CoreException {
-		for(int i = 0; i < changedtypes.length; i++) {
-			if(changedtypes[i] == null) {
+	private void checkCompatibility(final String[] changedtypes, final IApiComponent reference, final IApiComponent component, SubMonitor localMonitor) throws CoreException {
+		if(!ParallelRunner.isParallel()) {
+			for(int i = 0; i < changedtypes.length; i++) {
+				if(changedtypes[i] == null) {
+					continue;
+				}
+				checkCompatibility(changedtypes[i], reference, component, localMonitor.newChild(1));
+				Util.updateMonitor(localMonitor);
+			}
+			return;
+		}
+		// the comparisons are independent and can run concurrently, the deltas are processed
+		// afterwards on this thread in the order of the changed types
+		final TypeComparison[] comparisons = new TypeComparison[changedtypes.length];
+		localMonitor.subTask(BuilderMessages.BaseApiAnalyzer_checking_compat);
+		ParallelRunner.run(changedtypes.length, new ParallelRunner.Work() {
+			public void run(int index) throws CoreException {
+				if(changedtypes[index] != null) {
+					comparisons[index] = compareType(changedtypes[index], reference, component, null);
+				}
+			}
+		}, localMonitor);
+		for(int i = 0; i < comparisons.length; i++) {
+			if(comparisons[i] == null) {
 				continue;
 			}
-			checkCompatibility(changedtypes[i], reference, component, localMonitor.newChild(1));
+			SubMonitor childmonitor = SubMonitor.convert(localMonitor.newChild(1), BuilderMessages.BaseApiAnalyzer_checking_compat, 2);
+			try {
+				processComparison(comparisons[i], reference, component, childmonitor);
+			}
+			finally {
+				childmonitor.done();
+			}
 			Util.updateMonitor(localMonitor);
 		}
 	}
@@ -1164,6 +1226,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 		}
 		SubMonitor localMonitor = SubMonitor.convert(monitor, MessageFormat.format(BuilderMessages.checking_api_usage, new String[] {component.getSymbolicName()}), 2);
 		ReferenceAnalyzer analyzer = new ReferenceAnalyzer();
+		analyzer.setMetrics(fMetrics);
 		try {
 			long start = System.currentTimeMillis();
 			IApiProblem[] illegal = analyzer.analyze(component, scope, localMonitor.newChild(2));
@@ -1225,6 +1288,28 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 		return NO_TYPES;
 	}
 	
+	/**
+	 * The result of comparing a type between two API components
+	 */
+	static class TypeComparison {
+		/**
+		 * The name of the compared type
+		 */
+		String typeName;
+		/**
+		 * The delta or <code>null</code> if the comparison did not produce one
+		 */
+		IDelta delta;
+		/**
+		 * If the type was found in the component and compared with the reference
+		 */
+		boolean compared = false;
+		
+		TypeComparison(String typeName) {
+			this.typeName = typeName;
+		}
+	}
+	
 	/**
 	 * Compares the given type between the two API components
 	 * @param typeName the type to check in each component
@@ -1233,6 +1318,28 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 	 * @param monitor
 	 */
 	private void checkCompatibility(final String typeName, final IApiComponent reference, final IApiComponent component, IProgressMonitor monitor) throws CoreException {
+		SubMonitor localmonitor = SubMonitor.convert(monitor, BuilderMessages.BaseApiAnalyzer_checking_compat, 4);
+		try {
+			TypeComparison comparison = compareType(typeName, reference, component, localmonitor.newChild(2));
+			processComparison(comparison, reference, component, localmonitor.newChild(2));
+		}
+		finally {
+			localmonitor.done();
+		}
+	}
+	
+	/**
+	 * Compares the given type between the two API components. This method does not modify the state
+	 * of this analyzer, so types can be compared concurrently.
+	 * 
+	 * @param typeName the type to check in each component
+	 * @param reference 
+	 * @param component
+	 * @param monitor
+	 * @return the result of the comparison, never <code>null</code>
+	 */
+	TypeComparison compareType(final String typeName, final IApiComponent reference, final IApiComponent component, IProgressMonitor monitor) throws CoreException {
+		TypeComparison comparison = new TypeComparison(typeName);
 		String id = component.getSymbolicName();
 		if (DEBUG) {
 			System.out.println("comparing components ["+reference.getSymbolicName()+"] and ["+id+"] for type ["+typeName+"]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
@@ -1247,7 +1354,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 		} catch (CoreException e) {
 			ApiPlugin.log(e);
 		}
-		SubMonitor localmonitor = SubMonitor.convert(monitor, BuilderMessages.BaseApiAnalyzer_checking_compat, 4);
+		SubMonitor localmonitor = SubMonitor.convert(monitor, BuilderMessages.BaseApiAnalyzer_checking_compat, 2);
 		try {
 			IDelta delta = null;
 			IApiComponent provider = null;
@@ -1297,7 +1404,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					try {
 						IApiType type = referenceClassFile.getStructure();
 						if(type == null) {
-							return;
+							return comparison;
 						}
 						final IApiDescription referenceApiDescription = reference.getApiDescription();
 						IApiAnnotations elementDescription = referenceApiDescription.resolveAnnotations(type.getHandle());
@@ -1312,7 +1419,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 							// if the visibility is API, we only consider public and protected types
 							if (Util.isDefault(type.getModifiers())
 										|| Flags.isPrivate(type.getModifiers())) {
-								return;
+								return comparison;
 							}
 							if (VisibilityModifiers.isAPI(visibility)) {
 								String deltaComponentID = Util.getDeltaComponentVersionsId(reference);
@@ -1336,7 +1443,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 				}
 				Util.updateMonitor(localmonitor, 1);
 			} else {
-				fBuildState.cleanup(typeName);
+				comparison.compared = true;
 				long time = System.currentTimeMillis();
 				try {
 					IApiComponent exporter = null;
@@ -1356,12 +1463,37 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					if (DEBUG) {
 						System.out.println("Time spent for " + typeName + " : " + (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 					}
-					fPendingDeltaInfos.clear();
 				}
 			}
-			if (delta == null) {
-				return;
-			}
+			comparison.delta = delta;
+			return comparison;
+		}
+		finally {
+			localmonitor.done();
+		}
+	}
+	
+	/**
+	 * Processes the delta of the given comparison, must be called on the builder thread
+	 * in the same order the types would have been compared serially
+	 * 
+	 * @param comparison the result of the comparison
+	 * @param reference 
+	 * @param component
+	 * @param monitor
+	 */
+	private void processComparison(TypeComparison comparison, final IApiComponent reference, final IApiComponent component, IProgressMonitor monitor) throws CoreException {
+		if (comparison.compared) {
+			fBuildState.cleanup(comparison.typeName);
+			fMetrics.typeCompared();
+			fPendingDeltaInfos.clear();
+		}
+		IDelta delta = comparison.delta;
+		if (delta == null) {
+			return;
+		}
+		SubMonitor localmonitor = SubMonitor.convert(monitor, BuilderMessages.BaseApiAnalyzer_checking_compat, 2);
+		try {
 			if (delta != ApiComparator.NO_DELTA) {
 				List allDeltas = Util.collectAllDeltas(delta);
 				localmonitor.subTask(BuilderMessages.BaseApiAnalyzer_processing_deltas);
@@ -1371,9 +1503,11 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 				Util.updateMonitor(localmonitor, 1);
 				if (!fPendingDeltaInfos.isEmpty()) {
 					localmonitor.subTask(BuilderMessages.BaseApiAnalyzer_checking_since_tags);
+					long start = System.currentTimeMillis();
 					for (Iterator iterator = fPendingDeltaInfos.iterator(); iterator.hasNext();) {
 						checkSinceTags((Delta) iterator.next(), component);
 					}
+					fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_SINCE_TAGS, start);
 				}
 				Util.updateMonitor(localmonitor, 1);
 			}
@@ -1432,9 +1566,11 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					Util.updateMonitor(localmonitor, 1);
 					localmonitor.subTask(BuilderMessages.BaseApiAnalyzer_checking_since_tags);
 					if (!fPendingDeltaInfos.isEmpty()) {
+						long start = System.currentTimeMillis();
 						for (Iterator iterator = fPendingDeltaInfos.iterator(); iterator.hasNext();) {
 							checkSinceTags((Delta) iterator.next(), component);
 						}
+						fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_SINCE_TAGS, start);
 					}
 					Util.updateMonitor(localmonitor, 1);
 				}
@@ -12,12 +12,17 @@ package org.eclipse.pde.api.tools.internal.builder;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +32,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.zip.CRC32;
 
 import org.eclipse.core.resources.IProject;
@@ -57,7 +63,12 @@ import org.eclipse.pde.core.build.IBuildModel;
 public class BuildState {
 	private static final IDelta[] EMPTY_DELTAS = new IDelta[0];
 	private static final String[] NO_REEXPORTED_COMPONENTS = new String[0];
-	private static final int VERSION = 0x20;
+	private static final int VERSION = 0x21;
+	/**
+	 * The number of times a saved state can be written without compacting its string table
+	 * @since 1.0.400
+	 */
+	static final int MAX_GENERATIONS = 8;
 	
 	private Map compatibleChanges;
 	private Map breakingChanges;
@@ -75,6 +86,30 @@ public class BuildState {
 	private Set apiToolingDependentProjects;
 	private long buildpathCRC = -1L;
 	
+	/**
+	 * Map of type name to the packed record of the changes for that type that were read from 
+	 * the saved state, for the types whose changes have not been modified since. Records are only 
+	 * decoded when the changes of their type are needed, and records of types that were not modified 
+	 * during a build are written back as-is, whether they have been decoded or not.
+	 * @since 1.0.400
+	 */
+	private Map encodedChanges;
+	/**
+	 * The names of the types whose packed record in {@link #encodedChanges} has been decoded
+	 * @since 1.0.400
+	 */
+	private Set decodedTypes;
+	/**
+	 * The string table the packed records in {@link #encodedChanges} refer to
+	 * @since 1.0.400
+	 */
+	private String[] strings;
+	/**
+	 * The number of times the saved state has been written without being compacted
+	 * @since 1.0.400
+	 */
+	private int generation = 0;
+	
 	/**
 	 * Constructor
 	 */
@@ -83,6 +118,58 @@ public class BuildState {
 		this.breakingChanges = new HashMap();
 		this.manifestChanges = new HashMap();
 		this.buildPropChanges = new HashMap();
+		this.encodedChanges = new HashMap();
+		this.decodedTypes = new HashSet();
+	}
+	
+	/**
+	 * Table of interned strings used to write a build state
+	 * 
+	 * @since 1.0.400
+	 */
+	static class StringTable {
+		private Map indexes = new HashMap();
+		private ArrayList strings = new ArrayList();
+		
+		/**
+		 * Constructor
+		 * @param initial the strings to start the table with, in order, or <code>null</code>
+		 */
+		StringTable(String[] initial) {
+			if (initial != null) {
+				for (int i = 0; i < initial.length; i++) {
+					this.indexes.put(initial[i], new Integer(i));
+					this.strings.add(initial[i]);
+				}
+			}
+		}
+		
+		/**
+		 * Returns the index of the given string, adding it to the table if needed
+		 * @param string
+		 * @return the index of the string in the table
+		 */
+		int intern(String string) {
+			Integer index = (Integer) this.indexes.get(string);
+			if (index == null) {
+				index = new Integer(this.strings.size());
+				this.indexes.put(string, index);
+				this.strings.add(string);
+			}
+			return index.intValue();
+		}
+		
+		/**
+		 * Writes the table to the given stream
+		 * @param out
+		 * @throws IOException
+		 */
+		void write(DataOutputStream out) throws IOException {
+			out.writeInt(this.strings.size());
+			for (Iterator iter = this.strings.iterator(); iter.hasNext();) {
+				out.writeUTF((String) iter.next());
+			}
+		}
 	}
 	
 	/**
@@ -108,15 +195,21 @@ public class BuildState {
 			// continue to read
 			BuildState state = new BuildState();
 			state.buildpathCRC = in.readLong();
+			state.generation = in.readInt();
 			int count = in.readInt();
-			// read all compatible deltas
+			// read the string table
+			String[] strings = new String[count];
 			for (int i = 0; i < count; i++) {
-				state.addCompatibleChange(readDelta(in));
+				strings[i] = in.readUTF();
 			}
+			state.strings = strings;
 			count = in.readInt();
-			// read all breaking deltas
+			// read the packed changes of each type, they are decoded on demand
 			for (int i = 0; i < count; i++) {
-				state.addBreakingChange(readDelta(in));
+				String typeName = strings[in.readInt()];
+				byte[] record = new byte[in.readInt()];
+				in.readFully(record);
+				state.encodedChanges.put(typeName, record);
 			}
 			count = in.readInt();
 			// read all re-exported component names
@@ -159,7 +252,12 @@ public class BuildState {
 	}
 	 
 	/**
-	 * Writes the given {@link BuildState} to the given output stream
+	 * Writes the given {@link BuildState} to the given output stream.
+	 * <p>
+	 * The changes of types that have not been modified since the state was read are copied as-is, 
+	 * only the changes of the other types are encoded. Every {@link #MAX_GENERATIONS} writes the string table
+	 * is compacted by encoding the changes of all types.
+	 * </p>
 	 * @param state
 	 * @param out
 	 * @throws IOException
@@ -170,20 +268,44 @@ public class BuildState {
 		out.writeInt(VERSION);
 		out.writeBoolean(true);
 		out.writeLong(state.buildpathCRC);
-		IDelta[] compatibleChangesDeltas = state.getCompatibleChanges();
-		int length = compatibleChangesDeltas.length;
-		out.writeInt(length);
-		for (int i = 0; i < length; i++) {
-			writeDelta(compatibleChangesDeltas[i], out);
-		}
-		IDelta[] breakingChangesDeltas = state.getBreakingChanges();
-		length = breakingChangesDeltas.length;
-		out.writeInt(length);
-		for (int i = 0; i < length; i++) {
-			writeDelta(breakingChangesDeltas[i], out);
+		boolean compact = state.strings == null || state.generation >= MAX_GENERATIONS;
+		if (compact) {
+			state.decodeAll();
+			state.encodedChanges.clear();
+			state.decodedTypes.clear();
+		}
+		out.writeInt(compact ? 0 : state.generation + 1);
+		StringTable table = new StringTable(compact ? null : state.strings);
+		// encode the changes of the modified types first so the string table is complete
+		TreeSet typeNames = new TreeSet(state.compatibleChanges.keySet());
+		typeNames.addAll(state.breakingChanges.keySet());
+		typeNames.removeAll(state.encodedChanges.keySet());
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		DataOutputStream recordsOut = new DataOutputStream(records);
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		for (Iterator iter = typeNames.iterator(); iter.hasNext();) {
+			String typeName = (String) iter.next();
+			record.reset();
+			writeChanges((Set) state.compatibleChanges.get(typeName), table, record);
+			writeChanges((Set) state.breakingChanges.get(typeName), table, record);
+			recordsOut.writeInt(table.intern(typeName));
+			recordsOut.writeInt(record.size());
+			record.writeTo(recordsOut);
 		}
+		Entry entry = null;
+		for (Iterator iter = state.encodedChanges.entrySet().iterator(); iter.hasNext();) {
+			entry = (Entry) iter.next();
+			byte[] bytes = (byte[]) entry.getValue();
+			recordsOut.writeInt(table.intern((String) entry.getKey()));
+			recordsOut.writeInt(bytes.length);
+			recordsOut.write(bytes);
+		}
+		recordsOut.flush();
+		table.write(out);
+		out.writeInt(typeNames.size() + state.encodedChanges.size());
+		records.writeTo(out);
 		String[] reexportedComponents = state.getReexportedComponents();
-		length = reexportedComponents.length;
+		int length = reexportedComponents.length;
 		out.writeInt(length);
 		for (int i = 0; i < length; i++) {
 			out.writeUTF(reexportedComponents[i]);
@@ -196,7 +318,7 @@ public class BuildState {
 		}
 		Map map = state.getManifestState();
 		out.writeInt(map.size());
-		Entry entry = null;
+		entry = null;
 		for (Iterator i = map.entrySet().iterator(); i.hasNext();) {
 			entry = (Entry) i.next();
 			out.writeUTF((String) entry.getKey());
@@ -213,32 +335,87 @@ public class BuildState {
 	}
 	
 	/**
-	 * Read the {@link IDelta} from the build state (input stream)
+	 * Writes the given changes of one type as packed delta records
+	 * @param changes the set of {@link IDelta}s or <code>null</code>
+	 * @param table the string table to intern strings into
+	 * @param out the stream to write to
+	 * @throws IOException
+	 */
+	private static void writeChanges(Set changes, StringTable table, OutputStream out) throws IOException {
+		if (changes == null) {
+			writeInt(0, out);
+			return;
+		}
+		writeInt(changes.size(), out);
+		for (Iterator iter = changes.iterator(); iter.hasNext();) {
+			writeDelta((IDelta) iter.next(), table, out);
+		}
+	}
+	
+	/**
+	 * Decodes the packed record of changes read for the given type, if any. The record is kept
+	 * so that it can be written back as long as the changes of the type are not modified.
+	 * @param typeName
+	 */
+	private void decode(String typeName) {
+		byte[] record = (byte[]) this.encodedChanges.get(typeName);
+		if (record == null || !this.decodedTypes.add(typeName)) {
+			return;
+		}
+		ByteArrayInputStream in = new ByteArrayInputStream(record);
+		try {
+			int count = readInt(in);
+			for (int i = 0; i < count; i++) {
+				putChange(this.compatibleChanges, readDelta(typeName, this.strings, in));
+			}
+			count = readInt(in);
+			for (int i = 0; i < count; i++) {
+				putChange(this.breakingChanges, readDelta(typeName, this.strings, in));
+			}
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			ApiPlugin.log(e);
+		}
+	}
+	
+	/**
+	 * Decodes all of the packed records of changes read from the saved state
+	 */
+	private void decodeAll() {
+		if (this.decodedTypes.size() == this.encodedChanges.size()) {
+			return;
+		}
+		String[] typeNames = (String[]) this.encodedChanges.keySet().toArray(new String[this.encodedChanges.size()]);
+		for (int i = 0; i < typeNames.length; i++) {
+			decode(typeNames[i]);
+		}
+	}
+	
+	/**
+	 * Read the {@link IDelta} from a packed record of the build state. The component id of the 
+	 * delta is not saved in the state.
+	 * @param typeName the name of the type the record is for
+	 * @param strings the string table of the build state
 	 * @param in the input stream to read the {@link IDelta} from
 	 * @return a reconstructed {@link IDelta} from the build state
 	 * @throws IOException
 	 */
-	private static IDelta readDelta(DataInputStream in) throws IOException {
+	private static IDelta readDelta(String typeName, String[] strings, InputStream in) throws IOException {
 		// decode the delta from the build state
-		boolean hasComponentID = in.readBoolean();
-		String componentID = null;
-		if (hasComponentID) in.readUTF(); // delta.getComponentID()
-		int elementType = in.readInt(); // delta.getElementType()
-		int kind = in.readInt(); // delta.getKind()
-		int flags = in.readInt(); // delta.getFlags()
-		int restrictions = in.readInt(); // delta.getRestrictions()
-		int modifiers = in.readInt(); // delta.getModifiers()
-		String typeName = in.readUTF(); // delta.getTypeName()
-		String key = in.readUTF(); // delta.getKey()
-		int length = in.readInt(); // arguments.length;
+		int elementType = readInt(in); // delta.getElementType()
+		int kind = readInt(in); // delta.getKind()
+		int flags = readInt(in); // delta.getFlags()
+		int restrictions = readInt(in); // delta.getPreviousRestrictions() and delta.getCurrentRestrictions()
+		int modifiers = readInt(in); // delta.getModifiers()
+		String key = strings[readInt(in)]; // delta.getKey()
+		int length = readInt(in); // arguments.length;
 		String[] datas = null;
 		if (length != 0) {
-			ArrayList arguments = new ArrayList();
+			datas = new String[length];
 			for (int i = 0; i < length; i++) {
-				arguments.add(in.readUTF());
+				datas[i] = strings[readInt(in)];
 			}
-			datas = new String[length];
-			arguments.toArray(datas);
 		} else {
 			datas = new String[1];
 			datas[0] = typeName.replace('$', '.');
@@ -247,39 +424,70 @@ public class BuildState {
 		int newModifiers = modifiers >>> Delta.NEW_MODIFIERS_OFFSET;
 		int previousRestrictions = restrictions >>> Delta.PREVIOUS_RESTRICTIONS_OFFSET;
 		int currentRestrictions = restrictions & Delta.RESTRICTIONS_MASK;
-		return new Delta(componentID, elementType, kind, flags, currentRestrictions, previousRestrictions, oldModifiers, newModifiers, typeName, key, datas);
+		return new Delta(null, elementType, kind, flags, currentRestrictions, previousRestrictions, oldModifiers, newModifiers, typeName, key, datas);
 	}
 	
 	/**
-	 * Writes a given {@link IDelta} to the build state (the output stream)
+	 * Writes a given {@link IDelta} as a packed record to the build state (the output stream). The
+	 * type name is not written, it is the type name the record is saved for.
 	 * @param delta the delta to write
+	 * @param table the string table to intern strings into
 	 * @param out the stream to write to
 	 * @throws IOException
 	 */
-	private static void writeDelta(IDelta delta, DataOutputStream out) throws IOException {
+	private static void writeDelta(IDelta delta, StringTable table, OutputStream out) throws IOException {
 		// encode a delta into the build state
-		// int elementType, int kind, int flags, int restrictions, int modifiers, String typeName, String key, Object data
-		String apiComponentID = delta.getComponentVersionId();
-		boolean hasComponentID = apiComponentID != null;
-		out.writeBoolean(hasComponentID);
-		if (hasComponentID) {
-			out.writeUTF(apiComponentID);
-		}
-		out.writeInt(delta.getElementType());
-		out.writeInt(delta.getKind());
-		out.writeInt(delta.getFlags());
-		out.writeInt(delta.getCurrentRestrictions());
-		int modifiers = (delta.getNewModifiers() << Delta.NEW_MODIFIERS_OFFSET) | delta.getOldModifiers();
-		out.writeInt(modifiers);
-		out.writeUTF(delta.getTypeName());
-		out.writeUTF(delta.getKey());
+		// int elementType, int kind, int flags, int restrictions, int modifiers, String key, String[] arguments
+		writeInt(delta.getElementType(), out);
+		writeInt(delta.getKind(), out);
+		writeInt(delta.getFlags(), out);
+		writeInt((delta.getPreviousRestrictions() << Delta.PREVIOUS_RESTRICTIONS_OFFSET) | delta.getCurrentRestrictions(), out);
+		writeInt((delta.getNewModifiers() << Delta.NEW_MODIFIERS_OFFSET) | delta.getOldModifiers(), out);
+		writeInt(table.intern(delta.getKey()), out);
 		String[] arguments = delta.getArguments();
 		int length = arguments.length;
-		out.writeInt(length);
+		writeInt(length, out);
 		for (int i = 0; i < length; i++) {
-			out.writeUTF(arguments[i]);
+			writeInt(table.intern(arguments[i]), out);
 		}
 	}
+	
+	/**
+	 * Writes the given int using a variable length encoding of 7 bits per byte, so that the
+	 * small values used in delta records take a single byte
+	 * @param value
+	 * @param out
+	 * @throws IOException
+	 */
+	static void writeInt(int value, OutputStream out) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			out.write((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		out.write(remaining);
+	}
+	
+	/**
+	 * Reads an int written with {@link #writeInt(int, OutputStream)}
+	 * @param in
+	 * @return the int read from the stream
+	 * @throws IOException if the end of the stream has been reached
+	 */
+	static int readInt(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.read();
+			if (b == -1) {
+				throw new EOFException();
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException(BuilderMessages.build_wrongFileFormat);
+	}
 
 	/**
 	 * Adds an {@link IDelta} for a compatible compatibility change to the current state
@@ -287,15 +495,8 @@ public class BuildState {
 	 * @param delta the {@link IDelta} to add to the state
 	 */
 	public void addCompatibleChange(IDelta delta) {
-		String typeName = delta.getTypeName();
-		Set object = (Set) this.compatibleChanges.get(typeName);
-		if (object == null) {
-			Set changes = new HashSet();
-			changes.add(delta);
-			this.compatibleChanges.put(typeName, changes);
-		} else {
-			object.add(delta);
-		}
+		modify(delta.getTypeName());
+		putChange(this.compatibleChanges, delta);
 	}
 
 	/**
@@ -304,15 +505,34 @@ public class BuildState {
 	 * @param delta the {@link IDelta} to add to the state
 	 */
 	public void addBreakingChange(IDelta delta) {
+		modify(delta.getTypeName());
+		putChange(this.breakingChanges, delta);
+	}
+	
+	/**
+	 * Decodes the changes of the given type and marks them as modified, so that they are
+	 * encoded again when the state is written
+	 * @param typeName
+	 */
+	private void modify(String typeName) {
+		decode(typeName);
+		this.encodedChanges.remove(typeName);
+		this.decodedTypes.remove(typeName);
+	}
+	
+	/**
+	 * Adds the given {@link IDelta} to the changes of its type in the given map
+	 * @param changes the map of type name to {@link Set} of {@link IDelta}s
+	 * @param delta
+	 */
+	private static void putChange(Map changes, IDelta delta) {
 		String typeName = delta.getTypeName();
-		Set object = (Set) this.breakingChanges.get(typeName);
+		Set object = (Set) changes.get(typeName);
 		if (object == null) {
-			Set changes = new HashSet();
-			changes.add(delta);
-			this.breakingChanges.put(typeName, changes);
-		} else {
-			object.add(delta);
+			object = new HashSet();
+			changes.put(typeName, object);
 		}
+		object.add(delta);
 	}
 	
 	/**
@@ -320,6 +540,7 @@ public class BuildState {
 	 * an empty array, never <code>null</code>
 	 */
 	public IDelta[] getBreakingChanges() {
+		decodeAll();
 		if (this.breakingChanges == null || this.breakingChanges.size() == 0) {
 			return EMPTY_DELTAS;
 		}
@@ -336,6 +557,7 @@ public class BuildState {
 	 * or an empty array, never <code>null</code>
 	 */
 	public IDelta[] getCompatibleChanges() {
+		decodeAll();
 		if (this.compatibleChanges == null || this.compatibleChanges.size() == 0) {
 			return EMPTY_DELTAS;
 		}
@@ -365,6 +587,8 @@ public class BuildState {
 	public void cleanup(String typeName) {
 		this.breakingChanges.remove(typeName);
 		this.compatibleChanges.remove(typeName);
+		this.encodedChanges.remove(typeName);
+		this.decodedTypes.remove(typeName);
 		this.reexportedComponents = null;
 	}
 
@@ -16,6 +16,7 @@ import java.util.List;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
+import org.eclipse.pde.api.tools.internal.model.StubApiIndex;
 import org.eclipse.pde.api.tools.internal.provisional.Factory;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAccess;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
@@ -314,6 +315,18 @@ public class Reference implements IReference {
 		// TODO: throw exception on failure
 	}
 	public boolean resolve(int eeValue) throws CoreException {
+		StubApiIndex index = StubApiComponent.getStubApiIndex(eeValue);
+		if (index != null) {
+			switch (getReferenceType()) {
+				case IReference.T_TYPE_REFERENCE:
+					return index.resolveType(getReferencedTypeName());
+				case IReference.T_FIELD_REFERENCE:
+					return index.resolveField(getReferencedTypeName(), getReferencedMemberName());
+				case IReference.T_METHOD_REFERENCE:
+					return index.resolveMethod(getReferencedTypeName(), getReferencedMemberName(), getReferencedSignature(), fKind);
+			}
+			return false;
+		}
 		IApiComponent sourceComponent = StubApiComponent.getStubApiComponent(eeValue);
 		if (sourceComponent == null) {
 			// if there is no source component for the ee value, the reference is considered as resolved
@@ -10,9 +10,11 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.builder;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -94,6 +96,9 @@ public class ReferenceAnalyzer {
 					if(type.isMemberType() || type.isLocal() || type.isAnonymous()) {
 						return;
 					}
+					if(fMetrics != null) {
+						fMetrics.typeScanned();
+					}
 					List references = type.extractReferences(fAllReferenceKinds, null);
 					// keep potential matches
 					Iterator iterator = references.iterator();
@@ -111,6 +116,9 @@ public class ReferenceAnalyzer {
 										fReferences.add(ref);
 										added = true;
 									}
+									if (fConsidered != null) {
+										((int[]) fConsidered.get(detector))[0]++;
+									}
 								}
 							}
 						}
@@ -143,6 +151,17 @@ public class ReferenceAnalyzer {
 	 * problem detectors.
 	 */
 	IApiProblemDetector[][] fIndexedDetectors;
+	
+	/**
+	 * The metrics to record to or <code>null</code> if metrics are not collected
+	 */
+	ApiAnalysisMetrics fMetrics = null;
+	
+	/**
+	 * Map of {@link IApiProblemDetector} to the number of references it considered,
+	 * only used when collecting metrics
+	 */
+	Map fConsidered = null;
 
 	/**
 	 * Method used for initializing tracing
@@ -151,6 +170,16 @@ public class ReferenceAnalyzer {
 		DEBUG = debugValue || Util.DEBUG;
 	}
 	
+	/**
+	 * Sets the metrics to record timings and counts to
+	 * 
+	 * @param metrics the metrics to record to or <code>null</code> to not collect metrics
+	 * @since 1.0.400
+	 */
+	public void setMetrics(ApiAnalysisMetrics metrics) {
+		fMetrics = metrics;
+	}
+	
 	/**
 	 * Indexes the problem detectors by the reference kinds they are interested in.
 	 * For example, a detector interested in a
@@ -235,13 +264,25 @@ public class ReferenceAnalyzer {
 	 */
 	public IApiProblem[] analyze(IApiComponent component, IApiTypeContainer scope, IProgressMonitor monitor) throws CoreException {
 		// build problem detectors
+		long start = System.currentTimeMillis();
 		IApiProblemDetector[] detectors = buildProblemDetectors(component, ProblemDetectorBuilder.K_ALL, monitor);
+		if (fMetrics != null) {
+			fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_BUILD_DETECTORS, start);
+			fConsidered = new HashMap(detectors.length);
+			for (int i = 0; i < detectors.length; i++) {
+				fConsidered.put(detectors[i], new int[1]);
+			}
+		}
 		// analyze
 		try {
 			// 1. extract references
 			SubMonitor localMonitor = SubMonitor.convert(monitor, BuilderMessages.ReferenceAnalyzer_analyzing_api, 3);
 			localMonitor.subTask(BuilderMessages.ReferenceAnalyzer_analyzing_api_checking_use); 
+			start = System.currentTimeMillis();
 			extractReferences(scope, localMonitor);
+			if (fMetrics != null) {
+				fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_EXTRACT_REFERENCES, start);
+			}
 			localMonitor.worked(1);
 			if (localMonitor.isCanceled()) {
 				return EMPTY_RESULT;
@@ -249,7 +290,12 @@ public class ReferenceAnalyzer {
 			// 2. resolve problematic references
 			localMonitor.subTask(BuilderMessages.ReferenceAnalyzer_analyzing_api_checking_use);
 			if (fReferences.size() != 0) {
-				ReferenceResolver.resolveReferences(fReferences, localMonitor);
+				start = System.currentTimeMillis();
+				int unique = ReferenceResolver.resolveReferences(fReferences, localMonitor);
+				if (fMetrics != null) {
+					fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_RESOLVE_REFERENCES, start);
+					fMetrics.recordReferences(fReferences.size(), unique);
+				}
 			}
 			localMonitor.worked(1);
 			if (localMonitor.isCanceled()) {
@@ -258,14 +304,23 @@ public class ReferenceAnalyzer {
 			// 3. create problems
 			List allProblems = new LinkedList();
 			localMonitor.subTask(BuilderMessages.ReferenceAnalyzer_analyzing_api_checking_use);
+			long phasestart = System.currentTimeMillis();
 			for (int i = 0; i < detectors.length; i++) {
 				IApiProblemDetector detector = detectors[i];
+				start = System.currentTimeMillis();
 				List problems = detector.createProblems();
+				if (fMetrics != null) {
+					fMetrics.recordDetectorReferences(detector, ((int[]) fConsidered.get(detector))[0]);
+					fMetrics.recordDetectorProblems(detector, problems.size(), System.currentTimeMillis() - start);
+				}
 				allProblems.addAll(problems);
 				if (localMonitor.isCanceled()) {
 					return EMPTY_RESULT;
 				}
 			}
+			if (fMetrics != null) {
+				fMetrics.recordPhase(ApiAnalysisMetrics.PHASE_CREATE_PROBLEMS, phasestart);
+			}
 			IApiProblem[] array = (IApiProblem[]) allProblems.toArray(new IApiProblem[allProblems.size()]);
 			localMonitor.worked(1);
 			localMonitor.done();
@@ -273,6 +328,7 @@ public class ReferenceAnalyzer {
 		} finally {
 			// clean up
 			fIndexedDetectors = null;
+			fConsidered = null;
 			fReferences.clear();
 		}
 	}
@@ -53,9 +53,10 @@ public final class ReferenceResolver {
 	 * 
 	 * @param references list of {@link IReference} to resolve
 	 * @param progress monitor
+	 * @return the number of unique references that were resolved
 	 * @throws CoreException if something goes wrong
 	 */
-	public static void resolveReferences(List/*<IReference>*/ references, IProgressMonitor monitor) throws CoreException {
+	public static int resolveReferences(List/*<IReference>*/ references, IProgressMonitor monitor) throws CoreException {
 		// sort references by target type for 'shared' resolution
 		int refcount = references.size();
 		Map sigtoref = new HashMap(refcount);
@@ -81,7 +82,7 @@ public final class ReferenceResolver {
 			}
 		}
 		if (monitor.isCanceled()) {
-			return;
+			return 0;
 		}
 		long end = System.currentTimeMillis();
 		if (DEBUG) {
@@ -105,6 +106,7 @@ public final class ReferenceResolver {
 		if (DEBUG) {
 			System.out.println("Reference resolver: resolved method overrides in " + (end - start) + "ms");  //$NON-NLS-1$//$NON-NLS-2$
 		}
+		return sigtoref.size() + methodDecls.size();
 	}
 	
 	/**
@@ -69,6 +69,12 @@ public final class ApiModelCache {
 	Cache fRootCache = null;
 	Cache fMemberTypeCache = null;
 	
+	/**
+	 * Number of type lookups answered from / missing in the cache, used for tracing
+	 */
+	long fHits = 0;
+	long fMisses = 0;
+	
 	/**
 	 * Constructor - no instantiation
 	 */
@@ -108,7 +114,7 @@ public final class ApiModelCache {
 	 * @throws CoreException if there is a problem accessing any of the {@link IApiElement} info
 	 * in order to cache it - pass the exception along.
 	 */
-	public void cacheElementInfo(IApiElement element) throws CoreException {
+	public synchronized void cacheElementInfo(IApiElement element) throws CoreException {
 		switch(element.getType()) {
 			case IApiElement.TYPE: {
 				if(fRootCache == null) {
@@ -186,7 +192,7 @@ public final class ApiModelCache {
 	 * 
 	 * @return the cached {@link IApiElement} or <code>null</code> if no such element is cached
 	 */
-	public IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if(baselineid == null || componentid == null) {
 			return null;
 		}
@@ -196,7 +202,7 @@ public final class ApiModelCache {
 					if(this.fMemberTypeCache != null) {
 						Cache mcache = (Cache) this.fMemberTypeCache.get(getCacheKey(baselineid, componentid, getRootName(identifier)));
 						if(mcache != null) {
-							return (IApiElement) mcache.get(identifier);
+							return countAccess((IApiElement) mcache.get(identifier));
 						}
 					}
 				}
@@ -206,17 +212,54 @@ public final class ApiModelCache {
 						if(compcache != null) {
 							Cache typecache = (Cache) compcache.get(componentid);
 							if(typecache != null && identifier != null) {
-								return (IApiElement) typecache.get(identifier);
+								return countAccess((IApiElement) typecache.get(identifier));
 							}
 						}
 					}
 				}
+				fMisses++;
 				break;
 			}
 		}
 		return null;
 	}
 	
+	/**
+	 * Updates the hit / miss counts for the given result of a cache lookup
+	 * 
+	 * @param element the element found in the cache or <code>null</code>
+	 * @return the given element
+	 */
+	private IApiElement countAccess(IApiElement element) {
+		if(element == null) {
+			fMisses++;
+		}
+		else {
+			fHits++;
+		}
+		return element;
+	}
+	
+	/**
+	 * Returns the number of type lookups that were answered from this cache
+	 * 
+	 * @return the number of cache hits
+	 * @since 1.0.400
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+	
+	/**
+	 * Returns the number of type lookups that were not answered from this cache
+	 * 
+	 * @return the number of cache misses
+	 * @since 1.0.400
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+	
 	/**
 	 * Removes the {@link IApiElement} from the given component (given its id) with
 	 * the given identifier and of the given type.
@@ -227,7 +270,7 @@ public final class ApiModelCache {
 	 * 
 	 * @return true if the element was removed, false otherwise
 	 */
-	public boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if(baselineid == null) {
 			return false;
 		}
@@ -302,7 +345,7 @@ public final class ApiModelCache {
 	 * @throws CoreException if there is a problem accessing any of the {@link IApiElement} info
 	 * in order to remove it from the cache - pass the exception along.
 	 */
-	public boolean removeElementInfo(IApiElement element) {
+	public synchronized boolean removeElementInfo(IApiElement element) {
 		if(element == null) {
 			return false;
 		}
@@ -336,7 +379,7 @@ public final class ApiModelCache {
 	/**
 	 * Clears out all cached information.
 	 */
-	public void flushCaches() {
+	public synchronized void flushCaches() {
 		if(fRootCache != null) {
 			fRootCache.flush();
 		}
@@ -357,7 +400,7 @@ public final class ApiModelCache {
 	 * 
 	 * @return true if the cache has no entries, false otherwise
 	 */
-	public boolean isEmpty() {
+	public synchronized boolean isEmpty() {
 		boolean empty = true;
 		if(fRootCache != null) {
 			empty &= fRootCache.isEmpty();
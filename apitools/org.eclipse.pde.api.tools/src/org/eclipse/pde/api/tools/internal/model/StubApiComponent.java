@@ -41,7 +41,10 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
  */
 public class StubApiComponent extends SystemLibraryApiComponent {
 	private static final String STUB_PATH = "/org/eclipse/pde/api/tools/internal/api_stubs/"; //$NON-NLS-1$
+	private static final String INDEX_PATH = "ee_index"; //$NON-NLS-1$
+	private static final String INDEX_EXTENSION = ".index"; //$NON-NLS-1$
 	private static Map AllSystemLibraryApiComponents;
+	private static Map AllStubApiIndexes;
 
 	public static IApiComponent getStubApiComponent(int eeValue) {
 		if (AllSystemLibraryApiComponents == null) {
@@ -61,6 +64,64 @@ public class StubApiComponent extends SystemLibraryApiComponent {
 		return component;
 	}
 
+	/**
+	 * Returns the {@link StubApiIndex} for the given execution environment or <code>null</code>
+	 * if there is no stub for the execution environment or its index could not be created.
+	 * <p>
+	 * An index shipped next to the stub archive is used if it is up to date, otherwise the index
+	 * is generated once into the state location of the API tools plug-in.
+	 * </p>
+	 * 
+	 * @param eeValue the execution environment
+	 * @return the index or <code>null</code>
+	 * @since 1.0.400
+	 */
+	public static synchronized StubApiIndex getStubApiIndex(int eeValue) {
+		if (AllStubApiIndexes == null) {
+			AllStubApiIndexes = new HashMap();
+		}
+		String name = ProfileModifiers.getName(eeValue);
+		if (AllStubApiIndexes.containsKey(name)) {
+			return (StubApiIndex) AllStubApiIndexes.get(name);
+		}
+		StubApiIndex index = null;
+		File stubFile = getFileFor(eeValue, name);
+		if (stubFile != null) {
+			String stubName = stubFile.getName();
+			String indexName = stubName.substring(0, stubName.length() - 4) + INDEX_EXTENSION;
+			File indexFile = new File(stubFile.getParentFile(), indexName);
+			try {
+				if (!isUpToDate(indexFile, stubFile)) {
+					if (!Platform.isRunning()) {
+						AllStubApiIndexes.put(name, null);
+						return null;
+					}
+					indexFile = ApiPlugin.getDefault().getStateLocation().append(INDEX_PATH).append(indexName).toFile();
+					if (!isUpToDate(indexFile, stubFile)) {
+						StubApiIndex.generate(stubFile, indexFile);
+					}
+				}
+				index = StubApiIndex.open(indexFile);
+			} catch (CoreException e) {
+				ApiPlugin.log(e);
+			} catch (IOException e) {
+				ApiPlugin.log(e);
+			}
+		}
+		AllStubApiIndexes.put(name, index);
+		return index;
+	}
+
+	/**
+	 * Returns if the given index file exists and is newer than the given stub archive
+	 * @param indexFile
+	 * @param stubFile
+	 * @return <code>true</code> if the index can be used
+	 */
+	private static boolean isUpToDate(File indexFile, File stubFile) {
+		return indexFile.exists() && indexFile.lastModified() >= stubFile.lastModified();
+	}
+
 	private static File getFileFor(int eeValue, String name) {
 		try {
 			String lname = name;
@@ -185,6 +246,9 @@ public class StubApiComponent extends SystemLibraryApiComponent {
 				apiComponent.dispose();
 			}
 		}
+		synchronized (StubApiComponent.class) {
+			AllStubApiIndexes = null;
+		}
 	}
 
 	public static boolean isInstalled(int eeValue) {
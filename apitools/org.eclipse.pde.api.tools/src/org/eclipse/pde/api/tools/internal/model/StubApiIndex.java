@@ -0,0 +1,637 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiField;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMethod;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
+import org.eclipse.pde.api.tools.internal.util.Util;
+
+/**
+ * A compact, read-only index of the types and members of an execution environment
+ * stub archive. The index is generated once from the stub archive and then memory mapped,
+ * so that references can be checked against an execution environment without opening the
+ * archive and building a type structure for every type that is looked up.
+ * <p>
+ * The index file is laid out as follows (all values are big-endian ints unless noted):
+ * <pre>
+ * header      : magic, version, string count, type count
+ * strings     : offsets of each string, strings are sorted by their UTF-8 bytes
+ * types       : name, access flags, superclass (-1 if none), interfaces offset, fields offset, methods offset
+ *               per type, sorted by name
+ * data        : strings (unsigned short length followed by UTF-8 bytes),
+ *               interfaces (count followed by names),
+ *               fields (count followed by names sorted by index),
+ *               methods (count followed by name, signature and flags sorted by name then signature)
+ * </pre>
+ * Names and signatures are stored as indexes in the sorted string table, so that after one
+ * binary search of the string table all other lookups are binary searches over ints.
+ * </p>
+ *
+ * @since 1.0.400
+ */
+public final class StubApiIndex {
+
+	/**
+	 * Magic number of an index file
+	 */
+	private static final int MAGIC = 0x45455849;
+
+	/**
+	 * Version of the index file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the header in bytes
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * Number of ints in an entry of the type table
+	 */
+	private static final int TYPE_ENTRY_INTS = 6;
+
+	/**
+	 * Number of ints in a method entry
+	 */
+	private static final int METHOD_ENTRY_INTS = 3;
+
+	/**
+	 * Signature of polymorphic methods
+	 */
+	private static final String POLYMORPHIC_SIGNATURE = "([Ljava/lang/Object;)Ljava/lang/Object;"; //$NON-NLS-1$
+
+	/**
+	 * Orders byte arrays as unsigned bytes, the ordering used for the string table
+	 */
+	private static final Comparator BYTES_COMPARATOR = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			byte[] b1 = (byte[]) o1;
+			byte[] b2 = (byte[]) o2;
+			int length = Math.min(b1.length, b2.length);
+			for (int i = 0; i < length; i++) {
+				int diff = (b1[i] & 0xFF) - (b2[i] & 0xFF);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return b1.length - b2.length;
+		}
+	};
+
+	/**
+	 * The mapped index
+	 */
+	private ByteBuffer fBuffer = null;
+
+	/**
+	 * Number of strings in the string table
+	 */
+	private int fStringCount = 0;
+
+	/**
+	 * Number of types in the type table
+	 */
+	private int fTypeCount = 0;
+
+	/**
+	 * Offset of the type table
+	 */
+	private int fTypesOffset = 0;
+
+	/**
+	 * Constructor
+	 * @param buffer the contents of an index file
+	 * @throws IOException if the buffer does not contain an index this version can read
+	 */
+	private StubApiIndex(ByteBuffer buffer) throws IOException {
+		fBuffer = buffer;
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a valid stub index"); //$NON-NLS-1$
+		}
+		fStringCount = buffer.getInt(8);
+		fTypeCount = buffer.getInt(12);
+		fTypesOffset = HEADER_SIZE + 4 * fStringCount;
+	}
+
+	/**
+	 * Memory maps the given index file.
+	 *
+	 * @param file the index file
+	 * @return the index
+	 * @throws IOException if the file could not be read or is not a valid index
+	 */
+	public static StubApiIndex open(File file) throws IOException {
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			FileChannel channel = stream.getChannel();
+			// the mapping stays valid once the channel is closed
+			return new StubApiIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Generates the index for the given stub archive.
+	 *
+	 * @param stubArchive the execution environment stub archive
+	 * @param indexFile the file to write the index to
+	 * @throws CoreException if the archive could not be read or the index could not be written
+	 */
+	public static void generate(File stubArchive, File indexFile) throws CoreException {
+		List types = new ArrayList();
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(stubArchive);
+			Enumeration entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = (ZipEntry) entries.nextElement();
+				if (entry.isDirectory()) {
+					continue;
+				}
+				InputStream stream = zipFile.getInputStream(entry);
+				try {
+					IApiType type = TypeStructureBuilder.buildStubTypeStructure(Util.getInputStreamAsByteArray(stream, -1), null, null);
+					if (type != null) {
+						types.add(type);
+					}
+				}
+				finally {
+					stream.close();
+				}
+			}
+			byte[] bytes = write(types);
+			File parent = indexFile.getParentFile();
+			if (parent != null && !parent.exists()) {
+				parent.mkdirs();
+			}
+			FileOutputStream out = new FileOutputStream(indexFile);
+			try {
+				out.write(bytes);
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, "Failed to generate the stub index for: " + stubArchive, e)); //$NON-NLS-1$
+		}
+		finally {
+			if (zipFile != null) {
+				try {
+					zipFile.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates an in-memory index for the given types.
+	 *
+	 * @param types the list of {@link IApiType}s to index
+	 * @return the index
+	 * @throws IOException if the index could not be created
+	 */
+	public static StubApiIndex create(List types) throws IOException {
+		return new StubApiIndex(ByteBuffer.wrap(write(types)));
+	}
+
+	/**
+	 * Returns the index contents for the given types
+	 *
+	 * @param types the list of {@link IApiType}s to index
+	 * @return the index contents
+	 * @throws IOException
+	 */
+	static byte[] write(List types) throws IOException {
+		// collect and sort the strings
+		TreeSet strings = new TreeSet(BYTES_COMPARATOR);
+		for (int i = 0, max = types.size(); i < max; i++) {
+			IApiType type = (IApiType) types.get(i);
+			strings.add(utf8(type.getName()));
+			if (type.getSuperclassName() != null) {
+				strings.add(utf8(type.getSuperclassName()));
+			}
+			String[] interfaces = type.getSuperInterfaceNames();
+			if (interfaces != null) {
+				for (int j = 0; j < interfaces.length; j++) {
+					strings.add(utf8(interfaces[j]));
+				}
+			}
+			IApiField[] fields = type.getFields();
+			for (int j = 0; j < fields.length; j++) {
+				strings.add(utf8(fields[j].getName()));
+			}
+			IApiMethod[] methods = type.getMethods();
+			for (int j = 0; j < methods.length; j++) {
+				strings.add(utf8(methods[j].getName()));
+				strings.add(utf8(methods[j].getSignature()));
+			}
+		}
+		byte[][] table = (byte[][]) strings.toArray(new byte[strings.size()][]);
+		final Map indexes = new HashMap(table.length);
+		for (int i = 0; i < table.length; i++) {
+			indexes.put(new String(table[i], "UTF-8"), new Integer(i)); //$NON-NLS-1$
+		}
+		// sort the types by the index of their names
+		IApiType[] sorted = (IApiType[]) types.toArray(new IApiType[types.size()]);
+		Arrays.sort(sorted, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return index(indexes, ((IApiType) o1).getName()) - index(indexes, ((IApiType) o2).getName());
+			}
+		});
+		int dataOffset = HEADER_SIZE + 4 * table.length + 4 * TYPE_ENTRY_INTS * sorted.length;
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream dataOut = new DataOutputStream(data);
+		int[] stringOffsets = new int[table.length];
+		for (int i = 0; i < table.length; i++) {
+			stringOffsets[i] = dataOffset + dataOut.size();
+			dataOut.writeShort(table[i].length);
+			dataOut.write(table[i]);
+		}
+		int[][] typeEntries = new int[sorted.length][];
+		for (int i = 0; i < sorted.length; i++) {
+			IApiType type = sorted[i];
+			int[] entry = new int[TYPE_ENTRY_INTS];
+			entry[0] = index(indexes, type.getName());
+			entry[1] = type.getModifiers();
+			entry[2] = type.getSuperclassName() == null ? -1 : index(indexes, type.getSuperclassName());
+			entry[3] = dataOffset + dataOut.size();
+			String[] interfaces = type.getSuperInterfaceNames();
+			if (interfaces == null) {
+				dataOut.writeInt(0);
+			} else {
+				dataOut.writeInt(interfaces.length);
+				for (int j = 0; j < interfaces.length; j++) {
+					dataOut.writeInt(index(indexes, interfaces[j]));
+				}
+			}
+			entry[4] = dataOffset + dataOut.size();
+			IApiField[] fields = type.getFields();
+			int[] fieldNames = new int[fields.length];
+			for (int j = 0; j < fields.length; j++) {
+				fieldNames[j] = index(indexes, fields[j].getName());
+			}
+			Arrays.sort(fieldNames);
+			dataOut.writeInt(fieldNames.length);
+			for (int j = 0; j < fieldNames.length; j++) {
+				dataOut.writeInt(fieldNames[j]);
+			}
+			entry[5] = dataOffset + dataOut.size();
+			IApiMethod[] methods = type.getMethods();
+			long[] methodKeys = new long[methods.length];
+			Map flags = new HashMap(methods.length);
+			for (int j = 0; j < methods.length; j++) {
+				methodKeys[j] = ((long) index(indexes, methods[j].getName()) << 32) | index(indexes, methods[j].getSignature());
+				flags.put(new Long(methodKeys[j]), new Integer(methods[j].getModifiers()));
+			}
+			Arrays.sort(methodKeys);
+			dataOut.writeInt(methodKeys.length);
+			for (int j = 0; j < methodKeys.length; j++) {
+				dataOut.writeInt((int) (methodKeys[j] >>> 32));
+				dataOut.writeInt((int) methodKeys[j]);
+				dataOut.writeInt(((Integer) flags.get(new Long(methodKeys[j]))).intValue());
+			}
+			typeEntries[i] = entry;
+		}
+		dataOut.flush();
+		ByteArrayOutputStream result = new ByteArrayOutputStream(dataOffset + data.size());
+		DataOutputStream out = new DataOutputStream(result);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(table.length);
+		out.writeInt(sorted.length);
+		for (int i = 0; i < stringOffsets.length; i++) {
+			out.writeInt(stringOffsets[i]);
+		}
+		for (int i = 0; i < typeEntries.length; i++) {
+			for (int j = 0; j < TYPE_ENTRY_INTS; j++) {
+				out.writeInt(typeEntries[i][j]);
+			}
+		}
+		data.writeTo(out);
+		out.flush();
+		return result.toByteArray();
+	}
+
+	/**
+	 * Returns the index of the given string in the given map
+	 * @param indexes
+	 * @param string
+	 * @return the index of the string
+	 */
+	static int index(Map indexes, String string) {
+		return ((Integer) indexes.get(string)).intValue();
+	}
+
+	/**
+	 * Returns the UTF-8 bytes of the given string
+	 * @param string
+	 * @return the UTF-8 bytes
+	 * @throws UnsupportedEncodingException
+	 */
+	static byte[] utf8(String string) throws UnsupportedEncodingException {
+		return string.getBytes("UTF-8"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the number of types in this index
+	 * @return the number of types
+	 */
+	public int getTypeCount() {
+		return fTypeCount;
+	}
+
+	/**
+	 * Returns the index of the given string in the string table or <code>-1</code>
+	 * if the string is not in the table
+	 *
+	 * @param string
+	 * @return the index of the string or <code>-1</code>
+	 */
+	private int findString(String string) {
+		byte[] key = null;
+		try {
+			key = utf8(string);
+		} catch (UnsupportedEncodingException e) {
+			return -1;
+		}
+		int low = 0;
+		int high = fStringCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareString(mid, key);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the string at the given index in the table with the given key
+	 * @param index
+	 * @param key
+	 * @return the comparison result of the string in the table against the key
+	 */
+	private int compareString(int index, byte[] key) {
+		int offset = fBuffer.getInt(HEADER_SIZE + 4 * index);
+		int length = fBuffer.getShort(offset) & 0xFFFF;
+		offset += 2;
+		int max = Math.min(length, key.length);
+		for (int i = 0; i < max; i++) {
+			int diff = (fBuffer.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return length - key.length;
+	}
+
+	/**
+	 * Returns the offset of the entry for the type with the given name index in the type table
+	 * or <code>-1</code> if there is no such type
+	 *
+	 * @param nameIndex
+	 * @return the offset of the type entry or <code>-1</code>
+	 */
+	private int findType(int nameIndex) {
+		if (nameIndex < 0) {
+			return -1;
+		}
+		int low = 0;
+		int high = fTypeCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int offset = fTypesOffset + 4 * TYPE_ENTRY_INTS * mid;
+			int value = fBuffer.getInt(offset);
+			if (value < nameIndex) {
+				low = mid + 1;
+			} else if (value > nameIndex) {
+				high = mid - 1;
+			} else {
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the flags of the method with the given name and signature indexes in the given type entry
+	 * or <code>-1</code> if the type does not declare the method
+	 *
+	 * @param typeOffset
+	 * @param nameIndex
+	 * @param signatureIndex
+	 * @return the method flags or <code>-1</code>
+	 */
+	private int findMethod(int typeOffset, int nameIndex, int signatureIndex) {
+		if (nameIndex < 0 || signatureIndex < 0) {
+			return -1;
+		}
+		int offset = fBuffer.getInt(typeOffset + 20);
+		int low = 0;
+		int high = fBuffer.getInt(offset) - 1;
+		offset += 4;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int entry = offset + 4 * METHOD_ENTRY_INTS * mid;
+			int cmp = fBuffer.getInt(entry) - nameIndex;
+			if (cmp == 0) {
+				cmp = fBuffer.getInt(entry + 4) - signatureIndex;
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return fBuffer.getInt(entry + 8);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns if the given type entry declares a field with the given name index
+	 * @param typeOffset
+	 * @param nameIndex
+	 * @return <code>true</code> if the field is declared in the type
+	 */
+	private boolean hasField(int typeOffset, int nameIndex) {
+		if (nameIndex < 0) {
+			return false;
+		}
+		int offset = fBuffer.getInt(typeOffset + 16);
+		int low = 0;
+		int high = fBuffer.getInt(offset) - 1;
+		offset += 4;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = fBuffer.getInt(offset + 4 * mid);
+			if (value < nameIndex) {
+				low = mid + 1;
+			} else if (value > nameIndex) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if the execution environment contains the type with the given name
+	 *
+	 * @param typeName the fully qualified name of the type
+	 * @return <code>true</code> if the type exists
+	 */
+	public boolean resolveType(String typeName) {
+		return findType(findString(typeName)) != -1;
+	}
+
+	/**
+	 * Returns if the given field can be resolved in the given type or its superclasses
+	 *
+	 * @param typeName the fully qualified name of the type
+	 * @param fieldName the name of the field
+	 * @return <code>true</code> if the field exists
+	 */
+	public boolean resolveField(String typeName, String fieldName) {
+		int fieldIndex = findString(fieldName);
+		if (fieldIndex < 0) {
+			return false;
+		}
+		int typeOffset = findType(findString(typeName));
+		while (typeOffset != -1) {
+			if (hasField(typeOffset, fieldIndex)) {
+				return true;
+			}
+			typeOffset = findType(fBuffer.getInt(typeOffset + 8));
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if the given method can be resolved from the given type, following
+	 * the same lookup rules as a reference of the given kind would
+	 *
+	 * @param typeName the fully qualified name of the type
+	 * @param methodName the name of the method
+	 * @param signature the signature of the method
+	 * @param referenceKind the kind of the reference, one of the <code>IReference.REF_*</code> method kinds
+	 * @return <code>true</code> if the method exists
+	 */
+	public boolean resolveMethod(String typeName, String methodName, String signature, int referenceKind) {
+		int typeOffset = findType(findString(typeName));
+		if (typeOffset == -1) {
+			return false;
+		}
+		return resolveMethod(typeOffset, findString(methodName), findString(signature), findString(POLYMORPHIC_SIGNATURE), referenceKind);
+	}
+
+	/**
+	 * Resolves the method in the type at the given offset
+	 *
+	 * @param typeOffset
+	 * @param nameIndex
+	 * @param signatureIndex
+	 * @param polymorphicIndex
+	 * @param referenceKind
+	 * @return <code>true</code> if the method exists
+	 */
+	private boolean resolveMethod(int typeOffset, int nameIndex, int signatureIndex, int polymorphicIndex, int referenceKind) {
+		if (findMethod(typeOffset, nameIndex, signatureIndex) != -1) {
+			// stubs do not contain synthetic methods
+			return true;
+		}
+		switch(referenceKind) {
+			case IReference.REF_INTERFACEMETHOD :
+				return resolveInSuperInterfaces(typeOffset, nameIndex, signatureIndex, polymorphicIndex, referenceKind);
+			case IReference.REF_STATICMETHOD : {
+				int superOffset = findType(fBuffer.getInt(typeOffset + 8));
+				return superOffset != -1 && resolveMethod(superOffset, nameIndex, signatureIndex, polymorphicIndex, referenceKind);
+			}
+			case IReference.REF_VIRTUALMETHOD :
+			case IReference.REF_SPECIALMETHOD : {
+				int flags = findMethod(typeOffset, nameIndex, polymorphicIndex);
+				if (flags != -1 && (flags & ApiMethod.Polymorphic) != 0) {
+					return true;
+				}
+				int superOffset = findType(fBuffer.getInt(typeOffset + 8));
+				if (superOffset != -1 && resolveMethod(superOffset, nameIndex, signatureIndex, polymorphicIndex, referenceKind)) {
+					return true;
+				}
+				if (Flags.isAbstract(fBuffer.getInt(typeOffset + 4))) {
+					return resolveInSuperInterfaces(typeOffset, nameIndex, signatureIndex, polymorphicIndex, referenceKind);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves the method in the super interfaces of the type at the given offset
+	 *
+	 * @param typeOffset
+	 * @param nameIndex
+	 * @param signatureIndex
+	 * @param polymorphicIndex
+	 * @param referenceKind
+	 * @return <code>true</code> if the method exists
+	 */
+	private boolean resolveInSuperInterfaces(int typeOffset, int nameIndex, int signatureIndex, int polymorphicIndex, int referenceKind) {
+		int offset = fBuffer.getInt(typeOffset + 12);
+		int count = fBuffer.getInt(offset);
+		for (int i = 0; i < count; i++) {
+			int superOffset = findType(fBuffer.getInt(offset + 4 + 4 * i));
+			if (superOffset != -1 && resolveMethod(superOffset, nameIndex, signatureIndex, polymorphicIndex, referenceKind)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
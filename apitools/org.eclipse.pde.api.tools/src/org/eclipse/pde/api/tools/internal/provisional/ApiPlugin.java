@@ -51,6 +51,7 @@ import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemTypes;
 import org.eclipse.pde.api.tools.internal.provisional.scanner.TagScanner;
 import org.eclipse.pde.api.tools.internal.util.FileManager;
+import org.eclipse.pde.api.tools.internal.util.ParallelRunner;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.prefs.BackingStoreException;
@@ -165,6 +166,8 @@ public class ApiPlugin extends Plugin implements ISaveParticipant {
 	 * Private debug options
 	 */
 	private static final String BUILDER_DEBUG = PLUGIN_ID + "/debug/builder" ; //$NON-NLS-1$
+	private static final String BUILDER_METRICS_DEBUG = PLUGIN_ID + "/debug/builder/metrics" ; //$NON-NLS-1$
+	private static final String BUILDER_SERIAL_DEBUG = PLUGIN_ID + "/debug/builder/serial" ; //$NON-NLS-1$
 	private static final String DELTA_DEBUG = PLUGIN_ID + "/debug/delta" ; //$NON-NLS-1$
 	private static final String CLASSFILE_VISITOR_DEBUG = PLUGIN_ID + "/debug/classfilevisitor" ; //$NON-NLS-1$
 	private static final String DESCRIPTOR_FRAMEWORK_DEBUG = PLUGIN_ID + "/debug/descriptor/framework" ; //$NON-NLS-1$
@@ -634,6 +637,15 @@ public class ApiPlugin extends Plugin implements ISaveParticipant {
 			String option = Platform.getDebugOption(BUILDER_DEBUG);
 			if(option != null) {
 				ApiAnalysisBuilder.setDebug(option.equalsIgnoreCase(TRUE));
+				ParallelRunner.setDebug(option.equalsIgnoreCase(TRUE));
+			}
+			option = Platform.getDebugOption(BUILDER_METRICS_DEBUG);
+			if(option != null) {
+				ApiAnalysisBuilder.setMetricsDebug(option.equalsIgnoreCase(TRUE));
+			}
+			option = Platform.getDebugOption(BUILDER_SERIAL_DEBUG);
+			if(option != null) {
+				ParallelRunner.setParallel(!option.equalsIgnoreCase(TRUE));
 			}
 			option = Platform.getDebugOption(DELTA_DEBUG);
 			if(option != null) {
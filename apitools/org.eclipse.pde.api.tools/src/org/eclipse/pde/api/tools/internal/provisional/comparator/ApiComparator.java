@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
@@ -34,6 +36,7 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiScope;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.ParallelRunner;
 import org.eclipse.pde.api.tools.internal.util.Util;
 import org.osgi.framework.Version;
 
@@ -764,6 +767,7 @@ public class ApiComparator {
 		}
 		final IApiDescription apiDescription = component.getApiDescription();
 		final IApiDescription apiDescription2 = component2.getApiDescription();
+		final List comparators = new ArrayList();
 		Util.updateMonitor(localmonitor, 1);
 		if (typeRootContainers != null) {
 			for (int i = 0, max = typeRootContainers.length; i < max; i++) {
@@ -909,15 +913,11 @@ public class ApiComparator {
 									}
 									typeRootBaseLineNames.add(typeName);
 									ClassFileComparator comparator = new ClassFileComparator(typeDescriptor, typeRoot2, component, provider, referenceBaseline, baseline, visibilityModifiers);
-									IDelta delta = comparator.getDelta(localmonitor.newChild(1));
-									if (DEBUG) {
-										IStatus status = comparator.getStatus();
-										if(status != null) {
-											ApiPlugin.log(status);
-										}
-									}
-									if (delta != null && delta != NO_DELTA) {
-										globalDelta.add(delta);
+									if (ParallelRunner.isParallel()) {
+										// compared after all types have been visited
+										comparators.add(comparator);
+									} else {
+										addTypeDelta(globalDelta, comparator, comparator.getDelta(localmonitor.newChild(1)));
 									}
 								}
 								Util.updateMonitor(localmonitor);
@@ -931,6 +931,19 @@ public class ApiComparator {
 				}
 			}
 		}
+		if (!comparators.isEmpty()) {
+			// the class file comparators are independent, their deltas are added in the order the types were visited
+			final ClassFileComparator[] allComparators = (ClassFileComparator[]) comparators.toArray(new ClassFileComparator[comparators.size()]);
+			final IDelta[] deltas = new IDelta[allComparators.length];
+			ParallelRunner.run(allComparators.length, new ParallelRunner.Work() {
+				public void run(int index) {
+					deltas[index] = allComparators[index].getDelta(null);
+				}
+			}, localmonitor);
+			for (int i = 0; i < allComparators.length; i++) {
+				addTypeDelta(globalDelta, allComparators[i], deltas[i]);
+			}
+		}
 		Util.updateMonitor(localmonitor, 1);
 		IRequiredComponentDescription[] requiredComponents = component.getRequiredComponents();
 		int length = requiredComponents.length;
@@ -1184,6 +1197,25 @@ public class ApiComparator {
 		return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
 	}
 
+	/**
+	 * Adds the delta computed by the given comparator to the global delta
+	 * 
+	 * @param globalDelta
+	 * @param comparator
+	 * @param delta the delta computed by the comparator
+	 */
+	private static void addTypeDelta(Delta globalDelta, ClassFileComparator comparator, IDelta delta) {
+		if (DEBUG) {
+			IStatus status = comparator.getStatus();
+			if(status != null) {
+				ApiPlugin.log(status);
+			}
+		}
+		if (delta != null && delta != NO_DELTA) {
+			globalDelta.add(delta);
+		}
+	}
+
 	/**
 	 * Method used for initializing tracing in the API comparator
 	 */
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,7 @@ import java.util.Map;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.Flags;
@@ -36,6 +38,7 @@ import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
 import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Name;
@@ -460,6 +463,11 @@ public class TagScanner {
 		
 	}
 
+	/**
+	 * Empty class path / source path / binding key listing used when parsing source files in batch
+	 */
+	private static final String[] NO_ENTRIES = new String[0];
+	
 	/**
 	 * The singleton instance of the scanner
 	 */
@@ -519,7 +527,7 @@ public class TagScanner {
 		InputStream inputStream = null;
 		try {
 			inputStream = source.getInputStream();
-			parser.setSource(Util.getInputStreamAsCharArray(inputStream, -1, System.getProperty("file.encoding"))); //$NON-NLS-1$
+			parser.setSource(Util.getInputStreamAsCharArray(inputStream, -1, source.getEncoding()));
 		} catch (FileNotFoundException e) {
 			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID,
 					MessageFormat.format("Compilation unit source not found: {0}", new String[]{source.getName()}), e)); //$NON-NLS-1$
@@ -539,17 +547,108 @@ public class TagScanner {
 			}
 		}
 		Util.updateMonitor(localmonitor);
-		Map loptions = options;
-		if(loptions == null) {
-			loptions = JavaCore.getOptions();
-		}
-		loptions.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
-		parser.setCompilerOptions(loptions);
+		parser.setCompilerOptions(getCompilerOptions(options));
+		// tags are only read from Javadoc of types and members, method bodies are never visited
+		parser.setIgnoreMethodBodies(true);
 		org.eclipse.jdt.core.dom.CompilationUnit cunit = (org.eclipse.jdt.core.dom.CompilationUnit) parser.createAST(localmonitor.newChild(1));
 		Visitor visitor = new Visitor(description, container);
 		cunit.accept(visitor);
 		if (visitor.getException() != null) {
 			throw visitor.getException();
 		}
-	}	
+	}
+	
+	/**
+	 * Scans the given source {@linkplain CompilationUnit}s for contributed API javadoc tags.
+	 * <p>
+	 * All of the compilation units backed by a file on disk are parsed in a single {@link ASTParser}
+	 * session, other compilation units are scanned one at a time as with 
+	 * {@link #scan(CompilationUnit, IApiDescription, IApiTypeContainer, Map, IProgressMonitor)}.
+	 * A failure to scan one compilation unit does not prevent the remaining units from being scanned.
+	 * </p>
+	 * 
+	 * @param sources the source files to scan for tags
+	 * @param descriptions the API descriptions to annotate with any new tag rules found, where
+	 *  <code>descriptions[i]</code> is annotated with the tags found in <code>sources[i]</code>. The
+	 *  same description can be used for many sources.
+	 * @param container optional class file container containing the class files for the given sources
+	 * 	that can be used to resolve method signatures if required (for tags on methods). If 
+	 * 	not provided (<code>null</code>), method signatures will be unresolved.
+	 * @param options a map of Java compiler options to use when creating the ASTs to scan
+	 *  or <code>null</code> if default options should be used 
+	 * @param monitor
+	 * 
+	 * @throws CoreException if any of the compilation units could not be scanned
+	 * @since 1.0.400
+	 */
+	public void scan(CompilationUnit[] sources, IApiDescription[] descriptions, final IApiTypeContainer container, Map options, IProgressMonitor monitor) throws CoreException {
+		SubMonitor localmonitor = SubMonitor.convert(monitor, sources.length);
+		final MultiStatus status = new MultiStatus(ApiPlugin.PLUGIN_ID, 0, "Errors scanning compilation units for API tags", null); //$NON-NLS-1$
+		final Map descriptionsByPath = new HashMap(sources.length);
+		List paths = new ArrayList(sources.length);
+		List encodings = new ArrayList(sources.length);
+		String path = null;
+		for (int i = 0; i < sources.length; i++) {
+			path = sources[i].getPath();
+			if (path == null) {
+				try {
+					scan(sources[i], descriptions[i], container, options, localmonitor.newChild(1));
+				} catch (CoreException e) {
+					status.add(e.getStatus());
+				}
+				continue;
+			}
+			descriptionsByPath.put(path, descriptions[i]);
+			paths.add(path);
+			encodings.add(sources[i].getEncoding());
+		}
+		if (!paths.isEmpty()) {
+			long start = System.currentTimeMillis();
+			ASTParser parser = ASTParser.newParser(AST.JLS4);
+			parser.setCompilerOptions(getCompilerOptions(options));
+			parser.setIgnoreMethodBodies(true);
+			parser.setEnvironment(NO_ENTRIES, NO_ENTRIES, null, false);
+			FileASTRequestor requestor = new FileASTRequestor() {
+				public void acceptAST(String sourceFilePath, org.eclipse.jdt.core.dom.CompilationUnit ast) {
+					IApiDescription description = (IApiDescription) descriptionsByPath.get(sourceFilePath);
+					if (description == null) {
+						return;
+					}
+					Visitor visitor = new Visitor(description, container);
+					ast.accept(visitor);
+					if (visitor.getException() != null) {
+						status.add(visitor.getException().getStatus());
+					}
+				}
+			};
+			parser.createASTs(
+					(String[]) paths.toArray(new String[paths.size()]), 
+					(String[]) encodings.toArray(new String[encodings.size()]), 
+					NO_ENTRIES, 
+					requestor, 
+					localmonitor.newChild(paths.size()));
+			if (DEBUG) {
+				System.out.println("Tag scanner: scanned " + paths.size() + " compilation units in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		if (!status.isOK()) {
+			throw new CoreException(status);
+		}
+	}
+	
+	/**
+	 * Returns the compiler options to use when creating ASTs to scan
+	 * 
+	 * @param options the options specified by the caller or <code>null</code> to use the
+	 *  default options
+	 * @return the compiler options with Javadoc support enabled
+	 */
+	private Map getCompilerOptions(Map options) {
+		Map loptions = options;
+		if(loptions == null) {
+			loptions = JavaCore.getOptions();
+		}
+		loptions.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
+		return loptions;
+	}
 }
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.util;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+
+/**
+ * Runs independent, indexed units of work on a small pool of worker threads.
+ * <p>
+ * Results are expected to be stored by index by the given {@link Work}, so that callers
+ * can consume them in a deterministic order once {@link #run(int, Work, IProgressMonitor)}
+ * returns. When parallel execution is disabled, or there is nothing to gain from it,
+ * the work is run serially on the calling thread.
+ * </p>
+ * <p>
+ * Parallel execution can be turned off for the builder and the Ant tasks alike by setting the
+ * system property {@value #PARALLEL_PROPERTY} to <code>false</code>.
+ * </p>
+ * <p>
+ * This is not the runner of <code>org.eclipse.pde.core</code> because API tools also compares
+ * and analyzes components outside of a running framework, for example from the Ant tasks, where
+ * PDE core and its logging are not available.
+ * </p>
+ *
+ * @since 1.0.400
+ */
+public final class ParallelRunner {
+
+	/**
+	 * A unit of work that can be run for any index
+	 */
+	public interface Work {
+		/**
+		 * Runs the work for the given index
+		 * @param index
+		 * @throws CoreException
+		 */
+		public void run(int index) throws CoreException;
+	}
+
+	/**
+	 * System property that turns off parallel execution when set to <code>false</code>
+	 */
+	public static final String PARALLEL_PROPERTY = "org.eclipse.pde.api.tools.parallel"; //$NON-NLS-1$
+
+	/**
+	 * Constant used for controlling tracing in the runner
+	 */
+	private static boolean DEBUG = Util.DEBUG;
+
+	/**
+	 * If work can be run in parallel
+	 */
+	private static boolean fgParallel = true;
+
+	/**
+	 * Constructor
+	 * private - no instantiation
+	 */
+	private ParallelRunner() {}
+
+	/**
+	 * Method used for initializing tracing in the runner
+	 */
+	public static void setDebug(boolean debugValue) {
+		DEBUG = debugValue || Util.DEBUG;
+	}
+
+	/**
+	 * Sets if work can be run in parallel. When set to <code>false</code> all work is run
+	 * serially on the calling thread.
+	 *
+	 * @param parallel
+	 */
+	public static void setParallel(boolean parallel) {
+		fgParallel = parallel;
+	}
+
+	/**
+	 * Returns if work can be run in parallel, which is the case unless it was turned off with
+	 * {@link #setParallel(boolean)} or with the {@value #PARALLEL_PROPERTY} system property
+	 * @return <code>true</code> if work can be run in parallel
+	 */
+	public static boolean isParallel() {
+		return fgParallel && !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(PARALLEL_PROPERTY));
+	}
+
+	/**
+	 * Runs the given work for every index in <code>[0, count)</code> and returns once all of
+	 * the work is done. If the work fails for an index, the remaining work is abandoned and the first
+	 * failure is thrown, including runtime exceptions and errors thrown on a worker thread.
+	 *
+	 * @param count the number of indexes to run the work for
+	 * @param work the work to run
+	 * @param monitor the monitor to check for cancellation or <code>null</code>
+	 * @throws CoreException the first exception thrown by the work
+	 * @throws OperationCanceledException if the monitor was canceled
+	 */
+	public static void run(final int count, final Work work, final IProgressMonitor monitor) throws CoreException {
+		int threads = Math.min(count, Runtime.getRuntime().availableProcessors());
+		if (!isParallel() || threads < 2) {
+			for (int i = 0; i < count; i++) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				work.run(i);
+			}
+			return;
+		}
+		long start = System.currentTimeMillis();
+		final int[] next = new int[] {0};
+		final CoreException[] failure = new CoreException[1];
+		final Throwable[] error = new Throwable[1];
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread("API Tools worker " + i) { //$NON-NLS-1$
+				public void run() {
+					while (true) {
+						int index = 0;
+						synchronized (next) {
+							if (next[0] >= count || failure[0] != null || error[0] != null || (monitor != null && monitor.isCanceled())) {
+								return;
+							}
+							index = next[0]++;
+						}
+						try {
+							work.run(index);
+						} catch (CoreException e) {
+							synchronized (next) {
+								if (failure[0] == null) {
+									failure[0] = e;
+								}
+							}
+						} catch (Throwable e) {
+							// errors are recorded too, the caller must not miss the work of a dead worker
+							synchronized (next) {
+								if (error[0] == null) {
+									error[0] = e;
+								}
+							}
+						}
+					}
+				}
+			};
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+		boolean interrupted = false;
+		for (int i = 0; i < threads; i++) {
+			while (workers[i].isAlive()) {
+				try {
+					workers[i].join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (DEBUG) {
+			System.out.println("Ran " + count + " units of work on " + threads + " threads in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		if (error[0] != null) {
+			ApiPlugin.log(error[0]);
+			if (error[0] instanceof Error) {
+				throw (Error) error[0];
+			}
+			if (error[0] instanceof RuntimeException) {
+				throw (RuntimeException) error[0];
+			}
+			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, error[0].getMessage(), error[0]));
+		}
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+}
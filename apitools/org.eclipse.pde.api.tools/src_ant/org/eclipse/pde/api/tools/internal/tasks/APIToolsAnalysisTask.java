@@ -36,6 +36,7 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
 import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisMetrics;
 import org.eclipse.pde.api.tools.internal.builder.BaseApiAnalyzer;
 import org.eclipse.pde.api.tools.internal.builder.BuildContext;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
@@ -683,6 +684,7 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 		Map allProblems = new HashMap();
 		List allNonApiBundles = new ArrayList();
 		List allApiBundles = new ArrayList();
+		ApiAnalysisMetrics allMetrics = new ApiAnalysisMetrics();
 		try {
 			IApiComponent[] apiComponents = currentBaseline.getApiComponents();
 			int length = apiComponents.length;
@@ -712,6 +714,7 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 					ApiPlugin.log(e);
 					throw e;
 				} finally {
+					allMetrics.merge(analyzer.getMetrics());
 					analyzer.dispose();
 				}
 			}
@@ -776,6 +779,7 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 
 		try {
 			dumpReport(summaries, allNonApiBundles);
+			saveMetrics(allMetrics);
 		} catch(RuntimeException e) {
 			ApiPlugin.log(e);
 			throw e;
@@ -896,6 +900,18 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 	public void setDebug(String debugValue) {
 		this.debug = Boolean.toString(true).equals(debugValue); 
 	}
+	/**
+	 * Set the metrics value.
+	 * <p>When set to <code>true</code>, the per-phase and per-detector timings and counts of the
+	 * analysis are written to a file called "metrics.json" in the report location.</p>
+	 * <p>The possible values are: <code>true</code>, <code>false</code></p>
+	 * <p>Default is <code>false</code>.</p>
+	 *
+	 * @param metricsValue the given metrics value
+	 */
+	public void setMetrics(String metricsValue) {
+		this.metrics = Boolean.toString(true).equals(metricsValue); 
+	}
 	/**
 	 * Set the execution environment file to use.
 	 * <p>By default, an execution environment file corresponding to a JavaSE-1.6 execution environment
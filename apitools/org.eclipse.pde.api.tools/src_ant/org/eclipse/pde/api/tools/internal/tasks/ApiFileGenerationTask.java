@@ -49,6 +49,7 @@ import org.eclipse.pde.api.tools.internal.model.ArchiveApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.model.CompositeApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.model.DirectoryApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.scanner.TagScanner;
 import org.eclipse.pde.api.tools.internal.util.Util;
@@ -109,6 +110,8 @@ public class ApiFileGenerationTask extends Task {
 	String binaryLocations;
 	String manifests;
 	String sourceLocations;
+	String encoding;
+	String cacheLocation;
 	boolean allowNonApiProject = false;
 	Set apiPackages = new HashSet(0);
 
@@ -202,6 +205,28 @@ public class ApiFileGenerationTask extends Task {
 	public void setExtraSourceLocations(String sourceLocations) {
 		this.sourceLocations = sourceLocations;
 	}
+	/**
+	 * Set the encoding of the source files.
+	 * 
+	 * <p>Default is the platform encoding.</p>
+	 *
+	 * @param encoding the given source encoding
+	 */
+	public void setEncoding(String encoding) {
+		this.encoding = encoding;
+	}
+	/**
+	 * Set the tag scan cache location.
+	 * 
+	 * <br><br>This is the file in which the restrictions found in each source file are kept between builds,
+	 * keyed by the hash of the source file contents, compiler options and binary locations. Source files that have not changed are not parsed again.
+	 * <br><br>The location is set using an absolute path. If it is not set, no cache is used.
+	 *
+	 * @param cacheLocation the given cache location
+	 */
+	public void setCacheLocation(String cacheLocation) {
+		this.cacheLocation = cacheLocation;
+	}
 	/**
 	 * Execute the ant task
 	 */
@@ -395,24 +420,73 @@ public class ApiFileGenerationTask extends Task {
 		if (allFiles != null && allFiles.length != 0) {
 			Map options = JavaCore.getOptions();
 			options.put(JavaCore.COMPILER_COMPLIANCE, resolveCompliance(manifestMap));
-			CompilationUnit unit = null;
+			TagScanCache cache = null;
+			if (this.cacheLocation != null) {
+				cache = new TagScanCache(new File(this.cacheLocation), options, this.binaryLocations);
+				cache.load();
+			}
+			List units = new ArrayList(allFiles.length);
+			List descriptions = new ArrayList(allFiles.length);
+			List hashes = new ArrayList(allFiles.length);
 			for (int i = 0, max = allFiles.length; i < max; i++) {
-				unit = new CompilationUnit(allFiles[i].getAbsolutePath());
+				CompilationUnit unit = new CompilationUnit(allFiles[i].getAbsolutePath(), this.encoding);
 				if (this.debug) {
 					System.out.println("Unit name[" + i + "] : " + unit.getName()); //$NON-NLS-1$ //$NON-NLS-2$
 				}
+				if (cache != null) {
+					String hash = cache.hash(allFiles[i]);
+					if (hash != null) {
+						if (cache.apply(hash, apiDescription)) {
+							continue;
+						}
+						hashes.add(hash);
+						descriptions.add(new ApiDescription(this.projectName));
+					} else {
+						hashes.add(null);
+						descriptions.add(apiDescription);
+					}
+				} else {
+					descriptions.add(apiDescription);
+				}
+				units.add(unit);
+			}
+			if (this.debug) {
+				System.out.println("Units to scan : " + units.size() + " of " + allFiles.length); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			boolean scanned = false;
+			try {
+				tagScanner.scan(
+						(CompilationUnit[]) units.toArray(new CompilationUnit[units.size()]),
+						(IApiDescription[]) descriptions.toArray(new IApiDescription[descriptions.size()]),
+						classFileContainer,
+						options,
+						null);
+				scanned = true;
+			} catch (CoreException e) {
+				ApiPlugin.log(e);
+			} finally {
 				try {
-					tagScanner.scan(unit, apiDescription, classFileContainer, options, null);
-				} catch (CoreException e) {
-					ApiPlugin.log(e);
-				} finally {
-					try {
-						if (classFileContainer != null) {
-							classFileContainer.close();
+					if (classFileContainer != null) {
+						classFileContainer.close();
+					}
+				} 
+				catch (CoreException e) {}
+			}
+			if (cache != null) {
+				for (int i = 0, max = hashes.size(); i < max; i++) {
+					String hash = (String) hashes.get(i);
+					if (hash != null) {
+						ApiDescription description = (ApiDescription) descriptions.get(i);
+						if (scanned) {
+							cache.put(hash, description);
+							cache.apply(hash, apiDescription);
+						} else {
+							// do not cache the restrictions of a failed scan, they may be incomplete
+							cache.copy(description, apiDescription);
 						}
-					} 
-					catch (CoreException e) {}
+					}
 				}
+				cache.save();
 			}
 		}
 		try {
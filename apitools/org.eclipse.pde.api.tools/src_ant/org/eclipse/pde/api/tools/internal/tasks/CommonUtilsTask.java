@@ -21,6 +21,7 @@ import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisMetrics;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
@@ -44,6 +45,7 @@ public abstract class CommonUtilsTask extends Task {
 	protected static final String REFERENCE_BASELINE_NAME = "reference_baseline"; //$NON-NLS-1$
 
 	protected boolean debug;
+	protected boolean metrics;
 	protected String eeFileLocation;
 	protected String currentBaselineLocation;
 	protected String referenceBaselineLocation;
@@ -206,6 +208,18 @@ public abstract class CommonUtilsTask extends Task {
 		}
 	}
 	
+	/**
+	 * Saves the given analysis metrics as a JSON file called <code>metrics.json</code>
+	 * in the report location, if metrics have been requested for the task.
+	 * 
+	 * @param analysisMetrics the metrics to save
+	 */
+	protected void saveMetrics(ApiAnalysisMetrics analysisMetrics) {
+		if (this.metrics) {
+			saveReport(null, analysisMetrics.toJSON(), "metrics.json"); //$NON-NLS-1$
+		}
+	}
+	
 	/**
 	 * Parses and returns patterns as an array of Strings or <code>null</code> if none.
 	 * 
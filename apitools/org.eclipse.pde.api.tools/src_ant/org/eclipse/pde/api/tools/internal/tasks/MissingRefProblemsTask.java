@@ -39,6 +39,7 @@ import org.eclipse.osgi.service.resolver.ResolverError;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
 import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisMetrics;
 import org.eclipse.pde.api.tools.internal.builder.BaseApiAnalyzer;
 import org.eclipse.pde.api.tools.internal.builder.BuildContext;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
@@ -162,6 +163,7 @@ public class MissingRefProblemsTask extends CommonUtilsTask {
 		}
 
 		Map allProblems = new HashMap();
+		ApiAnalysisMetrics allMetrics = new ApiAnalysisMetrics();
 		try {
 			IApiComponent[] apiComponents = profile.getApiComponents();
 			int length = apiComponents.length;
@@ -191,6 +193,7 @@ public class MissingRefProblemsTask extends CommonUtilsTask {
 				} catch (CoreException e) {
 					ApiPlugin.log(e);
 				} finally {
+					allMetrics.merge(analyzer.getMetrics());
 					analyzer.dispose();
 				}
 			}
@@ -209,6 +212,7 @@ public class MissingRefProblemsTask extends CommonUtilsTask {
 		try {
 			dumpReport(summaries);
 			reportNotSearched(notsearched);
+			saveMetrics(allMetrics);
 		} catch (RuntimeException e) {
 			ApiPlugin.log(e);
 			throw e;
@@ -449,6 +453,23 @@ public class MissingRefProblemsTask extends CommonUtilsTask {
 		super.debug = debugValue;
 	}
 
+	/**
+	 * Set the metrics value.
+	 * <p>
+	 * When set to <code>true</code>, the timings and counts of the analysis
+	 * are written to a file called "metrics.json" in the report location.
+	 * </p>
+	 * <p>
+	 * Default is <code>false</code>.
+	 * </p>
+	 * 
+	 * @param metricsValue
+	 *            the given metrics value
+	 */
+	public void setMetrics(boolean metricsValue) {
+		super.metrics = metricsValue;
+	}
+
 	/**
 	 * Set the exclude list location.
 	 * 
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.tasks;
+
+import java.io.File;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Task;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.pde.api.tools.internal.model.StubApiIndex;
+
+/**
+ * Ant task to generate the member index of an execution environment stub archive
+ * during the Eclipse build. The index is written next to the stub archive, with the
+ * <code>.index</code> extension, where it is picked up by the system API detector.
+ * 
+ * @since 1.0.400
+ */
+public class StubIndexGenerationTask extends Task {
+
+	boolean debug;
+	String stubs;
+
+	/**
+	 * Set the stub archive location.
+	 * 
+	 * <br><br>This is either a stub archive (for example <code>J2SE-1.5.zip</code>) or a folder that contains
+	 * stub archives, in which case an index is generated for each of them.
+	 * <br><br>The location is set using an absolute path.
+	 *
+	 * @param stubs the given stub location
+	 */
+	public void setStubs(String stubs) {
+		this.stubs = stubs;
+	}
+	/**
+	 * Set the debug value.
+	 * <p>The possible values are: <code>true</code>, <code>false</code></p>
+	 * <p>Default is <code>false</code>.</p>
+	 *
+	 * @param debugValue the given debug value
+	 */
+	public void setDebug(String debugValue) {
+		this.debug = Boolean.toString(true).equals(debugValue); 
+	}
+	/**
+	 * Execute the ant task
+	 */
+	public void execute() throws BuildException {
+		if (this.stubs == null) {
+			throw new BuildException(NLS.bind(Messages.fileDoesnotExist, this.stubs));
+		}
+		File location = new File(this.stubs);
+		if (!location.exists()) {
+			throw new BuildException(NLS.bind(Messages.fileDoesnotExist, this.stubs));
+		}
+		File[] archives = null;
+		if (location.isDirectory()) {
+			archives = location.listFiles();
+		} else {
+			archives = new File[] { location };
+		}
+		for (int i = 0; i < archives.length; i++) {
+			File archive = archives[i];
+			String name = archive.getName();
+			if (!archive.isFile() || !name.endsWith(".zip")) { //$NON-NLS-1$
+				continue;
+			}
+			File index = new File(archive.getParentFile(), name.substring(0, name.length() - 4) + ".index"); //$NON-NLS-1$
+			long time = 0;
+			if (this.debug) {
+				time = System.currentTimeMillis();
+			}
+			try {
+				StubApiIndex.generate(archive, index);
+			} catch (CoreException e) {
+				throw new BuildException(NLS.bind(Messages.couldNotCreate, index.getAbsolutePath()), e);
+			}
+			if (this.debug) {
+				System.out.println("Generated " + index.getAbsolutePath() + " in " + (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+	}
+}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.tasks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.pde.api.tools.internal.ApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.ApiDescriptionVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
+import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.RestrictionModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IFieldDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMethodDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+
+/**
+ * Persistent cache of the API restrictions found by the tag scanner, keyed by the
+ * MD5 hash of the source file contents and of the context they were scanned in, i.e. the
+ * compiler options and the class file locations used to resolve signatures. Sources whose
+ * contents and context have not changed since they were last scanned do not have to be
+ * parsed again.
+ *
+ * @since 1.0.400
+ */
+class TagScanCache {
+
+	/**
+	 * Version of the cache file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the buffer used to hash source files
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * A restriction recorded for an element
+	 */
+	static class Entry {
+		int elementType;
+		String typeName;
+		String memberName;
+		String signature;
+		int restrictions;
+	}
+
+	/**
+	 * The backing cache file
+	 */
+	private File fFile = null;
+
+	/**
+	 * Map of source hash to {@link List} of {@link Entry}s
+	 */
+	private Map fEntries = new HashMap();
+
+	/**
+	 * Map of source hash to {@link List} of {@link Entry}s that have been used or added
+	 * during this session. Only these are written back to the cache file so entries for
+	 * deleted sources do not accumulate.
+	 */
+	private Map fUsedEntries = new HashMap();
+
+	/**
+	 * The context sources are scanned in, hashed with the contents of every source
+	 */
+	private byte[] fContext = null;
+
+	/**
+	 * Constructor
+	 * @param file the backing cache file, it does not have to exist
+	 * @param options the compiler options used to scan the sources
+	 * @param classFileLocations the class file locations used to resolve signatures, or <code>null</code>
+	 */
+	TagScanCache(File file, Map options, String classFileLocations) {
+		fFile = file;
+		StringBuffer context = new StringBuffer();
+		context.append(new TreeMap(options)).append('\n');
+		if (classFileLocations != null) {
+			context.append(classFileLocations);
+		}
+		try {
+			fContext = context.toString().getBytes("UTF-8"); //$NON-NLS-1$
+		} catch (UnsupportedEncodingException e) {
+			fContext = context.toString().getBytes();
+		}
+	}
+
+	/**
+	 * Computes the hash of the contents of the given file in the context of this cache
+	 *
+	 * @param file
+	 * @return the hex encoded MD5 hash of the file contents and scan context or <code>null</code> if
+	 * the file could not be read
+	 */
+	String hash(File file) {
+		InputStream stream = null;
+		try {
+			MessageDigest digest = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+			digest.update(fContext);
+			stream = new BufferedInputStream(new FileInputStream(file));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read = 0;
+			while ((read = stream.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+			byte[] bytes = digest.digest();
+			StringBuffer result = new StringBuffer(bytes.length * 2);
+			for (int i = 0; i < bytes.length; i++) {
+				int value = bytes[i] & 0xFF;
+				if (value < 0x10) {
+					result.append('0');
+				}
+				result.append(Integer.toHexString(value));
+			}
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			ApiPlugin.log(e);
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Loads the cache from its backing file. A missing, unreadable or out-of-date file
+	 * results in an empty cache.
+	 */
+	void load() {
+		fEntries.clear();
+		if (!fFile.exists()) {
+			return;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)));
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String hash = in.readUTF();
+				int size = in.readInt();
+				List entries = new ArrayList(size);
+				for (int j = 0; j < size; j++) {
+					Entry entry = new Entry();
+					entry.elementType = in.readInt();
+					entry.typeName = in.readUTF();
+					entry.memberName = in.readUTF();
+					entry.signature = in.readUTF();
+					entry.restrictions = in.readInt();
+					entries.add(entry);
+				}
+				fEntries.put(hash, entries);
+			}
+		} catch (IOException e) {
+			// a corrupt cache is the same as no cache
+			fEntries.clear();
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves the entries used or added during this session to the backing file
+	 */
+	void save() {
+		File parent = fFile.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)));
+			out.writeInt(VERSION);
+			out.writeInt(fUsedEntries.size());
+			Map.Entry mapentry = null;
+			for (Iterator iter = fUsedEntries.entrySet().iterator(); iter.hasNext();) {
+				mapentry = (Map.Entry) iter.next();
+				out.writeUTF((String) mapentry.getKey());
+				List entries = (List) mapentry.getValue();
+				out.writeInt(entries.size());
+				for (Iterator iter2 = entries.iterator(); iter2.hasNext();) {
+					Entry entry = (Entry) iter2.next();
+					out.writeInt(entry.elementType);
+					out.writeUTF(entry.typeName);
+					out.writeUTF(entry.memberName);
+					out.writeUTF(entry.signature);
+					out.writeInt(entry.restrictions);
+				}
+			}
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the restrictions cached for the source with the given hash to the given description
+	 *
+	 * @param hash the hash of the source file contents
+	 * @param description the description to annotate
+	 * @return <code>true</code> if the source was found in the cache, <code>false</code> if it has to be scanned
+	 */
+	boolean apply(String hash, IApiDescription description) {
+		List entries = (List) fEntries.get(hash);
+		if (entries == null) {
+			return false;
+		}
+		fUsedEntries.put(hash, entries);
+		apply(entries, description);
+		return true;
+	}
+
+	/**
+	 * Copies the restrictions found when scanning a source to the given description, without
+	 * caching them
+	 *
+	 * @param scanned the description that only contains the restrictions found in the source
+	 * @param description the description to annotate
+	 */
+	void copy(ApiDescription scanned, IApiDescription description) {
+		apply(collect(scanned), description);
+	}
+
+	private void apply(List entries, IApiDescription description) {
+		for (Iterator iter = entries.iterator(); iter.hasNext();) {
+			Entry entry = (Entry) iter.next();
+			IElementDescriptor element = null;
+			switch (entry.elementType) {
+				case IElementDescriptor.TYPE: {
+					element = Factory.typeDescriptor(entry.typeName);
+					break;
+				}
+				case IElementDescriptor.METHOD: {
+					element = Factory.methodDescriptor(entry.typeName, entry.memberName, entry.signature);
+					break;
+				}
+				case IElementDescriptor.FIELD: {
+					element = Factory.fieldDescriptor(entry.typeName, entry.memberName);
+					break;
+				}
+			}
+			if (element != null) {
+				description.setRestrictions(element, entry.restrictions);
+			}
+		}
+	}
+
+	/**
+	 * Records the restrictions found when scanning the source with the given hash
+	 *
+	 * @param hash the hash of the source file contents
+	 * @param scanned the description that only contains the restrictions found in the source
+	 */
+	void put(String hash, ApiDescription scanned) {
+		List entries = collect(scanned);
+		fEntries.put(hash, entries);
+		fUsedEntries.put(hash, entries);
+	}
+
+	private List collect(ApiDescription scanned) {
+		final List entries = new ArrayList();
+		scanned.accept(new ApiDescriptionVisitor() {
+			public boolean visitElement(IElementDescriptor element, IApiAnnotations description) {
+				int restrictions = description.getRestrictions();
+				if (restrictions == RestrictionModifiers.NO_RESTRICTIONS) {
+					return true;
+				}
+				Entry entry = new Entry();
+				entry.elementType = element.getElementType();
+				entry.restrictions = restrictions;
+				entry.memberName = ""; //$NON-NLS-1$
+				entry.signature = ""; //$NON-NLS-1$
+				switch (entry.elementType) {
+					case IElementDescriptor.TYPE: {
+						entry.typeName = ((IReferenceTypeDescriptor) element).getQualifiedName();
+						break;
+					}
+					case IElementDescriptor.METHOD: {
+						IMethodDescriptor method = (IMethodDescriptor) element;
+						entry.typeName = method.getEnclosingType().getQualifiedName();
+						entry.memberName = method.getName();
+						entry.signature = method.getSignature();
+						break;
+					}
+					case IElementDescriptor.FIELD: {
+						IFieldDescriptor field = (IFieldDescriptor) element;
+						entry.typeName = field.getEnclosingType().getQualifiedName();
+						entry.memberName = field.getName();
+						break;
+					}
+					default: {
+						return true;
+					}
+				}
+				entries.add(entry);
+				return true;
+			}
+		}, null);
+		return entries;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,12 +15,14 @@ package org.eclipse.pde.internal.ds.core.builders;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.pde.internal.core.util.SAXParserWrapper;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 public class DefaultSAXParser {
@@ -30,13 +32,21 @@ public class DefaultSAXParser {
 		SAXParserWrapper parser = null;
 		try {
 			parser = new SAXParserWrapper();
-			stream = new BufferedInputStream(file.getContents());
-			parser.parse(stream, reporter);
+			String contents = reporter.getContents();
+			if (contents != null) {
+				// parse the contents already read by the reporter
+				parser.parse(new InputSource(new StringReader(contents)), reporter);
+			} else {
+				stream = new BufferedInputStream(file.getContents());
+				parser.parse(stream, reporter);
+			}
 		} catch (CoreException e) {
 		} catch (SAXException e) {
 		} catch (IOException e) {
 		} catch (ParserConfigurationException e) {
 		} finally {
+			if (parser != null)
+				parser.dispose();
 			try {
 				if (stream != null)
 					stream.close();
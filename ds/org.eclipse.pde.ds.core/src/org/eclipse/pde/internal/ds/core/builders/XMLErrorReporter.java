@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 IBM Corporation and others.
+ * Copyright (c) 2008, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,17 +10,14 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.ds.core.builders;
 
+import java.io.IOException;
 import java.io.StringReader;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Stack;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.eclipse.core.filebuffers.FileBuffers;
-import org.eclipse.core.filebuffers.ITextFileBufferManager;
-import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -28,11 +25,9 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.FindReplaceDocumentAdapter;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
-import org.eclipse.jface.text.Position;
 import org.eclipse.pde.internal.core.builders.CompilerFlags;
+import org.eclipse.pde.internal.core.builders.XMLElementLocator;
+import org.eclipse.pde.internal.ds.core.Activator;
 import org.w3c.dom.Element;
 import org.w3c.dom.Text;
 import org.xml.sax.Attributes;
@@ -49,11 +44,11 @@ public class XMLErrorReporter extends DefaultHandler {
 	public static final char F_CHILD_SEP = '>';
 
 	class ElementData {
-		int offset;
+		XMLElementLocator.Location location;
 		boolean fErrorNode;
 
-		public ElementData(int offset) {
-			this.offset = offset;
+		public ElementData(XMLElementLocator.Location location) {
+			this.location = location;
 		}
 	}
 
@@ -62,29 +57,35 @@ public class XMLErrorReporter extends DefaultHandler {
 	private int fErrorCount;
 	private DSMarkerFactory fMarkerFactory;
 	private org.w3c.dom.Document fXMLDocument;
-	private IDocument fTextDocument;
+	private XMLElementLocator fElementLocator;
 	private Stack fElementStack;
 	private Element fRootElement;
 	private Locator fLocator;
-	private int fHighestOffset;
 	private HashMap fOffsetTable;
-	private FindReplaceDocumentAdapter fFindReplaceAdapter;
 
 	public XMLErrorReporter(IFile file) {
-		ITextFileBufferManager manager = FileBuffers.getTextFileBufferManager();
+		fFile = file;
+		fProject = file.getProject();
+		fOffsetTable = new HashMap();
+		fElementStack = new Stack();
 		try {
-			fFile = file;
-			fProject = file.getProject();
-			manager.connect(file.getFullPath(), LocationKind.NORMALIZE, null);
-			fTextDocument = manager.getTextFileBuffer(file.getFullPath(), LocationKind.NORMALIZE).getDocument();
-			manager.disconnect(file.getFullPath(), LocationKind.NORMALIZE, null);
-			fFindReplaceAdapter = new FindReplaceDocumentAdapter(fTextDocument);
-			fOffsetTable = new HashMap();
-			fElementStack = new Stack();
-			removeFileMarkers();
+			// the elements are located by the scanner shared with the PDE reporter
+			fElementLocator = new XMLElementLocator(XMLElementLocator.readContents(file));
 		} catch (CoreException e) {
-			// TODO log message
+			Activator.log(e);
+		} catch (IOException e) {
+			Activator.log(e);
 		}
+		removeFileMarkers();
+	}
+
+	/**
+	 * Returns the contents of the validated file, so that it is not read again to be parsed
+	 * 
+	 * @return the contents of the file or <code>null</code> if it could not be read
+	 */
+	String getContents() {
+		return fElementLocator != null ? fElementLocator.getContents() : null;
 	}
 
 	public IFile getFile() {
@@ -194,8 +195,8 @@ public class XMLErrorReporter extends DefaultHandler {
 			((Element) fElementStack.peek()).appendChild(element);
 		fElementStack.push(element);
 		try {
-			if (fTextDocument != null)
-				fOffsetTable.put(element, new ElementData(getStartOffset(qName)));
+			if (fElementLocator != null)
+				fOffsetTable.put(element, new ElementData(fElementLocator.startElement(qName, fLocator)));
 		} catch (BadLocationException e) {
 		}
 	}
@@ -204,7 +205,9 @@ public class XMLErrorReporter extends DefaultHandler {
 	 * @see org.xml.sax.helpers.DefaultHandler#endElement(java.lang.String, java.lang.String, java.lang.String)
 	 */
 	public void endElement(String uri, String localName, String qName) throws SAXException {
-		fElementStack.pop();
+		ElementData data = (ElementData) fOffsetTable.get(fElementStack.pop());
+		if (data != null)
+			fElementLocator.endElement(data.location, fLocator);
 	}
 
 	private void generateErrorElementHierarchy() {
@@ -237,113 +240,19 @@ public class XMLErrorReporter extends DefaultHandler {
 		fLocator = locator;
 	}
 
-	private int getStartOffset(String elementName) throws BadLocationException {
-		int line = fLocator.getLineNumber();
-		int col = fLocator.getColumnNumber();
-		if (col < 0)
-			col = fTextDocument.getLineLength(line);
-		String text = fTextDocument.get(fHighestOffset + 1, fTextDocument.getLineOffset(line) - fHighestOffset - 1);
-
-		ArrayList commentPositions = new ArrayList();
-		for (int idx = 0; idx < text.length();) {
-			idx = text.indexOf("<!--", idx); //$NON-NLS-1$
-			if (idx == -1)
-				break;
-			int end = text.indexOf("-->", idx); //$NON-NLS-1$
-			if (end == -1)
-				break;
-
-			commentPositions.add(new Position(idx, end - idx));
-			idx = end + 1;
-		}
-
-		int idx = 0;
-		for (; idx < text.length(); idx += 1) {
-			idx = text.indexOf("<" + elementName, idx); //$NON-NLS-1$
-			if (idx == -1)
-				break;
-			boolean valid = true;
-			for (int i = 0; i < commentPositions.size(); i++) {
-				Position pos = (Position) commentPositions.get(i);
-				if (pos.includes(idx)) {
-					valid = false;
-					break;
-				}
-			}
-			if (valid)
-				break;
-		}
-		if (idx > -1)
-			fHighestOffset += idx + 1;
-		return fHighestOffset;
-	}
-
-	private int getAttributeOffset(String name, String value, int offset) throws BadLocationException {
-		IRegion nameRegion = fFindReplaceAdapter.find(offset, name + "=\"" + getWritableString(value), true, false, false, false); //$NON-NLS-1$
-		if (nameRegion != null) {
-			return nameRegion.getOffset();
-		}
-		return -1;
-	}
-
-	private String getWritableString(String source) {
-		StringBuffer buf = new StringBuffer();
-		for (int i = 0; i < source.length(); i++) {
-			char c = source.charAt(i);
-			switch (c) {
-				case '&' :
-					buf.append("&amp;"); //$NON-NLS-1$
-					break;
-				case '<' :
-					buf.append("&lt;"); //$NON-NLS-1$
-					break;
-				case '>' :
-					buf.append("&gt;"); //$NON-NLS-1$
-					break;
-				case '\'' :
-					buf.append("&apos;"); //$NON-NLS-1$
-					break;
-				case '\"' :
-					buf.append("&quot;"); //$NON-NLS-1$
-					break;
-				default :
-					buf.append(c);
-					break;
-			}
-		}
-		return buf.toString();
-	}
-
 	protected String getTextContent(Element element) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			IRegion nameRegion = fFindReplaceAdapter.find(data.offset, "</" + element.getNodeName() + ">", true, true, false, false); //$NON-NLS-1$ //$NON-NLS-2$
-			int offset = data.offset + element.getNodeName().length() + 2;
-			if (nameRegion != null)
-				return fTextDocument.get(offset, nameRegion.getOffset() - offset).trim();
-		} catch (BadLocationException e) {
-		}
-		return null;
+		return data == null ? null : fElementLocator.getTextContent(data.location);
 	}
 
 	protected int getLine(Element element) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			return (data == null) ? 1 : fTextDocument.getLineOfOffset(data.offset) + 1;
-		} catch (Exception e) {
-			return 1;
-		}
+		return data == null ? 1 : fElementLocator.getLine(data.location);
 	}
 
 	protected int getLine(Element element, String attName) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			int offset = getAttributeOffset(attName, element.getAttribute(attName), data.offset);
-			if (offset != -1)
-				return fTextDocument.getLineOfOffset(offset) + 1;
-		} catch (BadLocationException e) {
-		}
-		return getLine(element);
+		return data == null ? 1 : fElementLocator.getLine(data.location, attName);
 	}
 
 	public void validateContent(IProgressMonitor monitor) {
@@ -357,7 +266,7 @@ public class XMLErrorReporter extends DefaultHandler {
 	}
 
 	public InputSource resolveEntity(String publicId, String systemId) throws SAXException {
-		int x = fTextDocument.get().indexOf("!DOCTYPE"); //$NON-NLS-1$
+		int x = fElementLocator != null ? fElementLocator.getContents().indexOf("!DOCTYPE") : -1; //$NON-NLS-1$
 		if (x > 0) {
 			// do something?
 		}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.pde.internal.core.MinimalState.BundleManifest;
+import org.eclipse.pde.internal.core.util.Headers;
+
+/**
+ * Persistent cache of the manifest headers of target bundles, keyed by the path, size
+ * and modification time of each bundle.  When the target changes, only the manifests
+ * of the bundles that were added or modified have to be read again, the bundle descriptions
+ * and auxiliary data of the other bundles are recreated from their cached headers.
+ *
+ * @since 3.8
+ */
+class BundleManifestCache {
+
+	/**
+	 * Version of the cache file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * A cached manifest, the keys and values are <code>null</code> for locations
+	 * that do not contain a bundle
+	 */
+	private static class Entry {
+		boolean hasBundleStructure;
+		String[] keys;
+		String[] values;
+	}
+
+	/**
+	 * The backing cache file
+	 */
+	private File fFile;
+
+	/**
+	 * Map of bundle key to {@link Entry}
+	 */
+	private Map fEntries = new HashMap();
+
+	/**
+	 * Map of bundle key to {@link Entry} for the bundles used or read during this session.
+	 * Only these are written back so entries of removed bundles do not accumulate.
+	 */
+	private Map fUsedEntries = new HashMap();
+
+	/**
+	 * Constructor
+	 * @param file the backing cache file, it does not have to exist
+	 */
+	BundleManifestCache(File file) {
+		fFile = file;
+	}
+
+	/**
+	 * Returns the key identifying the current contents of the given bundle location.  The
+	 * key of an archive consists of its path, size and modification time.  The key of a folder
+	 * consists of its path and the size and modification time of its manifest files.
+	 *
+	 * @param bundleLocation file location of a bundle folder or archive file
+	 * @return key for the bundle location, never <code>null</code>
+	 */
+	static String getKey(File bundleLocation) {
+		StringBuffer key = new StringBuffer(bundleLocation.getAbsolutePath());
+		if (bundleLocation.isFile()) {
+			appendKey(key, bundleLocation);
+		} else {
+			appendKey(key, new File(bundleLocation, ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR));
+			appendKey(key, new File(bundleLocation, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR));
+			appendKey(key, new File(bundleLocation, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR));
+		}
+		return key.toString();
+	}
+
+	private static void appendKey(StringBuffer key, File file) {
+		key.append('|').append(file.length()).append('|').append(file.lastModified());
+	}
+
+	/**
+	 * Loads the cache from its backing file.  A missing, unreadable or out-of-date file
+	 * results in an empty cache.
+	 */
+	void load() {
+		fEntries.clear();
+		if (!fFile.exists())
+			return;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)));
+			if (in.readInt() != VERSION)
+				return;
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				Entry entry = new Entry();
+				entry.hasBundleStructure = in.readBoolean();
+				int size = in.readInt();
+				if (size >= 0) {
+					entry.keys = new String[size];
+					entry.values = new String[size];
+					for (int j = 0; j < size; j++) {
+						entry.keys[j] = in.readUTF();
+						entry.values[j] = readLongUTF(in);
+					}
+				}
+				fEntries.put(key, entry);
+			}
+		} catch (IOException e) {
+			// a corrupt cache is the same as no cache
+			fEntries.clear();
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves the entries used or read during this session to the backing file
+	 */
+	void save() {
+		File parent = fFile.getParentFile();
+		if (parent != null && !parent.exists())
+			parent.mkdirs();
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)));
+			out.writeInt(VERSION);
+			out.writeInt(fUsedEntries.size());
+			for (Iterator iter = fUsedEntries.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry mapEntry = (Map.Entry) iter.next();
+				Entry entry = (Entry) mapEntry.getValue();
+				out.writeUTF((String) mapEntry.getKey());
+				out.writeBoolean(entry.hasBundleStructure);
+				if (entry.keys == null) {
+					out.writeInt(-1);
+				} else {
+					out.writeInt(entry.keys.length);
+					for (int i = 0; i < entry.keys.length; i++) {
+						out.writeUTF(entry.keys[i]);
+						writeLongUTF(out, entry.values[i]);
+					}
+				}
+			}
+		} catch (IOException e) {
+			PDECore.log(e);
+			fFile.delete();
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Header values such as Export-Package can exceed the length supported by
+	 * {@link DataOutputStream#writeUTF(String)}, so they are written in chunks
+	 */
+	private static void writeLongUTF(DataOutputStream out, String value) throws IOException {
+		int chunk = 16 * 1024;
+		int chunks = (value.length() + chunk - 1) / chunk;
+		out.writeInt(chunks);
+		for (int i = 0; i < chunks; i++) {
+			out.writeUTF(value.substring(i * chunk, Math.min(value.length(), (i + 1) * chunk)));
+		}
+	}
+
+	private static String readLongUTF(DataInputStream in) throws IOException {
+		int chunks = in.readInt();
+		if (chunks == 1)
+			return in.readUTF();
+		StringBuffer value = new StringBuffer();
+		for (int i = 0; i < chunks; i++) {
+			value.append(in.readUTF());
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Returns the cached manifest headers of the bundle at the given location
+	 *
+	 * @param bundleLocation file location of a bundle folder or archive file
+	 * @param key the key of the bundle location, see {@link #getKey(File)}
+	 * @return the cached headers or <code>null</code> if the bundle has to be read
+	 */
+	BundleManifest get(File bundleLocation, String key) {
+		Entry entry = (Entry) fEntries.get(key);
+		if (entry == null)
+			return null;
+		fUsedEntries.put(key, entry);
+		if (entry.keys == null)
+			return new BundleManifest(bundleLocation, null, false);
+		Headers headers = new Headers(entry.keys.length);
+		for (int i = 0; i < entry.keys.length; i++) {
+			headers.set(entry.keys[i], entry.values[i]);
+		}
+		return new BundleManifest(bundleLocation, headers, entry.hasBundleStructure);
+	}
+
+	/**
+	 * Records the manifest headers read from a bundle.  Headers with values other
+	 * than strings cannot be cached.
+	 *
+	 * @param key the key of the bundle location, see {@link #getKey(File)}
+	 * @param bundleManifest the headers read from the bundle location
+	 */
+	void put(String key, BundleManifest bundleManifest) {
+		if (bundleManifest.failure != null)
+			return;
+		Entry entry = new Entry();
+		entry.hasBundleStructure = bundleManifest.hasBundleStructure;
+		Dictionary manifest = bundleManifest.manifest;
+		if (manifest != null) {
+			int size = manifest.size();
+			entry.keys = new String[size];
+			entry.values = new String[size];
+			Enumeration keys = manifest.keys();
+			for (int i = 0; i < size && keys.hasMoreElements(); i++) {
+				Object header = keys.nextElement();
+				Object value = manifest.get(header);
+				if (!(header instanceof String) || !(value instanceof String))
+					return;
+				entry.keys[i] = (String) header;
+				entry.values[i] = (String) value;
+			}
+		}
+		fEntries.put(key, entry);
+		fUsedEntries.put(key, entry);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,9 +21,54 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 
 	private static StateObjectFactory FACTORY;
 
+	private static boolean DEBUG = false;
+
+	static {
+		DEBUG = PDECore.getDefault().isDebugging() && "true".equals(Platform.getDebugOption("org.eclipse.pde.core/launch/validation")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Maximum number of resolved states kept for reuse
+	 */
+	private static final int MAX_CACHED_STATES = 2;
+
+	/**
+	 * Resolved states of previous validations, by platform properties, most recently used last.
+	 * Map of {@link List} of property maps to {@link CachedState}.
+	 */
+	private static final LinkedHashMap fCachedStates = new LinkedHashMap(MAX_CACHED_STATES + 1, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > MAX_CACHED_STATES;
+		}
+	};
+
+	/**
+	 * A resolved state and the bundle descriptions its bundles were copied from
+	 */
+	private static class CachedState {
+		State state;
+		/**
+		 * Map of bundle id to the {@link BundleDescription} of the model the bundle was copied from
+		 */
+		Map sources = new HashMap();
+		/**
+		 * Number of validations that resolved the state
+		 */
+		int generation;
+	}
+
 	private IPluginModelBase[] fModels;
 	private Dictionary[] fProperties;
+	private List fKey;
+	private CachedState fCached;
+	private int fGeneration;
 	private State fState;
+	private Map fResolverErrors;
+	private boolean fHasErrors;
+	private Set fSymbolicNames;
+	private boolean fIncremental;
 
 	public BundleValidationOperation(IPluginModelBase[] models) {
 		this(models, new Dictionary[] {TargetPlatformHelper.getTargetEnvironment()});
@@ -34,32 +79,128 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		fProperties = properties;
 	}
 
+	/**
+	 * Resolves the bundles of the models against the platform properties.
+	 * <p>
+	 * The resolved state of the previous validation using the same platform properties is
+	 * reused: only the bundles that were added, removed or changed since then are copied into
+	 * the state, and only the bundles they affect are resolved again.  The resolver errors and
+	 * the names of the bundles are copied out of the state before it is made available to the
+	 * next validation, which modifies it.
+	 * </p>
+	 */
 	public void run(IProgressMonitor monitor) throws CoreException {
 		if (FACTORY == null)
 			FACTORY = Platform.getPlatformAdmin().getFactory();
 		monitor.beginTask("", fModels.length + 1); //$NON-NLS-1$
-		fState = FACTORY.createState(true);
+		long start = System.currentTimeMillis();
+		fKey = getPropertiesKey(fProperties);
+		fState = null;
+		CachedState cached;
+		synchronized (fCachedStates) {
+			// the state is modified below, concurrent validations must not share it
+			cached = (CachedState) fCachedStates.remove(fKey);
+		}
+		boolean incremental = cached != null;
+		if (cached == null) {
+			cached = new CachedState();
+			cached.state = FACTORY.createState(true);
+			cached.state.setPlatformProperties(fProperties);
+		}
+		State state = cached.state;
+
+		int changes = 0;
+		Map sources = new HashMap(fModels.length * 2);
+		Set names = new HashSet();
 		for (int i = 0; i < fModels.length; i++) {
-			BundleDescription bundle = fModels[i].getBundleDescription();
-			if (bundle != null)
-				fState.addBundle(FACTORY.createBundleDescription(bundle));
 			monitor.worked(1);
+			BundleDescription bundle = fModels[i].getBundleDescription();
+			if (bundle != null) {
+				Long id = new Long(bundle.getBundleId());
+				sources.put(id, bundle);
+				names.add(bundle.getSymbolicName());
+				Object previous = cached.sources.remove(id);
+				if (previous == bundle)
+					continue;
+				if (previous == null)
+					state.addBundle(FACTORY.createBundleDescription(bundle));
+				else
+					state.updateBundle(FACTORY.createBundleDescription(bundle));
+				changes++;
+			}
+		}
+		// bundles that are no longer validated
+		for (Iterator iter = cached.sources.keySet().iterator(); iter.hasNext();) {
+			state.removeBundle(((Long) iter.next()).longValue());
+			changes++;
+		}
+		cached.sources = sources;
+		if (!incremental || changes > 0)
+			state.resolve(incremental);
+
+		fResolverErrors = computeResolverErrors(state);
+		fHasErrors = computeHasErrors(state);
+		fSymbolicNames = names;
+		fIncremental = incremental;
+		synchronized (fCachedStates) {
+			fCachedStates.put(fKey, cached);
+			fCached = cached;
+			fGeneration = ++cached.generation;
+		}
+		if (DEBUG) {
+			System.out.println("Validated " + fModels.length + " bundles (" + (incremental ? changes + " changed" : "new state") + ") in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
 		}
-		fState.setPlatformProperties(fProperties);
-		fState.resolve(false);
 		monitor.done();
 	}
 
+	/**
+	 * Returns a key identifying the given platform properties by value
+	 * 
+	 * @param properties platform properties
+	 * @return list of the maps of the properties
+	 */
+	private static List getPropertiesKey(Dictionary[] properties) {
+		List key = new ArrayList(properties.length);
+		for (int i = 0; i < properties.length; i++) {
+			Map map = new HashMap();
+			for (Enumeration keys = properties[i].keys(); keys.hasMoreElements();) {
+				Object name = keys.nextElement();
+				map.put(name, properties[i].get(name));
+			}
+			key.add(map);
+		}
+		return key;
+	}
+
+	/**
+	 * Discards the resolved states kept for reuse by the next validations
+	 */
+	public static void clearCache() {
+		synchronized (fCachedStates) {
+			fCachedStates.clear();
+		}
+	}
+
+	/**
+	 * Returns the resolver errors of the validated bundles.  The errors were copied when the
+	 * bundles were resolved and do not change when the state is reused.
+	 * 
+	 * @return map of {@link BundleDescription} to the array of its errors
+	 */
 	public Map getResolverErrors() {
+		return new HashMap(fResolverErrors);
+	}
+
+	private Map computeResolverErrors(State state) {
 		Set alreadyDuplicated = new HashSet();
 		Map map = new HashMap();
-		BundleDescription[] bundles = fState.getBundles();
+		BundleDescription[] bundles = state.getBundles();
 		for (int i = 0; i < bundles.length; i++) {
 			BundleDescription desc = bundles[i];
 			if (!desc.isResolved()) {
-				map.put(desc, fState.getResolverErrors(desc));
+				map.put(desc, state.getResolverErrors(desc));
 			} else if (desc.isSingleton() && !alreadyDuplicated.contains(desc.getSymbolicName())) {
-				BundleDescription[] dups = fState.getBundles(desc.getSymbolicName());
+				BundleDescription[] dups = state.getBundles(desc.getSymbolicName());
 				if (dups.length > 1) {
 					// more than 1 singleton present
 					alreadyDuplicated.add(desc.getSymbolicName());
@@ -74,19 +215,81 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		return map;
 	}
 
+	/**
+	 * Returns the resolved state.  The caller keeps the state: it is taken out of the cache,
+	 * so the next validation with the same platform properties starts from a new state.  If a
+	 * later validation already reused the state, the bundles are resolved again in a new state.
+	 * <p>
+	 * Prefer {@link #getResolverErrors()}, {@link #hasBundle(String)} and {@link #isEmpty()},
+	 * which do not prevent the reuse of the state.
+	 * </p>
+	 * 
+	 * @return the resolved state
+	 */
 	public State getState() {
+		synchronized (fCachedStates) {
+			if (fState != null)
+				return fState;
+			if (fCached != null && fCachedStates.get(fKey) == fCached && fCached.generation == fGeneration) {
+				fCachedStates.remove(fKey);
+				fState = fCached.state;
+				return fState;
+			}
+		}
+		State state = FACTORY.createState(true);
+		state.setPlatformProperties(fProperties);
+		for (int i = 0; i < fModels.length; i++) {
+			BundleDescription bundle = fModels[i].getBundleDescription();
+			if (bundle != null)
+				state.addBundle(FACTORY.createBundleDescription(bundle));
+		}
+		state.resolve(false);
+		fState = state;
 		return fState;
 	}
 
+	/**
+	 * Returns whether a bundle with the given symbolic name was validated
+	 * 
+	 * @param symbolicName symbolic name of the bundle
+	 * @return whether the bundle was validated
+	 */
+	public boolean hasBundle(String symbolicName) {
+		return fSymbolicNames.contains(symbolicName);
+	}
+
+	/**
+	 * @return whether no bundle was validated
+	 */
+	public boolean isEmpty() {
+		return fSymbolicNames.isEmpty();
+	}
+
+	/**
+	 * Returns whether the state of a previous validation was reused.
+	 * <p>
+	 * Note this method is public for testing purposes only.
+	 * </p>
+	 * 
+	 * @return whether the validation was incremental
+	 */
+	public boolean isIncremental() {
+		return fIncremental;
+	}
+
 	public boolean hasErrors() {
-		if (fState.getHighestBundleId() > -1) {
-			BundleDescription[] bundles = fState.getBundles();
+		return fHasErrors;
+	}
+
+	private boolean computeHasErrors(State state) {
+		if (state.getBundles().length > 0) {
+			BundleDescription[] bundles = state.getBundles();
 			for (int i = 0; i < bundles.length; i++) {
 				BundleDescription desc = bundles[i];
 				if (!desc.isResolved()) {
 					return true;
 				} else if (desc.isSingleton()) {
-					BundleDescription[] dups = fState.getBundles(desc.getSymbolicName());
+					BundleDescription[] dups = state.getBundles(desc.getSymbolicName());
 					if (dups.length > 1) {
 						// more than one singleton
 						return true;
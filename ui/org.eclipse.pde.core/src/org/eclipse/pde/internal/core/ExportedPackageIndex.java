@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.*;
+import org.eclipse.osgi.service.resolver.*;
+
+/**
+ * Index of the packages exported by the bundles of a resolver state, by package name.
+ * <p>
+ * The index is built the first time a state is queried and is kept up to date from the
+ * deltas of the {@link PluginModelManager}, so only the exports of bundles that were added,
+ * removed or updated are indexed again.  Querying a different state than the indexed one
+ * rebuilds the index for that state.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class ExportedPackageIndex implements IStateDeltaListener {
+
+	private static final ExportPackageDescription[] NO_EXPORTS = new ExportPackageDescription[0];
+
+	/**
+	 * The indexed state or <code>null</code> if the index must be rebuilt
+	 */
+	private State fState;
+
+	/**
+	 * Map of package name to the list of {@link ExportPackageDescription} exporting it
+	 */
+	private Map fExporters = new HashMap();
+
+	/**
+	 * Map of bundle id to the array of {@link ExportPackageDescription} indexed for the bundle
+	 */
+	private Map fBundleExports = new HashMap();
+
+	/**
+	 * Returns all the exports of the given package in the given state
+	 *
+	 * @param state the state
+	 * @param packageName name of the package
+	 * @return the exports of the package, possibly empty
+	 */
+	public synchronized ExportPackageDescription[] getExporters(State state, String packageName) {
+		List exporters = (List) getIndex(state).get(packageName);
+		if (exporters == null)
+			return NO_EXPORTS;
+		return (ExportPackageDescription[]) exporters.toArray(new ExportPackageDescription[exporters.size()]);
+	}
+
+	/**
+	 * Returns the export of the given package that an import is most likely to be wired to:
+	 * an export from a resolved bundle if there is one, otherwise any export of the package.
+	 *
+	 * @param state the state
+	 * @param packageName name of the package
+	 * @return an export of the package or <code>null</code> if no bundle exports it
+	 */
+	public synchronized ExportPackageDescription getExporter(State state, String packageName) {
+		List exporters = (List) getIndex(state).get(packageName);
+		if (exporters == null)
+			return null;
+		for (int i = exporters.size() - 1; i >= 0; i--) {
+			ExportPackageDescription export = (ExportPackageDescription) exporters.get(i);
+			if (export.getSupplier().isResolved())
+				return export;
+		}
+		return (ExportPackageDescription) exporters.get(0);
+	}
+
+	private Map getIndex(State state) {
+		if (fState != state) {
+			fExporters.clear();
+			fBundleExports.clear();
+			BundleDescription[] bundles = state.getBundles();
+			for (int i = 0; i < bundles.length; i++) {
+				add(bundles[i]);
+			}
+			fState = state;
+		}
+		return fExporters;
+	}
+
+	private void add(BundleDescription bundle) {
+		ExportPackageDescription[] exports = bundle.getExportPackages();
+		fBundleExports.put(new Long(bundle.getBundleId()), exports);
+		for (int i = 0; i < exports.length; i++) {
+			List exporters = (List) fExporters.get(exports[i].getName());
+			if (exporters == null) {
+				exporters = new ArrayList(1);
+				fExporters.put(exports[i].getName(), exporters);
+			}
+			exporters.add(exports[i]);
+		}
+	}
+
+	private void remove(long bundleId) {
+		ExportPackageDescription[] exports = (ExportPackageDescription[]) fBundleExports.remove(new Long(bundleId));
+		if (exports == null)
+			return;
+		for (int i = 0; i < exports.length; i++) {
+			List exporters = (List) fExporters.get(exports[i].getName());
+			if (exporters != null) {
+				exporters.remove(exports[i]);
+				if (exporters.isEmpty())
+					fExporters.remove(exports[i].getName());
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IStateDeltaListener#stateResolved(org.eclipse.osgi.service.resolver.StateDelta)
+	 */
+	public synchronized void stateResolved(StateDelta delta) {
+		if (fState == null)
+			return;
+		if (delta == null || delta.getState() != fState) {
+			fState = null;
+			return;
+		}
+		BundleDelta[] changes = delta.getChanges(BundleDelta.ADDED | BundleDelta.REMOVED | BundleDelta.UPDATED, false);
+		for (int i = 0; i < changes.length; i++) {
+			long bundleId = changes[i].getBundle().getBundleId();
+			remove(bundleId);
+			BundleDescription bundle = fState.getBundle(bundleId);
+			if (bundle != null)
+				add(bundle);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IStateDeltaListener#stateChanged(org.eclipse.osgi.service.resolver.State)
+	 */
+	public synchronized void stateChanged(State newState) {
+		fState = null;
+	}
+
+	/**
+	 * Clears the index
+	 */
+	synchronized void clear() {
+		fState = null;
+		fExporters.clear();
+		fBundleExports.clear();
+	}
+}
@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.*;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.spi.RegistryContributor;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+
+/**
+ * Index of the contributions made to the extension registry of the {@link PDEExtensionRegistry},
+ * by contributor and by extension point.
+ * <p>
+ * The index is kept up to date by the {@link PDERegistryStrategy} as it adds and removes
+ * contributions, so that looking up the plug-ins extending an extension point does not have
+ * to map every contributor of the registry back to its model.  When the registry is loaded
+ * from its cache the index is invalid until it is built from the contents of the registry.
+ * </p>
+ */
+class ExtensionIndex {
+
+	private static final IExtension[] NO_EXTENSIONS = new IExtension[0];
+
+	/**
+	 * Whether the index reflects the contents of the registry
+	 */
+	private boolean fValid;
+
+	/**
+	 * Incremented on every change to the registry, an index built while the registry changed is discarded
+	 */
+	private long fStamp;
+
+	/**
+	 * Map of contributor id to the {@link IPluginModelBase} that made the contribution
+	 */
+	private Map fModels = new HashMap();
+
+	/**
+	 * Map of contributor id to the array of {@link IExtension} it contributes
+	 */
+	private Map fExtensions = new HashMap();
+
+	/**
+	 * Map of extension point id to a map of contributor id to the array of {@link IExtension} the
+	 * contributor contributes to the extension point
+	 */
+	private Map fPointExtensions = new HashMap();
+
+	/**
+	 * Map of contributor id to the set of ids of the extension points it contributes to.  The
+	 * extensions of a removed contribution can no longer be queried for their extension point.
+	 */
+	private Map fContributorPoints = new HashMap();
+
+	/**
+	 * @return whether the index reflects the contents of the registry
+	 */
+	synchronized boolean isValid() {
+		return fValid;
+	}
+
+	/**
+	 * Returns the change stamp of the registry, to be passed to {@link #build(long, Map, Map)}
+	 * once the contents of the registry are collected
+	 *
+	 * @return the current change stamp
+	 */
+	synchronized long getStamp() {
+		return fStamp;
+	}
+
+	/**
+	 * Empties the index and makes it valid, for a registry that has no contributions yet
+	 */
+	synchronized void reset() {
+		clear();
+		fStamp++;
+		fValid = true;
+	}
+
+	/**
+	 * Marks the index as invalid, it must be built again from the contents of the registry
+	 */
+	synchronized void invalidate() {
+		clear();
+		fStamp++;
+		fValid = false;
+	}
+
+	/**
+	 * Builds the index from the given contents of the registry, unless the registry changed
+	 * since the given stamp
+	 *
+	 * @param stamp change stamp of the registry when the contents started to be collected
+	 * @param models map of {@link IContributor} to the {@link IPluginModelBase} that made the contribution
+	 * @param extensions map of {@link IContributor} to the array of {@link IExtension} it contributes
+	 * @return whether the index was built
+	 */
+	synchronized boolean build(long stamp, Map models, Map extensions) {
+		if (stamp != fStamp)
+			return false;
+		clear();
+		for (Iterator iter = models.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			IContributor contributor = (IContributor) entry.getKey();
+			doAdd(contributor, (IPluginModelBase) entry.getValue(), (IExtension[]) extensions.get(contributor));
+		}
+		fValid = true;
+		return true;
+	}
+
+	private void clear() {
+		fModels.clear();
+		fExtensions.clear();
+		fPointExtensions.clear();
+		fContributorPoints.clear();
+	}
+
+	/**
+	 * Indexes a contribution added to the registry
+	 *
+	 * @param contributor the contributor
+	 * @param model the model that made the contribution
+	 * @param extensions the extensions contributed
+	 */
+	synchronized void add(IContributor contributor, IPluginModelBase model, IExtension[] extensions) {
+		fStamp++;
+		if (fValid)
+			doAdd(contributor, model, extensions);
+	}
+
+	private void doAdd(IContributor contributor, IPluginModelBase model, IExtension[] extensions) {
+		String id = getId(contributor);
+		if (id == null)
+			return;
+		doRemove(id);
+		fModels.put(id, model);
+		fExtensions.put(id, extensions);
+		Map pointExtensions = new HashMap();
+		for (int i = 0; i < extensions.length; i++) {
+			String pointId = extensions[i].getExtensionPointUniqueIdentifier();
+			List list = (List) pointExtensions.get(pointId);
+			if (list == null) {
+				list = new ArrayList(1);
+				pointExtensions.put(pointId, list);
+			}
+			list.add(extensions[i]);
+		}
+		for (Iterator iter = pointExtensions.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			Map contributors = (Map) fPointExtensions.get(entry.getKey());
+			if (contributors == null) {
+				contributors = new LinkedHashMap();
+				fPointExtensions.put(entry.getKey(), contributors);
+			}
+			List list = (List) entry.getValue();
+			contributors.put(id, list.toArray(new IExtension[list.size()]));
+		}
+		fContributorPoints.put(id, pointExtensions.keySet());
+	}
+
+	/**
+	 * Removes a contribution removed from the registry from the index
+	 *
+	 * @param contributor the contributor
+	 */
+	synchronized void remove(IContributor contributor) {
+		fStamp++;
+		String id = getId(contributor);
+		if (fValid && id != null)
+			doRemove(id);
+	}
+
+	private void doRemove(String id) {
+		fModels.remove(id);
+		fExtensions.remove(id);
+		Set pointIds = (Set) fContributorPoints.remove(id);
+		if (pointIds == null)
+			return;
+		for (Iterator iter = pointIds.iterator(); iter.hasNext();) {
+			Object pointId = iter.next();
+			Map contributors = (Map) fPointExtensions.get(pointId);
+			if (contributors != null) {
+				contributors.remove(id);
+				if (contributors.isEmpty())
+					fPointExtensions.remove(pointId);
+			}
+		}
+	}
+
+	private static String getId(IContributor contributor) {
+		return contributor instanceof RegistryContributor ? ((RegistryContributor) contributor).getActualId() : null;
+	}
+
+	/**
+	 * Returns the model that made the given contribution
+	 *
+	 * @param contributor the contributor
+	 * @return the model or <code>null</code> if the contributor is not indexed
+	 */
+	synchronized IPluginModelBase getModel(IContributor contributor) {
+		String id = getId(contributor);
+		return id == null ? null : (IPluginModelBase) fModels.get(id);
+	}
+
+	/**
+	 * Returns the extensions contributed by the given contributor
+	 *
+	 * @param contributor the contributor
+	 * @return the extensions, possibly empty
+	 */
+	synchronized IExtension[] getExtensions(IContributor contributor) {
+		String id = getId(contributor);
+		IExtension[] extensions = id == null ? null : (IExtension[]) fExtensions.get(id);
+		return extensions == null ? NO_EXTENSIONS : (IExtension[]) extensions.clone();
+	}
+
+	/**
+	 * Returns the models contributing extensions to the given extension point
+	 *
+	 * @param pointId id of the extension point
+	 * @param activeOnly whether to only return enabled models
+	 * @return the models, possibly empty
+	 */
+	synchronized IPluginModelBase[] getContributingModels(String pointId, boolean activeOnly) {
+		Map contributors = (Map) fPointExtensions.get(pointId);
+		if (contributors == null)
+			return new IPluginModelBase[0];
+		Set models = new HashSet();
+		for (Iterator iter = contributors.keySet().iterator(); iter.hasNext();) {
+			IPluginModelBase model = (IPluginModelBase) fModels.get(iter.next());
+			if (model != null && (!activeOnly || model.isEnabled()))
+				models.add(model);
+		}
+		return (IPluginModelBase[]) models.toArray(new IPluginModelBase[models.size()]);
+	}
+
+	/**
+	 * Returns the extensions contributed to the given extension point
+	 *
+	 * @param pointId id of the extension point
+	 * @param activeOnly whether to only return the extensions of enabled models
+	 * @return the extensions, possibly empty
+	 */
+	synchronized IExtension[] getExtensions(String pointId, boolean activeOnly) {
+		Map contributors = (Map) fPointExtensions.get(pointId);
+		if (contributors == null)
+			return NO_EXTENSIONS;
+		List list = new ArrayList();
+		for (Iterator iter = contributors.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			IPluginModelBase model = (IPluginModelBase) fModels.get(entry.getKey());
+			if (!activeOnly || model != null && model.isEnabled())
+				list.addAll(Arrays.asList((IExtension[]) entry.getValue()));
+		}
+		return (IExtension[]) list.toArray(new IExtension[list.size()]);
+	}
+}
@@ -22,6 +22,7 @@ import org.eclipse.pde.internal.core.feature.ExternalFeatureModel;
 import org.eclipse.pde.internal.core.ifeature.IFeature;
 import org.eclipse.pde.internal.core.ifeature.IFeatureModel;
 import org.eclipse.pde.internal.core.target.Messages;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
 import org.osgi.framework.Version;
 
 /**
@@ -32,6 +33,11 @@ import org.osgi.framework.Version;
  */
 public class ExternalFeatureModelManager {
 
+	/**
+	 * Maximum number of threads used to read feature manifests
+	 */
+	private static final int MAX_READER_THREADS = 8;
+
 	/**
 	 * Creates a feature model for the feature based on the given feature XML
 	 * file.
@@ -89,27 +95,56 @@ public class ExternalFeatureModelManager {
 	private static IFeatureModel[] createModels(URL[] featurePaths, IProgressMonitor monitor) {
 		if (monitor == null)
 			monitor = new NullProgressMonitor();
-		monitor.beginTask("", featurePaths.length); //$NON-NLS-1$
-		Map uniqueFeatures = new HashMap();
-		for (int i = 0; i < featurePaths.length; i++) {
-			File manifest = new File(featurePaths[i].getFile(), ICoreConstants.FEATURE_FILENAME_DESCRIPTOR);
-			if (!manifest.exists() || !manifest.isFile()) {
-				monitor.worked(1);
-				continue;
-			}
-			try {
-				IFeatureModel model = createModel(manifest);
-				if (model != null && model.isLoaded()) {
-					IFeature feature = model.getFeature();
-					uniqueFeatures.put(feature.getId() + "_" + feature.getVersion(), model); //$NON-NLS-1$
+		final File[] manifests = getManifests(featurePaths);
+		final IFeatureModel[] models = new IFeatureModel[manifests.length];
+		monitor.beginTask("", manifests.length); //$NON-NLS-1$
+		readManifests(manifests.length, new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) {
+				if (!manifests[index].isFile())
+					return;
+				try {
+					models[index] = createModel(manifests[index]);
+				} catch (CoreException e) {
+					PDECore.log(e);
 				}
-			} catch (CoreException e) {
-				PDECore.log(e);
 			}
-			monitor.worked(1);
+		}, monitor);
+		// merge in order so that the last of the duplicate features wins
+		Map uniqueFeatures = new HashMap();
+		for (int i = 0; i < models.length; i++) {
+			IFeatureModel model = models[i];
+			if (model != null && model.isLoaded()) {
+				IFeature feature = model.getFeature();
+				uniqueFeatures.put(feature.getId() + "_" + feature.getVersion(), model); //$NON-NLS-1$
+			}
+		}
+		Collection result = uniqueFeatures.values();
+		return (IFeatureModel[]) result.toArray(new IFeatureModel[result.size()]);
+	}
+
+	private static File[] getManifests(URL[] featurePaths) {
+		File[] manifests = new File[featurePaths.length];
+		for (int i = 0; i < featurePaths.length; i++) {
+			manifests[i] = new File(featurePaths[i].getFile(), ICoreConstants.FEATURE_FILENAME_DESCRIPTOR);
+		}
+		return manifests;
+	}
+
+	/**
+	 * Reads feature manifests on a bounded set of worker threads.  The given work stores its
+	 * results by index and must not throw exceptions.
+	 * 
+	 * @param count number of manifests to read
+	 * @param work reads the manifest for an index
+	 * @param monitor progress monitor, will be given one unit of work per manifest
+	 */
+	private static void readManifests(int count, ParallelRunner.Work work, IProgressMonitor monitor) {
+		int threads = Math.min(MAX_READER_THREADS, Runtime.getRuntime().availableProcessors() * 2);
+		try {
+			ParallelRunner.run("PDE feature reader", count, threads, work, monitor); //$NON-NLS-1$
+		} catch (CoreException e) {
+			PDECore.log(e);
 		}
-		Collection models = uniqueFeatures.values();
-		return (IFeatureModel[]) models.toArray(new IFeatureModel[models.size()]);
 	}
 
 	private ListenerList fListeners = new ListenerList();
@@ -264,23 +299,26 @@ public class ExternalFeatureModelManager {
 	private static TargetFeature[] createFeatures(URL[] featurePaths, IProgressMonitor monitor) {
 		if (monitor == null)
 			monitor = new NullProgressMonitor();
-		monitor.beginTask("", featurePaths.length); //$NON-NLS-1$
-		Map uniqueFeatures = new HashMap();
-		for (int i = 0; i < featurePaths.length; i++) {
-			File manifest = new File(featurePaths[i].getFile(), ICoreConstants.FEATURE_FILENAME_DESCRIPTOR);
-			if (!manifest.exists() || !manifest.isFile()) {
-				monitor.worked(1);
-				continue;
-			}
-			try {
-				TargetFeature model = new TargetFeature(manifest);
-				uniqueFeatures.put(model.getId() + "_" + model.getVersion(), model); //$NON-NLS-1$
-			} catch (CoreException e) {
-				// Ignore bad files in the collection
+		final File[] manifests = getManifests(featurePaths);
+		final TargetFeature[] features = new TargetFeature[manifests.length];
+		monitor.beginTask("", manifests.length); //$NON-NLS-1$
+		readManifests(manifests.length, new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) {
+				if (!manifests[index].isFile())
+					return;
+				try {
+					features[index] = new TargetFeature(manifests[index]);
+				} catch (CoreException e) {
+					// Ignore bad files in the collection
+				}
 			}
-			monitor.worked(1);
+		}, monitor);
+		Map uniqueFeatures = new HashMap();
+		for (int i = 0; i < features.length; i++) {
+			if (features[i] != null)
+				uniqueFeatures.put(features[i].getId() + "_" + features[i].getVersion(), features[i]); //$NON-NLS-1$
 		}
-		Collection models = uniqueFeatures.values();
-		return (TargetFeature[]) models.toArray(new TargetFeature[models.size()]);
+		Collection result = uniqueFeatures.values();
+		return (TargetFeature[]) result.toArray(new TargetFeature[result.size()]);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2010 IBM Corporation and others.
+ *  Copyright (c) 2000, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -28,18 +28,26 @@ public class FeatureModelManager {
 
 	/**
 	 * All models in workspace, and those external models that have no
-	 * corresponding workspace model with the same id and version
+	 * corresponding workspace model with the same id and version.  The table
+	 * is read without locking and is never modified, it is replaced by a
+	 * modified copy when models change.
 	 */
-	private FeatureTable fActiveModels;
+	private volatile FeatureTable fActiveModels;
 
 	/**
 	 * External models masked by workspace models with the same id and version.
+	 * Only accessed while holding the lock of this manager.
 	 */
 	private FeatureTable fInactiveModels;
 
 	private ExternalFeatureModelManager fExternalManager;
 
-	private boolean fReloadExternalNeeded = false;
+	/**
+	 * Whether the workspace and external models have been loaded
+	 */
+	private volatile boolean fInitialized = false;
+
+	private volatile boolean fReloadExternalNeeded = false;
 
 	private WorkspaceFeatureModelManager fWorkspaceManager;
 
@@ -63,7 +71,14 @@ public class FeatureModelManager {
 		}
 	}
 
-	private synchronized void init() {
+	private void init() {
+		// lookups do not lock the manager once the models are loaded
+		if (fInitialized && !fReloadExternalNeeded)
+			return;
+		initModels();
+	}
+
+	private synchronized void initModels() {
 		if (fActiveModels != null) {
 			if (fReloadExternalNeeded) {
 				fReloadExternalNeeded = false;
@@ -72,7 +87,7 @@ public class FeatureModelManager {
 			return;
 		}
 
-		fActiveModels = new FeatureTable();
+		FeatureTable activeModels = new FeatureTable();
 		fInactiveModels = new FeatureTable();
 
 		fProviderListener = new IModelProviderListener() {
@@ -86,13 +101,15 @@ public class FeatureModelManager {
 		for (int i = 0; i < models.length; i++) {
 			// add all workspace models, including invalid or duplicate (save
 			// id, ver)
-			fActiveModels.add(models[i]);
+			activeModels.add(models[i]);
 		}
+		fActiveModels = activeModels;
 
 		fExternalManager = new ExternalFeatureModelManager();
 		fExternalManager.addModelProviderListener(fProviderListener);
 		fReloadExternalNeeded = false;
 		fExternalManager.initialize();
+		fInitialized = true;
 	}
 
 	/*
@@ -231,6 +248,8 @@ public class FeatureModelManager {
 
 	private synchronized IFeatureModelDelta processEvent(IModelProviderEvent e) {
 		FeatureModelDelta delta = new FeatureModelDelta();
+		// modify a copy of the active models, lookups keep reading the current table until the copy replaces it
+		FeatureTable activeModels = fActiveModels.copy();
 		/*
 		 * Set of Idvers for which there might be necessary to move a model
 		 * between active models and inactive models
@@ -242,7 +261,7 @@ public class FeatureModelManager {
 				if (!(removed[i] instanceof IFeatureModel))
 					continue;
 				IFeatureModel model = (IFeatureModel) removed[i];
-				FeatureTable.Idver idver = fActiveModels.remove(model);
+				FeatureTable.Idver idver = activeModels.remove(model);
 				if (idver != null) {
 					// may need to activate another model
 					if (affectedIdVers == null)
@@ -261,7 +280,7 @@ public class FeatureModelManager {
 					continue;
 				IFeatureModel model = (IFeatureModel) added[i];
 				if (model.getUnderlyingResource() != null) {
-					FeatureTable.Idver idver = fActiveModels.add(model);
+					FeatureTable.Idver idver = activeModels.add(model);
 					delta.add(model, IFeatureModelDelta.ADDED);
 					// may need to deactivate another model
 					if (affectedIdVers == null)
@@ -278,9 +297,9 @@ public class FeatureModelManager {
 						// ignore duplicate external models
 						continue;
 					}
-					IFeatureModel[] activeModels = fActiveModels.get(id, version);
-					for (int j = 0; j < activeModels.length; j++) {
-						if (activeModels[j].getUnderlyingResource() == null) {
+					IFeatureModel[] sameModels = activeModels.get(id, version);
+					for (int j = 0; j < sameModels.length; j++) {
+						if (sameModels[j].getUnderlyingResource() == null) {
 							// ignore duplicate external models
 							continue;
 						}
@@ -305,10 +324,10 @@ public class FeatureModelManager {
 				String id = model.getFeature().getId();
 				String version = model.getFeature().getVersion();
 
-				FeatureTable.Idver oldIdver = fActiveModels.get(model);
+				FeatureTable.Idver oldIdver = activeModels.get(model);
 				if (oldIdver != null && !oldIdver.equals(id, version)) {
 					// version changed
-					FeatureTable.Idver idver = fActiveModels.add(model);
+					FeatureTable.Idver idver = activeModels.add(model);
 					if (affectedIdVers == null)
 						affectedIdVers = new HashSet();
 					affectedIdVers.add(oldIdver);
@@ -322,7 +341,8 @@ public class FeatureModelManager {
 			}
 		}
 		/* 2. Move features between active and inactive tables if necessary */
-		adjustExternalVisibility(delta, affectedIdVers);
+		adjustExternalVisibility(activeModels, delta, affectedIdVers);
+		fActiveModels = activeModels;
 		/*
 		 * 3. Changed models that do result in FeatureModelDelta.ADDED or
 		 * FeatureModelDelta.Removed fire FeatureModelDelta.CHANGED
@@ -343,14 +363,15 @@ public class FeatureModelManager {
 	}
 
 	/**
+	 * @param activeModels
 	 * @param delta
 	 * @param affectedIdVers
 	 */
-	private void adjustExternalVisibility(FeatureModelDelta delta, Set affectedIdVers) {
+	private void adjustExternalVisibility(FeatureTable activeModels, FeatureModelDelta delta, Set affectedIdVers) {
 		if (affectedIdVers != null) {
 			for (Iterator it = affectedIdVers.iterator(); it.hasNext();) {
 				FeatureTable.Idver idver = (FeatureTable.Idver) it.next();
-				IFeatureModel[] affectedModels = fActiveModels.get(idver);
+				IFeatureModel[] affectedModels = activeModels.get(idver);
 				if (affectedModels.length > 1) {
 					/*
 					 * there must have been at least one workspace and one
@@ -359,7 +380,7 @@ public class FeatureModelManager {
 					for (int j = 0; j < affectedModels.length; j++) {
 						if (affectedModels[j].getUnderlyingResource() == null) {
 							// move external to inactive
-							fActiveModels.remove(affectedModels[j]);
+							activeModels.remove(affectedModels[j]);
 							fInactiveModels.add(affectedModels[j]);
 							delta.add(affectedModels[j], IFeatureModelDelta.REMOVED);
 						}
@@ -372,7 +393,7 @@ public class FeatureModelManager {
 					if (models.length > 0) {
 						// external model exists, move it to active
 						fInactiveModels.remove(models[0]);
-						fActiveModels.add(models[0]);
+						activeModels.add(models[0]);
 						delta.add(models[0], IFeatureModelDelta.ADDED);
 					}
 				}
@@ -19,6 +19,11 @@ import org.eclipse.pde.internal.core.ifeature.IFeatureModel;
  * retrieval. Given id or version may have more than one corresponding model. A
  * model has only one id and version that can be null. When models changes, its
  * Idver stays unchanged until the models reinserted.
+ * <p>
+ * A table is not synchronized.  Tables that can be read by several threads are not
+ * modified once they are published, changes are made to a {@link #copy()} of the table
+ * which then replaces it.
+ * </p>
  */
 class FeatureTable {
 	public class Idver {
@@ -93,15 +98,34 @@ class FeatureTable {
 		fId2idvers = new HashMap();
 	}
 
-	public synchronized Idver get(IFeatureModel model) {
+	/**
+	 * Returns a copy of this table that can be modified without affecting this table
+	 * 
+	 * @return a copy of the table
+	 */
+	public FeatureTable copy() {
+		FeatureTable copy = new FeatureTable();
+		copy.fModel2idver.putAll(fModel2idver);
+		for (Iterator iter = fIdver2models.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			copy.fIdver2models.put(entry.getKey(), new ArrayList((ArrayList) entry.getValue()));
+		}
+		for (Iterator iter = fId2idvers.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			copy.fId2idvers.put(entry.getKey(), new ArrayList((ArrayList) entry.getValue()));
+		}
+		return copy;
+	}
+
+	public Idver get(IFeatureModel model) {
 		return (Idver) fModel2idver.get(model);
 	}
 
-	public synchronized IFeatureModel[] get(String id, String version) {
+	public IFeatureModel[] get(String id, String version) {
 		return getImpl(new Idver(id, version));
 	}
 
-	public synchronized IFeatureModel[] get(Idver idver) {
+	public IFeatureModel[] get(Idver idver) {
 		return getImpl(idver);
 	}
 
@@ -113,7 +137,7 @@ class FeatureTable {
 		return (IFeatureModel[]) models.toArray(new IFeatureModel[models.size()]);
 	}
 
-	public synchronized IFeatureModel[] get(String id) {
+	public IFeatureModel[] get(String id) {
 		ArrayList idvers = (ArrayList) fId2idvers.get(id);
 		if (idvers == null)
 			return NO_MODELS;
@@ -129,7 +153,7 @@ class FeatureTable {
 		return (IFeatureModel[]) allModels.toArray(new IFeatureModel[allModels.size()]);
 	}
 
-	public synchronized IFeatureModel[] getAll() {
+	public IFeatureModel[] getAll() {
 		return getAllImpl();
 	}
 
@@ -142,7 +166,7 @@ class FeatureTable {
 	 * 
 	 * @return Idver if model existed and was removed, null otherwise
 	 */
-	public synchronized Idver remove(IFeatureModel model) {
+	public Idver remove(IFeatureModel model) {
 		return removeImpl(model);
 	}
 
@@ -180,7 +204,7 @@ class FeatureTable {
 	 * 
 	 * @return Idver used during insertion
 	 */
-	public synchronized Idver add(IFeatureModel model) {
+	public Idver add(IFeatureModel model) {
 		removeImpl(model);
 
 		IFeature feature = model.getFeature();
@@ -207,7 +231,7 @@ class FeatureTable {
 		return idver;
 	}
 
-	public synchronized String toString() {
+	public String toString() {
 		IFeatureModel[] models = getAllImpl();
 		StringBuffer buf = new StringBuffer(30 * models.length);
 		buf.append("["); //$NON-NLS-1$
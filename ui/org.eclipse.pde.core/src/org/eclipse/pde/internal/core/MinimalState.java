@@ -24,6 +24,7 @@ import org.eclipse.osgi.util.ManifestElement;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.util.Headers;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
 import org.osgi.util.tracker.ServiceTracker;
@@ -52,6 +53,36 @@ public class MinimalState {
 
 	protected String fSystemBundle = IPDEBuildConstants.BUNDLE_OSGI;
 
+	/**
+	 * Maximum number of threads used to read bundle manifests
+	 */
+	private static final int MAX_READER_THREADS = 8;
+
+	/**
+	 * The manifest headers of a bundle, read before the bundle is added to the state.
+	 * Either the manifest or the failure to read it is set.
+	 */
+	protected static class BundleManifest {
+		final File location;
+		final Dictionary manifest;
+		final boolean hasBundleStructure;
+		final Exception failure;
+
+		BundleManifest(File location, Dictionary manifest, boolean hasBundleStructure) {
+			this.location = location;
+			this.manifest = manifest;
+			this.hasBundleStructure = hasBundleStructure;
+			this.failure = null;
+		}
+
+		BundleManifest(File location, Exception failure) {
+			this.location = location;
+			this.manifest = null;
+			this.hasBundleStructure = false;
+			this.failure = failure;
+		}
+	}
+
 	static {
 		DEBUG = PDECore.getDefault().isDebugging() && "true".equals(Platform.getDebugOption("org.eclipse.pde.core/cache")); //$NON-NLS-1$ //$NON-NLS-2$
 		DIR = PDECore.getDefault().getStateLocation().toOSString();
@@ -129,19 +160,25 @@ public class MinimalState {
 	 * @throws IOException if I/O problems occur while reading the bundle
 	 */
 	public BundleDescription addBundle(File bundleLocation, long bundleId) throws PluginConversionException, CoreException, IOException {
-		Dictionary manifest = loadManifest(bundleLocation);
+		return addBundleManifest(readBundleManifest(bundleLocation), bundleId);
+	}
+
+	/**
+	 * Creates a new bundle description from manifest headers read by {@link #readBundleManifest(File)}
+	 * and adds it to the OSGi state.  Can return <code>null</code> if the headers were not read from
+	 * a valid bundle.
+	 * 
+	 * @param bundleManifest the headers of the bundle or <code>null</code>
+	 * @param bundleId the unique id to give the bundle in the OSGi state
+	 * @return the created bundle description or <code>null</code>
+	 */
+	protected BundleDescription addBundleManifest(BundleManifest bundleManifest, long bundleId) {
+		if (bundleManifest == null || bundleManifest.manifest == null)
+			return null;
+		Dictionary manifest = bundleManifest.manifest;
 		// update for development mode
 		TargetWeaver.weaveManifest(manifest);
-		boolean hasBundleStructure = manifest != null && manifest.get(Constants.BUNDLE_SYMBOLICNAME) != null;
-		if (!hasBundleStructure) {
-			if (!bundleLocation.isFile() && !new File(bundleLocation, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR).exists() && !new File(bundleLocation, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR).exists())
-				return null;
-			PluginConverter converter = acquirePluginConverter();
-			manifest = converter.convertManifest(bundleLocation, false, null, false, null);
-			if (manifest == null || manifest.get(Constants.BUNDLE_SYMBOLICNAME) == null)
-				throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, IStatus.ERROR, "Error parsing plug-in manifest file at " + bundleLocation.toString(), null)); //$NON-NLS-1$
-		}
-		BundleDescription desc = addBundle(manifest, bundleLocation, bundleId);
+		BundleDescription desc = addBundle(manifest, bundleManifest.location, bundleId);
 		if (desc != null && "true".equals(manifest.get(ICoreConstants.ECLIPSE_SYSTEM_BUNDLE))) { //$NON-NLS-1$
 			// if this is the system bundle then 
 			// indicate that the javaProfile has changed since the new system
@@ -150,11 +187,89 @@ public class MinimalState {
 			fSystemBundle = desc.getSymbolicName();
 		}
 		if (desc != null) {
-			addAuxiliaryData(desc, manifest, hasBundleStructure);
+			addAuxiliaryData(desc, manifest, bundleManifest.hasBundleStructure);
 		}
 		return desc;
 	}
 
+	/**
+	 * Reads the manifest headers of a bundle, converting old style plug-ins. This method does
+	 * not modify the OSGi state and can be called from several threads at once.  The headers
+	 * are updated for development mode when the bundle is added to the state.  Can return 
+	 * <code>null</code> if the provided file is not a valid bundle.
+	 * 
+	 * @param bundleLocation file location of a bundle folder or archive file
+	 * @return the manifest headers of the bundle or <code>null</code>
+	 * @throws PluginConversionException if an old style plug-in is found and there is a problem converting it to a bundle
+	 * @throws CoreException if there is a problem parsing the manifest
+	 * @throws IOException if I/O problems occur while reading the bundle
+	 */
+	protected BundleManifest readBundleManifest(File bundleLocation) throws PluginConversionException, CoreException, IOException {
+		Dictionary manifest = loadManifest(bundleLocation);
+		boolean hasBundleStructure = manifest != null && manifest.get(Constants.BUNDLE_SYMBOLICNAME) != null;
+		if (!hasBundleStructure) {
+			if (!bundleLocation.isFile() && !new File(bundleLocation, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR).exists() && !new File(bundleLocation, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR).exists())
+				return null;
+			PluginConverter converter = acquirePluginConverter();
+			// the converter keeps the plug-in being converted in fields
+			synchronized (converter) {
+				manifest = converter.convertManifest(bundleLocation, false, null, false, null);
+			}
+			if (manifest == null || manifest.get(Constants.BUNDLE_SYMBOLICNAME) == null)
+				throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, IStatus.ERROR, "Error parsing plug-in manifest file at " + bundleLocation.toString(), null)); //$NON-NLS-1$
+		}
+		return new BundleManifest(bundleLocation, manifest, hasBundleStructure);
+	}
+
+	/**
+	 * Reads the manifest headers of the given bundles on a bounded set of worker threads.  The 
+	 * state is not modified, the returned headers can be added to it in order using 
+	 * {@link #addBundleManifest(BundleManifest, long)}.  Bundles that are not valid have a <code>null</code>
+	 * manifest in the result, bundles that could not be read have the failure set instead. 
+	 * 
+	 * @param bundleLocations file locations of bundle folders or archive files
+	 * @param monitor progress monitor, will be given one unit of work per bundle, must not be <code>null</code>
+	 * @return the headers read for each of the given locations, in order, or <code>null</code> if the monitor was cancelled
+	 */
+	protected BundleManifest[] readBundleManifests(final File[] bundleLocations, IProgressMonitor monitor) {
+		final BundleManifest[] manifests = new BundleManifest[bundleLocations.length];
+		int threads = Math.min(MAX_READER_THREADS, Runtime.getRuntime().availableProcessors() * 2);
+		try {
+			boolean done = ParallelRunner.run("PDE manifest reader", bundleLocations.length, threads, new ParallelRunner.Work() { //$NON-NLS-1$
+				public void run(int index, IProgressMonitor workMonitor) {
+					manifests[index] = readBundleManifestSafely(bundleLocations[index]);
+				}
+			}, monitor);
+			return done ? manifests : null;
+		} catch (CoreException e) {
+			// failures are recorded in the manifests
+			PDECore.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the manifest headers of a bundle, recording any failure in the result rather than throwing it
+	 * 
+	 * @param bundleLocation file location of a bundle folder or archive file
+	 * @return the manifest headers of the bundle, never <code>null</code>
+	 */
+	private BundleManifest readBundleManifestSafely(File bundleLocation) {
+		try {
+			BundleManifest manifest = readBundleManifest(bundleLocation);
+			return manifest != null ? manifest : new BundleManifest(bundleLocation, null, false);
+		} catch (PluginConversionException e) {
+			return new BundleManifest(bundleLocation, e);
+		} catch (CoreException e) {
+			return new BundleManifest(bundleLocation, e);
+		} catch (IOException e) {
+			return new BundleManifest(bundleLocation, e);
+		} catch (RuntimeException e) {
+			PDECore.log(e);
+			return new BundleManifest(bundleLocation, e);
+		}
+	}
+
 	protected void addAuxiliaryData(BundleDescription desc, Dictionary manifest, boolean hasBundleStructure) {
 	}
 
@@ -280,7 +395,7 @@ public class MinimalState {
 			fState.addBundle(toAdd);
 	}
 
-	private PluginConverter acquirePluginConverter() {
+	private synchronized PluginConverter acquirePluginConverter() {
 		if (fConverter == null) {
 			ServiceTracker tracker = new ServiceTracker(PDECore.getDefault().getBundleContext(), PluginConverter.class.getName(), null);
 			tracker.open();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -292,8 +292,8 @@ public class P2Utils {
 
 		SimpleConfiguratorManipulator manipulator = (SimpleConfiguratorManipulator) BundleHelper.getDefault().acquireService(SimpleConfiguratorManipulator.class.getName());
 		try {
-			manipulator.saveConfiguration(infos, bundlesTxt, null);
-			manipulator.saveConfiguration(sources, srcBundlesTxt, null);
+			saveConfiguration(manipulator, infos, bundlesTxt);
+			saveConfiguration(manipulator, sources, srcBundlesTxt);
 		} catch (IOException e) {
 			PDECore.logException(e);
 			return null;
@@ -310,6 +310,56 @@ public class P2Utils {
 		}
 	}
 
+	/**
+	 * Saves the given bundles to a simple configurator file, leaving the file untouched if its
+	 * content would not change.  The simple configurator only installs the bundles again when
+	 * the timestamp of its file changes, so keeping the file saves a full reconcile of the
+	 * configuration when the same bundles are launched again.  The file is kept whether or not
+	 * the configuration area is kept between launches, so bundles installed by the launched
+	 * application itself are no longer uninstalled on the next launch of the same bundles.
+	 * 
+	 * @param manipulator the simple configurator manipulator
+	 * @param infos the bundles to save
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void saveConfiguration(SimpleConfiguratorManipulator manipulator, BundleInfo[] infos, File file) throws IOException {
+		if (!file.exists()) {
+			manipulator.saveConfiguration(infos, file, null);
+			return;
+		}
+		File newFile = new File(file.getParentFile(), file.getName() + ".new"); //$NON-NLS-1$
+		manipulator.saveConfiguration(infos, newFile, null);
+		if (contentEquals(file, newFile)) {
+			newFile.delete();
+		} else if (!file.delete() || !newFile.renameTo(file)) {
+			newFile.delete();
+			manipulator.saveConfiguration(infos, file, null);
+		}
+	}
+
+	private static boolean contentEquals(File file1, File file2) throws IOException {
+		if (!file2.exists() || file1.length() != file2.length())
+			return false;
+		InputStream stream1 = null;
+		InputStream stream2 = null;
+		try {
+			stream1 = new BufferedInputStream(new FileInputStream(file1));
+			stream2 = new BufferedInputStream(new FileInputStream(file2));
+			int read;
+			while ((read = stream1.read()) != -1) {
+				if (read != stream2.read())
+					return false;
+			}
+			return stream2.read() == -1;
+		} finally {
+			if (stream1 != null)
+				stream1.close();
+			if (stream2 != null)
+				stream2.close();
+		}
+	}
+
 	/**
 	 * Returns whether a profile with the given ID exists in a profile registry
 	 * stored in the give p2 data area.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 IBM Corporation and others.
+ * Copyright (c) 2006, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,17 +10,12 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Dictionary;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -41,16 +36,21 @@ import org.w3c.dom.NodeList;
 
 /**
  * Stores additional information from the manifest files of plugins and stores
- * this information in separate xml file.  Accessed through PDEState.
+ * this information in a separate binary file.  Accessed through PDEState.
  */
 public class PDEAuxiliaryState {
 
 	private static String CACHE_EXTENSION = ".pluginInfo"; //$NON-NLS-1$
 
+	/**
+	 * Name of the binary cache file, replaces the xml file named {@link #CACHE_EXTENSION}
+	 * which is still read if it is the only one present
+	 */
+	private static String BINARY_CACHE_FILE = ".pluginInfo.bin"; //$NON-NLS-1$
+
 	private static String ATTR_BUNDLE_ID = "bundleID"; //$NON-NLS-1$
 	private static String ATTR_BUNDLE_STRUCTURE = "isBundle"; //$NON-NLS-1$
 	private static String ATTR_CLASS = "class"; //$NON-NLS-1$
-	private static String ATTR_EXPORTED = "exported"; //$NON-NLS-1$
 	private static String ATTR_EXTENSIBLE_API = "hasExtensibleAPI"; //$NON-NLS-1$
 	private static String ATTR_LOCALIZATION = "localization"; //$NON-NLS-1$
 	private static String ATTR_NAME = "name"; //$NON-NLS-1$
@@ -59,17 +59,20 @@ public class PDEAuxiliaryState {
 	private static String ATTR_PROVIDER = "provider"; //$NON-NLS-1$
 	private static String ATTR_BUNDLE_SOURCE = "bundleSource"; //$NON-NLS-1$
 
-	private static String ELEMENT_BUNDLE = "bundle"; //$NON-NLS-1$
-	private static String ELEMENT_LIB = "library"; //$NON-NLS-1$
-	private static String ELEMENT_ROOT = "map"; //$NON-NLS-1$
-
 	protected Map fPluginInfos;
 
+	/**
+	 * List of {@link PluginInfoTable}s read from binary cache files.  Their records are
+	 * decoded into {@link #fPluginInfos} when they are first accessed.
+	 */
+	private List fTables;
+
 	/**
 	 * Constructor
 	 */
 	protected PDEAuxiliaryState() {
 		fPluginInfos = new HashMap();
+		fTables = new ArrayList();
 	}
 
 	/**
@@ -78,13 +81,16 @@ public class PDEAuxiliaryState {
 	 * @param state state containing plugin infos to initialize this state with 
 	 */
 	protected PDEAuxiliaryState(PDEAuxiliaryState state) {
-		fPluginInfos = new HashMap(state.fPluginInfos);
+		synchronized (state) {
+			fPluginInfos = new HashMap(state.fPluginInfos);
+			fTables = new ArrayList(state.fTables);
+		}
 	}
 
 	/**
 	 * Provides a simple way of storing auxiliary data for a plugin 
 	 */
-	class PluginInfo {
+	static class PluginInfo {
 		String name;
 		String providerName;
 		String className;
@@ -132,111 +138,131 @@ public class PDEAuxiliaryState {
 		fPluginInfos.put(element.getAttribute(ATTR_BUNDLE_ID), info);
 	}
 
+	/**
+	 * Returns the plugin info for the given bundle, decoding it from the binary cache
+	 * if it has not been accessed yet.
+	 * @param bundleID id of the bundle
+	 * @return the plugin info or <code>null</code> if there is none for the bundle
+	 */
+	private synchronized PluginInfo getPluginInfo(long bundleID) {
+		String key = Long.toString(bundleID);
+		PluginInfo info = (PluginInfo) fPluginInfos.get(key);
+		if (info == null) {
+			for (int i = 0; i < fTables.size() && info == null; i++) {
+				info = ((PluginInfoTable) fTables.get(i)).get(bundleID);
+			}
+			if (info != null)
+				fPluginInfos.put(key, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Decodes all plugin infos from the binary caches that have not been accessed yet
+	 */
+	private synchronized void decodeAll() {
+		for (int i = 0; i < fTables.size(); i++) {
+			PluginInfoTable table = (PluginInfoTable) fTables.get(i);
+			for (int j = 0; j < table.size(); j++) {
+				String key = Long.toString(table.getBundleId(j));
+				if (!fPluginInfos.containsKey(key))
+					fPluginInfos.put(key, table.getRecord(j));
+			}
+		}
+		fTables.clear();
+	}
+
 	public String getClassName(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.className;
 	}
 
 	public boolean hasExtensibleAPI(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? false : info.hasExtensibleAPI;
 	}
 
 	public boolean isPatchFragment(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? false : info.isPatchFragment;
 	}
 
 	public boolean hasBundleStructure(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? false : info.hasBundleStructure;
 	}
 
 	public String getPluginName(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.name;
 	}
 
 	public String getProviderName(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.providerName;
 	}
 
 	public String[] getLibraryNames(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? new String[0] : info.libraries;
 	}
 
 	public String getBundleLocalization(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.localization;
 	}
 
 	public String getProject(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.project;
 	}
 
 	public String getBundleSourceEntry(long bundleID) {
-		PluginInfo info = (PluginInfo) fPluginInfos.get(Long.toString(bundleID));
+		PluginInfo info = getPluginInfo(bundleID);
 		return info == null ? null : info.bundleSourceEntry;
 	}
 
 	/**
-	 * Builds an xml document storing the auxiliary plugin info.
+	 * Writes the auxiliary plugin info to a binary file.
 	 * @param dir directory location to create the file
 	 */
 	protected void savePluginInfo(File dir) {
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			Document doc = factory.newDocumentBuilder().newDocument();
-			Element root = doc.createElement(ELEMENT_ROOT);
-
-			Iterator iter = fPluginInfos.keySet().iterator();
-			while (iter.hasNext()) {
-				String key = iter.next().toString();
-				Element element = doc.createElement(ELEMENT_BUNDLE);
-				element.setAttribute(ATTR_BUNDLE_ID, key);
-				PluginInfo info = (PluginInfo) fPluginInfos.get(key);
-				if (info.className != null)
-					element.setAttribute(ATTR_CLASS, info.className);
-				if (info.providerName != null)
-					element.setAttribute(ATTR_PROVIDER, info.providerName);
-				if (info.name != null)
-					element.setAttribute(ATTR_NAME, info.name);
-				if (info.hasExtensibleAPI)
-					element.setAttribute(ATTR_EXTENSIBLE_API, "true"); //$NON-NLS-1$ 
-				if (info.isPatchFragment)
-					element.setAttribute(ATTR_PATCH, "true"); //$NON-NLS-1$ 
-				if (!info.hasBundleStructure)
-					element.setAttribute(ATTR_BUNDLE_STRUCTURE, "false"); //$NON-NLS-1$ 
-				if (info.localization != null)
-					element.setAttribute(ATTR_LOCALIZATION, info.localization);
-				if (info.bundleSourceEntry != null)
-					element.setAttribute(ATTR_BUNDLE_SOURCE, info.bundleSourceEntry);
-				if (info.libraries != null) {
-					for (int i = 0; i < info.libraries.length; i++) {
-						Element lib = doc.createElement(ELEMENT_LIB);
-						lib.setAttribute(ATTR_NAME, info.libraries[i]);
-						element.appendChild(lib);
-					}
-				}
-				root.appendChild(element);
+			decodeAll();
+			Map infos;
+			synchronized (this) {
+				infos = new HashMap(fPluginInfos);
 			}
-			doc.appendChild(root);
-			XMLPrintHandler.writeFile(doc, new File(dir, CACHE_EXTENSION));
+			PluginInfoTable.write(infos, new File(dir, BINARY_CACHE_FILE));
+			new File(dir, CACHE_EXTENSION).delete();
 		} catch (Exception e) {
 			PDECore.log(e);
 		}
 	}
 
 	/**
-	 * Loads plugin info objects from the pluginInfo xml file stored in the
-	 * given directory.
+	 * Loads plugin info objects from the binary pluginInfo file stored in the
+	 * given directory, or from the xml file written by previous versions.
 	 * @param dir location to look for the pluginInfo file
 	 * @return true if the file was read successfully, false otherwise
 	 */
 	protected boolean readPluginInfoCache(File dir) {
+		File binary = new File(dir, BINARY_CACHE_FILE);
+		if (binary.isFile()) {
+			long start = System.currentTimeMillis();
+			try {
+				PluginInfoTable table = PluginInfoTable.read(binary);
+				synchronized (this) {
+					fTables.add(table);
+				}
+				if (MinimalState.DEBUG)
+					System.out.println("Time to read " + table.size() + " plug-in infos from " + binary.getAbsolutePath() + ": " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				return true;
+			} catch (IOException e) {
+				PDECore.log(e);
+				return false;
+			}
+		}
 		File file = new File(dir, CACHE_EXTENSION);
 		if (file.exists() && file.isFile()) {
 			try {
@@ -271,70 +297,50 @@ public class PDEAuxiliaryState {
 	 * @return whether the state file exist
 	 */
 	protected boolean exists(File dir) {
-		File file = new File(dir, CACHE_EXTENSION);
-		return file.exists() && file.isFile();
+		// an xml file written by a previous version is replaced when the state is saved
+		return new File(dir, BINARY_CACHE_FILE).isFile();
 	}
 
 	/**
-	 * Writes out auxiliary information from the given models to an xml file
+	 * Writes out auxiliary information from the given models to a binary file
 	 * in the given destination directory.
 	 * @param models models to collect information from
-	 * @param destination directory to create the xml file in
+	 * @param destination directory to create the file in
 	 */
 	public static void writePluginInfo(IPluginModelBase[] models, File destination) {
-		try {
-			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			Document doc = builder.newDocument();
-
-			Element root = doc.createElement(ELEMENT_ROOT);
-			doc.appendChild(root);
-			for (int i = 0; i < models.length; i++) {
-				IPluginBase plugin = models[i].getPluginBase();
-				BundleDescription desc = models[i].getBundleDescription();
-				if (desc == null)
-					continue;
-				Element element = doc.createElement(ELEMENT_BUNDLE);
-				element.setAttribute(ATTR_BUNDLE_ID, Long.toString(desc.getBundleId()));
-				element.setAttribute(ATTR_PROJECT, models[i].getUnderlyingResource().getProject().getName());
-				if (plugin instanceof IPlugin && ((IPlugin) plugin).getClassName() != null)
-					element.setAttribute(ATTR_CLASS, ((IPlugin) plugin).getClassName());
-				if (plugin.getProviderName() != null)
-					element.setAttribute(ATTR_PROVIDER, plugin.getProviderName());
-				if (plugin.getName() != null)
-					element.setAttribute(ATTR_NAME, plugin.getName());
-				if (ClasspathUtilCore.hasExtensibleAPI(models[i]))
-					element.setAttribute(ATTR_EXTENSIBLE_API, "true"); //$NON-NLS-1$ 
-				else if (ClasspathUtilCore.isPatchFragment(models[i]))
-					element.setAttribute(ATTR_PATCH, "true"); //$NON-NLS-1$ 
-				if (!(models[i] instanceof IBundlePluginModelBase))
-					element.setAttribute(ATTR_BUNDLE_STRUCTURE, "false"); //$NON-NLS-1$ 
-				if (models[i] instanceof IBundlePluginModelBase) {
-					String localization = ((IBundlePluginModelBase) models[i]).getBundleLocalization();
-					if (localization != null)
-						element.setAttribute(ATTR_LOCALIZATION, localization);
-				}
-				if (models[i] instanceof IBundlePluginModelBase) {
-					IBundleModel bundleModel = ((IBundlePluginModelBase) models[i]).getBundleModel();
-					if (bundleModel != null) {
-						String bundleSourceEntry = bundleModel.getBundle().getHeader(ICoreConstants.ECLIPSE_SOURCE_BUNDLE);
-						if (bundleSourceEntry != null) {
-							element.setAttribute(ATTR_BUNDLE_SOURCE, bundleSourceEntry);
-						}
-					}
-				}
-				IPluginLibrary[] libraries = plugin.getLibraries();
-				for (int j = 0; j < libraries.length; j++) {
-					Element lib = doc.createElement(ELEMENT_LIB);
-					lib.setAttribute(ATTR_NAME, libraries[j].getName());
-					if (!libraries[j].isExported())
-						lib.setAttribute(ATTR_EXPORTED, "false"); //$NON-NLS-1$ 
-					element.appendChild(lib);
-				}
-				root.appendChild(element);
+		Map infos = new HashMap(models.length);
+		for (int i = 0; i < models.length; i++) {
+			IPluginBase plugin = models[i].getPluginBase();
+			BundleDescription desc = models[i].getBundleDescription();
+			if (desc == null)
+				continue;
+			PluginInfo info = new PluginInfo();
+			info.project = models[i].getUnderlyingResource().getProject().getName();
+			if (plugin instanceof IPlugin)
+				info.className = ((IPlugin) plugin).getClassName();
+			info.providerName = plugin.getProviderName();
+			info.name = plugin.getName();
+			if (ClasspathUtilCore.hasExtensibleAPI(models[i]))
+				info.hasExtensibleAPI = true;
+			else if (ClasspathUtilCore.isPatchFragment(models[i]))
+				info.isPatchFragment = true;
+			info.hasBundleStructure = models[i] instanceof IBundlePluginModelBase;
+			if (models[i] instanceof IBundlePluginModelBase) {
+				info.localization = ((IBundlePluginModelBase) models[i]).getBundleLocalization();
+				IBundleModel bundleModel = ((IBundlePluginModelBase) models[i]).getBundleModel();
+				if (bundleModel != null)
+					info.bundleSourceEntry = bundleModel.getBundle().getHeader(ICoreConstants.ECLIPSE_SOURCE_BUNDLE);
 			}
-			XMLPrintHandler.writeFile(doc, new File(destination, CACHE_EXTENSION));
-		} catch (ParserConfigurationException e) {
-		} catch (FactoryConfigurationError e) {
+			IPluginLibrary[] libraries = plugin.getLibraries();
+			info.libraries = new String[libraries.length];
+			for (int j = 0; j < libraries.length; j++) {
+				info.libraries[j] = libraries[j].getName();
+			}
+			infos.put(Long.toString(desc.getBundleId()), info);
+		}
+		try {
+			PluginInfoTable.write(infos, new File(destination, BINARY_CACHE_FILE));
+			new File(destination, CACHE_EXTENSION).delete();
 		} catch (IOException e) {
 		}
 	}
@@ -345,7 +351,7 @@ public class PDEAuxiliaryState {
 	 * @param manifest dictionary of headers in the bundle's manifest file
 	 * @param hasBundleStructure whether the plugin has bundle structure
 	 */
-	protected void addAuxiliaryData(BundleDescription desc, Dictionary manifest, boolean hasBundleStructure) {
+	protected synchronized void addAuxiliaryData(BundleDescription desc, Dictionary manifest, boolean hasBundleStructure) {
 		PluginInfo info = new PluginInfo();
 		info.name = (String) manifest.get(Constants.BUNDLE_NAME);
 		info.providerName = (String) manifest.get(Constants.BUNDLE_VENDOR);
@@ -385,8 +391,232 @@ public class PDEAuxiliaryState {
 	/**
 	 * Clears the plugin info object map.
 	 */
-	protected void clear() {
+	protected synchronized void clear() {
 		fPluginInfos.clear();
+		fTables.clear();
+	}
+
+	/**
+	 * Plugin infos stored in a binary file: a pool of strings followed by fixed size records
+	 * sorted by bundle id.  Strings and records are only decoded when they are accessed.
+	 */
+	static class PluginInfoTable {
+
+		private static final int MAGIC = 0x50444541; // PDEA
+		private static final int VERSION = 1;
+
+		/**
+		 * Size of a record: the bundle id, six string indexes, the flags and the
+		 * offset and length of the library indexes
+		 */
+		private static final int RECORD_SIZE = 8 + (9 * 4);
+
+		private static final int FLAG_EXTENSIBLE_API = 0x1;
+		private static final int FLAG_PATCH = 0x2;
+		private static final int FLAG_BUNDLE_STRUCTURE = 0x4;
+
+		private ByteBuffer fBuffer;
+		private int[] fStringOffsets;
+		private String[] fStrings;
+		private int fRecordsStart;
+		private int fRecordCount;
+		private int fLibrariesStart;
+
+		/**
+		 * Reads a table from the given file.  Only the positions of the strings
+		 * are read, the strings and records are decoded on demand.
+		 * 
+		 * @param file the file to read
+		 * @return the table
+		 * @throws IOException if the file cannot be read or is not a valid table
+		 */
+		static PluginInfoTable read(File file) throws IOException {
+			byte[] data = new byte[(int) file.length()];
+			DataInputStream in = new DataInputStream(new FileInputStream(file));
+			try {
+				in.readFully(data);
+			} finally {
+				in.close();
+			}
+			try {
+				PluginInfoTable table = new PluginInfoTable();
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+					throw new IOException("Invalid plug-in info cache " + file.getAbsolutePath()); //$NON-NLS-1$
+				int count = buffer.getInt();
+				table.fStringOffsets = new int[count];
+				table.fStrings = new String[count];
+				for (int i = 0; i < count; i++) {
+					table.fStringOffsets[i] = buffer.position();
+					int length = buffer.getShort() & 0xFFFF;
+					buffer.position(buffer.position() + length);
+				}
+				table.fRecordCount = buffer.getInt();
+				table.fRecordsStart = buffer.position();
+				table.fLibrariesStart = table.fRecordsStart + (table.fRecordCount * RECORD_SIZE) + 4;
+				table.fBuffer = buffer;
+				return table;
+			} catch (RuntimeException e) {
+				// buffer under flow or illegal position
+				throw new IOException("Invalid plug-in info cache " + file.getAbsolutePath()); //$NON-NLS-1$
+			}
+		}
+
+		/**
+		 * Writes the given plugin infos to the given file
+		 * 
+		 * @param infos map of bundle id string to {@link PluginInfo}
+		 * @param file the file to write
+		 * @throws IOException
+		 */
+		static void write(Map infos, File file) throws IOException {
+			long[] ids = new long[infos.size()];
+			int count = 0;
+			for (Iterator iter = infos.keySet().iterator(); iter.hasNext();) {
+				ids[count++] = Long.parseLong((String) iter.next());
+			}
+			Arrays.sort(ids);
+			List strings = new ArrayList();
+			Map indexes = new HashMap();
+			ByteArrayOutputStream records = new ByteArrayOutputStream(ids.length * RECORD_SIZE);
+			DataOutputStream recordsOut = new DataOutputStream(records);
+			ByteArrayOutputStream libraries = new ByteArrayOutputStream();
+			DataOutputStream librariesOut = new DataOutputStream(libraries);
+			int libraryCount = 0;
+			for (int i = 0; i < ids.length; i++) {
+				PluginInfo info = (PluginInfo) infos.get(Long.toString(ids[i]));
+				recordsOut.writeLong(ids[i]);
+				recordsOut.writeInt(intern(info.name, strings, indexes));
+				recordsOut.writeInt(intern(info.providerName, strings, indexes));
+				recordsOut.writeInt(intern(info.className, strings, indexes));
+				recordsOut.writeInt(intern(info.project, strings, indexes));
+				recordsOut.writeInt(intern(info.localization, strings, indexes));
+				recordsOut.writeInt(intern(info.bundleSourceEntry, strings, indexes));
+				int flags = 0;
+				if (info.hasExtensibleAPI)
+					flags |= FLAG_EXTENSIBLE_API;
+				if (info.isPatchFragment)
+					flags |= FLAG_PATCH;
+				if (info.hasBundleStructure)
+					flags |= FLAG_BUNDLE_STRUCTURE;
+				recordsOut.writeInt(flags);
+				String[] libs = info.libraries == null ? new String[0] : info.libraries;
+				recordsOut.writeInt(libraryCount);
+				recordsOut.writeInt(libs.length);
+				for (int j = 0; j < libs.length; j++) {
+					librariesOut.writeInt(intern(libs[j], strings, indexes));
+				}
+				libraryCount += libs.length;
+			}
+			recordsOut.flush();
+			librariesOut.flush();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(strings.size());
+				for (Iterator iter = strings.iterator(); iter.hasNext();) {
+					out.writeUTF((String) iter.next());
+				}
+				out.writeInt(ids.length);
+				records.writeTo(out);
+				out.writeInt(libraryCount);
+				libraries.writeTo(out);
+			} finally {
+				out.close();
+			}
+		}
+
+		private static int intern(String string, List strings, Map indexes) {
+			if (string == null)
+				return -1;
+			Integer index = (Integer) indexes.get(string);
+			if (index == null) {
+				index = new Integer(strings.size());
+				indexes.put(string, index);
+				strings.add(string);
+			}
+			return index.intValue();
+		}
+
+		/**
+		 * @return the number of records in the table
+		 */
+		int size() {
+			return fRecordCount;
+		}
+
+		/**
+		 * @param index index of a record
+		 * @return the bundle id of the record
+		 */
+		long getBundleId(int index) {
+			return fBuffer.getLong(fRecordsStart + (index * RECORD_SIZE));
+		}
+
+		/**
+		 * Returns the plugin info for the given bundle
+		 * @param bundleID id of the bundle
+		 * @return the decoded plugin info or <code>null</code> if the table has no record for the bundle
+		 */
+		PluginInfo get(long bundleID) {
+			int low = 0;
+			int high = fRecordCount - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				long id = getBundleId(mid);
+				if (id < bundleID)
+					low = mid + 1;
+				else if (id > bundleID)
+					high = mid - 1;
+				else
+					return getRecord(mid);
+			}
+			return null;
+		}
+
+		/**
+		 * Decodes the record at the given index
+		 * @param index index of a record
+		 * @return the decoded plugin info
+		 */
+		synchronized PluginInfo getRecord(int index) {
+			int offset = fRecordsStart + (index * RECORD_SIZE) + 8;
+			PluginInfo info = new PluginInfo();
+			info.name = getString(fBuffer.getInt(offset));
+			info.providerName = getString(fBuffer.getInt(offset + 4));
+			info.className = getString(fBuffer.getInt(offset + 8));
+			info.project = getString(fBuffer.getInt(offset + 12));
+			info.localization = getString(fBuffer.getInt(offset + 16));
+			info.bundleSourceEntry = getString(fBuffer.getInt(offset + 20));
+			int flags = fBuffer.getInt(offset + 24);
+			info.hasExtensibleAPI = (flags & FLAG_EXTENSIBLE_API) != 0;
+			info.isPatchFragment = (flags & FLAG_PATCH) != 0;
+			info.hasBundleStructure = (flags & FLAG_BUNDLE_STRUCTURE) != 0;
+			int librariesOffset = fLibrariesStart + (fBuffer.getInt(offset + 28) * 4);
+			info.libraries = new String[fBuffer.getInt(offset + 32)];
+			for (int i = 0; i < info.libraries.length; i++) {
+				info.libraries[i] = getString(fBuffer.getInt(librariesOffset + (i * 4)));
+			}
+			return info;
+		}
+
+		private String getString(int index) {
+			if (index < 0)
+				return null;
+			if (fStrings[index] == null) {
+				int offset = fStringOffsets[index];
+				int length = (fBuffer.getShort(offset) & 0xFFFF) + 2;
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(fBuffer.array(), offset, length));
+				try {
+					fStrings[index] = in.readUTF();
+				} catch (IOException e) {
+					PDECore.log(e);
+					return null;
+				}
+			}
+			return fStrings[index];
+		}
 	}
 
 }
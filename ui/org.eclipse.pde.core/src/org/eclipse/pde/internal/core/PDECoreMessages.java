@@ -229,8 +229,6 @@ public class PDECoreMessages extends NLS {
 
 	public static String BundleValidationOperation_multiple_singletons;
 
-	public static String ManifestConsistencyChecker_buildPropertiesSubtask;
-
 	public static String BuildErrorReporter_missingEntry;
 	public static String BuildErrorReporter_missingFolder;
 	public static String BuildErrorReporter_emptyEntry;
@@ -286,6 +284,8 @@ public class PDECoreMessages extends NLS {
 
 	public static String FeatureExportOperation_workspaceBuildErrorsFoundDuringExport;
 
+	public static String FeatureExportOperation_workspaceClassesReused;
+
 	public static String TargetPlatformResetJob_resetTarget;
 
 	public static String XMLErrorReporter_ExternalEntityResolution;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,8 +13,10 @@ package org.eclipse.pde.internal.core;
 import java.io.File;
 import java.util.*;
 import org.eclipse.core.runtime.*;
+import org.eclipse.core.runtime.spi.IDynamicExtensionRegistry;
 import org.eclipse.core.runtime.spi.RegistryContributor;
 import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.ibundle.IBundlePluginModelBase;
 import org.eclipse.pde.internal.core.plugin.PluginExtension;
@@ -99,6 +101,9 @@ public class PDEExtensionRegistry {
 			// if extension point for extension does not exist, search all plug-ins manually
 			return activeOnly ? PluginRegistry.getActiveModels() : PluginRegistry.getAllModels();
 		}
+		ExtensionIndex index = getIndex();
+		if (index != null)
+			return removeShadowedModels(index.getContributingModels(pointId, activeOnly));
 		IExtension[] exts = point.getExtensions();
 		HashSet plugins = new HashSet();
 		for (int i = 0; i < exts.length; i++) {
@@ -109,6 +114,59 @@ public class PDEExtensionRegistry {
 		return (IPluginModelBase[]) plugins.toArray(new IPluginModelBase[plugins.size()]);
 	}
 
+	/**
+	 * Removes the external models that are shadowed by a workspace plug-in with the same
+	 * symbolic name, as {@link #getPlugin(IContributor, boolean)} does when it does not
+	 * search all models
+	 * 
+	 * @param models models of the contributors to the registry
+	 * @return the models that are not shadowed
+	 */
+	private IPluginModelBase[] removeShadowedModels(IPluginModelBase[] models) {
+		State state = PDECore.getDefault().getModelManager().getState().getState();
+		List list = new ArrayList(models.length);
+		for (int i = 0; i < models.length; i++) {
+			BundleDescription desc = models[i].getBundleDescription();
+			if (models[i].getUnderlyingResource() == null && desc != null && isShadowed(desc.getBundleId(), desc.getSymbolicName(), state))
+				continue;
+			list.add(models[i]);
+		}
+		return (IPluginModelBase[]) list.toArray(new IPluginModelBase[list.size()]);
+	}
+
+	/**
+	 * Removes the extensions contributed by external plug-ins that are shadowed by a workspace
+	 * plug-in with the same symbolic name, as {@link PluginRegistry#getAllModels()} does
+	 * 
+	 * @param extensions extensions of the registry
+	 * @return the extensions whose contributors are not shadowed
+	 */
+	private IExtension[] removeShadowedExtensions(IExtension[] extensions) {
+		State state = PDECore.getDefault().getModelManager().getState().getState();
+		List list = new ArrayList(extensions.length);
+		for (int i = 0; i < extensions.length; i++) {
+			IContributor contributor = extensions[i].getContributor();
+			if (contributor instanceof RegistryContributor) {
+				RegistryContributor registryContributor = (RegistryContributor) contributor;
+				if (isShadowed(Long.parseLong(registryContributor.getActualId()), registryContributor.getActualName(), state))
+					continue;
+			}
+			list.add(extensions[i]);
+		}
+		return (IExtension[]) list.toArray(new IExtension[list.size()]);
+	}
+
+	/**
+	 * Returns whether the bundle with the given id is no longer in the state because a
+	 * workspace plug-in with the same symbolic name replaced it
+	 */
+	private boolean isShadowed(long bundleId, String symbolicName, State state) {
+		if (state.getBundle(bundleId) != null)
+			return false;
+		ModelEntry entry = PluginRegistry.findEntry(symbolicName);
+		return entry != null && entry.getWorkspaceModels().length > 0;
+	}
+
 	/*
 	 * Returns IPluginModelBase even if the model is not enabled
 	 */
@@ -125,6 +183,33 @@ public class PDEExtensionRegistry {
 		return getRegistry().getExtensionPoint(pointId);
 	}
 
+	/**
+	 * Returns the index of the contributions made to the registry.  If the registry was loaded
+	 * from its cache, the index is built from the contents of the registry.
+	 * 
+	 * @return the index or <code>null</code> if the registry changed while the index was built
+	 */
+	private ExtensionIndex getIndex() {
+		IExtensionRegistry registry = getRegistry();
+		ExtensionIndex index = fStrategy.getIndex();
+		if (index.isValid())
+			return index;
+		if (!(registry instanceof IDynamicExtensionRegistry))
+			return null;
+		long stamp = index.getStamp();
+		IContributor[] contributors = ((IDynamicExtensionRegistry) registry).getAllContributors();
+		Map models = new HashMap(contributors.length);
+		Map extensions = new HashMap(contributors.length);
+		for (int i = 0; i < contributors.length; i++) {
+			IPluginModelBase model = getPlugin(contributors[i], true);
+			if (model != null) {
+				models.put(contributors[i], model);
+				extensions.put(contributors[i], registry.getExtensions(contributors[i]));
+			}
+		}
+		return index.build(stamp, models, extensions) ? index : null;
+	}
+
 	/*
 	 * Return true if the extension registry has any bundle (enabled/disabled) with the Extension Point specified
 	 */
@@ -159,7 +244,8 @@ public class PDEExtensionRegistry {
 		IContributor contributor = fStrategy.createContributor(base);
 		if (contributor == null)
 			return new IPluginExtension[0];
-		IExtension[] extensions = getRegistry().getExtensions(fStrategy.createContributor(base));
+		ExtensionIndex index = getIndex();
+		IExtension[] extensions = index != null ? index.getExtensions(contributor) : getRegistry().getExtensions(contributor);
 		ArrayList list = new ArrayList();
 		for (int i = 0; i < extensions.length; i++) {
 			PluginExtension extension = new PluginExtension(extensions[i]);
@@ -174,7 +260,7 @@ public class PDEExtensionRegistry {
 		IContributor contributor = fStrategy.createContributor(base);
 		if (contributor == null)
 			return new IPluginExtensionPoint[0];
-		IExtensionPoint[] extensions = getRegistry().getExtensionPoints(fStrategy.createContributor(base));
+		IExtensionPoint[] extensions = getRegistry().getExtensionPoints(contributor);
 		ArrayList list = new ArrayList();
 		for (int i = 0; i < extensions.length; i++) {
 			PluginExtensionPoint point = new PluginExtensionPoint(extensions[i]);
@@ -195,15 +281,21 @@ public class PDEExtensionRegistry {
 		ArrayList list = new ArrayList();
 		IExtensionPoint point = getExtensionPoint(extensionPointId);
 		if (point != null) {
-			IExtension[] extensions = point.getExtensions();
 			if (!activeOnly)
-				return extensions;
+				return point.getExtensions();
+			ExtensionIndex index = getIndex();
+			if (index != null)
+				return index.getExtensions(extensionPointId, true);
+			IExtension[] extensions = point.getExtensions();
 			for (int i = 0; i < extensions.length; i++) {
 				IPluginModelBase base = getPlugin(extensions[i].getContributor(), true);
 				if (base != null && base.isEnabled())
 					list.add(extensions[i]);
 			}
 		} else {
+			ExtensionIndex index = getIndex();
+			if (index != null)
+				return removeShadowedExtensions(index.getExtensions(extensionPointId, activeOnly));
 			IPluginModelBase[] bases = activeOnly ? PluginRegistry.getActiveModels() : PluginRegistry.getAllModels();
 			for (int i = 0; i < bases.length; i++) {
 				IContributor contributor = fStrategy.createContributor(bases[i]);
@@ -33,6 +33,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	private ModelListener fModelListener = null;
 	private ExtensionListener fExtensionListener = null;
 	private PDEExtensionRegistry fPDERegistry = null;
+	private ExtensionIndex fIndex = new ExtensionIndex();
 
 	class RegistryListener {
 		IExtensionRegistry fRegistry;
@@ -80,6 +81,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 						for (int j = 0; j < contributors.length; j++) {
 							if (removedEntries[i].getId().equals(contributors[j].getName())) {
 								registry.removeContributor(contributors[j], fKey);
+								fIndex.remove(contributors[j]);
 								break;
 							}
 						}
@@ -150,13 +152,28 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	public void onStart(IExtensionRegistry registry, boolean loadedFromCache) {
 		super.onStart(registry, loadedFromCache);
 		setListenerRegistry(registry);
-		if (!loadedFromCache)
+		if (loadedFromCache) {
+			fIndex.invalidate();
+		} else {
+			fIndex.reset();
 			processBundles(registry);
+		}
 	}
 
 	public void onStop(IExtensionRegistry registry) {
 		super.onStop(registry);
 		setListenerRegistry(null);
+		fIndex.invalidate();
+	}
+
+	/**
+	 * Returns the index of the contributions made to the registry, it is kept up to date as
+	 * bundles are added to and removed from the registry
+	 * 
+	 * @return the index of the registry contributions
+	 */
+	ExtensionIndex getIndex() {
+		return fIndex;
 	}
 
 	/* (non-Javadoc)
@@ -207,6 +224,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 			}
 			if (is != null) {
 				registry.addContribution(new BufferedInputStream(is), contributor, true, input.getPath(), null, fKey);
+				fIndex.add(contributor, base, registry.getExtensions(contributor));
 			}
 		} catch (IOException e) {
 		} finally {
@@ -224,6 +242,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 			IContributor contributor = createContributor(base);
 			if (contributor != null && ((IDynamicExtensionRegistry) registry).hasContributor(contributor)) {
 				((IDynamicExtensionRegistry) registry).removeContributor(createContributor(base), fKey);
+				fIndex.remove(contributor);
 			}
 		}
 	}
@@ -286,6 +305,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		PluginModelManager manager = PDECore.getDefault().getModelManager();
 		manager.removePluginModelListener(fModelListener);
 		manager.removeExtensionDeltaListener(fExtensionListener);
+		fIndex.invalidate();
 		if (xmlTracker != null) {
 			xmlTracker.close();
 			xmlTracker = null;
@@ -16,6 +16,8 @@ import org.eclipse.pde.core.target.LoadTargetDefinitionJob;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -49,6 +51,17 @@ public class PDEState extends MinimalState {
 	 */
 	private Map fWorkspaceModels;
 
+	/**
+	 * Cache of the manifests of target bundles, only set when a new target state
+	 * was created.  Saved with the state.
+	 */
+	private BundleManifestCache fManifestCache;
+
+	/**
+	 * Name of the file in the state location caching the manifests of target bundles
+	 */
+	private static final String MANIFEST_CACHE_FILE = "target.manifests"; //$NON-NLS-1$
+
 	/**
 	 * Creates a new PDE state containing the given workspace and target models
 	 * @param workspace list of projects in the workspaces to add to the state, possibly empty
@@ -145,23 +158,57 @@ public class PDEState extends MinimalState {
 	 */
 	private void createNewState(boolean resolve, URL[] urls, IProgressMonitor monitor) {
 		fState = stateObjectFactory.createState(resolve);
-		monitor.beginTask("", urls.length); //$NON-NLS-1$
+		monitor.beginTask("", urls.length * 2); //$NON-NLS-1$
+		long start = System.currentTimeMillis();
+		File[] files = new File[urls.length];
 		for (int i = 0; i < urls.length; i++) {
-			File file = new File(urls[i].getFile());
-			try {
-				if (monitor.isCanceled())
-					// if cancelled, stop loading bundles
-					return;
-				monitor.subTask(file.getName());
-				addBundle(file, -1);
-			} catch (PluginConversionException e) {
-			} catch (CoreException e) {
-			} catch (IOException e) {
-				PDECore.log(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, IStatus.ERROR, "Invalid manifest format at " + file.getAbsolutePath(), //$NON-NLS-1$
+			files[i] = new File(urls[i].getFile());
+		}
+		// reuse the cached manifests of unchanged bundles
+		fManifestCache = new BundleManifestCache(new File(DIR, MANIFEST_CACHE_FILE));
+		fManifestCache.load();
+		BundleManifest[] manifests = new BundleManifest[files.length];
+		String[] keys = new String[files.length];
+		List missing = new ArrayList();
+		for (int i = 0; i < files.length; i++) {
+			keys[i] = BundleManifestCache.getKey(files[i]);
+			manifests[i] = fManifestCache.get(files[i], keys[i]);
+			if (manifests[i] == null)
+				missing.add(new Integer(i));
+		}
+		monitor.worked(files.length - missing.size());
+		// read the other manifests in parallel, then add the bundles to the state in order
+		File[] missingFiles = new File[missing.size()];
+		for (int i = 0; i < missingFiles.length; i++) {
+			missingFiles[i] = files[((Integer) missing.get(i)).intValue()];
+		}
+		BundleManifest[] read = readBundleManifests(missingFiles, monitor);
+		if (read == null)
+			// if cancelled, stop loading bundles
+			return;
+		for (int i = 0; i < read.length; i++) {
+			int index = ((Integer) missing.get(i)).intValue();
+			manifests[index] = read[i];
+			fManifestCache.put(keys[index], read[i]);
+		}
+		if (DEBUG) {
+			System.out.println("Reused " + (files.length - missingFiles.length) + " cached target manifests, read " + missingFiles.length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		long loaded = System.currentTimeMillis();
+		for (int i = 0; i < manifests.length; i++) {
+			if (monitor.isCanceled())
+				return;
+			if (manifests[i].failure instanceof IOException) {
+				PDECore.log(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, IStatus.ERROR, "Invalid manifest format at " + files[i].getAbsolutePath(), //$NON-NLS-1$
 						null));
-			} finally {
-				monitor.worked(1);
+			} else if (manifests[i].failure == null) {
+				addBundleManifest(manifests[i], -1);
 			}
+			monitor.worked(1);
+		}
+		if (DEBUG) {
+			long end = System.currentTimeMillis();
+			System.out.println("Time to read " + urls.length + " target manifests: " + (loaded - start) + " ms, time to add them to the state: " + (end - loaded) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
 		}
 		monitor.done();
 	}
@@ -270,41 +317,40 @@ public class PDEState extends MinimalState {
 		return null;
 	}
 
+	/**
+	 * Computes the key of the cached state for the given bundles.  The key is a hash of the
+	 * path, size and modification time of each bundle, see {@link BundleManifestCache#getKey(File)},
+	 * and does not depend on the order of the given bundles.
+	 * 
+	 * @param urls file urls pointing to bundles
+	 * @return the key of the cached state for the bundles
+	 */
 	private long computeTimestamp(URL[] urls) {
-		return computeTimestamp(urls, 0);
-	}
-
-	private long computeTimestamp(URL[] urls, long timestamp) {
 		List sorted = new ArrayList(urls.length);
 		for (int i = 0; i < urls.length; i++) {
-			sorted.add(urls[i]);
+			File file = new File(urls[i].getFile());
+			if (file.exists())
+				sorted.add(BundleManifestCache.getKey(file));
 		}
-		Collections.sort(sorted, new Comparator() {
-			public int compare(Object o1, Object o2) {
-				return ((URL) o1).toExternalForm().compareTo(((URL) o2).toExternalForm());
+		Collections.sort(sorted);
+		try {
+			MessageDigest digest = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+			for (Iterator iter = sorted.iterator(); iter.hasNext();) {
+				digest.update(((String) iter.next()).getBytes("UTF-8")); //$NON-NLS-1$
+				digest.update((byte) '\n');
 			}
-		});
-		URL[] sortedURLs = (URL[]) sorted.toArray(new URL[sorted.size()]);
-		for (int i = 0; i < sortedURLs.length; i++) {
-			File file = new File(sortedURLs[i].getFile());
-			if (file.exists()) {
-				if (file.isFile()) {
-					timestamp ^= file.lastModified();
-				} else {
-					File manifest = new File(file, ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timestamp ^= manifest.lastModified();
-					manifest = new File(file, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timestamp ^= manifest.lastModified();
-					manifest = new File(file, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timestamp ^= manifest.lastModified();
-				}
-				timestamp ^= file.getAbsolutePath().toLowerCase().hashCode();
+			byte[] hash = digest.digest();
+			long timestamp = 0;
+			for (int i = 0; i < 8; i++) {
+				timestamp = (timestamp << 8) | (hash[i] & 0xFF);
 			}
+			return timestamp;
+		} catch (NoSuchAlgorithmException e) {
+			PDECore.log(e);
+		} catch (UnsupportedEncodingException e) {
+			PDECore.log(e);
 		}
-		return timestamp;
+		return sorted.hashCode();
 	}
 
 	/**
@@ -422,6 +468,10 @@ public class PDEState extends MinimalState {
 	 * Persists the contents of the state to disk, garbage collects old persisted states
 	 */
 	public void saveState() {
+		if (fManifestCache != null) {
+			fManifestCache.save();
+			fManifestCache = null;
+		}
 		long targetTimestamp = saveExternalState();
 		long workspaceTimestamp = saveWorkspaceState();
 		clearStaleStates(".target", targetTimestamp); //$NON-NLS-1$
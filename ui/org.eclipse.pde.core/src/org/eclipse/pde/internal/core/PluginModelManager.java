@@ -24,6 +24,7 @@ import org.eclipse.pde.core.build.IBuild;
 import org.eclipse.pde.core.build.IBuildEntry;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.core.target.*;
+import org.eclipse.pde.internal.core.search.PluginSearchIndex;
 import org.eclipse.pde.internal.core.target.*;
 
 public class PluginModelManager implements IModelProviderListener {
@@ -61,7 +62,7 @@ public class PluginModelManager implements IModelProviderListener {
 						fProjects.clear();
 						fContainers.clear();
 					}
-					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, monitor);
+					setClasspathContainers(projects, containers, monitor);
 					synchronized (fProjects) {
 						more = !fProjects.isEmpty();
 					}
@@ -95,6 +96,16 @@ public class PluginModelManager implements IModelProviderListener {
 	 */
 	private UpdateClasspathsJob fUpdateJob = new UpdateClasspathsJob();
 
+	/**
+	 * Cache shared by the required plug-ins class path containers
+	 */
+	private RequiredPluginsCache fRequiredPluginsCache = new RequiredPluginsCache();
+
+	/**
+	 * Index of the packages exported by the bundles of the state
+	 */
+	private ExportedPackageIndex fExportedPackageIndex = new ExportedPackageIndex();
+
 	/**
 	 * Subclass of ModelEntry
 	 * It adds methods that add/remove model from the entry.
@@ -162,6 +173,7 @@ public class PluginModelManager implements IModelProviderListener {
 		fExternalManager = new ExternalModelManager();
 		fExternalManager.addModelProviderListener(this);
 		fWorkspaceManager.addModelProviderListener(this);
+		addStateDeltaListener(fExportedPackageIndex);
 	}
 
 	/**
@@ -209,6 +221,9 @@ public class PluginModelManager implements IModelProviderListener {
 				String id = model.getPluginBase().getId();
 				if (id != null)
 					handleRemove(id, model, delta);
+				IResource resource = model.getUnderlyingResource();
+				if (resource != null)
+					fRequiredPluginsCache.removeProject(resource.getProject());
 			}
 		}
 
@@ -275,8 +290,10 @@ public class PluginModelManager implements IModelProviderListener {
 					}
 				}
 			}
+			// invalidate the cached visible packages of the bundles whose wiring changed, then
 			// trigger a classpath update for all workspace plug-ins affected by the
 			// processed batch of changes
+			fRequiredPluginsCache.stateResolved(stateDelta);
 			updateAffectedEntries(stateDelta, e);
 			fireStateDelta(stateDelta);
 
@@ -329,7 +346,12 @@ public class PluginModelManager implements IModelProviderListener {
 				} catch (CoreException e) {
 				}
 			}
-			// do secondary dependencies
+			// do secondary dependencies, skipping the projects whose entries were computed
+			// from none of the changed plug-ins
+			Set changedNames = new HashSet();
+			for (int i = 0; i < deltas.length; i++) {
+				changedNames.add(deltas[i].getBundle().getSymbolicName());
+			}
 			IPluginModelBase[] models = getWorkspaceModels();
 			for (int i = 0; i < models.length; i++) {
 				IProject project = models[i].getUnderlyingResource().getProject();
@@ -337,7 +359,7 @@ public class PluginModelManager implements IModelProviderListener {
 					if (!project.hasNature(JavaCore.NATURE_ID))
 						continue;
 					IJavaProject jProject = JavaCore.create(project);
-					if (map.containsKey(jProject))
+					if (map.containsKey(jProject) || !fRequiredPluginsCache.isAffected(jProject, changedNames))
 						continue;
 					IBuild build = ClasspathUtilCore.getBuild(models[i]);
 					if (build != null && build.getEntry(IBuildEntry.SECONDARY_DEPENDENCIES) != null) {
@@ -369,13 +391,74 @@ public class PluginModelManager implements IModelProviderListener {
 			} else {
 				// else update synchronously
 				try {
-					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, null);
+					setClasspathContainers(projects, containers, null);
 				} catch (JavaModelException e) {
 				}
 			}
 		}
 	}
 
+	/**
+	 * Sets the required plug-ins class path containers of the given projects.  Projects whose
+	 * container entries are the same as the entries last set on them are skipped, so a change
+	 * to the state does not trigger a rebuild of projects whose wiring did not change.
+	 * <p>
+	 * The entries of every given container are computed for the comparison.  After an incremental
+	 * resolution only the projects of the changed bundles and the projects whose recorded
+	 * dependencies include a changed bundle are given, see {@link #updateAffectedEntries(StateDelta, IModelProviderEvent)}.
+	 * After a target change every bundle description is new and all workspace projects are
+	 * given, the visible packages are then computed once per bundle and shared by the containers.
+	 * </p>
+	 * 
+	 * @param projects the projects to update
+	 * @param containers the new class path container of each project
+	 * @param monitor progress monitor or <code>null</code>
+	 * @throws JavaModelException if the containers could not be set
+	 */
+	private void setClasspathContainers(IJavaProject[] projects, IClasspathContainer[] containers, IProgressMonitor monitor) throws JavaModelException {
+		List changedProjects = new ArrayList(projects.length);
+		List changedContainers = new ArrayList(containers.length);
+		for (int i = 0; i < projects.length; i++) {
+			RequiredPluginsClasspathContainer container = (RequiredPluginsClasspathContainer) containers[i];
+			if (fRequiredPluginsCache.isCurrent(projects[i], container.getClasspathEntries())) {
+				// keep the container but record what its entries depend on now
+				fRequiredPluginsCache.setEntries(projects[i], container);
+				continue;
+			}
+			changedProjects.add(projects[i]);
+			changedContainers.add(container);
+		}
+		if (changedProjects.isEmpty())
+			return;
+		IJavaProject[] changed = (IJavaProject[]) changedProjects.toArray(new IJavaProject[changedProjects.size()]);
+		JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, changed, (IClasspathContainer[]) changedContainers.toArray(new IClasspathContainer[changedContainers.size()]), monitor);
+		for (int i = 0; i < changed.length; i++) {
+			fRequiredPluginsCache.setEntries(changed[i], (RequiredPluginsClasspathContainer) changedContainers.get(i));
+		}
+	}
+
+	/**
+	 * Returns the cache shared by the required plug-ins class path containers.
+	 * <p>
+	 * Note this method is public for testing purposes only.
+	 * </p>
+	 * 
+	 * @return the required plug-ins cache
+	 */
+	public RequiredPluginsCache getRequiredPluginsCache() {
+		return fRequiredPluginsCache;
+	}
+
+	/**
+	 * Returns the index of the packages exported by the bundles of the state, kept up to
+	 * date as the state is resolved
+	 * 
+	 * @return the exported package index
+	 */
+	public ExportedPackageIndex getExportedPackageIndex() {
+		return fExportedPackageIndex;
+	}
+
 	/**
 	 * Notify all interested listeners in changes made to the master table
 	 * 
@@ -1092,6 +1175,10 @@ public class PluginModelManager implements IModelProviderListener {
 			fListeners.clear();
 		if (fStateListeners != null)
 			fStateListeners.clear();
+		fRequiredPluginsCache.clear();
+		fExportedPackageIndex.clear();
+		BundleValidationOperation.clearCache();
+		PluginSearchIndex.shutdown();
 	}
 
 	/**
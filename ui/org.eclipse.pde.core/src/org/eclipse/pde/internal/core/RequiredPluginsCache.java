@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.*;
+import org.eclipse.osgi.service.resolver.*;
+
+/**
+ * Caches the results of computing required plug-ins class path containers, shared by all
+ * containers and maintained by the {@link PluginModelManager}.
+ * <p>
+ * The packages visible to a bundle and their access rules are cached by {@link BundleDescription}.
+ * An entry is invalidated when the resolver reports a change to the bundle or to any bundle it
+ * gets packages from.  The class path entries last set on each project are recorded as well,
+ * so that a change to the state only replaces the containers whose entries actually changed,
+ * together with the symbolic names of the plug-ins the entries were computed from, so that
+ * the containers of projects none of whose dependencies changed are not computed again.
+ * They are dropped when the project's model is removed, i.e. when the project is closed or deleted.
+ * </p>
+ * <p>
+ * Note this class is public for testing purposes only.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class RequiredPluginsCache {
+
+	/**
+	 * Visible packages of a bundle
+	 */
+	private static class VisiblePackages {
+		/**
+		 * Map of exporting {@link BundleDescription} to a list of access rules
+		 */
+		Map rules;
+		/**
+		 * Ids of the bundles the visible packages were computed from
+		 */
+		long[] dependencies;
+	}
+
+	/**
+	 * Map of {@link BundleDescription} to {@link VisiblePackages}
+	 */
+	private Map fVisiblePackages = new HashMap();
+
+	/**
+	 * Map of {@link IJavaProject} to the array of {@link IClasspathEntry} last set on it
+	 */
+	private Map fEntries = new HashMap();
+
+	/**
+	 * Map of {@link IJavaProject} to the set of symbolic names of the plug-ins its last entries
+	 * were computed from
+	 */
+	private Map fDependencies = new HashMap();
+
+	/**
+	 * Returns the cached visible packages of the given bundle
+	 *
+	 * @param desc the bundle
+	 * @return map of exporting {@link BundleDescription} to a list of access rules, or <code>null</code> if not cached
+	 */
+	synchronized Map getVisiblePackages(BundleDescription desc) {
+		VisiblePackages packages = (VisiblePackages) fVisiblePackages.get(desc);
+		return packages != null ? packages.rules : null;
+	}
+
+	/**
+	 * Caches the visible packages of the given bundle
+	 *
+	 * @param desc the bundle
+	 * @param rules map of exporting {@link BundleDescription} to a list of access rules, must not be modified afterwards
+	 */
+	synchronized void setVisiblePackages(BundleDescription desc, Map rules) {
+		Set dependencies = new HashSet();
+		dependencies.add(new Long(desc.getBundleId()));
+		if (desc.getHost() != null && desc.getHost().getSupplier() != null)
+			dependencies.add(new Long(((BundleDescription) desc.getHost().getSupplier()).getBundleId()));
+		BundleDescription[] required = desc.getResolvedRequires();
+		for (int i = 0; i < required.length; i++) {
+			dependencies.add(new Long(required[i].getBundleId()));
+		}
+		for (Iterator iter = rules.keySet().iterator(); iter.hasNext();) {
+			dependencies.add(new Long(((BundleDescription) iter.next()).getBundleId()));
+		}
+		VisiblePackages packages = new VisiblePackages();
+		packages.rules = rules;
+		packages.dependencies = new long[dependencies.size()];
+		int i = 0;
+		for (Iterator iter = dependencies.iterator(); iter.hasNext();) {
+			packages.dependencies[i++] = ((Long) iter.next()).longValue();
+		}
+		fVisiblePackages.put(desc, packages);
+	}
+
+	/**
+	 * Invalidates the visible packages affected by the given resolver delta
+	 *
+	 * @param delta delta of the last resolution, <code>null</code> if the whole state changed
+	 */
+	synchronized void stateResolved(StateDelta delta) {
+		if (delta == null) {
+			fVisiblePackages.clear();
+			return;
+		}
+		BundleDelta[] changes = delta.getChanges();
+		if (changes.length == 0)
+			return;
+		Set changed = new HashSet(changes.length);
+		for (int i = 0; i < changes.length; i++) {
+			changed.add(new Long(changes[i].getBundle().getBundleId()));
+		}
+		for (Iterator iter = fVisiblePackages.values().iterator(); iter.hasNext();) {
+			long[] dependencies = ((VisiblePackages) iter.next()).dependencies;
+			for (int i = 0; i < dependencies.length; i++) {
+				if (changed.contains(new Long(dependencies[i]))) {
+					iter.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given entries are the entries last set on the project
+	 *
+	 * @param project the project
+	 * @param entries the entries of a new container for the project
+	 * @return <code>true</code> if the project's container does not have to be replaced
+	 */
+	synchronized boolean isCurrent(IJavaProject project, IClasspathEntry[] entries) {
+		IClasspathEntry[] current = (IClasspathEntry[]) fEntries.get(project);
+		return current != null && Arrays.equals(current, entries);
+	}
+
+	/**
+	 * Returns the entries last set on the project.
+	 * <p>
+	 * Note this method is public for testing purposes only.
+	 * </p>
+	 *
+	 * @param project the project
+	 * @return the recorded entries or <code>null</code> if none are recorded
+	 */
+	public synchronized IClasspathEntry[] getEntries(IJavaProject project) {
+		return (IClasspathEntry[]) fEntries.get(project);
+	}
+
+	/**
+	 * Records the entries set on the project and the plug-ins they were computed from
+	 *
+	 * @param project the project
+	 * @param container the container set on the project, or <code>null</code> if
+	 *  the container was set by someone else
+	 */
+	synchronized void setEntries(IJavaProject project, RequiredPluginsClasspathContainer container) {
+		if (container == null) {
+			fEntries.remove(project);
+			fDependencies.remove(project);
+		} else {
+			fEntries.put(project, container.getClasspathEntries());
+			fDependencies.put(project, container.getDependencies());
+		}
+	}
+
+	/**
+	 * Returns whether the container of the project has to be computed again after the plug-ins
+	 * with the given symbolic names changed
+	 *
+	 * @param project the project
+	 * @param changed set of symbolic names of the changed plug-ins
+	 * @return <code>false</code> if the recorded entries of the project were computed from none of the plug-ins
+	 */
+	synchronized boolean isAffected(IJavaProject project, Set changed) {
+		Set dependencies = (Set) fDependencies.get(project);
+		if (dependencies == null)
+			return true;
+		for (Iterator iter = changed.iterator(); iter.hasNext();) {
+			if (dependencies.contains(iter.next()))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Forgets the entries of a project that was closed or deleted
+	 *
+	 * @param project the project
+	 */
+	synchronized void removeProject(IProject project) {
+		IJavaProject javaProject = JavaCore.create(project);
+		fEntries.remove(javaProject);
+		fDependencies.remove(javaProject);
+	}
+
+	/**
+	 * Clears the cache
+	 */
+	synchronized void clear() {
+		fVisiblePackages.clear();
+		fEntries.clear();
+		fDependencies.clear();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2010 IBM Corporation and others.
+ *  Copyright (c) 2000, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -32,6 +32,11 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 
 	private IClasspathEntry[] fEntries = null;
 
+	/**
+	 * Symbolic names of the plug-ins the entries were computed from
+	 */
+	private Set fDependencies = new HashSet();
+
 	static {
 		DEBUG = PDECore.getDefault().isDebugging() && "true".equals(Platform.getDebugOption("org.eclipse.pde.core/classpath")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
@@ -97,6 +102,18 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 		return fEntries;
 	}
 
+	/**
+	 * Returns the symbolic names of the plug-ins the entries of this container were computed from,
+	 * computing the entries if needed.  The container has to be computed again only when one of
+	 * these plug-ins changes.
+	 * 
+	 * @return set of symbolic names
+	 */
+	Set getDependencies() {
+		getClasspathEntries();
+		return fDependencies;
+	}
+
 	private IClasspathEntry[] computePluginEntries() {
 		ArrayList entries = new ArrayList();
 		try {
@@ -154,17 +171,28 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 			if (fBuild != null)
 				addExtraClasspathEntries(added, entries);
 
+			for (Iterator iterator = added.iterator(); iterator.hasNext();) {
+				Object next = iterator.next();
+				if (next instanceof BundleDescription && ((BundleDescription) next).getSymbolicName() != null)
+					fDependencies.add(((BundleDescription) next).getSymbolicName());
+			}
 		} catch (CoreException e) {
 		}
 		return (IClasspathEntry[]) entries.toArray(new IClasspathEntry[entries.size()]);
 	}
 
 	private Map retrieveVisiblePackagesFromState(BundleDescription desc) {
-		Map visiblePackages = new HashMap();
+		// the visible packages are shared by all containers until the resolver reports a change to the bundle's wiring
+		RequiredPluginsCache cache = PDECore.getDefault().getModelManager().getRequiredPluginsCache();
+		Map visiblePackages = cache.getVisiblePackages(desc);
+		if (visiblePackages != null)
+			return visiblePackages;
+		visiblePackages = new HashMap();
 		StateHelper helper = Platform.getPlatformAdmin().getStateHelper();
 		addVisiblePackagesFromState(helper, desc, visiblePackages);
 		if (desc.getHost() != null)
 			addVisiblePackagesFromState(helper, (BundleDescription) desc.getHost().getSupplier(), visiblePackages);
+		cache.setVisiblePackages(desc, visiblePackages);
 		return visiblePackages;
 	}
 
@@ -345,6 +373,7 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 				int count = path.getDevice() == null ? 4 : 3;
 				if (path.segmentCount() >= count) {
 					String pluginID = path.segment(count - 2);
+					fDependencies.add(pluginID);
 					if (added.contains(pluginID))
 						continue;
 					IPluginModelBase model = PluginRegistry.findModel(pluginID);
@@ -376,6 +405,7 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 				String[] tokens = entry.getTokens();
 				for (int i = 0; i < tokens.length; i++) {
 					String pluginId = tokens[i];
+					fDependencies.add(pluginId);
 					// Get PluginModelBase first to resolve system.bundle entry if it exists
 					IPluginModelBase model = PluginRegistry.findModel(pluginId);
 					if (model != null) {
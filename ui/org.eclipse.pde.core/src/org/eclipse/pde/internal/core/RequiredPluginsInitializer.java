@@ -25,7 +25,9 @@ public class RequiredPluginsInitializer extends ClasspathContainerInitializer {
 	public void initialize(IPath containerPath, IJavaProject javaProject) throws CoreException {
 		IProject project = javaProject.getProject();
 		IPluginModelBase model = PluginRegistry.findModel(project);
-		JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, new IJavaProject[] {javaProject}, new IClasspathContainer[] {new RequiredPluginsClasspathContainer(model)}, null);
+		RequiredPluginsClasspathContainer container = new RequiredPluginsClasspathContainer(model);
+		JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, new IJavaProject[] {javaProject}, new IClasspathContainer[] {container}, null);
+		PDECore.getDefault().getModelManager().getRequiredPluginsCache().setEntries(javaProject, container);
 	}
 
 	/*
@@ -69,6 +71,8 @@ public class RequiredPluginsInitializer extends ClasspathContainerInitializer {
 	public void requestClasspathContainerUpdate(IPath containerPath, IJavaProject project, IClasspathContainer containerSuggestion) throws CoreException {
 		// The only supported update is to modify the source attachment
 		JavaCore.setClasspathContainer(containerPath, new IJavaProject[] {project}, new IClasspathContainer[] {containerSuggestion}, null);
+		// the project no longer has the entries PDE computed, the next update must replace them
+		PDECore.getDefault().getModelManager().getRequiredPluginsCache().setEntries(project, null);
 	}
 
 }
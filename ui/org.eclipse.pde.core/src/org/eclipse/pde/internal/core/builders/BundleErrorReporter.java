@@ -679,7 +679,8 @@ public class BundleErrorReporter extends JarManifestErrorReporter {
 			}
 		}
 
-		HashMap exported = getAvailableExportedPackages(desc.getContainingState());
+		State state = desc.getContainingState();
+		ExportedPackageIndex index = PDECore.getDefault().getModelManager().getExportedPackageIndex();
 
 		ImportPackageSpecification[] imports = desc.getImportPackages();
 		if (desc.hasDynamicImports()) {
@@ -723,7 +724,7 @@ public class BundleErrorReporter extends JarManifestErrorReporter {
 				boolean optional = isOptional(elements[i]);
 				int severity = getRequireBundleSeverity(elements[i], optional);
 
-				ExportPackageDescription export = (ExportPackageDescription) exported.get(name);
+				ExportPackageDescription export = index.getExporter(state, name);
 				if (export != null) {
 					if (export.getSupplier().isResolved()) {
 						Version version = export.getVersion();
@@ -749,26 +750,6 @@ public class BundleErrorReporter extends JarManifestErrorReporter {
 		}
 	}
 
-	private HashMap getAvailableExportedPackages(State state) {
-		BundleDescription[] bundles = state.getBundles();
-
-		HashMap exported = new HashMap();
-		for (int i = 0; i < bundles.length; i++) {
-			ExportPackageDescription[] exports = bundles[i].getExportPackages();
-			for (int j = 0; j < exports.length; j++) {
-				String name = exports[j].getName();
-				if (exported.containsKey(name)) {
-					if (exports[j].getSupplier().isResolved()) {
-						exported.put(name, exports[j]);
-					}
-				} else {
-					exported.put(name, exports[j]);
-				}
-			}
-		}
-		return exported;
-	}
-
 	protected void validateExportPackage(IProgressMonitor monitor) {
 		IHeader header = getHeader(Constants.EXPORT_PACKAGE);
 		if (header == null)
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.builders;
+
+import java.util.*;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Records the marker changes made by error reporters running on a thread other than the
+ * builder thread, so that they can be applied to the workspace once validation is done.
+ * <p>
+ * Validation only reads the workspace, but creating and deleting markers requires the
+ * workspace lock held by the builder.  While a <code>DeferredMarkers</code> is installed
+ * on a thread, {@link PDEMarkerFactory} and the error reporters record their marker changes
+ * instead of applying them.  The recorded changes are applied in order by {@link #apply()}.
+ * </p>
+ */
+class DeferredMarkers {
+
+	private static final ThreadLocal fCurrent = new ThreadLocal();
+
+	/**
+	 * Recorded changes, {@link DeferredMarker} or {@link Deletion}
+	 */
+	private List fChanges = new ArrayList();
+
+	/**
+	 * Deletion of the markers of a given type from a resource
+	 */
+	private static class Deletion {
+		IResource resource;
+		String type;
+		boolean includeSubtypes;
+		int depth;
+	}
+
+	/**
+	 * Marker created by a reporter, holds its attributes until it is applied
+	 */
+	private class DeferredMarker implements IMarker {
+		private IResource fResource;
+		private String fType;
+		private Map fAttributes = new HashMap();
+		private long fCreationTime = System.currentTimeMillis();
+		private boolean fDeleted;
+
+		DeferredMarker(IResource resource, String type) {
+			fResource = resource;
+			fType = type;
+		}
+
+		public void delete() throws CoreException {
+			fDeleted = true;
+			fChanges.remove(this);
+		}
+
+		public boolean exists() {
+			return !fDeleted;
+		}
+
+		public Object getAttribute(String attributeName) throws CoreException {
+			return fAttributes.get(attributeName);
+		}
+
+		public int getAttribute(String attributeName, int defaultValue) {
+			Object value = fAttributes.get(attributeName);
+			return value instanceof Integer ? ((Integer) value).intValue() : defaultValue;
+		}
+
+		public String getAttribute(String attributeName, String defaultValue) {
+			Object value = fAttributes.get(attributeName);
+			return value instanceof String ? (String) value : defaultValue;
+		}
+
+		public boolean getAttribute(String attributeName, boolean defaultValue) {
+			Object value = fAttributes.get(attributeName);
+			return value instanceof Boolean ? ((Boolean) value).booleanValue() : defaultValue;
+		}
+
+		public Map getAttributes() throws CoreException {
+			return new HashMap(fAttributes);
+		}
+
+		public Object[] getAttributes(String[] attributeNames) throws CoreException {
+			Object[] values = new Object[attributeNames.length];
+			for (int i = 0; i < attributeNames.length; i++) {
+				values[i] = fAttributes.get(attributeNames[i]);
+			}
+			return values;
+		}
+
+		public long getCreationTime() throws CoreException {
+			return fCreationTime;
+		}
+
+		public long getId() {
+			return -1;
+		}
+
+		public IResource getResource() {
+			return fResource;
+		}
+
+		public String getType() throws CoreException {
+			return fType;
+		}
+
+		public boolean isSubtypeOf(String superType) throws CoreException {
+			return fType.equals(superType) || PDEMarkerFactory.MARKER_ID.equals(fType) && IMarker.PROBLEM.equals(superType);
+		}
+
+		public void setAttribute(String attributeName, int value) throws CoreException {
+			fAttributes.put(attributeName, new Integer(value));
+		}
+
+		public void setAttribute(String attributeName, Object value) throws CoreException {
+			if (value == null)
+				fAttributes.remove(attributeName);
+			else
+				fAttributes.put(attributeName, value);
+		}
+
+		public void setAttribute(String attributeName, boolean value) throws CoreException {
+			fAttributes.put(attributeName, Boolean.valueOf(value));
+		}
+
+		public void setAttributes(String[] attributeNames, Object[] values) throws CoreException {
+			for (int i = 0; i < attributeNames.length; i++) {
+				setAttribute(attributeNames[i], values[i]);
+			}
+		}
+
+		public void setAttributes(Map attributes) throws CoreException {
+			fAttributes.clear();
+			if (attributes != null)
+				fAttributes.putAll(attributes);
+		}
+
+		public Object getAdapter(Class adapter) {
+			return Platform.getAdapterManager().getAdapter(this, adapter);
+		}
+	}
+
+	/**
+	 * Returns the deferred markers installed on the current thread
+	 *
+	 * @return the deferred markers or <code>null</code> if marker changes are applied immediately
+	 */
+	static DeferredMarkers getCurrent() {
+		return (DeferredMarkers) fCurrent.get();
+	}
+
+	/**
+	 * Creates a marker on the given resource, deferred if a <code>DeferredMarkers</code> is
+	 * installed on the current thread
+	 *
+	 * @param resource the resource
+	 * @param type type of the marker
+	 * @return the new marker
+	 * @throws CoreException if the marker cannot be created
+	 */
+	static IMarker createMarker(IResource resource, String type) throws CoreException {
+		DeferredMarkers deferred = getCurrent();
+		if (deferred == null)
+			return resource.createMarker(type);
+		DeferredMarker marker = deferred.new DeferredMarker(resource, type);
+		deferred.fChanges.add(marker);
+		return marker;
+	}
+
+	/**
+	 * Deletes markers from the given resource, deferred if a <code>DeferredMarkers</code> is
+	 * installed on the current thread
+	 *
+	 * @see IResource#deleteMarkers(String, boolean, int)
+	 */
+	static void deleteMarkers(IResource resource, String type, boolean includeSubtypes, int depth) throws CoreException {
+		DeferredMarkers deferred = getCurrent();
+		if (deferred == null) {
+			resource.deleteMarkers(type, includeSubtypes, depth);
+			return;
+		}
+		Deletion deletion = new Deletion();
+		deletion.resource = resource;
+		deletion.type = type;
+		deletion.includeSubtypes = includeSubtypes;
+		deletion.depth = depth;
+		deferred.fChanges.add(deletion);
+	}
+
+	/**
+	 * Records the marker changes made on the current thread until {@link #uninstall()} is called
+	 */
+	void install() {
+		fCurrent.set(this);
+	}
+
+	/**
+	 * Stops recording the marker changes made on the current thread
+	 */
+	void uninstall() {
+		fCurrent.set(null);
+	}
+
+	/**
+	 * Applies the recorded changes to the workspace in the order they were made
+	 *
+	 * @throws CoreException if a marker cannot be created or deleted
+	 */
+	void apply() throws CoreException {
+		for (Iterator iter = fChanges.iterator(); iter.hasNext();) {
+			Object change = iter.next();
+			if (change instanceof Deletion) {
+				Deletion deletion = (Deletion) change;
+				if (deletion.resource.exists())
+					deletion.resource.deleteMarkers(deletion.type, deletion.includeSubtypes, deletion.depth);
+			} else {
+				DeferredMarker marker = (DeferredMarker) change;
+				if (marker.fResource.exists())
+					marker.fResource.createMarker(marker.fType).setAttributes(marker.fAttributes);
+			}
+		}
+		fChanges.clear();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2008 IBM Corporation and others.
+ *  Copyright (c) 2000, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,8 +10,7 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core.builders;
 
-import java.util.Vector;
-
+import java.util.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.plugin.IPlugin;
 import org.eclipse.pde.core.plugin.IPluginImport;
@@ -19,7 +18,19 @@ import org.eclipse.pde.core.plugin.IPluginModel;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.PluginRegistry;
 import org.eclipse.pde.internal.core.PDECoreMessages;
-
+import org.eclipse.pde.internal.core.util.StronglyConnectedComponents;
+
+/**
+ * Finds the dependency loops a plug-in is part of.
+ * <p>
+ * The plug-ins reachable from the root through their imports are numbered and their
+ * imports stored as arrays of plug-in numbers, then the strongly connected components of
+ * that graph are computed.  The root is part of a loop exactly when one of its dependencies
+ * is in the root's component, and one loop is reported for each such dependency, following
+ * the shortest chain of imports leading back to the root.  The cost is linear in the number
+ * of reachable plug-ins and imports for each reported loop.
+ * </p>
+ */
 public class DependencyLoopFinder {
 
 	public static DependencyLoop[] findLoops(IPlugin root) {
@@ -30,96 +41,130 @@ public class DependencyLoopFinder {
 		return findLoops(root, candidates, false);
 	}
 
+	/**
+	 * Returns the dependency loops the root plug-in is part of
+	 * 
+	 * @param root the plug-in to find loops for
+	 * @param candidates additional plug-ins the root should be considered to depend on, or <code>null</code>
+	 * @param onlyCandidates whether the imports of the root should be ignored and only the candidates considered
+	 * @return the loops starting at the root, possibly empty
+	 */
 	public static DependencyLoop[] findLoops(IPlugin root, IPlugin[] candidates, boolean onlyCandidates) {
-		Vector loops = new Vector();
-
-		Vector path = new Vector();
-		findLoops(loops, path, root, candidates, onlyCandidates, new Vector());
-		return (DependencyLoop[]) loops.toArray(new DependencyLoop[loops.size()]);
-	}
-
-	private static void findLoops(Vector loops, Vector path, IPlugin subroot, IPlugin[] candidates, boolean onlyCandidates, Vector exploredPlugins) {
-		if (path.size() > 0) {
-			// test the path so far
-			// is the subroot the same as root - if yes, that's it
-
-			IPlugin root = (IPlugin) path.elementAt(0);
-			if (isEquivalent(root, subroot)) {
-				// our loop!!
-				DependencyLoop loop = new DependencyLoop();
-				loop.setMembers((IPlugin[]) path.toArray(new IPlugin[path.size()]));
-				int no = loops.size() + 1;
-				loop.setName(NLS.bind(PDECoreMessages.Builders_DependencyLoopFinder_loopName, ("" + no))); //$NON-NLS-1$
-				loops.add(loop);
-				return;
+		// number the reachable plug-ins, the root is always 0
+		List nodes = new ArrayList();
+		Map ids = new HashMap();
+		List successors = new ArrayList();
+		addNode(root, nodes, ids);
+		for (int node = 0; node < nodes.size(); node++) {
+			IPlugin plugin = (IPlugin) nodes.get(node);
+			List children = new ArrayList();
+			if (node != 0 || !onlyCandidates) {
+				IPluginImport[] iimports = plugin.getImports();
+				for (int i = 0; i < iimports.length; i++) {
+					String id = iimports[i].getId();
+					//Be paranoid
+					if (id == null)
+						continue;
+					Integer child = (Integer) ids.get(id);
+					if (child == null) {
+						IPlugin childPlugin = findPlugin(id);
+						if (childPlugin == null)
+							continue;
+						child = addNode(childPlugin, nodes, ids);
+					}
+					children.add(child);
+				}
 			}
-			// is the subroot the same as any other node?
-			// if yes, abort - local loop that is not ours
-			for (int i = 1; i < path.size(); i++) {
-				IPlugin node = (IPlugin) path.elementAt(i);
-				if (isEquivalent(subroot, node)) {
-					// local loop
-					return;
+			if (node == 0 && candidates != null) {
+				for (int i = 0; i < candidates.length; i++) {
+					Integer child = (Integer) ids.get(candidates[i].getId());
+					children.add(child != null ? child : addNode(candidates[i], nodes, ids));
 				}
 			}
+			successors.add(toArray(children));
 		}
-		Vector newPath = path.size() > 0 ? ((Vector) path.clone()) : path;
-		newPath.add(subroot);
-
-		if (!onlyCandidates) {
-			IPluginImport[] iimports = subroot.getImports();
-			for (int i = 0; i < iimports.length; i++) {
-				IPluginImport iimport = iimports[i];
-				String id = iimport.getId();
-				//Be paranoid
-				if (id == null)
-					continue;
-				if (!exploredPlugins.contains(id)) {
-					// is plugin in list of non loop yielding plugins
-					//Commenting linear lookup - was very slow 
-					//when called from here. We will use
-					//model manager instead because it
-					//has a hash table lookup that is much faster.
-					//IPlugin child = PDECore.getDefault().findPlugin(id);
-					IPlugin child = findPlugin(id);
-					if (child != null) {
-						// number of loops before traversing plugin
-						int oldLoopSize = loops.size();
-
-						findLoops(loops, newPath, child, null, false, exploredPlugins);
-
-						// number of loops after traversing plugin
-						int newLoopsSize = loops.size();
-
-						if (oldLoopSize == newLoopsSize) {// no change in number of loops
-							// no loops from going to this node, skip next time
-							exploredPlugins.add(id);
-						}
-					}
-				}
-
+		int[][] graph = (int[][]) successors.toArray(new int[successors.size()][]);
+		StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+
+		List loops = new ArrayList();
+		int rootComponent = components.getComponent(0);
+		Set visitedChildren = new HashSet();
+		for (int i = 0; i < graph[0].length; i++) {
+			int child = graph[0][i];
+			if (components.getComponent(child) != rootComponent || !visitedChildren.add(new Integer(child)))
+				continue;
+			int[] path = findPathToRoot(graph, components, child);
+			IPlugin[] members = new IPlugin[path.length + 1];
+			members[0] = root;
+			for (int j = 0; j < path.length; j++) {
+				members[j + 1] = (IPlugin) nodes.get(path[j]);
 			}
-
+			DependencyLoop loop = new DependencyLoop();
+			loop.setMembers(members);
+			int no = loops.size() + 1;
+			loop.setName(NLS.bind(PDECoreMessages.Builders_DependencyLoopFinder_loopName, ("" + no))); //$NON-NLS-1$
+			loops.add(loop);
 		}
-		if (candidates != null) {
-			for (int i = 0; i < candidates.length; i++) {
-				IPlugin candidate = candidates[i];
-
-				// number of loops before traversing plugin
-				int oldLoopSize = loops.size();
+		return (DependencyLoop[]) loops.toArray(new DependencyLoop[loops.size()]);
+	}
 
-				findLoops(loops, newPath, candidate, null, false, exploredPlugins);
+	private static Integer addNode(IPlugin plugin, List nodes, Map ids) {
+		Integer node = new Integer(nodes.size());
+		nodes.add(plugin);
+		ids.put(plugin.getId(), node);
+		return node;
+	}
 
-				// number of loops after traversing plugin
-				int newLoopsSize = loops.size();
+	private static int[] toArray(List integers) {
+		int[] result = new int[integers.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ((Integer) integers.get(i)).intValue();
+		}
+		return result;
+	}
 
-				if (oldLoopSize == newLoopsSize) { // no change in number of loops
-					// no loops from going to this node, skip next time
-					exploredPlugins.add(candidate.getId());
+	/**
+	 * Returns the shortest chain of imports from the given node back to the root, staying in the
+	 * root's component.  The chain starts with the given node and excludes the root.
+	 * 
+	 * @param graph successors of each node
+	 * @param components strongly connected components of the graph
+	 * @param start a node in the component of the root
+	 * @return the nodes of the chain
+	 */
+	private static int[] findPathToRoot(int[][] graph, StronglyConnectedComponents components, int start) {
+		if (start == 0)
+			return new int[0];
+		int component = components.getComponent(0);
+		int[] parents = new int[graph.length];
+		Arrays.fill(parents, -1);
+		int[] queue = new int[components.getSize(component)];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		parents[start] = start;
+		while (head < tail && parents[0] == -1) {
+			int node = queue[head++];
+			int[] edges = graph[node];
+			for (int i = 0; i < edges.length; i++) {
+				int next = edges[i];
+				if (parents[next] == -1 && components.getComponent(next) == component) {
+					parents[next] = node;
+					if (next == 0)
+						break;
+					queue[tail++] = next;
 				}
 			}
 		}
-
+		int length = 0;
+		for (int node = parents[0]; node != start; node = parents[node]) {
+			length++;
+		}
+		int[] path = new int[length + 1];
+		for (int node = parents[0], i = length; i >= 0; node = parents[node], i--) {
+			path[i] = node;
+		}
+		return path;
 	}
 
 	private static IPlugin findPlugin(String id) {
@@ -128,8 +173,4 @@ public class DependencyLoopFinder {
 			return null;
 		return (IPlugin) childModel.getPluginBase();
 	}
-
-	private static boolean isEquivalent(IPlugin left, IPlugin right) {
-		return left.getId().equals(right.getId());
-	}
 }
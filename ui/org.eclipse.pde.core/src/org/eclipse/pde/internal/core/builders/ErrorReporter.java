@@ -85,8 +85,8 @@ public abstract class ErrorReporter {
 
 	private void removeFileMarkers() {
 		try {
-			fFile.deleteMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
-			fFile.deleteMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
+			DeferredMarkers.deleteMarkers(fFile, IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
+			DeferredMarkers.deleteMarkers(fFile, PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
 		} catch (CoreException e) {
 			PDECore.logException(e);
 		}
@@ -23,6 +23,8 @@ import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.*;
 import org.eclipse.pde.internal.core.ischema.*;
 import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.schema.CompiledSchema;
+import org.eclipse.pde.internal.core.schema.CompiledSchema.CompiledElement;
 import org.eclipse.pde.internal.core.schema.SchemaRegistry;
 import org.eclipse.pde.internal.core.util.*;
 import org.w3c.dom.*;
@@ -33,6 +35,11 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 	private IPluginModelBase fModel;
 	private IBuild fBuildModel;
 
+	/**
+	 * Compiled schema of the extension being validated, may be <code>null</code>
+	 */
+	private CompiledSchema fCompiledSchema;
+
 	public ExtensionsErrorReporter(IFile file) {
 		super(file);
 		fModel = PluginRegistry.findModel(file.getProject());
@@ -105,10 +112,11 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 			}
 		} else {
 			SchemaRegistry reg = PDECore.getDefault().getSchemaRegistry();
-			ISchema schema = reg.getSchema(pointID);
-			if (schema != null) {
-				validateElement(element, schema, true);
+			fCompiledSchema = reg.getCompiledSchema(pointID);
+			if (fCompiledSchema != null) {
+				validateElement(element, fCompiledSchema.getSchema(), true);
 			}
+			fCompiledSchema = null;
 		}
 	}
 
@@ -166,9 +174,7 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 		if (parentSchema != null) {
 			int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ELEMENT);
 			if (severity != CompilerFlags.IGNORE) {
-				HashSet allowedElements = new HashSet();
-				computeAllowedElements(parentSchema.getType(), allowedElements);
-				if (!allowedElements.contains(elementName)) {
+				if (!getCompiledElement(parentSchema).isAllowedChild(elementName)) {
 					reportIllegalElement(element, severity);
 					return;
 				}
@@ -176,7 +182,7 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 
 		}
 		if (schemaElement == null && parentSchema != null) {
-			ISchemaAttribute attr = parentSchema.getAttribute(elementName);
+			ISchemaAttribute attr = getCompiledElement(parentSchema).getAttribute(elementName);
 			if (attr != null && attr.getKind() == IMetaAttribute.JAVA) {
 				if (attr.isDeprecated())
 					reportDeprecatedAttribute(element, element.getAttributeNode("class")); //$NON-NLS-1$
@@ -184,8 +190,9 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 			}
 		} else {
 			if (schemaElement != null) {
-				validateRequiredExtensionAttributes(element, schemaElement);
-				validateExistingExtensionAttributes(element, element.getAttributes(), schemaElement);
+				CompiledElement compiledElement = getCompiledElement(schemaElement);
+				validateRequiredExtensionAttributes(element, compiledElement);
+				validateExistingExtensionAttributes(element, element.getAttributes(), compiledElement);
 				validateInternalExtensionAttribute(element, schemaElement);
 				if (schemaElement.isDeprecated()) {
 					if (schemaElement instanceof ISchemaRootElement)
@@ -258,70 +265,52 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 		}
 	}
 
-	private void computeAllowedElements(ISchemaType type, HashSet elementSet) {
-		if (type instanceof ISchemaComplexType) {
-			ISchemaComplexType complexType = (ISchemaComplexType) type;
-			ISchemaCompositor compositor = complexType.getCompositor();
-			if (compositor != null)
-				computeAllowedElements(compositor, elementSet);
-
-			ISchemaAttribute[] attrs = complexType.getAttributes();
-			for (int i = 0; i < attrs.length; i++) {
-				if (attrs[i].getKind() == IMetaAttribute.JAVA)
-					elementSet.add(attrs[i].getName());
-			}
-		}
-	}
-
-	private void computeAllowedElements(ISchemaCompositor compositor, HashSet elementSet) {
-		ISchemaObject[] children = compositor.getChildren();
-		for (int i = 0; i < children.length; i++) {
-			ISchemaObject child = children[i];
-			if (child instanceof ISchemaObjectReference) {
-				ISchemaObjectReference ref = (ISchemaObjectReference) child;
-				ISchemaElement refElement = (ISchemaElement) ref.getReferencedObject();
-				if (refElement != null)
-					elementSet.add(refElement.getName());
-			} else if (child instanceof ISchemaCompositor) {
-				computeAllowedElements((ISchemaCompositor) child, elementSet);
-			}
+	/**
+	 * Returns the validation rules of the given schema element, compiled along with the
+	 * schema of the extension being validated
+	 * 
+	 * @param schemaElement the schema element
+	 * @return the compiled element
+	 */
+	private CompiledElement getCompiledElement(ISchemaElement schemaElement) {
+		CompiledElement compiled = fCompiledSchema != null ? fCompiledSchema.getElement(schemaElement) : null;
+		if (compiled == null) {
+			// element of a schema that is not reachable from the extension point schema
+			compiled = new CompiledElement(schemaElement);
 		}
+		return compiled;
 	}
 
-	private void validateRequiredExtensionAttributes(Element element, ISchemaElement schemaElement) {
+	private void validateRequiredExtensionAttributes(Element element, CompiledElement compiledElement) {
 		int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_NO_REQUIRED_ATT);
 		if (severity == CompilerFlags.IGNORE)
 			return;
 
-		ISchemaAttribute[] attInfos = schemaElement.getAttributes();
+		ISchemaAttribute[] attInfos = compiledElement.getRequiredAttributes();
 		for (int i = 0; i < attInfos.length; i++) {
 			ISchemaAttribute attInfo = attInfos[i];
-			if (attInfo.getUse() == ISchemaAttribute.REQUIRED) {
-				boolean found = element.getAttributeNode(attInfo.getName()) != null;
-				if (!found && attInfo.getKind() == IMetaAttribute.JAVA) {
-					NodeList children = element.getChildNodes();
-					for (int j = 0; j < children.getLength(); j++) {
-						if (attInfo.getName().equals(children.item(j).getNodeName())) {
-							found = true;
-							break;
-						}
+			boolean found = element.getAttributeNode(attInfo.getName()) != null;
+			if (!found && attInfo.getKind() == IMetaAttribute.JAVA) {
+				NodeList children = element.getChildNodes();
+				for (int j = 0; j < children.getLength(); j++) {
+					if (attInfo.getName().equals(children.item(j).getNodeName())) {
+						found = true;
+						break;
 					}
 				}
-				if (!found) {
-					reportMissingRequiredAttribute(element, attInfo.getName(), severity);
-				}
+			}
+			if (!found) {
+				reportMissingRequiredAttribute(element, attInfo.getName(), severity);
 			}
 		}
 	}
 
-	private void validateExistingExtensionAttributes(Element element, NamedNodeMap attrs, ISchemaElement schemaElement) {
+	private void validateExistingExtensionAttributes(Element element, NamedNodeMap attrs, CompiledElement compiledElement) {
 		for (int i = 0; i < attrs.getLength(); i++) {
 			Attr attr = (Attr) attrs.item(i);
-			ISchemaAttribute attInfo = schemaElement.getAttribute(attr.getName());
+			ISchemaAttribute attInfo = compiledElement.getAttribute(attr.getName());
 			if (attInfo == null) {
-				HashSet allowedElements = new HashSet();
-				computeAllowedElements(schemaElement.getType(), allowedElements);
-				if (allowedElements.contains(attr.getName())) {
+				if (compiledElement.isAllowedChild(attr.getName())) {
 					validateJavaAttribute(element, attr);
 				} else {
 					int flag = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ATTRIBUTE);
@@ -329,12 +318,12 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 						reportUnknownAttribute(element, attr.getName(), flag);
 				}
 			} else {
-				validateExtensionAttribute(element, attr, attInfo);
+				validateExtensionAttribute(element, attr, attInfo, compiledElement);
 			}
 		}
 	}
 
-	private void validateExtensionAttribute(Element element, Attr attr, ISchemaAttribute attInfo) {
+	private void validateExtensionAttribute(Element element, Attr attr, ISchemaAttribute attInfo, CompiledElement compiledElement) {
 		ISchemaSimpleType type = attInfo.getType();
 
 		int kind = attInfo.getKind();
@@ -345,9 +334,10 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 		} else if (kind == IMetaAttribute.IDENTIFIER) {
 			validateIdentifierAttribute(element, attr, attInfo);
 		} else if (kind == IMetaAttribute.STRING) {
-			ISchemaRestriction restriction = type.getRestriction();
-			if (restriction != null) {
-				validateRestrictionAttribute(element, attr, restriction);
+			Set allowedValues = compiledElement.getAllowedValues(attr.getName());
+			if (allowedValues != null && !allowedValues.contains(attr.getValue())) {
+				// only values the compiled restriction rejects are checked again
+				validateRestrictionAttribute(element, attr, type.getRestriction());
 			}
 		} else if (type.getName().equals("boolean")) { //$NON-NLS-1$
 			validateBoolean(element, attr);
@@ -558,6 +548,10 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 		}
 	}
 
+	/**
+	 * Reports the value of a string attribute that is not one of the values of its restriction.
+	 * Values allowed by the compiled schema are accepted without calling this method.
+	 */
 	protected void validateRestrictionAttribute(Element element, Attr attr, ISchemaRestriction restriction) {
 		Object[] children = restriction.getChildren();
 		String value = attr.getValue();
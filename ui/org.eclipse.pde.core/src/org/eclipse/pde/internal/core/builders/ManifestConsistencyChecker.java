@@ -13,12 +13,13 @@ package org.eclipse.pde.internal.core.builders;
 
 import java.io.File;
 import java.io.FilenameFilter;
-import java.util.Map;
+import java.util.*;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.internal.core.*;
 import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
 import org.osgi.framework.Bundle;
 
 public class ManifestConsistencyChecker extends IncrementalProjectBuilder {
@@ -209,36 +210,143 @@ public class ManifestConsistencyChecker extends IncrementalProjectBuilder {
 	}
 
 	private void validateProject(int type, IProgressMonitor monitor) {
-		monitor.beginTask(PDECoreMessages.ManifestConsistencyChecker_builderTaskName, getWorkAmount(type));
+		Validation[] validations = getValidations(type);
+		monitor.beginTask(PDECoreMessages.ManifestConsistencyChecker_builderTaskName, validations.length + 1);
 		if ((type & STRUCTURE) != 0)
 			validateProjectStructure(type, new SubProgressMonitor(monitor, 1));
+		if (validations.length > 0)
+			runValidations(validations, monitor);
+		monitor.done();
+	}
+
+	/**
+	 * Validation of a single file of the project, run on a worker thread while its marker
+	 * changes are recorded
+	 */
+	abstract class Validation {
+		final IFile fFile;
+		final DeferredMarkers fMarkers = new DeferredMarkers();
+
+		Validation(IFile file) {
+			fFile = file;
+		}
 
+		/**
+		 * Creates the error reporter for the file and validates the file
+		 * 
+		 * @param monitor progress monitor that is only used to check cancellation
+		 */
+		abstract void validate(IProgressMonitor monitor);
+	}
+
+	private Validation[] getValidations(int type) {
+		List validations = new ArrayList(3);
 		if ((type & MANIFEST | EXTENSIONS) != 0) {
 			IProject project = getProject();
 			IFile file = PDEProject.getPluginXml(project);
 			if (!file.exists())
 				file = PDEProject.getFragmentXml(project);
 
+			IFile bundleManifest = PDEProject.getManifest(project);
 			if (file.exists()) {
-				validateFiles(file, type, monitor);
+				if (bundleManifest.exists()) {
+					if ((type & EXTENSIONS) != 0)
+						validations.add(new Validation(file) {
+							void validate(IProgressMonitor monitor) {
+								validateXMLFile(new ExtensionsErrorReporter(fFile), monitor);
+							}
+						});
+					if ((type & MANIFEST) != 0)
+						validations.add(createManifestValidation(bundleManifest));
+				} else if ((type & MANIFEST) != 0 || (type & EXTENSIONS) != 0) {
+					if (file.equals(PDEProject.getPluginXml(project))) {
+						validations.add(new Validation(file) {
+							void validate(IProgressMonitor monitor) {
+								validateXMLFile(new PluginErrorReporter(fFile), monitor);
+							}
+						});
+					} else if (file.equals(PDEProject.getFragmentXml(project))) {
+						validations.add(new Validation(file) {
+							void validate(IProgressMonitor monitor) {
+								validateXMLFile(new FragmentErrorReporter(fFile), monitor);
+							}
+						});
+					}
+				}
 			} else if ((type & MANIFEST) != 0) {
-				IFile manifestFile = PDEProject.getManifest(project);
-				if (manifestFile.exists())
-					validateManifestFile(manifestFile, new SubProgressMonitor(monitor, 1));
+				if (bundleManifest.exists())
+					validations.add(createManifestValidation(bundleManifest));
 			}
 		}
 		if ((type & BUILD) != 0) {
-			validateBuildProperties(new SubProgressMonitor(monitor, 1));
+			IFile file = PDEProject.getBuildProperties(getProject());
+			if (file.exists()) {
+				validations.add(new Validation(file) {
+					void validate(IProgressMonitor monitor) {
+						new BuildErrorReporter(fFile).validateContent(monitor);
+					}
+				});
+			}
 		}
+		return (Validation[]) validations.toArray(new Validation[validations.size()]);
 	}
 
-	private int getWorkAmount(int type) {
-		int work = 1;
-		if ((type & MANIFEST | EXTENSIONS) != 0)
-			++work;
-		if ((type & BUILD) != 0)
-			++work;
-		return work;
+	private Validation createManifestValidation(IFile manifest) {
+		return new Validation(manifest) {
+			void validate(IProgressMonitor monitor) {
+				new BundleErrorReporter(fFile).validateContent(monitor);
+			}
+		};
+	}
+
+	private void validateXMLFile(XMLErrorReporter reporter, IProgressMonitor monitor) {
+		DefaultSAXParser.parse(reporter.getFile(), reporter);
+		reporter.validateContent(monitor);
+	}
+
+	/**
+	 * Runs the given validations of this project concurrently.  The validations only read the
+	 * workspace and the target state, their marker changes are recorded and applied on the
+	 * builder thread once all of them are done, as the builder holds the workspace lock.
+	 * <p>
+	 * Only the files of one project are validated in parallel.  The workspace build runs the
+	 * builders of the projects one after the other, so the validations of different projects
+	 * never overlap.
+	 * </p>
+	 * 
+	 * @param validations the validations to run
+	 * @param monitor progress monitor, given one unit of work per validation
+	 */
+	private void runValidations(final Validation[] validations, IProgressMonitor monitor) {
+		if (monitor.isCanceled())
+			return;
+		monitor.subTask(NLS.bind(PDECoreMessages.Builders_verifying, getProject().getFullPath().toString()));
+		try {
+			ParallelRunner.run(getProject().getName() + " validation", validations.length, Runtime.getRuntime().availableProcessors(), new ParallelRunner.Work() { //$NON-NLS-1$
+						public void run(int index, IProgressMonitor workMonitor) {
+							if (DEBUG) {
+								System.out.println("Validating " + validations[index].fFile.getFullPath() + " on " + Thread.currentThread().getName()); //$NON-NLS-1$ //$NON-NLS-2$
+							}
+							DeferredMarkers markers = validations[index].fMarkers;
+							markers.install();
+							try {
+								validations[index].validate(workMonitor);
+							} finally {
+								markers.uninstall();
+							}
+						}
+					}, monitor);
+		} catch (CoreException e) {
+			PDECore.log(e);
+		}
+		monitor.subTask(PDECoreMessages.Builders_updating);
+		for (int i = 0; i < validations.length; i++) {
+			try {
+				validations[i].fMarkers.apply();
+			} catch (CoreException e) {
+				PDECore.logException(e);
+			}
+		}
 	}
 
 	private void validateProjectStructure(int type, IProgressMonitor monitor) {
@@ -258,65 +366,6 @@ public class ManifestConsistencyChecker extends IncrementalProjectBuilder {
 		validateManifestCasing(project);
 	}
 
-	private void validateManifestFile(IFile file, IProgressMonitor monitor) {
-		if (monitor.isCanceled())
-			return;
-		String message = NLS.bind(PDECoreMessages.Builders_verifying, file.getFullPath().toString());
-		monitor.subTask(message);
-
-		BundleErrorReporter reporter = new BundleErrorReporter(file);
-		if (reporter != null) {
-			reporter.validateContent(monitor);
-			monitor.subTask(PDECoreMessages.Builders_updating);
-		}
-		monitor.done();
-	}
-
-	private void validateFiles(IFile file, int type, IProgressMonitor monitor) {
-		if (monitor.isCanceled())
-			return;
-		String message = NLS.bind(PDECoreMessages.Builders_verifying, file.getFullPath().toString());
-		monitor.subTask(message);
-
-		IFile bundleManifest = PDEProject.getManifest(getProject());
-		XMLErrorReporter reporter = null;
-		BundleErrorReporter bundleReporter = null;
-		if (bundleManifest.exists()) {
-			if ((type & EXTENSIONS) != 0)
-				reporter = new ExtensionsErrorReporter(file);
-			if ((type & MANIFEST) != 0)
-				bundleReporter = new BundleErrorReporter(bundleManifest);
-		} else if ((type & MANIFEST) != 0 || (type & EXTENSIONS) != 0) {
-			if (file.equals(PDEProject.getPluginXml(getProject()))) {
-				reporter = new PluginErrorReporter(file);
-			} else if (file.equals(PDEProject.getFragmentXml(getProject()))) {
-				reporter = new FragmentErrorReporter(file);
-			}
-		}
-		if (reporter != null) {
-			DefaultSAXParser.parse(file, reporter);
-			reporter.validateContent(monitor);
-			monitor.subTask(PDECoreMessages.Builders_updating);
-		}
-		if (bundleReporter != null) {
-			bundleReporter.validateContent(monitor);
-			monitor.subTask(PDECoreMessages.Builders_updating);
-		}
-		monitor.done();
-	}
-
-	private void validateBuildProperties(IProgressMonitor monitor) {
-		if (monitor.isCanceled())
-			return;
-		IProject project = getProject();
-		IFile file = PDEProject.getBuildProperties(project);
-		if (file.exists()) {
-			monitor.subTask(PDECoreMessages.ManifestConsistencyChecker_buildPropertiesSubtask);
-			BuildErrorReporter ber = new BuildErrorReporter(file);
-			ber.validateContent(monitor);
-		}
-	}
-
 	// Will place a marker on the project if the build.properties does not exist
 	private void validateBuildPropertiesExists(IProject project) {
 		IFile file = PDEProject.getBuildProperties(project);
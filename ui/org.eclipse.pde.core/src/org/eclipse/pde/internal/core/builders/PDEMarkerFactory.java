@@ -87,7 +87,7 @@ public class PDEMarkerFactory {
 	public static final String CAT_ID = "categoryId"; //$NON-NLS-1$
 
 	public IMarker createMarker(IFile file, int id, String category) throws CoreException {
-		IMarker marker = file.createMarker(MARKER_ID);
+		IMarker marker = DeferredMarkers.createMarker(file, MARKER_ID);
 		marker.setAttribute("id", id); //$NON-NLS-1$
 		marker.setAttribute(CAT_ID, category);
 		return marker;
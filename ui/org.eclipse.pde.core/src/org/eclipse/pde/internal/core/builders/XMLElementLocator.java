@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.builders;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.*;
+import org.xml.sax.Locator;
+
+/**
+ * Locates the elements of an XML file in its text while the file is parsed with SAX, for
+ * the error reporters of PDE and of other PDE components.
+ * <p>
+ * Each start tag is tokenized once when its element starts, recording the offsets of its
+ * attributes and of its content.  The offset of the end tag is taken from the SAX locator
+ * when the element ends.  Lines and text content are then looked up from these offsets
+ * without searching the document.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class XMLElementLocator {
+
+	/**
+	 * Offsets of an element in the text
+	 */
+	public static class Location {
+		/**
+		 * Offset of the start tag
+		 */
+		int offset;
+		/**
+		 * Offset following the start tag, or -1 if unknown
+		 */
+		int contentOffset = -1;
+		/**
+		 * Offset of the end tag, or -1 if the element is empty or the offset is unknown
+		 */
+		int endTagOffset = -1;
+		/**
+		 * Map of attribute name to the Integer offset of the attribute in the start tag
+		 */
+		Map attributeOffsets;
+
+		Location(int offset) {
+			this.offset = offset;
+		}
+	}
+
+	private String fText;
+
+	private IDocument fDocument;
+
+	private int fHighestOffset;
+
+	/**
+	 * Creates a locator for the given text
+	 *
+	 * @param text the contents of the parsed file
+	 */
+	public XMLElementLocator(String text) {
+		fText = text;
+		fDocument = new Document(text);
+	}
+
+	/**
+	 * Reads the contents of the given file using its character set
+	 *
+	 * @param file the file to read
+	 * @return the contents of the file without a byte order mark
+	 * @throws CoreException if the file cannot be accessed
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String readContents(IFile file) throws CoreException, IOException {
+		Reader reader = new InputStreamReader(file.getContents(true), file.getCharset());
+		try {
+			StringBuffer buffer = new StringBuffer();
+			char[] chars = new char[8192];
+			int read;
+			while ((read = reader.read(chars)) != -1) {
+				buffer.append(chars, 0, read);
+			}
+			if (buffer.length() > 0 && buffer.charAt(0) == '\uFEFF')
+				buffer.deleteCharAt(0);
+			return buffer.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns the text the elements are located in
+	 *
+	 * @return the contents of the parsed file
+	 */
+	public String getContents() {
+		return fText;
+	}
+
+	/**
+	 * Returns the one-based line of the given offset
+	 *
+	 * @param offset an offset in the text
+	 * @return the line of the offset
+	 * @throws BadLocationException if the offset is not in the text
+	 */
+	public int getLineOfOffset(int offset) throws BadLocationException {
+		return fDocument.getLineOfOffset(offset) + 1;
+	}
+
+	/**
+	 * Locates the start tag of the element the parser just started, which must follow the
+	 * start tags of the elements located before
+	 *
+	 * @param elementName name of the element
+	 * @param locator the locator of the parser, positioned at the end of the start tag
+	 * @return the location of the element
+	 * @throws BadLocationException if the locator is not positioned in the text
+	 */
+	public Location startElement(String elementName, Locator locator) throws BadLocationException {
+		Location location = new Location(getStartOffset(elementName, locator));
+		scanStartTag(location, elementName);
+		return location;
+	}
+
+	/**
+	 * Records the offset of the end tag of the element the parser just ended
+	 *
+	 * @param location the location of the element, may be <code>null</code>
+	 * @param locator the locator of the parser, positioned right after the end tag
+	 */
+	public void endElement(Location location, Locator locator) {
+		if (location == null || location.contentOffset == -1 || locator.getColumnNumber() < 0)
+			return;
+		try {
+			int end = fDocument.getLineOffset(locator.getLineNumber() - 1) + locator.getColumnNumber() - 1;
+			int offset = fText.lastIndexOf("</", end); //$NON-NLS-1$
+			if (offset >= location.contentOffset)
+				location.endTagOffset = offset;
+		} catch (BadLocationException e) {
+		}
+	}
+
+	/**
+	 * Returns the one-based line of the start tag of an element
+	 *
+	 * @param location the location of the element, may be <code>null</code>
+	 * @return the line of the element, 1 if it is unknown
+	 */
+	public int getLine(Location location) {
+		try {
+			return (location == null) ? 1 : getLineOfOffset(location.offset);
+		} catch (BadLocationException e) {
+			return 1;
+		}
+	}
+
+	/**
+	 * Returns the one-based line of an attribute of an element
+	 *
+	 * @param location the location of the element, may be <code>null</code>
+	 * @param attName name of the attribute
+	 * @return the line of the attribute, or the line of the element if the attribute is not found
+	 */
+	public int getLine(Location location, String attName) {
+		if (location != null && location.attributeOffsets != null) {
+			Integer offset = (Integer) location.attributeOffsets.get(attName);
+			try {
+				if (offset != null)
+					return getLineOfOffset(offset.intValue());
+			} catch (BadLocationException e) {
+			}
+		}
+		return getLine(location);
+	}
+
+	/**
+	 * Returns the text between the start and end tags of an element
+	 *
+	 * @param location the location of the element, may be <code>null</code>
+	 * @return the trimmed text content or <code>null</code> if the element has no end tag
+	 */
+	public String getTextContent(Location location) {
+		if (location == null || location.contentOffset == -1 || location.endTagOffset == -1)
+			return null;
+		return fText.substring(location.contentOffset, location.endTagOffset).trim();
+	}
+
+	private int getStartOffset(String elementName, Locator locator) throws BadLocationException {
+		int line = locator.getLineNumber();
+		String text = fDocument.get(fHighestOffset + 1, fDocument.getLineOffset(line) - fHighestOffset - 1);
+
+		ArrayList commentPositions = new ArrayList();
+		for (int idx = 0; idx < text.length();) {
+			idx = text.indexOf("<!--", idx); //$NON-NLS-1$
+			if (idx == -1)
+				break;
+			int end = text.indexOf("-->", idx); //$NON-NLS-1$
+			if (end == -1)
+				break;
+
+			commentPositions.add(new Position(idx, end - idx));
+			idx = end + 1;
+		}
+
+		int idx = 0;
+		for (; idx < text.length(); idx += 1) {
+			idx = text.indexOf("<" + elementName, idx); //$NON-NLS-1$
+			if (idx == -1)
+				break;
+			boolean valid = true;
+			for (int i = 0; i < commentPositions.size(); i++) {
+				Position pos = (Position) commentPositions.get(i);
+				if (pos.includes(idx)) {
+					valid = false;
+					break;
+				}
+			}
+			if (valid)
+				break;
+		}
+		if (idx > -1)
+			fHighestOffset += idx + 1;
+		return fHighestOffset;
+	}
+
+	/**
+	 * Records the offsets of the attributes and the end of the start tag of an element,
+	 * tokenizing the start tag once
+	 *
+	 * @param location the location with the offset of the start tag
+	 * @param elementName name of the element
+	 */
+	private void scanStartTag(Location location, String elementName) {
+		String text = fText;
+		int length = text.length();
+		int idx = location.offset + elementName.length() + 1;
+		if (idx > length || !text.startsWith(elementName, location.offset + 1))
+			return;
+		location.attributeOffsets = new HashMap(4);
+		while (idx < length) {
+			char c = text.charAt(idx);
+			if (Character.isWhitespace(c)) {
+				idx++;
+			} else if (c == '>') {
+				location.contentOffset = idx + 1;
+				return;
+			} else if (c == '/') {
+				// empty element, it has no content nor end tag
+				return;
+			} else {
+				int nameOffset = idx;
+				while (idx < length && text.charAt(idx) != '=' && !Character.isWhitespace(text.charAt(idx)) && text.charAt(idx) != '>')
+					idx++;
+				String name = text.substring(nameOffset, idx);
+				while (idx < length && Character.isWhitespace(text.charAt(idx)))
+					idx++;
+				if (idx >= length || text.charAt(idx) != '=')
+					return;
+				idx++;
+				while (idx < length && Character.isWhitespace(text.charAt(idx)))
+					idx++;
+				if (idx >= length)
+					return;
+				char quote = text.charAt(idx);
+				if (quote != '"' && quote != '\'')
+					return;
+				int end = text.indexOf(quote, idx + 1);
+				if (end == -1)
+					return;
+				if (!location.attributeOffsets.containsKey(name))
+					location.attributeOffsets.put(name, new Integer(nameOffset));
+				idx = end + 1;
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2008 IBM Corporation and others.
+ *  Copyright (c) 2000, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,11 +11,10 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core.builders;
 
-import java.io.StringReader;
+import java.io.*;
 import java.util.*;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import org.eclipse.core.filebuffers.*;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,11 +32,11 @@ public class XMLErrorReporter extends DefaultHandler {
 	public static final char F_CHILD_SEP = '>';
 
 	class ElementData {
-		int offset;
+		XMLElementLocator.Location location;
 		boolean fErrorNode;
 
-		public ElementData(int offset) {
-			this.offset = offset;
+		public ElementData(XMLElementLocator.Location location) {
+			this.location = location;
 		}
 	}
 
@@ -51,7 +50,10 @@ public class XMLErrorReporter extends DefaultHandler {
 
 	private org.w3c.dom.Document fXMLDocument;
 
-	private IDocument fTextDocument;
+	/**
+	 * Locates the elements in the contents of the file, <code>null</code> if the file could not be read
+	 */
+	private XMLElementLocator fElementLocator;
 
 	private Stack fElementStack;
 
@@ -59,29 +61,32 @@ public class XMLErrorReporter extends DefaultHandler {
 
 	private Locator fLocator;
 
-	private int fHighestOffset;
-
 	private HashMap fOffsetTable;
 
-	private FindReplaceDocumentAdapter fFindReplaceAdapter;
-
 	private double fSchemaVersion = 2.1;
 
 	public XMLErrorReporter(IFile file) {
-		ITextFileBufferManager manager = FileBuffers.getTextFileBufferManager();
+		fFile = file;
+		fProject = file.getProject();
+		fOffsetTable = new HashMap();
+		fElementStack = new Stack();
 		try {
-			fFile = file;
-			fProject = file.getProject();
-			manager.connect(file.getFullPath(), LocationKind.NORMALIZE, null);
-			fTextDocument = manager.getTextFileBuffer(file.getFullPath(), LocationKind.NORMALIZE).getDocument();
-			manager.disconnect(file.getFullPath(), LocationKind.NORMALIZE, null);
-			fFindReplaceAdapter = new FindReplaceDocumentAdapter(fTextDocument);
-			fOffsetTable = new HashMap();
-			fElementStack = new Stack();
-			removeFileMarkers();
+			fElementLocator = new XMLElementLocator(XMLElementLocator.readContents(file));
 		} catch (CoreException e) {
 			PDECore.log(e);
+		} catch (IOException e) {
+			PDECore.logException(e);
 		}
+		removeFileMarkers();
+	}
+
+	/**
+	 * Returns the contents of the validated file, so that it is not read again to be parsed
+	 * 
+	 * @return the contents of the file or <code>null</code> if it could not be read
+	 */
+	String getContents() {
+		return fElementLocator != null ? fElementLocator.getContents() : null;
 	}
 
 	public IFile getFile() {
@@ -131,8 +136,8 @@ public class XMLErrorReporter extends DefaultHandler {
 
 	private void removeFileMarkers() {
 		try {
-			fFile.deleteMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
-			fFile.deleteMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
+			DeferredMarkers.deleteMarkers(fFile, IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
+			DeferredMarkers.deleteMarkers(fFile, PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
 		} catch (CoreException e) {
 			PDECore.logException(e);
 		}
@@ -227,8 +232,8 @@ public class XMLErrorReporter extends DefaultHandler {
 			((Element) fElementStack.peek()).appendChild(element);
 		fElementStack.push(element);
 		try {
-			if (fTextDocument != null)
-				fOffsetTable.put(element, new ElementData(getStartOffset(qName)));
+			if (fElementLocator != null)
+				fOffsetTable.put(element, new ElementData(fElementLocator.startElement(qName, fLocator)));
 		} catch (BadLocationException e) {
 		}
 	}
@@ -237,7 +242,9 @@ public class XMLErrorReporter extends DefaultHandler {
 	 * @see org.xml.sax.helpers.DefaultHandler#endElement(java.lang.String, java.lang.String, java.lang.String)
 	 */
 	public void endElement(String uri, String localName, String qName) throws SAXException {
-		fElementStack.pop();
+		ElementData data = (ElementData) fOffsetTable.get(fElementStack.pop());
+		if (data != null)
+			fElementLocator.endElement(data.location, fLocator);
 	}
 
 	private void generateErrorElementHierarchy() {
@@ -252,11 +259,7 @@ public class XMLErrorReporter extends DefaultHandler {
 	 * @see org.xml.sax.helpers.DefaultHandler#characters(char[], int, int)
 	 */
 	public void characters(char[] characters, int start, int length) throws SAXException {
-		StringBuffer buff = new StringBuffer();
-		for (int i = 0; i < length; i++) {
-			buff.append(characters[start + i]);
-		}
-		Text text = fXMLDocument.createTextNode(buff.toString());
+		Text text = fXMLDocument.createTextNode(new String(characters, start, length));
 		if (fRootElement == null)
 			fXMLDocument.appendChild(text);
 		else
@@ -270,113 +273,19 @@ public class XMLErrorReporter extends DefaultHandler {
 		fLocator = locator;
 	}
 
-	private int getStartOffset(String elementName) throws BadLocationException {
-		int line = fLocator.getLineNumber();
-		int col = fLocator.getColumnNumber();
-		if (col < 0)
-			col = fTextDocument.getLineLength(line);
-		String text = fTextDocument.get(fHighestOffset + 1, fTextDocument.getLineOffset(line) - fHighestOffset - 1);
-
-		ArrayList commentPositions = new ArrayList();
-		for (int idx = 0; idx < text.length();) {
-			idx = text.indexOf("<!--", idx); //$NON-NLS-1$
-			if (idx == -1)
-				break;
-			int end = text.indexOf("-->", idx); //$NON-NLS-1$
-			if (end == -1)
-				break;
-
-			commentPositions.add(new Position(idx, end - idx));
-			idx = end + 1;
-		}
-
-		int idx = 0;
-		for (; idx < text.length(); idx += 1) {
-			idx = text.indexOf("<" + elementName, idx); //$NON-NLS-1$
-			if (idx == -1)
-				break;
-			boolean valid = true;
-			for (int i = 0; i < commentPositions.size(); i++) {
-				Position pos = (Position) commentPositions.get(i);
-				if (pos.includes(idx)) {
-					valid = false;
-					break;
-				}
-			}
-			if (valid)
-				break;
-		}
-		if (idx > -1)
-			fHighestOffset += idx + 1;
-		return fHighestOffset;
-	}
-
-	private int getAttributeOffset(String name, String value, int offset) throws BadLocationException {
-		IRegion nameRegion = fFindReplaceAdapter.find(offset, name + "=\"" + getWritableString(value), true, false, false, false); //$NON-NLS-1$
-		if (nameRegion != null) {
-			return nameRegion.getOffset();
-		}
-		return -1;
-	}
-
-	private String getWritableString(String source) {
-		StringBuffer buf = new StringBuffer();
-		for (int i = 0; i < source.length(); i++) {
-			char c = source.charAt(i);
-			switch (c) {
-				case '&' :
-					buf.append("&amp;"); //$NON-NLS-1$
-					break;
-				case '<' :
-					buf.append("&lt;"); //$NON-NLS-1$
-					break;
-				case '>' :
-					buf.append("&gt;"); //$NON-NLS-1$
-					break;
-				case '\'' :
-					buf.append("&apos;"); //$NON-NLS-1$
-					break;
-				case '\"' :
-					buf.append("&quot;"); //$NON-NLS-1$
-					break;
-				default :
-					buf.append(c);
-					break;
-			}
-		}
-		return buf.toString();
-	}
-
 	protected String getTextContent(Element element) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			IRegion nameRegion = fFindReplaceAdapter.find(data.offset, "</" + element.getNodeName() + ">", true, true, false, false); //$NON-NLS-1$ //$NON-NLS-2$
-			int offset = data.offset + element.getNodeName().length() + 2;
-			if (nameRegion != null)
-				return fTextDocument.get(offset, nameRegion.getOffset() - offset).trim();
-		} catch (BadLocationException e) {
-		}
-		return null;
+		return data == null ? null : fElementLocator.getTextContent(data.location);
 	}
 
 	protected int getLine(Element element) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			return (data == null) ? 1 : fTextDocument.getLineOfOffset(data.offset) + 1;
-		} catch (Exception e) {
-			return 1;
-		}
+		return data == null ? 1 : fElementLocator.getLine(data.location);
 	}
 
 	protected int getLine(Element element, String attName) {
 		ElementData data = (ElementData) fOffsetTable.get(element);
-		try {
-			int offset = getAttributeOffset(attName, element.getAttribute(attName), data.offset);
-			if (offset != -1)
-				return fTextDocument.getLineOfOffset(offset) + 1;
-		} catch (BadLocationException e) {
-		}
-		return getLine(element);
+		return data == null ? 1 : fElementLocator.getLine(data.location, attName);
 	}
 
 	public void validateContent(IProgressMonitor monitor) {
@@ -405,10 +314,10 @@ public class XMLErrorReporter extends DefaultHandler {
 	}
 
 	public InputSource resolveEntity(String publicId, String systemId) throws SAXException {
-		int x = fTextDocument.get().indexOf("!DOCTYPE"); //$NON-NLS-1$
+		int x = fElementLocator != null ? fElementLocator.getContents().indexOf("!DOCTYPE") : -1; //$NON-NLS-1$
 		if (x > 0) {
 			try {
-				int line = fTextDocument.getLineOfOffset(x) + 1;
+				int line = fElementLocator.getLineOfOffset(x);
 				report(PDECoreMessages.XMLErrorReporter_ExternalEntityResolution, line, CompilerFlags.WARNING, PDEMarkerFactory.CAT_OTHER);
 			} catch (BadLocationException e) {
 			}
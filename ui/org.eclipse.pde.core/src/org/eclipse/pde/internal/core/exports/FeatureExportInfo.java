@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,11 @@ public class FeatureExportInfo {
 	public boolean exportMetadata;
 	public boolean allowBinaryCycles;
 	public boolean useWorkspaceCompiledClasses;
+	/**
+	 * When using workspace compiled classes, whether the plug-ins with build errors or a custom
+	 * build are compiled from source while the other plug-ins are packaged from their output folders
+	 */
+	public boolean compileDirtyPlugins;
 	public String destinationDirectory;
 	public String zipFileName;
 	public String qualifier;
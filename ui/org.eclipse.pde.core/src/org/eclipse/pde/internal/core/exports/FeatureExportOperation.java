@@ -17,6 +17,7 @@ import java.util.*;
 import javax.xml.parsers.*;
 import org.eclipse.ant.core.*;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.*;
@@ -52,6 +53,11 @@ public class FeatureExportOperation extends Job {
 	private static boolean fHasErrors;
 	protected HashMap fAntBuildProperties;
 	protected WorkspaceExportHelper fWorkspaceExportHelper;
+	/**
+	 * Workspace projects compiled from source when exporting dirty plug-ins incrementally,
+	 * <code>null</code> until the workspace has been built
+	 */
+	private Set fProjectsToCompile;
 
 	protected State fStateCopy;
 
@@ -684,7 +690,14 @@ public class FeatureExportOperation extends Job {
 
 		if (fInfo.useWorkspaceCompiledClasses) {
 			generator.setUseWorkspaceBinaries(true);
-			generator.setStateExtraData(TargetPlatformHelper.getBundleClasspaths(TargetPlatformHelper.getPDEState()), TargetPlatformHelper.getPatchMap(TargetPlatformHelper.getPDEState()), getWorkspaceExportHelper().getWorkspaceOutputFolders(fInfo.items));
+			Map outputFolders;
+			if (fProjectsToCompile != null) {
+				outputFolders = getWorkspaceExportHelper().getWorkspaceOutputFolders(fInfo.items, fProjectsToCompile);
+				logWorkspaceReuse(outputFolders.keySet(), fProjectsToCompile);
+			} else {
+				outputFolders = getWorkspaceExportHelper().getWorkspaceOutputFolders(fInfo.items);
+			}
+			generator.setStateExtraData(TargetPlatformHelper.getBundleClasspaths(TargetPlatformHelper.getPDEState()), TargetPlatformHelper.getPatchMap(TargetPlatformHelper.getPDEState()), outputFolders);
 		} else {
 			generator.setStateExtraData(TargetPlatformHelper.getBundleClasspaths(TargetPlatformHelper.getPDEState()), TargetPlatformHelper.getPatchMap(TargetPlatformHelper.getPDEState()));
 		}
@@ -763,6 +776,24 @@ public class FeatureExportOperation extends Job {
 		return fDevProperties;
 	}
 
+	/**
+	 * Logs which workspace plug-ins are packaged from their output folders and which are
+	 * compiled from source.
+	 * 
+	 * @param reused symbolic names of the plug-ins packaged from their output folders
+	 * @param compiled workspace projects compiled from source, reported by symbolic name as well
+	 */
+	private void logWorkspaceReuse(Set reused, Set compiled) {
+		Set reusedNames = new TreeSet(reused);
+		Set compiledNames = new TreeSet();
+		for (Iterator iterator = compiled.iterator(); iterator.hasNext();) {
+			IPluginModelBase model = PluginRegistry.findModel((IProject) iterator.next());
+			if (model != null && model.getBundleDescription() != null)
+				compiledNames.add(model.getBundleDescription().getSymbolicName());
+		}
+		PDECore.log(new Status(IStatus.INFO, PDECore.PLUGIN_ID, NLS.bind(PDECoreMessages.FeatureExportOperation_workspaceClassesReused, new String[] {Integer.toString(reusedNames.size()), Integer.toString(compiledNames.size()), reusedNames.toString(), compiledNames.toString()})));
+	}
+
 	protected boolean isCustomBuild(IModel model) throws CoreException {
 		IBuildModel buildModel = null;
 		IFile buildFile = PDEProject.getBuildProperties(model.getUnderlyingResource().getProject());
@@ -1153,6 +1184,12 @@ public class FeatureExportOperation extends Job {
 			monitor.beginTask("", 50); //$NON-NLS-1$
 			if (fInfo.useWorkspaceCompiledClasses) {
 				getWorkspaceExportHelper().buildBeforeExport(fInfo.items, new SubProgressMonitor(monitor, 45));
+				if (fInfo.compileDirtyPlugins) {
+					// plug-ins with errors are compiled from source by the export
+					fProjectsToCompile = getWorkspaceExportHelper().getProjectsToCompile(fInfo.items);
+					monitor.worked(5);
+					return Status.OK_STATUS;
+				}
 				Set errors = getWorkspaceExportHelper().checkForErrors(fInfo.items);
 				if (!errors.isEmpty()) {
 					monitor.worked(5);
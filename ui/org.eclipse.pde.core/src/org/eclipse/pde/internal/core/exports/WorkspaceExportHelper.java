@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2010 IBM Corporation and others.
+ * Copyright (c) 2008, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -92,6 +92,32 @@ public class WorkspaceExportHelper extends LaunchConfigurationDelegate {
 		return projectsWithErrors;
 	}
 
+	/**
+	 * Returns the workspace projects that are being exported or are required plug-ins of the
+	 * exported items whose output folders cannot be packaged as they are.  These are the projects
+	 * with build errors, as reported by {@link #checkForErrors(Object[])}, and the projects using a
+	 * custom build script.
+	 * 
+	 * @param exportedItems the plugins or features being exported
+	 * @return set of IProjects that must be compiled from source
+	 * @throws CoreException
+	 */
+	public Set getProjectsToCompile(Object[] exportedItems) throws CoreException {
+		Set result = checkForErrors(exportedItems);
+		IProject[] projects = getExportedWorkspaceProjects(exportedItems);
+		for (int i = 0; i < projects.length; i++) {
+			IFile buildFile = PDEProject.getBuildProperties(projects[i]);
+			if (buildFile.exists()) {
+				IBuildModel buildModel = new WorkspaceBuildModel(buildFile);
+				buildModel.load();
+				IBuildEntry entry = buildModel.getBuild() != null ? buildModel.getBuild().getEntry("custom") : null; //$NON-NLS-1$
+				if (entry != null && entry.contains("true")) //$NON-NLS-1$
+					result.add(projects[i]);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Returns a map containing information associating libraries to the output locations the
 	 * workspace compiles them to.  Uses information in the build.properties and the classpath.
@@ -104,9 +130,24 @@ public class WorkspaceExportHelper extends LaunchConfigurationDelegate {
 	 * @return a map of library output folders for each plugin in the workspace
 	 */
 	public Map getWorkspaceOutputFolders(Object[] exportedItems) throws CoreException {
+		return getWorkspaceOutputFolders(exportedItems, Collections.EMPTY_SET);
+	}
+
+	/**
+	 * Returns a map containing information associating libraries to the output locations the
+	 * workspace compiles them to, leaving out the given projects so that they are compiled
+	 * from source.  See {@link #getWorkspaceOutputFolders(Object[])}.
+	 *
+	 * @param exportedItems the plugins or features being exported
+	 * @param excludedProjects set of IProjects whose output folders must not be used
+	 * @return a map of library output folders for each plugin in the workspace that is not excluded
+	 */
+	public Map getWorkspaceOutputFolders(Object[] exportedItems, Set excludedProjects) throws CoreException {
 		IProject[] projects = getExportedWorkspaceProjects(exportedItems);
 		Map result = new HashMap(projects.length);
 		for (int i = 0; i < projects.length; i++) {
+			if (excludedProjects.contains(projects[i]))
+				continue;
 			IFile buildFile = PDEProject.getBuildProperties(projects[i]);
 			if (buildFile.exists()) {
 				IBuildModel buildModel = new WorkspaceBuildModel(buildFile);
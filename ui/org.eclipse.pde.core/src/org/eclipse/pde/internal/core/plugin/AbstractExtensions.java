@@ -179,7 +179,7 @@ public abstract class AbstractExtensions extends PluginObject implements IExtens
 				if (res != null && res instanceof IFile) {
 					try {
 						InputStream stream = new BufferedInputStream(((IFile) res).getContents(true));
-						PluginHandler handler = new PluginHandler(true);
+						PluginBaseHandler handler = new PluginBaseHandler(null, true);
 						SAXParserFactory.newInstance().newSAXParser().parse(stream, handler);
 						return handler.getSchemaVersion();
 					} catch (CoreException e) {
@@ -235,25 +235,52 @@ public abstract class AbstractExtensions extends PluginObject implements IExtens
 	 */
 	protected void processChild(Node child) {
 		String name = child.getNodeName();
+		initializeExtensionLists();
+
+		if (name.equals("extension")) { //$NON-NLS-1$
+			createExtension().load(child);
+		} else if (name.equals("extension-point")) { //$NON-NLS-1$
+			createExtensionPoint().load(child);
+		}
+	}
+
+	/*
+	 * Once called, the extension registry cache will not be used when querying model.
+	 */
+	void initializeExtensionLists() {
 		if (fExtensions == null)
 			fExtensions = new ArrayList();
 		if (fExtensionPoints == null)
 			fExtensionPoints = new ArrayList();
+	}
 
-		if (name.equals("extension")) { //$NON-NLS-1$
-			PluginExtension extension = new PluginExtension();
-			extension.setModel(getModel());
-			extension.setParent(this);
-			fExtensions.add(extension);
-			extension.setInTheModel(true);
-			extension.load(child);
-		} else if (name.equals("extension-point")) { //$NON-NLS-1$
-			PluginExtensionPoint point = new PluginExtensionPoint();
-			point.setModel(getModel());
-			point.setParent(this);
-			point.setInTheModel(true);
-			fExtensionPoints.add(point);
-			point.load(child);
-		}
+	/**
+	 * Creates an extension loaded from the plug-in's XML file and adds it to this object
+	 * 
+	 * @return the new extension
+	 */
+	PluginExtension createExtension() {
+		initializeExtensionLists();
+		PluginExtension extension = new PluginExtension();
+		extension.setModel(getModel());
+		extension.setParent(this);
+		fExtensions.add(extension);
+		extension.setInTheModel(true);
+		return extension;
+	}
+
+	/**
+	 * Creates an extension point loaded from the plug-in's XML file and adds it to this object
+	 * 
+	 * @return the new extension point
+	 */
+	PluginExtensionPoint createExtensionPoint() {
+		initializeExtensionLists();
+		PluginExtensionPoint point = new PluginExtensionPoint();
+		point.setModel(getModel());
+		point.setParent(this);
+		point.setInTheModel(true);
+		fExtensionPoints.add(point);
+		return point;
 	}
 }
@@ -81,7 +81,7 @@ public abstract class AbstractExtensionsModel extends AbstractNLModel implements
 			// Need a good way to "setLoaded()" value
 			// With the way we do it, we might be able to claim it is always loaded.
 			SAXParser parser = getSaxParser();
-			PluginHandler handler = new PluginHandler(true);
+			PluginBaseHandler handler = new PluginBaseHandler(null, true);
 			parser.parse(stream, handler);
 			fExtensions.load(handler.getSchemaVersion());
 			setLoaded(true);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,7 +60,23 @@ public abstract class AbstractPluginModelBase extends AbstractNLModel implements
 	}
 
 	public void load(InputStream stream, boolean outOfSync) throws CoreException {
-		load(stream, outOfSync, new PluginHandler(fAbbreviated));
+		if (fPluginBase == null)
+			fPluginBase = createPluginBase();
+
+		((PluginBase) fPluginBase).reset();
+		setLoaded(false);
+		try {
+			// load the model objects while parsing, no document is needed
+			SAXParser parser = getSaxParser();
+			parser.parse(stream, new PluginBaseHandler((PluginBase) fPluginBase, fAbbreviated));
+			setLoaded(true);
+			if (!outOfSync)
+				updateTimeStamp();
+		} catch (Exception e) {
+			// do not keep the objects read before the error, as if nothing was loaded from a document
+			((PluginBase) fPluginBase).reset();
+			PDECore.log(e);
+		}
 	}
 
 	public void load(InputStream stream, boolean outOfSync, PluginHandler handler) {
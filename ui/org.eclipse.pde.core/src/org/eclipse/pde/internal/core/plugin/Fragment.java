@@ -22,6 +22,7 @@ import org.eclipse.pde.core.plugin.IPluginExtension;
 import org.eclipse.pde.core.plugin.IPluginExtensionPoint;
 import org.eclipse.pde.internal.core.PDEState;
 import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
 
 public class Fragment extends PluginBase implements IFragment {
 	private static final long serialVersionUID = 1L;
@@ -71,7 +72,18 @@ public class Fragment extends PluginBase implements IFragment {
 	void load(Node node, String schemaVersion) {
 		fPluginId = getNodeAttribute(node, "plugin-id"); //$NON-NLS-1$
 		fPluginVersion = getNodeAttribute(node, "plugin-version"); //$NON-NLS-1$
-		String match = getNodeAttribute(node, "match"); //$NON-NLS-1$
+		loadMatchRule(getNodeAttribute(node, "match")); //$NON-NLS-1$
+		super.load(node, schemaVersion);
+	}
+
+	void load(Attributes attributes) {
+		fPluginId = attributes.getValue("plugin-id"); //$NON-NLS-1$
+		fPluginVersion = attributes.getValue("plugin-version"); //$NON-NLS-1$
+		loadMatchRule(attributes.getValue("match")); //$NON-NLS-1$
+		super.load(attributes);
+	}
+
+	private void loadMatchRule(String match) {
 		if (match != null) {
 			String[] table = IMatchRules.RULE_NAME_TABLE;
 			for (int i = 0; i < table.length; i++) {
@@ -81,7 +93,6 @@ public class Fragment extends PluginBase implements IFragment {
 				}
 			}
 		}
-		super.load(node, schemaVersion);
 	}
 
 	public void reset() {
@@ -19,6 +19,7 @@ import org.eclipse.pde.core.plugin.IPluginExtension;
 import org.eclipse.pde.core.plugin.IPluginExtensionPoint;
 import org.eclipse.pde.internal.core.PDEState;
 import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
 
 public class Plugin extends PluginBase implements IPlugin {
 	private static final long serialVersionUID = 1L;
@@ -48,6 +49,11 @@ public class Plugin extends PluginBase implements IPlugin {
 		super.load(node, schemaVersion);
 	}
 
+	void load(Attributes attributes) {
+		fClassname = attributes.getValue("class"); //$NON-NLS-1$
+		super.load(attributes);
+	}
+
 	public void reset() {
 		fClassname = null;
 		super.reset();
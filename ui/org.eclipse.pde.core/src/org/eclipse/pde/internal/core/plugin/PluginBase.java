@@ -33,6 +33,7 @@ import org.eclipse.pde.internal.core.PDEStateHelper;
 import org.osgi.framework.Version;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
 public abstract class PluginBase extends AbstractExtensions implements IPluginBase {
@@ -151,6 +152,56 @@ public abstract class PluginBase extends AbstractExtensions implements IPluginBa
 		}
 	}
 
+	/**
+	 * Loads the attributes of the plug-in element, the child elements are added by the caller
+	 * 
+	 * @param attributes the attributes of the plug-in element
+	 */
+	void load(Attributes attributes) {
+		fId = attributes.getValue("id"); //$NON-NLS-1$
+		fName = attributes.getValue("name"); //$NON-NLS-1$
+		fProviderName = attributes.getValue("provider-name"); //$NON-NLS-1$
+		fVersion = attributes.getValue("version"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates a library loaded from the plug-in's XML file and adds it to this plug-in
+	 * 
+	 * @return the new library
+	 */
+	PluginLibrary createLibrary() {
+		PluginLibrary library = new PluginLibrary();
+		library.setModel(getModel());
+		library.setInTheModel(true);
+		library.setParent(this);
+		fLibraries.add(library);
+		return library;
+	}
+
+	/**
+	 * Creates an import loaded from the plug-in's XML file and adds it to this plug-in
+	 * 
+	 * @return the new import
+	 */
+	PluginImport createImport() {
+		PluginImport importElement = new PluginImport();
+		importElement.setModel(getModel());
+		importElement.setInTheModel(true);
+		importElement.setParent(this);
+		fImports.add(importElement);
+		return importElement;
+	}
+
+	/**
+	 * Returns whether the extensions and extension points of the plug-in's XML file are
+	 * loaded into this plug-in.  Those of workspace models are controlled by the extension registry.
+	 * 
+	 * @return whether extensions should be loaded from the XML file
+	 */
+	boolean loadsExtensions() {
+		return getModel().getUnderlyingResource() == null;
+	}
+
 	void loadRuntime(BundleDescription description, PDEState state) {
 		String[] libraryNames = state.getLibraryNames(description.getBundleId());
 		for (int i = 0; i < libraryNames.length; i++) {
@@ -168,12 +219,7 @@ public abstract class PluginBase extends AbstractExtensions implements IPluginBa
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE && child.getNodeName().toLowerCase(Locale.ENGLISH).equals("library")) { //$NON-NLS-1$
-				PluginLibrary library = new PluginLibrary();
-				library.setModel(getModel());
-				library.setInTheModel(true);
-				library.setParent(this);
-				fLibraries.add(library);
-				library.load(child);
+				createLibrary().load(child);
 			}
 		}
 	}
@@ -204,12 +250,7 @@ public abstract class PluginBase extends AbstractExtensions implements IPluginBa
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE && child.getNodeName().toLowerCase(Locale.ENGLISH).equals("import")) { //$NON-NLS-1$
-				PluginImport importElement = new PluginImport();
-				importElement.setModel(getModel());
-				importElement.setInTheModel(true);
-				importElement.setParent(this);
-				fImports.add(importElement);
-				importElement.load(child);
+				createImport().load(child);
 			}
 		}
 	}
@@ -224,7 +265,7 @@ public abstract class PluginBase extends AbstractExtensions implements IPluginBa
 			// check to see if this model is a workspace model.  If so, don't load extensions/extension points through Node.
 			// Instead, the extensions/extension points will be control by the extension registry.
 			// One instance of where we want to load an external model's extensions/extension points from a Node is the convertSchemaToHTML ANT task.
-		} else if (getModel().getUnderlyingResource() == null) {
+		} else if (loadsExtensions()) {
 			super.processChild(child);
 		}
 	}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.plugin;
+
+import java.io.StringReader;
+import java.util.*;
+import org.eclipse.pde.internal.core.TargetPlatformHelper;
+import org.eclipse.pde.internal.core.util.IdUtil;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Loads a plugin.xml or fragment.xml file directly into a {@link PluginBase} while it
+ * is parsed, without building an intermediate DOM.  The resulting model is the same as
+ * the one loaded from the document built by {@link PluginHandler}: the text of an element is
+ * its last run of text between child elements, including CDATA sections and references, as
+ * the document's text nodes are normalized.  The caller resets the plug-in when parsing fails.
+ * <p>
+ * When no plug-in is given, only the schema version of the file is read.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class PluginBaseHandler extends DefaultHandler {
+
+	/**
+	 * Markers for the open elements that are not loaded into model objects
+	 */
+	private static final Object RUNTIME = new Object();
+	private static final Object REQUIRES = new Object();
+	private static final Object IGNORED = new Object();
+
+	/**
+	 * The plug-in being loaded, or <code>null</code> to only read the schema version
+	 */
+	private PluginBase fPluginBase;
+
+	/**
+	 * Whether only the extensions of interesting extension points are loaded with their elements
+	 */
+	private boolean fAbbreviated;
+
+	/**
+	 * Model objects or markers of the open elements
+	 */
+	private Stack fOpenElements = new Stack();
+
+	/**
+	 * Name attributes of the export elements of the open library element
+	 */
+	private List fExportNames = new ArrayList();
+
+	/**
+	 * Attributes of the open library element
+	 */
+	private String fLibraryName;
+	private String fLibraryType;
+
+	/**
+	 * Text of the innermost open plug-in element since its last child element
+	 */
+	private StringBuffer fText = new StringBuffer();
+
+	private String fSchemaVersion;
+	private Locator fLocator;
+
+	/**
+	 * Constructs a handler loading into the given plug-in
+	 *
+	 * @param pluginBase the plug-in to load, must have been reset, or <code>null</code> to only read the schema version
+	 * @param abbreviated whether only the extensions of interesting extension points are loaded with their elements
+	 */
+	public PluginBaseHandler(PluginBase pluginBase, boolean abbreviated) {
+		fPluginBase = pluginBase;
+		fAbbreviated = abbreviated;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#startElement(java.lang.String, java.lang.String, java.lang.String, org.xml.sax.Attributes)
+	 */
+	public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+		if (fPluginBase == null)
+			return;
+		if (fOpenElements.isEmpty()) {
+			fPluginBase.load(attributes);
+			fOpenElements.push(fPluginBase);
+			return;
+		}
+		Object parent = fOpenElements.peek();
+		Object element = IGNORED;
+		if (parent == fPluginBase) {
+			element = startPluginChild(qName, attributes);
+		} else if (parent == RUNTIME) {
+			if (qName.toLowerCase(Locale.ENGLISH).equals("library")) { //$NON-NLS-1$
+				fLibraryName = attributes.getValue("name"); //$NON-NLS-1$
+				fLibraryType = attributes.getValue("type"); //$NON-NLS-1$
+				fExportNames.clear();
+				element = fPluginBase.createLibrary();
+			}
+		} else if (parent instanceof PluginLibrary) {
+			if (qName.toLowerCase(Locale.ENGLISH).equals("export")) //$NON-NLS-1$
+				fExportNames.add(attributes.getValue("name")); //$NON-NLS-1$
+		} else if (parent == REQUIRES) {
+			if (qName.toLowerCase(Locale.ENGLISH).equals("import")) { //$NON-NLS-1$
+				PluginImport importElement = fPluginBase.createImport();
+				importElement.load(attributes.getValue("plugin"), attributes.getValue("export"), attributes.getValue("optional"), attributes.getValue("version"), attributes.getValue("match")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				element = importElement;
+			}
+		} else if (parent instanceof PluginExtension) {
+			PluginExtension extension = (PluginExtension) parent;
+			if (!fAbbreviated || isInterestingExtension(extension.getPoint()))
+				element = createElement(extension, qName, attributes);
+		} else if (parent instanceof PluginElement) {
+			PluginElement parentElement = (PluginElement) parent;
+			flushText(parentElement);
+			element = createElement(parentElement, qName, attributes);
+		}
+		fOpenElements.push(element);
+	}
+
+	private Object startPluginChild(String qName, Attributes attributes) {
+		String name = qName.toLowerCase(Locale.ENGLISH);
+		if (name.equals("runtime")) //$NON-NLS-1$
+			return RUNTIME;
+		if (name.equals("requires")) //$NON-NLS-1$
+			return REQUIRES;
+		if (!fPluginBase.loadsExtensions())
+			return IGNORED;
+		fPluginBase.initializeExtensionLists();
+		if (qName.equals("extension")) { //$NON-NLS-1$
+			PluginExtension extension = fPluginBase.createExtension();
+			extension.load(attributes.getValue("id"), attributes.getValue("name"), attributes.getValue("point"), fLocator.getLineNumber()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return extension;
+		}
+		if (qName.equals("extension-point")) { //$NON-NLS-1$
+			PluginExtensionPoint point = fPluginBase.createExtensionPoint();
+			point.load(attributes.getValue("id"), attributes.getValue("name"), attributes.getValue("schema"), fLocator.getLineNumber()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return IGNORED;
+	}
+
+	private PluginElement createElement(PluginParent parent, String qName, Attributes attributes) {
+		PluginElement element = new PluginElement();
+		element.setModel(parent.getModel());
+		element.setInTheModel(true);
+		element.setParent(parent);
+		parent.fChildren.add(element);
+		element.load(qName, attributes);
+		return element;
+	}
+
+	/**
+	 * Returns whether the elements of an extension to the given extension point are loaded
+	 * when abbreviated
+	 *
+	 * @param point the extension point of the extension
+	 * @return whether the elements of the extension are loaded
+	 */
+	protected boolean isInterestingExtension(String point) {
+		return IdUtil.isInterestingExtensionPoint(point);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#endElement(java.lang.String, java.lang.String, java.lang.String)
+	 */
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		if (fPluginBase == null || fOpenElements.isEmpty())
+			return;
+		Object element = fOpenElements.pop();
+		if (element instanceof PluginElement) {
+			flushText((PluginElement) element);
+		} else if (element instanceof PluginLibrary) {
+			((PluginLibrary) element).load(fLibraryName, fLibraryType, fExportNames);
+		}
+	}
+
+	private void flushText(PluginElement element) {
+		if (fText.length() > 0) {
+			element.loadText(fText.toString());
+			fText.setLength(0);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#characters(char[], int, int)
+	 */
+	public void characters(char[] characters, int start, int length) throws SAXException {
+		if (fAbbreviated || fOpenElements.isEmpty())
+			return;
+		if (fOpenElements.peek() instanceof PluginElement)
+			fText.append(characters, start, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#endDocument()
+	 */
+	public void endDocument() throws SAXException {
+		if (fPluginBase != null)
+			fPluginBase.fSchemaVersion = fSchemaVersion;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#setDocumentLocator(org.xml.sax.Locator)
+	 */
+	public void setDocumentLocator(Locator locator) {
+		fLocator = locator;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#processingInstruction(java.lang.String, java.lang.String)
+	 */
+	public void processingInstruction(String target, String data) throws SAXException {
+		if ("eclipse".equals(target)) { //$NON-NLS-1$
+			// Data should be of the form: version="<version>"
+			if (data.length() > 10 && data.substring(0, 9).equals("version=\"") && data.charAt(data.length() - 1) == '\"') { //$NON-NLS-1$
+				fSchemaVersion = TargetPlatformHelper.getSchemaVersionForTargetVersion(data.substring(9, data.length() - 1));
+			} else {
+				fSchemaVersion = TargetPlatformHelper.getSchemaVersion();
+			}
+		}
+	}
+
+	/**
+	 * Returns the schema version declared by the file
+	 *
+	 * @return the schema version or <code>null</code> if not declared
+	 */
+	public String getSchemaVersion() {
+		return fSchemaVersion;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.xml.sax.helpers.DefaultHandler#resolveEntity(java.lang.String, java.lang.String)
+	 */
+	public InputSource resolveEntity(String publicId, String systemId) throws SAXException {
+		// Prevent the resolution of external entities in order to
+		// prevent the parser from accessing the Internet
+		return new InputSource(new StringReader("")); //$NON-NLS-1$
+	}
+}
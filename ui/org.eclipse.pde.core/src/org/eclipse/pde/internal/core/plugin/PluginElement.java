@@ -18,6 +18,7 @@ import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.ischema.ISchema;
 import org.eclipse.pde.internal.core.ischema.ISchemaElement;
 import org.w3c.dom.*;
+import org.xml.sax.Attributes;
 
 public class PluginElement extends PluginParent implements IPluginElement {
 	private static final long serialVersionUID = 1L;
@@ -155,14 +156,44 @@ public class PluginElement extends PluginParent implements IPluginElement {
 				childElement.setParent(this);
 				childElement.load(child);
 			} else if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue() != null) {
-				String text = child.getNodeValue();
-				text = text.trim();
-				if (isNotEmpty(text))
-					this.fText = text;
+				loadText(child.getNodeValue());
 			}
 		}
 	}
 
+	/**
+	 * Loads the name and attributes of the element, the child elements and text are added by the caller
+	 * 
+	 * @param name name of the element
+	 * @param attributes attributes of the element
+	 */
+	void load(String name, Attributes attributes) {
+		fName = name;
+		if (fAttributes == null)
+			fAttributes = new Hashtable();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			String attributeName = attributes.getQName(i);
+			IPluginAttribute att = getModel().getFactory().createAttribute(this);
+			((PluginAttribute) att).load(attributeName, attributes.getValue(i));
+			((PluginAttribute) att).setInTheModel(true);
+			this.fAttributes.put(attributeName, att);
+		}
+		if (fChildren == null)
+			fChildren = new ArrayList();
+	}
+
+	/**
+	 * Loads a run of text between the child elements of the element, the last non-empty
+	 * run becomes the text of the element
+	 * 
+	 * @param text text of the element
+	 */
+	void loadText(String text) {
+		text = text.trim();
+		if (isNotEmpty(text))
+			this.fText = text;
+	}
+
 	public void removeAttribute(String name) throws CoreException {
 		ensureModelEditable();
 		PluginAttribute att = (PluginAttribute) getAttributeMap().remove(name);
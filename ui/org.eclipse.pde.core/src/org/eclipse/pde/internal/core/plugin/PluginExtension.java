@@ -64,12 +64,7 @@ public class PluginExtension extends PluginParent implements IPluginExtension {
 	 * If this function is used to load the model, the extension registry cache will not be used when querying model.
 	 */
 	void load(Node node) {
-		this.fID = getNodeAttribute(node, "id"); //$NON-NLS-1$
-		fName = getNodeAttribute(node, "name"); //$NON-NLS-1$
-		fPoint = getNodeAttribute(node, "point"); //$NON-NLS-1$
-
-		if (fChildren == null)
-			fChildren = new ArrayList();
+		load(getNodeAttribute(node, "id"), getNodeAttribute(node, "name"), getNodeAttribute(node, "point"), Integer.parseInt(getNodeAttribute(node, "line"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		NodeList children = node.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
@@ -82,7 +77,19 @@ public class PluginExtension extends PluginParent implements IPluginExtension {
 				childElement.load(child);
 			}
 		}
-		fStartLine = Integer.parseInt(getNodeAttribute(node, "line")); //$NON-NLS-1$
+	}
+
+	/*
+	 * Loads the attributes of the extension, the child elements are added by the caller.
+	 * If this function is used to load the model, the extension registry cache will not be used when querying model.
+	 */
+	void load(String id, String name, String point, int startLine) {
+		this.fID = id;
+		fName = name;
+		fPoint = point;
+		fStartLine = startLine;
+		if (fChildren == null)
+			fChildren = new ArrayList();
 	}
 
 	public boolean equals(Object obj) {
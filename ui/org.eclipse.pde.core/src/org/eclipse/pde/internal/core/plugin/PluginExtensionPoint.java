@@ -59,10 +59,14 @@ public class PluginExtensionPoint extends IdentifiablePluginObject implements IP
 	}
 
 	void load(Node node) {
-		this.fID = getNodeAttribute(node, "id"); //$NON-NLS-1$
-		fName = getNodeAttribute(node, "name"); //$NON-NLS-1$
-		fSchema = getNodeAttribute(node, "schema"); //$NON-NLS-1$
-		fStartLine = Integer.parseInt(getNodeAttribute(node, "line")); //$NON-NLS-1$
+		load(getNodeAttribute(node, "id"), getNodeAttribute(node, "name"), getNodeAttribute(node, "schema"), Integer.parseInt(getNodeAttribute(node, "line"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	void load(String id, String name, String schema, int startLine) {
+		this.fID = id;
+		fName = name;
+		fSchema = schema;
+		fStartLine = startLine;
 	}
 
 	public boolean equals(Object obj) {
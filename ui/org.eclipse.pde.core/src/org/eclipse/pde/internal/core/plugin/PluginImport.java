@@ -132,11 +132,10 @@ public class PluginImport extends IdentifiablePluginObject implements IPluginImp
 	}
 
 	void load(Node node) {
-		String id = getNodeAttribute(node, "plugin"); //$NON-NLS-1$
-		String export = getNodeAttribute(node, "export"); //$NON-NLS-1$
-		String option = getNodeAttribute(node, "optional"); //$NON-NLS-1$
-		String version = getNodeAttribute(node, "version"); //$NON-NLS-1$
-		String match = getNodeAttribute(node, "match"); //$NON-NLS-1$
+		load(getNodeAttribute(node, "plugin"), getNodeAttribute(node, "export"), getNodeAttribute(node, "optional"), getNodeAttribute(node, "version"), getNodeAttribute(node, "match")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	void load(String id, String export, String option, String version, String match) {
 		boolean reexport = export != null && export.toLowerCase(Locale.ENGLISH).equals("true"); //$NON-NLS-1$
 		boolean optional = option != null && option.toLowerCase(Locale.ENGLISH).equals("true"); //$NON-NLS-1$
 		this.match = NONE;
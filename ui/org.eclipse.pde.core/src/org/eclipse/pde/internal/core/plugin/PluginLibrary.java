@@ -12,6 +12,7 @@ package org.eclipse.pde.internal.core.plugin;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Vector;
 
@@ -94,25 +95,40 @@ public class PluginLibrary extends PluginObject implements IPluginLibrary {
 	}
 
 	void load(Node node) {
-		fName = getNodeAttribute(node, "name"); //$NON-NLS-1$
-		fType = getNodeAttribute(node, "type"); //$NON-NLS-1$
 		NodeList children = node.getChildNodes();
-		Vector exports = new Vector();
-		boolean all = false;
+		List exportNames = new ArrayList();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
 				String tag = child.getNodeName().toLowerCase(Locale.ENGLISH);
 				if (tag.equals("export")) { //$NON-NLS-1$
-					String ename = getNodeAttribute(child, "name"); //$NON-NLS-1$
-					if (ename != null) {
-						ename = ename.trim();
-						if (ename.equals("*")) { //$NON-NLS-1$
-							all = true;
-						} else {
-							exports.add(ename);
-						}
-					}
+					exportNames.add(getNodeAttribute(child, "name")); //$NON-NLS-1$
+				}
+			}
+		}
+		load(getNodeAttribute(node, "name"), getNodeAttribute(node, "type"), exportNames); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Loads the library from the attributes of its element
+	 * 
+	 * @param name the name attribute
+	 * @param type the type attribute
+	 * @param exportNames the name attributes of the export child elements, may contain <code>null</code>
+	 */
+	void load(String name, String type, List exportNames) {
+		fName = name;
+		fType = type;
+		Vector exports = new Vector();
+		boolean all = false;
+		for (int i = 0; i < exportNames.size(); i++) {
+			String ename = (String) exportNames.get(i);
+			if (ename != null) {
+				ename = ename.trim();
+				if (ename.equals("*")) { //$NON-NLS-1$
+					all = true;
+				} else {
+					exports.add(ename);
 				}
 			}
 		}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.schema;
+
+import java.util.*;
+import org.eclipse.pde.internal.core.ischema.*;
+
+/**
+ * Validation rules of an extension point schema, computed once from the schema object
+ * model so that extensions can be validated without walking the compositors and
+ * attribute lists of the schema for every element.
+ * <p>
+ * A compiled schema is immutable.  It covers the elements of the schema and of all the
+ * schemas it includes, and is only valid as long as the schema and the included schemas
+ * are the instances it was compiled from.
+ * </p>
+ *
+ * @since 3.8
+ * @see SchemaRegistry#getCompiledSchema(String)
+ */
+public class CompiledSchema {
+
+	/**
+	 * Validation rules of a single schema element
+	 */
+	public static class CompiledElement {
+
+		private final Set fAllowedChildren;
+		private final Map fAttributes;
+		private final ISchemaAttribute[] fRequiredAttributes;
+		private final Map fAllowedValues;
+
+		/**
+		 * Compiles a single schema element
+		 *
+		 * @param element the element to compile
+		 */
+		public CompiledElement(ISchemaElement element) {
+			Set allowedChildren = new HashSet();
+			Map attributes = new HashMap();
+			List required = new ArrayList();
+			Map allowedValues = new HashMap();
+
+			ISchemaType type = element.getType();
+			if (type instanceof ISchemaComplexType) {
+				ISchemaComplexType complexType = (ISchemaComplexType) type;
+				ISchemaCompositor compositor = complexType.getCompositor();
+				if (compositor != null)
+					addAllowedChildren(compositor, allowedChildren);
+
+				ISchemaAttribute[] attrs = complexType.getAttributes();
+				for (int i = 0; i < attrs.length; i++) {
+					ISchemaAttribute attr = attrs[i];
+					// the first declaration wins, as in ISchemaComplexType#getAttribute(String)
+					if (attributes.containsKey(attr.getName()))
+						continue;
+					attributes.put(attr.getName(), attr);
+					if (attr.getKind() == IMetaAttribute.JAVA)
+						allowedChildren.add(attr.getName());
+					if (attr.getUse() == ISchemaAttribute.REQUIRED)
+						required.add(attr);
+					Set values = getRestrictionValues(attr);
+					if (values != null)
+						allowedValues.put(attr.getName(), values);
+				}
+			}
+			fAllowedChildren = Collections.unmodifiableSet(allowedChildren);
+			fAttributes = Collections.unmodifiableMap(attributes);
+			fRequiredAttributes = (ISchemaAttribute[]) required.toArray(new ISchemaAttribute[required.size()]);
+			fAllowedValues = Collections.unmodifiableMap(allowedValues);
+		}
+
+		private static void addAllowedChildren(ISchemaCompositor compositor, Set elementSet) {
+			ISchemaObject[] children = compositor.getChildren();
+			for (int i = 0; i < children.length; i++) {
+				ISchemaObject child = children[i];
+				if (child instanceof ISchemaObjectReference) {
+					ISchemaObjectReference ref = (ISchemaObjectReference) child;
+					ISchemaElement refElement = (ISchemaElement) ref.getReferencedObject();
+					if (refElement != null)
+						elementSet.add(refElement.getName());
+				} else if (child instanceof ISchemaCompositor) {
+					addAllowedChildren((ISchemaCompositor) child, elementSet);
+				}
+			}
+		}
+
+		private static Set getRestrictionValues(ISchemaAttribute attr) {
+			if (attr.getKind() != IMetaAttribute.STRING || attr.getType() == null)
+				return null;
+			ISchemaRestriction restriction = attr.getType().getRestriction();
+			if (restriction == null)
+				return null;
+			Set values = new HashSet();
+			Object[] children = restriction.getChildren();
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] instanceof ISchemaEnumeration)
+					values.add(((ISchemaEnumeration) children[i]).getName());
+			}
+			return Collections.unmodifiableSet(values);
+		}
+
+		/**
+		 * Returns whether an element or a Java attribute with the given name may appear as
+		 * a child of this element
+		 *
+		 * @param name name of the child
+		 * @return whether the child is allowed
+		 */
+		public boolean isAllowedChild(String name) {
+			return fAllowedChildren.contains(name);
+		}
+
+		/**
+		 * Returns the attribute with the given name or <code>null</code> if the element
+		 * does not declare it
+		 *
+		 * @param name name of the attribute
+		 * @return the attribute or <code>null</code>
+		 */
+		public ISchemaAttribute getAttribute(String name) {
+			return (ISchemaAttribute) fAttributes.get(name);
+		}
+
+		/**
+		 * @return the attributes that must be defined on this element
+		 */
+		public ISchemaAttribute[] getRequiredAttributes() {
+			return fRequiredAttributes;
+		}
+
+		/**
+		 * Returns the values allowed by the restriction of the given string attribute
+		 *
+		 * @param name name of the attribute
+		 * @return the set of allowed values or <code>null</code> if the attribute is not restricted
+		 */
+		public Set getAllowedValues(String name) {
+			return (Set) fAllowedValues.get(name);
+		}
+	}
+
+	private final ISchema fSchema;
+
+	/**
+	 * The compiled schema followed by the schemas it includes, directly or not
+	 */
+	private final ISchema[] fSchemas;
+
+	/**
+	 * Map of {@link ISchemaElement} to {@link CompiledElement}
+	 */
+	private final Map fElements;
+
+	/**
+	 * Compiles the given schema and the schemas it includes
+	 *
+	 * @param schema the schema to compile
+	 */
+	public CompiledSchema(ISchema schema) {
+		fSchema = schema;
+		fSchemas = getSchemas(schema);
+		Map elements = new IdentityHashMap();
+		for (int i = 0; i < fSchemas.length; i++) {
+			ISchemaElement[] schemaElements = fSchemas[i].getElements();
+			for (int j = 0; j < schemaElements.length; j++) {
+				elements.put(schemaElements[j], new CompiledElement(schemaElements[j]));
+			}
+		}
+		fElements = Collections.unmodifiableMap(elements);
+	}
+
+	/**
+	 * Returns the given schema followed by the schemas it includes, directly or not
+	 */
+	private static ISchema[] getSchemas(ISchema schema) {
+		List schemas = new ArrayList();
+		addSchemas(schema, schemas, new IdentityHashMap());
+		return (ISchema[]) schemas.toArray(new ISchema[schemas.size()]);
+	}
+
+	private static void addSchemas(ISchema schema, List schemas, Map visited) {
+		if (schema == null || visited.put(schema, schema) != null)
+			return;
+		schemas.add(schema);
+		ISchemaInclude[] includes = schema.getIncludes();
+		for (int i = 0; i < includes.length; i++) {
+			addSchemas(includes[i].getIncludedSchema(), schemas, visited);
+		}
+	}
+
+	/**
+	 * Returns whether this was compiled from the given schema and from the schemas it
+	 * currently includes.  An included schema that was reloaded, because its file changed,
+	 * is a new instance and makes this compiled schema stale.
+	 *
+	 * @param schema the schema
+	 * @return whether the compiled rules are those of the schema
+	 */
+	public boolean isCompiledFrom(ISchema schema) {
+		if (schema != fSchema)
+			return false;
+		ISchema[] schemas = getSchemas(schema);
+		if (schemas.length != fSchemas.length)
+			return false;
+		for (int i = 0; i < schemas.length; i++) {
+			if (schemas[i] != fSchemas[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the schema this was compiled from
+	 */
+	public ISchema getSchema() {
+		return fSchema;
+	}
+
+	/**
+	 * Returns the validation rules of the given element
+	 *
+	 * @param element an element of the compiled schema or of a schema it includes
+	 * @return the compiled element or <code>null</code> if the element is not part of the compiled schemas
+	 */
+	public CompiledElement getElement(ISchemaElement element) {
+		return (CompiledElement) fElements.get(element);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,12 +28,18 @@ public class SchemaRegistry {
 
 	private HashMap fRegistry = new HashMap();
 
-	public ISchema getSchema(String extPointID) {
+	/**
+	 * Map of extension point id to the {@link CompiledSchema} of its schema
+	 */
+	private HashMap fCompiledSchemas = new HashMap();
+
+	public synchronized ISchema getSchema(String extPointID) {
 		IPluginExtensionPoint point = PDECore.getDefault().getExtensionsRegistry().findExtensionPoint(extPointID);
 		if (point == null) {
 			// if there is an old schema associated with this extension point, release it.
 			if (fRegistry.containsKey(extPointID))
 				fRegistry.remove(extPointID);
+			fCompiledSchemas.remove(extPointID);
 			return null;
 		}
 
@@ -50,7 +56,30 @@ public class SchemaRegistry {
 		return (desc == null) ? null : desc.getSchema(true);
 	}
 
-	public ISchema getIncludedSchema(ISchemaDescriptor parent, String schemaLocation) {
+	/**
+	 * Returns the validation rules of the schema of the given extension point.  The schema
+	 * is compiled the first time it is requested and compiled again only once the schema
+	 * or one of the schemas it includes has been reloaded because its URL or time stamp
+	 * changed.
+	 * 
+	 * @param extPointID id of the extension point
+	 * @return the compiled schema or <code>null</code> if the extension point has no schema
+	 */
+	public synchronized CompiledSchema getCompiledSchema(String extPointID) {
+		ISchema schema = getSchema(extPointID);
+		if (schema == null) {
+			fCompiledSchemas.remove(extPointID);
+			return null;
+		}
+		CompiledSchema compiled = (CompiledSchema) fCompiledSchemas.get(extPointID);
+		if (compiled == null || !compiled.isCompiledFrom(schema)) {
+			compiled = new CompiledSchema(schema);
+			fCompiledSchemas.put(extPointID, compiled);
+		}
+		return compiled;
+	}
+
+	public synchronized ISchema getIncludedSchema(ISchemaDescriptor parent, String schemaLocation) {
 		try {
 			URL url = IncludedSchemaDescriptor.computeURL(parent, schemaLocation);
 			if (url == null)
@@ -160,8 +189,9 @@ public class SchemaRegistry {
 		return (desc.getLastModified() != file.lastModified());
 	}
 
-	public void shutdown() {
+	public synchronized void shutdown() {
 		fRegistry.clear();
+		fCompiledSchemas.clear();
 	}
 
 	private static String getId(IPluginExtensionPoint point, IPluginModelBase base) {
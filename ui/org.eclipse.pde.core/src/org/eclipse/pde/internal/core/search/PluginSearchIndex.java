@@ -0,0 +1,432 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.search;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.internal.core.*;
+
+/**
+ * Inverted index of the identifiers searched by {@link PluginSearchOperation}, so that a
+ * search only visits the models that may contain a match instead of every model in scope.
+ * <p>
+ * For every kind of identifier, the index maps each identifier to the models declaring or
+ * referencing it.  Search patterns are answered from the sorted identifiers when they start
+ * with a literal prefix, and from the trigrams of their longest literal fragment otherwise.
+ * The candidate identifiers are then matched against the pattern, so the models returned for
+ * a pattern are always a superset of the models with a match.
+ * </p>
+ * <p>
+ * The default index covers all the plug-in models known to PDE and is kept up to date from the
+ * plug-in model and extension deltas of the {@link PluginModelManager}.
+ * </p>
+ */
+public class PluginSearchIndex implements IPluginModelListener, IExtensionDeltaListener {
+
+	/**
+	 * Ids of plug-ins
+	 */
+	public static final int PLUGIN_ID = 0;
+
+	/**
+	 * Ids of fragments
+	 */
+	public static final int FRAGMENT_ID = 1;
+
+	/**
+	 * Ids of the plug-ins imported by a plug-in or hosting a fragment
+	 */
+	public static final int PLUGIN_REFERENCE = 2;
+
+	/**
+	 * Full ids of extension points
+	 */
+	public static final int EXTENSION_POINT_ID = 3;
+
+	/**
+	 * Ids of the extension points extended by extensions
+	 */
+	public static final int EXTENSION_POINT_REFERENCE = 4;
+
+	private static final int KINDS = 5;
+
+	private static final int TRIGRAM = 3;
+
+	private static PluginSearchIndex fDefault;
+
+	/**
+	 * Index of the identifiers of one kind
+	 */
+	private static class TermIndex {
+		/**
+		 * Map of identifier to the set of models declaring or referencing it
+		 */
+		final Map fModels = new HashMap();
+
+		/**
+		 * Map of lower case identifier to the set of identifiers with that lower case
+		 */
+		final TreeMap fLowerCase = new TreeMap();
+
+		/**
+		 * Map of trigram to the set of lower case identifiers containing it
+		 */
+		final Map fTrigrams = new HashMap();
+
+		/**
+		 * Identifiers that are not plain ASCII, they are candidates for every pattern as
+		 * their case insensitive matches are not predictable from their lower case
+		 */
+		final Set fUnpredictable = new HashSet();
+
+		void add(String term, IPluginModelBase model) {
+			Set models = (Set) fModels.get(term);
+			if (models == null) {
+				models = new HashSet(2);
+				fModels.put(term, models);
+				if (!isAscii(term))
+					fUnpredictable.add(term);
+				String lower = term.toLowerCase(Locale.ENGLISH);
+				Set terms = (Set) fLowerCase.get(lower);
+				if (terms == null) {
+					terms = new HashSet(2);
+					fLowerCase.put(lower, terms);
+					for (int i = 0; i + TRIGRAM <= lower.length(); i++) {
+						String trigram = lower.substring(i, i + TRIGRAM);
+						Set trigramTerms = (Set) fTrigrams.get(trigram);
+						if (trigramTerms == null) {
+							trigramTerms = new HashSet();
+							fTrigrams.put(trigram, trigramTerms);
+						}
+						trigramTerms.add(lower);
+					}
+				}
+				terms.add(term);
+			}
+			models.add(model);
+		}
+
+		void remove(String term, IPluginModelBase model) {
+			Set models = (Set) fModels.get(term);
+			if (models == null || !models.remove(model) || !models.isEmpty())
+				return;
+			fModels.remove(term);
+			fUnpredictable.remove(term);
+			String lower = term.toLowerCase(Locale.ENGLISH);
+			Set terms = (Set) fLowerCase.get(lower);
+			if (terms == null)
+				return;
+			terms.remove(term);
+			if (!terms.isEmpty())
+				return;
+			fLowerCase.remove(lower);
+			for (int i = 0; i + TRIGRAM <= lower.length(); i++) {
+				String trigram = lower.substring(i, i + TRIGRAM);
+				Set trigramTerms = (Set) fTrigrams.get(trigram);
+				if (trigramTerms != null) {
+					trigramTerms.remove(lower);
+					if (trigramTerms.isEmpty())
+						fTrigrams.remove(trigram);
+				}
+			}
+		}
+
+		/**
+		 * Adds the models with an identifier matching the given pattern to the result
+		 */
+		void collect(String search, Pattern pattern, Set result) {
+			Collection candidates = getCandidates(search);
+			for (Iterator iter = candidates.iterator(); iter.hasNext();) {
+				String term = (String) iter.next();
+				if (pattern.matcher(term).matches())
+					result.addAll((Set) fModels.get(term));
+			}
+		}
+
+		/**
+		 * Returns identifiers including all the identifiers matching the given search string
+		 */
+		private Collection getCandidates(String search) {
+			if (!isAscii(search))
+				return fModels.keySet();
+			String lower = search.toLowerCase(Locale.ENGLISH);
+			int wildcard = indexOfWildcard(lower, 0);
+			Set candidates = new HashSet(fUnpredictable);
+			if (wildcard == -1) {
+				addTerms((Set) fLowerCase.get(lower), candidates);
+			} else if (wildcard > 0) {
+				String prefix = lower.substring(0, wildcard);
+				for (Iterator iter = fLowerCase.subMap(prefix, prefix + Character.MAX_VALUE).values().iterator(); iter.hasNext();) {
+					candidates.addAll((Set) iter.next());
+				}
+			} else {
+				String fragment = getLongestFragment(lower);
+				if (fragment.length() < TRIGRAM)
+					return fModels.keySet();
+				Set lowerTerms = null;
+				for (int i = 0; i + TRIGRAM <= fragment.length(); i++) {
+					Set trigramTerms = (Set) fTrigrams.get(fragment.substring(i, i + TRIGRAM));
+					if (trigramTerms == null)
+						return candidates;
+					if (lowerTerms == null) {
+						lowerTerms = new HashSet(trigramTerms);
+					} else {
+						lowerTerms.retainAll(trigramTerms);
+					}
+				}
+				for (Iterator iter = lowerTerms.iterator(); iter.hasNext();) {
+					addTerms((Set) fLowerCase.get(iter.next()), candidates);
+				}
+			}
+			return candidates;
+		}
+
+		private static void addTerms(Set terms, Set candidates) {
+			if (terms != null)
+				candidates.addAll(terms);
+		}
+	}
+
+	private final TermIndex[] fIndexes = new TermIndex[KINDS];
+
+	/**
+	 * Map of {@link IPluginModelBase} to the array of identifiers indexed for it, by kind
+	 */
+	private final Map fModelTerms = new HashMap();
+
+	/**
+	 * Map of model entry id to the list of {@link IPluginModelBase} indexed for the entry
+	 */
+	private final Map fEntryModels = new HashMap();
+
+	/**
+	 * Returns the index of all the plug-in models known to PDE, building it and starting to
+	 * listen to model changes the first time it is called
+	 *
+	 * @return the default plug-in search index
+	 */
+	public static synchronized PluginSearchIndex getDefault() {
+		if (fDefault == null) {
+			PluginSearchIndex index = new PluginSearchIndex();
+			// deltas received while the index is built wait for it and are applied after,
+			// so that no change between the registration and the build is missed or undone
+			synchronized (index) {
+				PluginModelManager manager = PDECore.getDefault().getModelManager();
+				manager.addPluginModelListener(index);
+				manager.addExtensionDeltaListener(index);
+				IPluginModelBase[] models = PluginRegistry.getAllModels();
+				for (int i = 0; i < models.length; i++) {
+					String id = models[i].getPluginBase().getId();
+					if (id != null && !index.fEntryModels.containsKey(id))
+						index.addEntry(PluginRegistry.findEntry(id));
+				}
+			}
+			fDefault = index;
+		}
+		return fDefault;
+	}
+
+	/**
+	 * Stops listening to model changes and discards the default index
+	 */
+	public static synchronized void shutdown() {
+		if (fDefault == null)
+			return;
+		PluginModelManager manager = PDECore.getDefault().getModelManager();
+		manager.removePluginModelListener(fDefault);
+		manager.removeExtensionDeltaListener(fDefault);
+		fDefault = null;
+	}
+
+	/**
+	 * Creates an empty index
+	 */
+	public PluginSearchIndex() {
+		for (int i = 0; i < KINDS; i++) {
+			fIndexes[i] = new TermIndex();
+		}
+	}
+
+	/**
+	 * Indexes the given model, replacing its identifiers if it is already indexed
+	 *
+	 * @param model the model to index
+	 */
+	public synchronized void add(IPluginModelBase model) {
+		remove(model);
+		IPluginBase pluginBase = model.getPluginBase();
+		if (pluginBase == null)
+			return;
+		List[] terms = new List[KINDS];
+		for (int i = 0; i < KINDS; i++) {
+			terms[i] = new ArrayList();
+		}
+		if (pluginBase instanceof IFragment) {
+			addTerm(terms[FRAGMENT_ID], pluginBase.getId());
+			addTerm(terms[PLUGIN_REFERENCE], ((IFragment) pluginBase).getPluginId());
+		} else {
+			addTerm(terms[PLUGIN_ID], pluginBase.getId());
+		}
+		IPluginImport[] imports = pluginBase.getImports();
+		for (int i = 0; i < imports.length; i++) {
+			addTerm(terms[PLUGIN_REFERENCE], imports[i].getId());
+		}
+		IPluginExtensionPoint[] points = pluginBase.getExtensionPoints();
+		for (int i = 0; i < points.length; i++) {
+			addTerm(terms[EXTENSION_POINT_ID], points[i].getFullId());
+		}
+		IPluginExtension[] extensions = pluginBase.getExtensions();
+		for (int i = 0; i < extensions.length; i++) {
+			addTerm(terms[EXTENSION_POINT_REFERENCE], extensions[i].getPoint());
+		}
+		String[][] modelTerms = new String[KINDS][];
+		for (int i = 0; i < KINDS; i++) {
+			modelTerms[i] = (String[]) terms[i].toArray(new String[terms[i].size()]);
+			for (int j = 0; j < modelTerms[i].length; j++) {
+				fIndexes[i].add(modelTerms[i][j], model);
+			}
+		}
+		fModelTerms.put(model, modelTerms);
+	}
+
+	private static void addTerm(List terms, String term) {
+		if (term != null && !terms.contains(term))
+			terms.add(term);
+	}
+
+	/**
+	 * Removes the given model from the index
+	 *
+	 * @param model the model to remove
+	 */
+	public synchronized void remove(IPluginModelBase model) {
+		String[][] modelTerms = (String[][]) fModelTerms.remove(model);
+		if (modelTerms == null)
+			return;
+		for (int i = 0; i < KINDS; i++) {
+			for (int j = 0; j < modelTerms[i].length; j++) {
+				fIndexes[i].remove(modelTerms[i][j], model);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given model is indexed
+	 *
+	 * @param model the model
+	 * @return whether the identifiers of the model are indexed
+	 */
+	public synchronized boolean contains(IPluginModelBase model) {
+		return fModelTerms.containsKey(model);
+	}
+
+	/**
+	 * Returns the indexed models with an identifier of the given kind matching the given pattern
+	 *
+	 * @param kind kind of identifier, one of {@link #PLUGIN_ID}, {@link #FRAGMENT_ID}, {@link #PLUGIN_REFERENCE},
+	 *  {@link #EXTENSION_POINT_ID} or {@link #EXTENSION_POINT_REFERENCE}
+	 * @param search the search string, <code>*</code> and <code>?</code> are wildcards
+	 * @param pattern the pattern created from the search string by {@link org.eclipse.pde.internal.core.util.PatternConstructor}
+	 * @param result set to add the matching models to
+	 */
+	public synchronized void findModels(int kind, String search, Pattern pattern, Set result) {
+		fIndexes[kind].collect(search, pattern, result);
+	}
+
+	private void addEntry(ModelEntry entry) {
+		if (entry == null)
+			return;
+		List models = new ArrayList();
+		models.addAll(Arrays.asList(entry.getWorkspaceModels()));
+		models.addAll(Arrays.asList(entry.getExternalModels()));
+		for (Iterator iter = models.iterator(); iter.hasNext();) {
+			add((IPluginModelBase) iter.next());
+		}
+		fEntryModels.put(entry.getId(), models);
+	}
+
+	private void removeEntry(String id) {
+		List models = (List) fEntryModels.remove(id);
+		if (models == null)
+			return;
+		for (Iterator iter = models.iterator(); iter.hasNext();) {
+			remove((IPluginModelBase) iter.next());
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IPluginModelListener#modelsChanged(org.eclipse.pde.internal.core.PluginModelDelta)
+	 */
+	public synchronized void modelsChanged(PluginModelDelta delta) {
+		ModelEntry[] removed = delta.getRemovedEntries();
+		for (int i = 0; i < removed.length; i++) {
+			removeEntry(removed[i].getId());
+		}
+		ModelEntry[] changed = delta.getChangedEntries();
+		for (int i = 0; i < changed.length; i++) {
+			removeEntry(changed[i].getId());
+			addEntry(changed[i]);
+		}
+		ModelEntry[] added = delta.getAddedEntries();
+		for (int i = 0; i < added.length; i++) {
+			removeEntry(added[i].getId());
+			addEntry(added[i]);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IExtensionDeltaListener#extensionsChanged(org.eclipse.pde.internal.core.IExtensionDeltaEvent)
+	 */
+	public synchronized void extensionsChanged(IExtensionDeltaEvent event) {
+		reindex(event.getAddedModels());
+		reindex(event.getChangedModels());
+		reindex(event.getRemovedModels());
+	}
+
+	private void reindex(IPluginModelBase[] models) {
+		for (int i = 0; i < models.length; i++) {
+			if (fModelTerms.containsKey(models[i]))
+				add(models[i]);
+		}
+	}
+
+	private static boolean isAscii(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) > 127)
+				return false;
+		}
+		return true;
+	}
+
+	private static int indexOfWildcard(String search, int start) {
+		for (int i = start; i < search.length(); i++) {
+			char c = search.charAt(i);
+			if (c == '*' || c == '?')
+				return i;
+		}
+		return -1;
+	}
+
+	private static String getLongestFragment(String search) {
+		String longest = ""; //$NON-NLS-1$
+		int start = 0;
+		while (start <= search.length()) {
+			int end = indexOfWildcard(search, start);
+			if (end == -1)
+				end = search.length();
+			if (end - start > longest.length())
+				longest = search.substring(start, end);
+			start = end + 1;
+		}
+		return longest;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 package org.eclipse.pde.internal.core.search;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Pattern;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.pde.core.plugin.*;
@@ -20,11 +22,25 @@ public class PluginSearchOperation {
 	protected PluginSearchInput fInput;
 	private ISearchResultCollector fCollector;
 	private Pattern fPattern;
+	private PluginSearchIndex fIndex;
 
 	public PluginSearchOperation(PluginSearchInput input, ISearchResultCollector collector) {
+		this(input, collector, PluginSearchIndex.getDefault());
+	}
+
+	/**
+	 * Creates a search operation only visiting the models of the search scope that the given
+	 * index finds for the search pattern, or that are not indexed.
+	 * 
+	 * @param input the search input
+	 * @param collector collector of the matches
+	 * @param index the index to find the candidate models in or <code>null</code> to visit every model of the search scope
+	 */
+	public PluginSearchOperation(PluginSearchInput input, ISearchResultCollector collector, PluginSearchIndex index) {
 		this.fInput = input;
 		this.fCollector = collector;
 		this.fPattern = PatternConstructor.createPattern(input.getSearchString(), input.isCaseSensitive());
+		this.fIndex = index;
 	}
 
 	public void execute(IProgressMonitor monitor) {
@@ -32,9 +48,11 @@ public class PluginSearchOperation {
 		monitor.beginTask("", entries.length); //$NON-NLS-1$
 
 		try {
+			Set candidates = findCandidates();
 			for (int i = 0; i < entries.length; i++) {
 				IPluginModelBase candidate = entries[i];
-				visit(candidate);
+				if (candidates == null || candidates.contains(candidate) || !fIndex.contains(candidate))
+					visit(candidate);
 				monitor.worked(1);
 			}
 		} finally {
@@ -42,6 +60,37 @@ public class PluginSearchOperation {
 		}
 	}
 
+	/**
+	 * Returns the indexed models that may contain a match
+	 * 
+	 * @return the models or <code>null</code> if there is no index
+	 */
+	private Set findCandidates() {
+		if (fIndex == null)
+			return null;
+		Set result = new HashSet();
+		String search = fInput.getSearchString();
+		int searchLimit = fInput.getSearchLimit();
+		switch (fInput.getSearchElement()) {
+			case PluginSearchInput.ELEMENT_PLUGIN :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES)
+					fIndex.findModels(PluginSearchIndex.PLUGIN_ID, search, fPattern, result);
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS)
+					fIndex.findModels(PluginSearchIndex.PLUGIN_REFERENCE, search, fPattern, result);
+				break;
+			case PluginSearchInput.ELEMENT_FRAGMENT :
+				fIndex.findModels(PluginSearchIndex.FRAGMENT_ID, search, fPattern, result);
+				break;
+			case PluginSearchInput.ELEMENT_EXTENSION_POINT :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES)
+					fIndex.findModels(PluginSearchIndex.EXTENSION_POINT_ID, search, fPattern, result);
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS)
+					fIndex.findModels(PluginSearchIndex.EXTENSION_POINT_REFERENCE, search, fPattern, result);
+				break;
+		}
+		return result;
+	}
+
 	private void visit(IPluginModelBase model) {
 		ArrayList matches = findMatch(model);
 		for (int i = 0; i < matches.size(); i++) {
@@ -18,6 +18,8 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.target.*;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
+import org.osgi.framework.BundleException;
 
 /**
  * A directory of bundles.
@@ -31,6 +33,11 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 	 */
 	public static final String TYPE = "Directory"; //$NON-NLS-1$
 
+	/**
+	 * Maximum number of threads used to open the bundles of a directory
+	 */
+	private static final int MAX_SCANNER_THREADS = 4;
+
 	/**
 	 * Path to this container's directory in the local file system.
 	 * The path may contain string substitution variables.
@@ -69,30 +76,82 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 	protected TargetBundle[] resolveBundles(ITargetDefinition definition, IProgressMonitor monitor) throws CoreException {
 		File dir = getDirectory();
 		if (dir.isDirectory()) {
+			long start = System.currentTimeMillis();
 			File site = getSite(dir);
-			File[] files = site.listFiles();
+			final File[] files = site.listFiles();
 			SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, files.length);
-			List bundles = new ArrayList(files.length);
+			final DirectoryBundleIndex index = new DirectoryBundleIndex(site);
+			index.load();
+			final TargetBundle[] bundles = new TargetBundle[files.length];
+			List changed = new ArrayList();
 			for (int i = 0; i < files.length; i++) {
-				if (localMonitor.isCanceled()) {
-					return new TargetBundle[0];
+				if (index.isCurrent(files[i])) {
+					bundles[i] = index.getBundle(files[i]);
+					localMonitor.worked(1);
+				} else {
+					changed.add(new Integer(i));
 				}
-				try {
-					TargetBundle rb = new TargetBundle(files[i]);
-					if (rb != null) {
-						bundles.add(rb);
+			}
+			// only open the bundles that were added or modified since the previous resolution
+			final int[] indexes = new int[changed.size()];
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = ((Integer) changed.get(i)).intValue();
+			}
+			int threads = Math.min(MAX_SCANNER_THREADS, Runtime.getRuntime().availableProcessors());
+			boolean done = ParallelRunner.run("Directory bundle scanner", indexes.length, threads, new ParallelRunner.Work() { //$NON-NLS-1$
+				public void run(int i, IProgressMonitor workMonitor) {
+					File file = files[indexes[i]];
+					TargetBundle bundle = null;
+					boolean indexed = true;
+					try {
+						bundle = new TargetBundle(file);
+					} catch (CoreException e) {
+						// ignore invalid bundles, but open the file again next time if it could not be read
+						indexed = isInvalidBundle(file, e);
+					}
+					bundles[indexes[i]] = bundle;
+					if (indexed) {
+						index.put(file, bundle);
 					}
-				} catch (CoreException e) {
-					// ignore invalid bundles
 				}
-				localMonitor.worked(1);
+			}, localMonitor);
+			// keep the bundles read so far even when cancelled
+			index.save();
+			if (!done) {
+				return new TargetBundle[0];
 			}
 			localMonitor.done();
-			return (TargetBundle[]) bundles.toArray(new TargetBundle[bundles.size()]);
+			List result = new ArrayList(files.length);
+			for (int i = 0; i < bundles.length; i++) {
+				if (bundles[i] != null) {
+					result.add(bundles[i]);
+				}
+			}
+			if (TargetDefinition.DEBUG_RESOLUTION) {
+				System.out.println("Scanned " + files.length + " files in " + site + ", " + indexes.length + " not indexed, in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			}
+			return (TargetBundle[]) result.toArray(new TargetBundle[result.size()]);
 		}
 		throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, NLS.bind(Messages.DirectoryBundleContainer_1, dir.toString())));
 	}
 
+	/**
+	 * Returns whether the given failure to open a file as a bundle is caused by the contents of
+	 * the file, a missing or invalid manifest, rather than by an error reading the file that may
+	 * not happen again, such as a file that is still being copied.
+	 * 
+	 * @param file the file that could not be opened as a bundle
+	 * @param e the failure
+	 * @return whether the file is not a valid bundle
+	 */
+	static boolean isInvalidBundle(File file, CoreException e) {
+		if (!file.exists()) {
+			return false;
+		}
+		Throwable cause = e.getStatus().getException();
+		return cause == null || cause instanceof BundleException;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.pde.internal.core.target.AbstractBundleContainer#resolveFeatures(org.eclipse.pde.core.target.ITargetDefinition, org.eclipse.core.runtime.IProgressMonitor)
 	 */
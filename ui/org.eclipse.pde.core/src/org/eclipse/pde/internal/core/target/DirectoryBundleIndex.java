@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.target;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.equinox.frameworkadmin.BundleInfo;
+import org.eclipse.pde.core.target.TargetBundle;
+import org.eclipse.pde.internal.core.ICoreConstants;
+import org.eclipse.pde.internal.core.PDECore;
+
+/**
+ * Persistent index of the bundles found in a directory, keyed by the name, size and
+ * modification time of each file.  When a directory is resolved again, only the files
+ * that were added or modified since the previous resolution have to be opened, the
+ * target bundles of the other files are recreated from the index.
+ * <p>
+ * Files that are not valid bundles are indexed as well so they are not opened again
+ * until they change.  Files that could not be read are not indexed, they are opened
+ * again on the next resolution.
+ * </p>
+ *
+ * @since 3.8
+ */
+class DirectoryBundleIndex {
+
+	/**
+	 * Version of the index file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Folder in the PDE state location containing the index files
+	 */
+	private static final String INDEX_FOLDER = ".directory_index"; //$NON-NLS-1$
+
+	/**
+	 * Kinds of source target an indexed bundle can provide source for
+	 */
+	private static final int SOURCE_NONE = 0;
+	private static final int SOURCE_BUNDLE = 1;
+	private static final int SOURCE_FOLDER = 2;
+
+	/**
+	 * An indexed file, the symbolic name and version are <code>null</code> when not
+	 * available in the manifest
+	 */
+	private static class Entry {
+		String stamp;
+		boolean valid;
+		String symbolicName;
+		String version;
+		boolean fragment;
+		int sourceKind = SOURCE_NONE;
+		String sourceName;
+		String sourceVersion;
+		String sourcePath;
+	}
+
+	/**
+	 * A target bundle recreated from the index rather than from the bundle's manifest
+	 */
+	private static class IndexedTargetBundle extends TargetBundle {
+		IndexedTargetBundle(File file, Entry entry) {
+			fInfo = new BundleInfo(file.toURI());
+			if (entry.symbolicName != null) {
+				fInfo.setSymbolicName(entry.symbolicName);
+				if (entry.version != null)
+					fInfo.setVersion(entry.version);
+			}
+			fIsFragment = entry.fragment;
+			fSourcePath = entry.sourcePath;
+			if (entry.sourceKind == SOURCE_BUNDLE)
+				fSourceTarget = new BundleInfo(entry.sourceName, entry.sourceVersion, null, BundleInfo.NO_LEVEL, false);
+			else if (entry.sourceKind == SOURCE_FOLDER)
+				fSourceTarget = new BundleInfo(null, null, file.toURI(), BundleInfo.NO_LEVEL, false);
+		}
+	}
+
+	/**
+	 * The indexed directory
+	 */
+	private File fDirectory;
+
+	/**
+	 * Map of file name to {@link Entry} as read from the index file
+	 */
+	private Map fEntries = new HashMap();
+
+	/**
+	 * Map of file name to the current stamp of the files looked up during this session.
+	 * Only the entries of these files are written back so entries of removed files do not accumulate.
+	 */
+	private Map fStamps = new HashMap();
+
+	/**
+	 * Whether entries were added or replaced during this session
+	 */
+	private boolean fChanged = false;
+
+	/**
+	 * Constructor
+	 * @param directory the directory to index
+	 */
+	DirectoryBundleIndex(File directory) {
+		fDirectory = directory;
+	}
+
+	/**
+	 * Returns the index file of the directory.  The file name is derived from the
+	 * directory's path, the path itself is stored in the file to detect collisions.
+	 */
+	private File getIndexFile() {
+		File folder = PDECore.getDefault().getStateLocation().append(INDEX_FOLDER).toFile();
+		return new File(folder, Integer.toHexString(fDirectory.getAbsolutePath().hashCode()) + ".index"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the stamp identifying the current contents of the given file.  The stamp of an
+	 * archive consists of its size and modification time.  The stamp of a folder consists of the
+	 * size and modification time of its manifest files.
+	 *
+	 * @param file bundle folder or archive file
+	 * @return stamp of the file, never <code>null</code>
+	 */
+	private static String getStamp(File file) {
+		StringBuffer stamp = new StringBuffer();
+		if (file.isFile()) {
+			appendStamp(stamp, file);
+		} else {
+			appendStamp(stamp, new File(file, ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR));
+			appendStamp(stamp, new File(file, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR));
+			appendStamp(stamp, new File(file, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR));
+		}
+		return stamp.toString();
+	}
+
+	private static void appendStamp(StringBuffer stamp, File file) {
+		stamp.append(file.length()).append('|').append(file.lastModified()).append('|');
+	}
+
+	/**
+	 * Loads the index from its file.  A missing, unreadable or out-of-date file
+	 * results in an empty index.
+	 */
+	void load() {
+		fEntries.clear();
+		File file = getIndexFile();
+		if (!file.exists())
+			return;
+		DataInputStream in = null;
+		synchronized (DirectoryBundleIndex.class) {
+			try {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+				if (in.readInt() != VERSION || !fDirectory.getAbsolutePath().equals(in.readUTF()))
+					return;
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					String name = in.readUTF();
+					Entry entry = new Entry();
+					entry.stamp = in.readUTF();
+					entry.valid = in.readBoolean();
+					if (entry.valid) {
+						entry.symbolicName = readString(in);
+						entry.version = readString(in);
+						entry.fragment = in.readBoolean();
+						entry.sourceKind = in.readByte();
+						entry.sourceName = readString(in);
+						entry.sourceVersion = readString(in);
+						entry.sourcePath = readString(in);
+					}
+					fEntries.put(name, entry);
+				}
+			} catch (IOException e) {
+				// a corrupt index is the same as no index
+				fEntries.clear();
+			} finally {
+				if (in != null) {
+					try {
+						in.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves the entries of the files looked up during this session to the index file, if
+	 * any of them were added, replaced or removed
+	 */
+	void save() {
+		if (!fChanged && fStamps.size() == fEntries.size())
+			return;
+		File file = getIndexFile();
+		File parent = file.getParentFile();
+		if (!parent.exists())
+			parent.mkdirs();
+		DataOutputStream out = null;
+		synchronized (DirectoryBundleIndex.class) {
+			try {
+				out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+				out.writeInt(VERSION);
+				out.writeUTF(fDirectory.getAbsolutePath());
+				List names = new ArrayList(fStamps.size());
+				for (Iterator iter = fStamps.keySet().iterator(); iter.hasNext();) {
+					String name = (String) iter.next();
+					if (fEntries.containsKey(name))
+						names.add(name);
+				}
+				out.writeInt(names.size());
+				for (Iterator iter = names.iterator(); iter.hasNext();) {
+					String name = (String) iter.next();
+					Entry entry = (Entry) fEntries.get(name);
+					out.writeUTF(name);
+					out.writeUTF(entry.stamp);
+					out.writeBoolean(entry.valid);
+					if (entry.valid) {
+						writeString(out, entry.symbolicName);
+						writeString(out, entry.version);
+						out.writeBoolean(entry.fragment);
+						out.writeByte(entry.sourceKind);
+						writeString(out, entry.sourceName);
+						writeString(out, entry.sourceVersion);
+						writeString(out, entry.sourcePath);
+					}
+				}
+			} catch (IOException e) {
+				PDECore.log(e);
+				file.delete();
+			} finally {
+				if (out != null) {
+					try {
+						out.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeUTF(value);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Returns whether the index contains an up to date entry for the given file.  Must be
+	 * called for every file of the directory before any entries are recorded.
+	 *
+	 * @param file a file in the indexed directory
+	 * @return <code>true</code> if the file does not have to be opened again
+	 */
+	boolean isCurrent(File file) {
+		String stamp = getStamp(file);
+		fStamps.put(file.getName(), stamp);
+		Entry entry = (Entry) fEntries.get(file.getName());
+		return entry != null && entry.stamp.equals(stamp);
+	}
+
+	/**
+	 * Returns the target bundle for the given file as recorded in the index.  The file
+	 * must be current, see {@link #isCurrent(File)}.
+	 *
+	 * @param file a file in the indexed directory
+	 * @return target bundle or <code>null</code> if the file is not a valid bundle
+	 */
+	TargetBundle getBundle(File file) {
+		Entry entry = (Entry) fEntries.get(file.getName());
+		if (entry == null || !entry.valid)
+			return null;
+		return new IndexedTargetBundle(file, entry);
+	}
+
+	/**
+	 * Records the target bundle created from the given file.  May be called from
+	 * several threads.
+	 *
+	 * @param file a file in the indexed directory
+	 * @param bundle the target bundle created from the file or <code>null</code> if the
+	 *  file is not a valid bundle
+	 */
+	synchronized void put(File file, TargetBundle bundle) {
+		Entry entry = new Entry();
+		entry.stamp = (String) fStamps.get(file.getName());
+		if (entry.stamp == null)
+			return;
+		entry.valid = bundle != null;
+		if (bundle != null) {
+			BundleInfo info = bundle.getBundleInfo();
+			entry.symbolicName = info.getSymbolicName();
+			entry.version = info.getVersion();
+			entry.fragment = bundle.isFragment();
+			entry.sourcePath = bundle.getSourcePath();
+			BundleInfo source = bundle.getSourceTarget();
+			if (source != null) {
+				if (source.getLocation() != null) {
+					entry.sourceKind = SOURCE_FOLDER;
+				} else {
+					entry.sourceKind = SOURCE_BUNDLE;
+					entry.sourceName = source.getSymbolicName();
+					entry.sourceVersion = source.getVersion();
+				}
+			}
+		}
+		fEntries.put(file.getName(), entry);
+		fChanged = true;
+	}
+}
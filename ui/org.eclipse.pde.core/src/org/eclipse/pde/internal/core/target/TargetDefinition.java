@@ -25,6 +25,7 @@ import org.eclipse.pde.core.plugin.TargetPlatform;
 import org.eclipse.pde.core.target.*;
 import org.eclipse.pde.internal.core.ExternalFeatureModelManager;
 import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
 import org.xml.sax.SAXException;
 
 /**
@@ -74,6 +75,17 @@ public class TargetDefinition implements ITargetDefinition {
 
 	private int fSequenceNumber = -1;
 
+	/**
+	 * Maximum number of threads used to resolve the locations of a target
+	 */
+	private static final int MAX_RESOLVER_THREADS = 4;
+
+	static final boolean DEBUG_RESOLUTION;
+
+	static {
+		DEBUG_RESOLUTION = PDECore.getDefault().isDebugging() && "true".equals(Platform.getDebugOption("org.eclipse.pde.core/target/resolution")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	/**
 	 * Constructs a target definition based on the given handle. 
 	 */
@@ -231,10 +243,12 @@ public class TargetDefinition implements ITargetDefinition {
 		// Clear the feature model cache as it is based on the bundle container locations
 		fFeatures = null;
 		fOtherBundles = null;
-		if (location == null) {
-			fFeaturesInLocation.clear();
-		} else {
-			fFeaturesInLocation.remove(location);
+		synchronized (fFeaturesInLocation) {
+			if (location == null) {
+				fFeaturesInLocation.clear();
+			} else {
+				fFeaturesInLocation.remove(location);
+			}
 		}
 		if (fContainers == null) {
 			fIncluded = null;
@@ -245,7 +259,7 @@ public class TargetDefinition implements ITargetDefinition {
 	 * @see org.eclipse.pde.core.target.ITargetDefinition#resolve(org.eclipse.core.runtime.IProgressMonitor)
 	 */
 	public IStatus resolve(IProgressMonitor monitor) {
-		ITargetLocation[] containers = getTargetLocations();
+		final ITargetLocation[] containers = getTargetLocations();
 		int num = 0;
 		if (containers != null) {
 			num = containers.length;
@@ -254,16 +268,54 @@ public class TargetDefinition implements ITargetDefinition {
 		try {
 			MultiStatus status = new MultiStatus(PDECore.PLUGIN_ID, 0, Messages.TargetDefinition_2, null);
 			if (containers != null) {
+				long start = System.currentTimeMillis();
+				final IStatus[] statuses = new IStatus[containers.length];
+				// containers that scan the file system are independent of each other and resolved concurrently,
+				// IU containers share a p2 profile and are resolved together with the remaining containers
+				List independent = new ArrayList();
+				List others = new ArrayList();
 				for (int i = 0; i < containers.length; i++) {
+					if (containers[i] instanceof DirectoryBundleContainer || containers[i] instanceof FeatureBundleContainer || containers[i] instanceof ProfileBundleContainer) {
+						independent.add(new Integer(i));
+					} else {
+						others.add(new Integer(i));
+					}
+				}
+				subMonitor.subTask(Messages.TargetDefinition_4);
+				if (!independent.isEmpty()) {
+					final int[] indexes = new int[independent.size()];
+					for (int i = 0; i < indexes.length; i++) {
+						indexes[i] = ((Integer) independent.get(i)).intValue();
+					}
+					int threads = Math.min(MAX_RESOLVER_THREADS, Runtime.getRuntime().availableProcessors() * 2);
+					try {
+						boolean done = ParallelRunner.run("Target location resolver", indexes.length, threads, new ParallelRunner.Work() { //$NON-NLS-1$
+							public void run(int index, IProgressMonitor workMonitor) {
+								statuses[indexes[index]] = resolve(containers[indexes[index]], workMonitor);
+							}
+						}, SubMonitor.convert(subMonitor.newChild(indexes.length * 10), indexes.length));
+						if (!done) {
+							return Status.CANCEL_STATUS;
+						}
+					} catch (CoreException e) {
+						status.add(e.getStatus());
+					}
+				}
+				for (Iterator iter = others.iterator(); iter.hasNext();) {
 					if (subMonitor.isCanceled()) {
 						return Status.CANCEL_STATUS;
 					}
-					subMonitor.subTask(Messages.TargetDefinition_4);
-					IStatus s = containers[i].resolve(this, subMonitor.newChild(10));
-					if (!s.isOK()) {
-						status.add(s);
+					int index = ((Integer) iter.next()).intValue();
+					statuses[index] = resolve(containers[index], subMonitor.newChild(10));
+				}
+				for (int i = 0; i < statuses.length; i++) {
+					if (statuses[i] != null && !statuses[i].isOK()) {
+						status.add(statuses[i]);
 					}
 				}
+				if (DEBUG_RESOLUTION) {
+					System.out.println("Resolved " + containers.length + " target locations in " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
 			}
 			if (status.isOK()) {
 				return Status.OK_STATUS;
@@ -277,6 +329,22 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 	}
 
+	/**
+	 * Resolves a single location of this target, tracing the time it took
+	 * 
+	 * @param container the location to resolve
+	 * @param monitor progress monitor
+	 * @return the resolution status of the location
+	 */
+	private IStatus resolve(ITargetLocation container, IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		IStatus status = container.resolve(this, monitor);
+		if (DEBUG_RESOLUTION) {
+			System.out.println("Resolved " + container + " in " + (System.currentTimeMillis() - start) + "ms on " + Thread.currentThread().getName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return status;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.pde.core.target.ITargetDefinition#isResolved()
 	 */
@@ -852,7 +920,8 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 
 		TargetFeature[] models = null;
-		if (fFeaturesInLocation != null) {
+		// locations may be resolved concurrently
+		synchronized (fFeaturesInLocation) {
 			models = (TargetFeature[]) fFeaturesInLocation.get(path);
 		}
 
@@ -861,7 +930,9 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 
 		models = ExternalFeatureModelManager.createFeatures(path, new ArrayList(), monitor);
-		fFeaturesInLocation.put(path, models);
+		synchronized (fFeaturesInLocation) {
+			fFeaturesInLocation.put(path, models);
+		}
 		return models;
 	}
 
@@ -171,7 +171,11 @@ public class ManifestUtils {
 			PluginConverter converter = (PluginConverter) PDECore.getDefault().acquireService(PluginConverter.class.getName());
 			if (converter != null) {
 				try {
-					Dictionary convert = converter.convertManifest(pluginDir, false, null, false, null);
+					Dictionary convert;
+					// the converter keeps the plug-in being converted in fields, bundles may be read concurrently
+					synchronized (converter) {
+						convert = converter.convertManifest(pluginDir, false, null, false, null);
+					}
 					if (convert != null) {
 						Map map = new HashMap(convert.size(), 1.0f);
 						Enumeration keys = convert.keys();
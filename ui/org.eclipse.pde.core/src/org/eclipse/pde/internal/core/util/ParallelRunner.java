@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import org.eclipse.core.runtime.*;
+import org.eclipse.pde.internal.core.PDECore;
+
+/**
+ * Runs independent, indexed units of work on a bounded set of worker threads.
+ * <p>
+ * Work is expected to store its results by index so callers can consume them in a
+ * deterministic order once {@link #run(String, int, int, Work, IProgressMonitor)} returns.
+ * Progress is reported on the calling thread as units of work complete, and the monitor
+ * given to each unit of work only forwards cancellation of the shared monitor.
+ * </p>
+ *
+ * @since 3.8
+ */
+public final class ParallelRunner {
+
+	/**
+	 * A unit of work that can be run for any index
+	 */
+	public interface Work {
+		/**
+		 * Runs the work for the given index
+		 *
+		 * @param index index of the work to run
+		 * @param monitor monitor that is cancelled when the shared monitor is cancelled,
+		 *  progress reported to it is ignored
+		 * @throws CoreException
+		 */
+		public void run(int index, IProgressMonitor monitor) throws CoreException;
+	}
+
+	/**
+	 * Monitor given to each unit of work, reports the cancellation of the shared monitor
+	 */
+	private static class WorkMonitor extends NullProgressMonitor {
+		private IProgressMonitor fParent;
+
+		WorkMonitor(IProgressMonitor parent) {
+			fParent = parent;
+		}
+
+		public boolean isCanceled() {
+			return super.isCanceled() || fParent.isCanceled();
+		}
+	}
+
+	private ParallelRunner() {
+	}
+
+	/**
+	 * Runs the given work for every index in <code>[0, count)</code> and returns once all of
+	 * the work is done or the monitor was cancelled.  If the work fails for an index, the remaining
+	 * work is abandoned and the first failure is thrown, including runtime exceptions and errors
+	 * thrown on a worker thread.
+	 *
+	 * @param name prefix of the names of the worker threads
+	 * @param count number of indexes to run the work for
+	 * @param maxThreads maximum number of worker threads to use, when less than two the work is run
+	 * 	on the calling thread
+	 * @param work the work to run
+	 * @param monitor progress monitor, will be given one unit of work per index, must not be <code>null</code>
+	 * @return <code>false</code> if the monitor was cancelled, <code>true</code> otherwise
+	 * @throws CoreException the first exception thrown by the work
+	 */
+	public static boolean run(String name, final int count, int maxThreads, final Work work, final IProgressMonitor monitor) throws CoreException {
+		final IProgressMonitor workMonitor = new WorkMonitor(monitor);
+		int threads = Math.min(count, maxThreads);
+		if (threads < 2) {
+			for (int i = 0; i < count; i++) {
+				if (monitor.isCanceled())
+					return false;
+				work.run(i, workMonitor);
+				monitor.worked(1);
+			}
+			return true;
+		}
+		// next index to run followed by the number of indexes done
+		final int[] progress = new int[2];
+		final CoreException[] failure = new CoreException[1];
+		final Throwable[] error = new Throwable[1];
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(name + ' ' + i) {
+				public void run() {
+					while (!monitor.isCanceled()) {
+						int index;
+						synchronized (progress) {
+							if (progress[0] >= count || failure[0] != null || error[0] != null)
+								return;
+							index = progress[0]++;
+						}
+						try {
+							work.run(index, workMonitor);
+						} catch (CoreException e) {
+							synchronized (progress) {
+								if (failure[0] == null)
+									failure[0] = e;
+							}
+						} catch (Throwable e) {
+							// errors are recorded too, a dead worker must not leave the caller waiting
+							synchronized (progress) {
+								if (error[0] == null)
+									error[0] = e;
+							}
+						} finally {
+							synchronized (progress) {
+								progress[1]++;
+								progress.notifyAll();
+							}
+						}
+					}
+				}
+			};
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+		// report progress from the calling thread, the monitor might not be thread safe
+		int reported = 0;
+		boolean interrupted = false;
+		synchronized (progress) {
+			while (progress[1] < count && failure[0] == null && error[0] == null && !monitor.isCanceled()) {
+				if (progress[1] > reported) {
+					monitor.worked(progress[1] - reported);
+					reported = progress[1];
+				}
+				try {
+					progress.wait(100);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		for (int i = 0; i < threads; i++) {
+			while (workers[i].isAlive()) {
+				try {
+					workers[i].join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		if (error[0] != null) {
+			PDECore.log(error[0]);
+			if (error[0] instanceof Error)
+				throw (Error) error[0];
+			if (error[0] instanceof RuntimeException)
+				throw (RuntimeException) error[0];
+			throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, error[0].getMessage(), error[0]));
+		}
+		if (failure[0] != null)
+			throw failure[0];
+		if (monitor.isCanceled())
+			return false;
+		monitor.worked(count - reported);
+		return true;
+	}
+}
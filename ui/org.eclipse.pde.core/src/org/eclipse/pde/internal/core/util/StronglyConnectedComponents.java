@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Computes the strongly connected components of a directed graph using Tarjan's algorithm.
+ * <p>
+ * The nodes of the graph are identified by their index in <code>[0, n)</code> and the graph
+ * is described by the array of successors of each node.  The depth first search is iterative
+ * so deep dependency chains cannot overflow the stack, and it runs in time linear in the number
+ * of nodes and edges.  Every node that is part of a dependency cycle belongs to a component
+ * with more than one node, or has itself as a successor.
+ * </p>
+ *
+ * @since 3.8
+ */
+public final class StronglyConnectedComponents {
+
+	/**
+	 * Component of each node
+	 */
+	private int[] fComponents;
+
+	/**
+	 * Number of nodes in each component
+	 */
+	private int[] fSizes;
+
+	/**
+	 * Computes the strongly connected components of the given graph
+	 *
+	 * @param successors the successors of each node, the arrays may contain duplicates
+	 */
+	public StronglyConnectedComponents(int[][] successors) {
+		int n = successors.length;
+		int[] order = new int[n];
+		int[] lowlink = new int[n];
+		fComponents = new int[n];
+		Arrays.fill(order, -1);
+		Arrays.fill(fComponents, -1);
+		// nodes visited but not yet assigned to a component, in visiting order
+		int[] stack = new int[n];
+		int stackSize = 0;
+		// the depth first search path and the next successor to visit for each node on it
+		int[] path = new int[n];
+		int[] nextEdge = new int[n];
+		int pathSize = 0;
+		int visited = 0;
+		int count = 0;
+		for (int root = 0; root < n; root++) {
+			if (order[root] != -1)
+				continue;
+			order[root] = lowlink[root] = visited++;
+			stack[stackSize++] = root;
+			nextEdge[root] = 0;
+			path[pathSize++] = root;
+			while (pathSize > 0) {
+				int node = path[pathSize - 1];
+				int[] edges = successors[node];
+				if (nextEdge[node] < edges.length) {
+					int successor = edges[nextEdge[node]++];
+					if (order[successor] == -1) {
+						order[successor] = lowlink[successor] = visited++;
+						stack[stackSize++] = successor;
+						nextEdge[successor] = 0;
+						path[pathSize++] = successor;
+					} else if (fComponents[successor] == -1 && order[successor] < lowlink[node]) {
+						// the successor is still on the stack
+						lowlink[node] = order[successor];
+					}
+				} else {
+					pathSize--;
+					if (lowlink[node] == order[node]) {
+						int member;
+						do {
+							member = stack[--stackSize];
+							fComponents[member] = count;
+						} while (member != node);
+						count++;
+					}
+					if (pathSize > 0) {
+						int parent = path[pathSize - 1];
+						if (lowlink[node] < lowlink[parent])
+							lowlink[parent] = lowlink[node];
+					}
+				}
+			}
+		}
+		fSizes = new int[count];
+		for (int i = 0; i < n; i++) {
+			fSizes[fComponents[i]]++;
+		}
+	}
+
+	/**
+	 * Returns the number of strongly connected components.  Components are numbered
+	 * in reverse topological order: no component has a successor in a component with
+	 * a higher number.
+	 *
+	 * @return number of components
+	 */
+	public int getComponentCount() {
+		return fSizes.length;
+	}
+
+	/**
+	 * Returns the component of the given node
+	 *
+	 * @param node index of the node
+	 * @return component of the node
+	 */
+	public int getComponent(int node) {
+		return fComponents[node];
+	}
+
+	/**
+	 * Returns the number of nodes in the given component
+	 *
+	 * @param component the component
+	 * @return number of nodes in the component
+	 */
+	public int getSize(int component) {
+		return fSizes[component];
+	}
+
+	/**
+	 * Returns the nodes of the given component
+	 *
+	 * @param component the component
+	 * @return indexes of the nodes in the component in ascending order
+	 */
+	public int[] getMembers(int component) {
+		int[] members = new int[fSizes[component]];
+		int size = 0;
+		for (int i = 0; i < fComponents.length && size < members.length; i++) {
+			if (fComponents[i] == component)
+				members[size++] = i;
+		}
+		return members;
+	}
+}
@@ -26,6 +26,7 @@ public abstract class BaseExportTask extends Task {
 	protected String fQualifier;
 	protected boolean fAllowBinaryCycles;
 	protected boolean fUseWorkspaceCompiledClasses;
+	protected boolean fCompileDirtyPlugins;
 
 	public BaseExportTask() {
 	}
@@ -86,6 +87,10 @@ public abstract class BaseExportTask extends Task {
 		fUseWorkspaceCompiledClasses = new Boolean(useWorkspaceCompiledClasses).booleanValue();
 	}
 
+	public void setCompileDirtyPlugins(String compileDirtyPlugins) {
+		fCompileDirtyPlugins = new Boolean(compileDirtyPlugins).booleanValue();
+	}
+
 	public boolean isAntRunner() {
 		String args[] = Platform.getCommandLineArgs();
 		for (int i = 0; i < args.length; i++) {
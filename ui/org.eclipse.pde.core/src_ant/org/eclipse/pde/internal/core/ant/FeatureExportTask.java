@@ -33,6 +33,7 @@ public class FeatureExportTask extends BaseExportTask {
 		info.qualifier = fQualifier;
 		info.allowBinaryCycles = fAllowBinaryCycles;
 		info.useWorkspaceCompiledClasses = fUseWorkspaceCompiledClasses;
+		info.compileDirtyPlugins = fCompileDirtyPlugins;
 		// if destination is relative, then make it absolute
 		if (!new File(fDestination).isAbsolute()) {
 			File home = new File(getLocation().getFileName()).getParentFile();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 EclipseSource Corporation and others.
+ * Copyright (c) 2009, 2011 EclipseSource Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,6 +35,14 @@ public interface IPDEConstants {
 	 * TODO, move to IPDELauncherConstants in 3.4
 	 */
 	String DOCLEARLOG = "clearwslog"; //$NON-NLS-1$
+	/**
+	 * Launch configuration attribute key. The value is a boolean specifying
+	 * whether the configuration area should be kept between launches of the
+	 * same bundles, even if the option to clear it is turned on.  Only the
+	 * cached data of workspace bundles that changed since the last launch is
+	 * discarded.
+	 */
+	String CONFIG_WARM_AREA = "warmConfig"; //$NON-NLS-1$
 	String LAUNCHER_PDE_VERSION = "pde.version"; //$NON-NLS-1$
 	String APPEND_ARGS_EXPLICITLY = "append.args"; //$NON-NLS-1$
 
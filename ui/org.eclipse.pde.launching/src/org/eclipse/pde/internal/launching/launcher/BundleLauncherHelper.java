@@ -46,15 +46,39 @@ public class BundleLauncherHelper {
 		return getTargetBundleMap(configuration, null, IPDELauncherConstants.TARGET_BUNDLES);
 	}
 
+	/**
+	 * Returns the bundles to launch with the given configuration mapped to their start levels.
+	 * The map is cached until the attributes of the configuration or the models change.
+	 * 
+	 * @param configuration the launch configuration
+	 * @param osgi whether the configuration is for the OSGi framework launcher
+	 * @return map of {@link IPluginModelBase} to start level
+	 * @throws CoreException if the configuration cannot be read
+	 */
 	public static Map getMergedBundleMap(ILaunchConfiguration configuration, boolean osgi) throws CoreException {
+		if (!osgi)
+			checkBackwardCompatibility(configuration, true);
+
+		BundleMapCache cache = BundleMapCache.getDefault();
+		List key = new ArrayList(2);
+		key.add(Boolean.valueOf(osgi));
+		key.add(configuration.getAttributes());
+		Map map = cache.get(key);
+		if (map == null) {
+			long stamp = cache.getStamp();
+			map = computeMergedBundleMap(configuration, osgi);
+			cache.put(key, stamp, map);
+		}
+		return map;
+	}
+
+	private static Map computeMergedBundleMap(ILaunchConfiguration configuration, boolean osgi) throws CoreException {
 		Set set = new HashSet();
 		Map map = new HashMap();
 
 		// if we are using the eclipse-based launcher, we need special checks
 		if (!osgi) {
 
-			checkBackwardCompatibility(configuration, true);
-
 			if (configuration.getAttribute(IPDELauncherConstants.USE_DEFAULT, true)) {
 				IPluginModelBase[] models = PluginRegistry.getActiveModels();
 				for (int i = 0; i < models.length; i++) {
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.launching.launcher;
+
+import java.util.*;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.pde.internal.core.*;
+
+/**
+ * Cache of the bundle maps computed by {@link BundleLauncherHelper#getMergedBundleMap(org.eclipse.debug.core.ILaunchConfiguration, boolean)}.
+ * <p>
+ * Bundle maps are cached by the attributes of the launch configuration they were computed
+ * for, so editing the configuration computes a new map.  All the maps are discarded when
+ * plug-in models, feature models or the target state change.
+ * </p>
+ */
+public class BundleMapCache implements IPluginModelListener, IFeatureModelListener, IStateDeltaListener {
+
+	/**
+	 * Maximum number of bundle maps kept
+	 */
+	private static final int MAX_ENTRIES = 8;
+
+	private static BundleMapCache fInstance;
+
+	/**
+	 * Map of launch configuration attributes and launcher kind to bundle map, most recently used last
+	 */
+	private final LinkedHashMap fMaps = new LinkedHashMap(MAX_ENTRIES + 1, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Incremented every time the models change, maps computed while the models changed are not cached
+	 */
+	private long fStamp;
+
+	/**
+	 * Returns the cache, starting to listen to model changes the first time it is called
+	 *
+	 * @return the bundle map cache
+	 */
+	public static synchronized BundleMapCache getDefault() {
+		if (fInstance == null) {
+			fInstance = new BundleMapCache();
+			PluginModelManager manager = PDECore.getDefault().getModelManager();
+			manager.addPluginModelListener(fInstance);
+			manager.addStateDeltaListener(fInstance);
+			PDECore.getDefault().getFeatureModelManager().addFeatureModelListener(fInstance);
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Stops listening to model changes and discards the cached maps
+	 */
+	public static synchronized void shutdown() {
+		if (fInstance == null)
+			return;
+		PluginModelManager manager = PDECore.getDefault().getModelManager();
+		manager.removePluginModelListener(fInstance);
+		manager.removeStateDeltaListener(fInstance);
+		PDECore.getDefault().getFeatureModelManager().removeFeatureModelListener(fInstance);
+		fInstance.clear();
+		fInstance = null;
+	}
+
+	private BundleMapCache() {
+	}
+
+	/**
+	 * Returns the change stamp of the models, to be passed to {@link #put(Object, long, Map)}
+	 * once the bundle map is computed
+	 *
+	 * @return the current change stamp
+	 */
+	public synchronized long getStamp() {
+		return fStamp;
+	}
+
+	/**
+	 * Returns a copy of the bundle map cached for the given key
+	 *
+	 * @param key the launch configuration attributes and launcher kind
+	 * @return map of {@link org.eclipse.pde.core.plugin.IPluginModelBase} to start level or <code>null</code>
+	 */
+	public synchronized Map get(Object key) {
+		Map map = (Map) fMaps.get(key);
+		return map == null ? null : new HashMap(map);
+	}
+
+	/**
+	 * Caches a copy of the given bundle map, unless the models changed since the given stamp
+	 *
+	 * @param key the launch configuration attributes and launcher kind
+	 * @param stamp change stamp of the models when the computation of the map started
+	 * @param map map of {@link org.eclipse.pde.core.plugin.IPluginModelBase} to start level
+	 */
+	public synchronized void put(Object key, long stamp, Map map) {
+		if (stamp == fStamp)
+			fMaps.put(key, new HashMap(map));
+	}
+
+	private synchronized void clear() {
+		fStamp++;
+		fMaps.clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IPluginModelListener#modelsChanged(org.eclipse.pde.internal.core.PluginModelDelta)
+	 */
+	public void modelsChanged(PluginModelDelta delta) {
+		clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IFeatureModelListener#modelsChanged(org.eclipse.pde.internal.core.IFeatureModelDelta)
+	 */
+	public void modelsChanged(IFeatureModelDelta delta) {
+		clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IStateDeltaListener#stateResolved(org.eclipse.osgi.service.resolver.StateDelta)
+	 */
+	public void stateResolved(StateDelta delta) {
+		clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IStateDeltaListener#stateChanged(org.eclipse.osgi.service.resolver.State)
+	 */
+	public void stateChanged(State newState) {
+		clear();
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.launching.launcher;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.project.PDEProject;
+
+/**
+ * Fingerprint of the bundles launched with a configuration area, used to keep the
+ * framework cache of the area between launches of the same bundles.
+ * <p>
+ * The fingerprint records the version, location and start level of every launched bundle,
+ * the timestamp of external bundles and the timestamps of the manifest files of workspace
+ * bundles.  It is saved in the configuration area after every launch.  A configuration
+ * area can be reused as long as the same bundles are launched from the same locations with
+ * the same start levels and no external bundle changed.  The cached data of workspace bundles
+ * whose manifest files changed is discarded, the framework reloads these bundles when it
+ * checks the configuration on startup.
+ * </p>
+ */
+public class ConfigurationAreaFingerprint {
+
+	/**
+	 * Name of the file storing the fingerprint in the configuration area
+	 */
+	private static final String FINGERPRINT_FILE = "pde.fingerprint"; //$NON-NLS-1$
+
+	/**
+	 * Directory of the framework containing the manifests it generated for plug-ins without a MANIFEST.MF
+	 */
+	private static final String MANIFESTS_DIR = "org.eclipse.osgi/manifests"; //$NON-NLS-1$
+
+	private static final String WORKSPACE = "W"; //$NON-NLS-1$
+	private static final String EXTERNAL = "E"; //$NON-NLS-1$
+
+	/**
+	 * Map of bundle id and version to a line recording its kind, start level, location and timestamp
+	 */
+	private final Properties fEntries = new Properties();
+
+	/**
+	 * Computes the fingerprint of the given bundles
+	 *
+	 * @param bundlesWithStartLevels map of {@link IPluginModelBase} to start level
+	 */
+	public ConfigurationAreaFingerprint(Map bundlesWithStartLevels) {
+		for (Iterator iter = bundlesWithStartLevels.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			IPluginModelBase model = (IPluginModelBase) entry.getKey();
+			String location = model.getInstallLocation();
+			if (location == null)
+				continue;
+			StringBuffer buffer = new StringBuffer();
+			IResource resource = model.getUnderlyingResource();
+			buffer.append(resource != null ? WORKSPACE : EXTERNAL).append(',');
+			buffer.append(entry.getValue()).append(',');
+			buffer.append(resource != null ? getManifestsStamp(resource.getProject()) : new File(location).lastModified()).append(',');
+			buffer.append(location);
+			fEntries.setProperty(getKey(model), buffer.toString());
+		}
+	}
+
+	private static String getKey(IPluginModelBase model) {
+		return model.getPluginBase().getId() + '_' + model.getPluginBase().getVersion();
+	}
+
+	private static long getManifestsStamp(IProject project) {
+		IFile[] files = new IFile[] {PDEProject.getManifest(project), PDEProject.getPluginXml(project), PDEProject.getFragmentXml(project)};
+		long stamp = 0;
+		for (int i = 0; i < files.length; i++) {
+			stamp = stamp * 31 + files[i].getLocalTimeStamp();
+		}
+		return stamp;
+	}
+
+	/**
+	 * Compares this fingerprint with the one saved in the given configuration area.  If the
+	 * area can be reused, the cached data of the workspace bundles that changed since the
+	 * fingerprint was saved is discarded.
+	 *
+	 * @param configDir the configuration area
+	 * @return whether the configuration area can be reused for the bundles of this fingerprint
+	 */
+	public boolean reuse(File configDir) {
+		Properties previous = load(new File(configDir, FINGERPRINT_FILE));
+		if (previous == null || !previous.keySet().equals(fEntries.keySet()))
+			return false;
+		List changed = new ArrayList();
+		for (Iterator iter = fEntries.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			String current = (String) entry.getValue();
+			String old = previous.getProperty((String) entry.getKey());
+			if (current.equals(old))
+				continue;
+			if (!current.startsWith(WORKSPACE) || !getStartLevelAndLocation(current).equals(getStartLevelAndLocation(old)))
+				return false;
+			changed.add(entry.getKey());
+		}
+		File manifests = new File(configDir, MANIFESTS_DIR);
+		for (Iterator iter = changed.iterator(); iter.hasNext();) {
+			new File(manifests, iter.next() + ".MF").delete(); //$NON-NLS-1$
+		}
+		return true;
+	}
+
+	private static String getStartLevelAndLocation(String entry) {
+		int kindEnd = entry.indexOf(',');
+		int startLevelEnd = entry.indexOf(',', kindEnd + 1);
+		int stampEnd = entry.indexOf(',', startLevelEnd + 1);
+		return entry.substring(kindEnd + 1, startLevelEnd) + entry.substring(stampEnd);
+	}
+
+	/**
+	 * Saves this fingerprint in the given configuration area
+	 *
+	 * @param configDir the configuration area
+	 */
+	public void save(File configDir) {
+		if (!configDir.exists())
+			configDir.mkdirs();
+		LaunchConfigurationHelper.save(new File(configDir, FINGERPRINT_FILE), fEntries);
+	}
+
+	private static Properties load(File file) {
+		if (!file.isFile())
+			return null;
+		FileInputStream stream = null;
+		try {
+			stream = new FileInputStream(file);
+			Properties properties = new Properties();
+			properties.load(stream);
+			return properties;
+		} catch (IOException e) {
+			PDECore.logException(e);
+			return null;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+}
@@ -23,6 +23,7 @@ import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.TargetPlatform;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.internal.core.util.CoreUtility;
 import org.eclipse.pde.internal.launching.IPDEConstants;
 import org.eclipse.pde.internal.launching.PDELaunchingPlugin;
 import org.eclipse.pde.launching.IPDELauncherConstants;
@@ -34,6 +35,7 @@ public class LaunchConfigurationHelper {
 
 	private static final String PROP_OSGI_FRAMEWORK = "osgi.framework"; //$NON-NLS-1$
 	private static final String PROP_OSGI_BUNDLES = "osgi.bundles"; //$NON-NLS-1$
+	private static final String PROP_CHECK_CONFIGURATION = "osgi.checkConfiguration"; //$NON-NLS-1$
 	private static final String PROP_P2_DATA_AREA = "eclipse.p2.data.area"; //$NON-NLS-1$
 	private static final String DEFAULT_PROFILE_NAME = "SelfHostingProfile"; //$NON-NLS-1$
 
@@ -55,6 +57,31 @@ public class LaunchConfigurationHelper {
 		}
 	}
 
+	/**
+	 * Clears the configuration area if the option to clear it is turned on.  If the configuration
+	 * area is kept between launches, it is only cleared when the launched bundles changed since
+	 * the last launch, otherwise only the cached data of the workspace bundles that changed is
+	 * discarded.
+	 * 
+	 * @param config launch configuration
+	 * @param configDir the configuration area
+	 * @param bundlesWithStartLevels map of plug-in model to a string containing start level information,
+	 *  these are the bundles being launched
+	 * @throws CoreException if unable to retrieve launch attribute values
+	 */
+	public static void clearConfigurationArea(ILaunchConfiguration config, File configDir, Map bundlesWithStartLevels) throws CoreException {
+		boolean clear = config.getAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, false);
+		if (!config.getAttribute(IPDEConstants.CONFIG_WARM_AREA, false)) {
+			if (clear)
+				CoreUtility.deleteContent(configDir);
+			return;
+		}
+		ConfigurationAreaFingerprint fingerprint = new ConfigurationAreaFingerprint(bundlesWithStartLevels);
+		if (!fingerprint.reuse(configDir) && clear)
+			CoreUtility.deleteContent(configDir);
+		fingerprint.save(configDir);
+	}
+
 	public static File getConfigurationArea(ILaunchConfiguration config) {
 		File dir = getConfigurationLocation(config);
 		if (!dir.exists())
@@ -194,10 +221,26 @@ public class LaunchConfigurationHelper {
 
 		setBundleLocations(bundles, properties, autostart);
 
-		save(new File(configurationDirectory, "config.ini"), properties); //$NON-NLS-1$
+		saveConfigIni(configuration, configurationDirectory, properties);
 		return properties;
 	}
 
+	/**
+	 * Saves the config.ini file of a launch.  If the configuration area is kept between
+	 * launches, the framework is told to check the configuration for changed bundles on
+	 * startup, unless the properties already say otherwise.
+	 * 
+	 * @param configuration launch configuration
+	 * @param configurationDirectory the configuration area
+	 * @param properties the properties of the config.ini file
+	 * @throws CoreException if unable to retrieve launch attribute values
+	 */
+	public static void saveConfigIni(ILaunchConfiguration configuration, File configurationDirectory, Properties properties) throws CoreException {
+		if (configuration.getAttribute(IPDEConstants.CONFIG_WARM_AREA, false) && !properties.containsKey(PROP_CHECK_CONFIGURATION))
+			properties.setProperty(PROP_CHECK_CONFIGURATION, "true"); //$NON-NLS-1$
+		save(new File(configurationDirectory, "config.ini"), properties); //$NON-NLS-1$
+	}
+
 	private static void addRequiredProperties(Properties properties, String productID, Map bundles, Map bundlesWithStartLevels) {
 		if (!properties.containsKey("osgi.install.area")) //$NON-NLS-1$
 			properties.setProperty("osgi.install.area", "file:" + TargetPlatform.getLocation()); //$NON-NLS-1$ //$NON-NLS-2$
@@ -454,7 +497,37 @@ public class LaunchConfigurationHelper {
 		return buffer.toString();
 	}
 
+	/**
+	 * Saves the properties to the given file.  The file and its timestamp are kept if it
+	 * already holds the same properties.
+	 * <p>
+	 * Unchanged files are kept whether or not the configuration area is kept between
+	 * launches.  The framework reads config.ini on every startup and does not look at its
+	 * timestamp, so keeping an unchanged file has the same effect as writing it again.
+	 * </p>
+	 * 
+	 * @param file the file to write
+	 * @param properties the properties to save
+	 */
 	public static void save(File file, Properties properties) {
+		if (file.isFile()) {
+			FileInputStream input = null;
+			try {
+				input = new FileInputStream(file);
+				Properties existing = new Properties();
+				existing.load(input);
+				if (existing.equals(properties))
+					return;
+			} catch (IOException e) {
+			} finally {
+				if (input != null) {
+					try {
+						input.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
 		try {
 			FileOutputStream stream = new FileOutputStream(file);
 			properties.store(stream, "Configuration File"); //$NON-NLS-1$
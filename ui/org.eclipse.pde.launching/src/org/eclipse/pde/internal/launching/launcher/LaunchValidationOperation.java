@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2009 IBM Corporation and others.
+ *  Copyright (c) 2007, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -151,7 +151,17 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 	}
 
 	public boolean isEmpty() {
-		return fOperation.getState().getHighestBundleId() == -1;
+		return fOperation.isEmpty();
+	}
+
+	/**
+	 * Returns whether a bundle with the given symbolic name was validated
+	 * 
+	 * @param symbolicName symbolic name of the bundle
+	 * @return whether the bundle was validated
+	 */
+	protected boolean hasBundle(String symbolicName) {
+		return fOperation.hasBundle(symbolicName);
 	}
 
 	protected State getState() {
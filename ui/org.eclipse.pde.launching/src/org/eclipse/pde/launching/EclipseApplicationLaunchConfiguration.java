@@ -235,8 +235,7 @@ public class EclipseApplicationLaunchConfiguration extends AbstractPDELaunchConf
 			throw new CoreException(Status.CANCEL_STATUS);
 
 		// clear config area, if necessary
-		if (configuration.getAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, false))
-			CoreUtility.deleteContent(getConfigDir(configuration));
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, getConfigDir(configuration), fModels);
 	}
 
 	/* (non-Javadoc)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,6 @@ import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.ClasspathHelper;
 import org.eclipse.pde.internal.core.P2Utils;
-import org.eclipse.pde.internal.core.util.CoreUtility;
 import org.eclipse.pde.internal.launching.IPDEConstants;
 import org.eclipse.pde.internal.launching.PDEMessages;
 import org.eclipse.pde.internal.launching.launcher.*;
@@ -112,7 +111,7 @@ public class EquinoxLaunchConfiguration extends AbstractPDELaunchConfiguration {
 			properties.put("osgi.noShutdown", "true"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 
-		LaunchConfigurationHelper.save(new File(getConfigDir(configuration), "config.ini"), properties); //$NON-NLS-1$
+		LaunchConfigurationHelper.saveConfigIni(configuration, getConfigDir(configuration), properties);
 	}
 
 	private String getBundles(boolean defaultAuto) {
@@ -212,8 +211,7 @@ public class EquinoxLaunchConfiguration extends AbstractPDELaunchConfiguration {
 	 */
 	protected void clear(ILaunchConfiguration configuration, IProgressMonitor monitor) throws CoreException {
 		// clear config area, if necessary
-		if (configuration.getAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, false))
-			CoreUtility.deleteContent(getConfigDir(configuration));
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, getConfigDir(configuration), fModels);
 	}
 
 }
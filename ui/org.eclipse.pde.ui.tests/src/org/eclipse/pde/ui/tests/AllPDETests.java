@@ -45,8 +45,14 @@ public class AllPDETests {
 		suite.addTest(AllLauncherTests.suite());
 		suite.addTest(AllLogViewTests.suite());
 		suite.addTest(ProjectCreationTests.suite());
+		suite.addTest(RequiredPluginsContainerTests.suite());
+		suite.addTest(PluginValidationMarkerTests.suite());
 		suite.addTest(BundleRootTests.suite());
 		suite.addTest(PluginRegistryTests.suite());
+		suite.addTest(DependencyLoopFinderTests.suite());
+		suite.addTest(CompiledSchemaTests.suite());
+		suite.addTest(FeatureModelManagerTests.suite());
+		suite.addTest(PluginSearchIndexTests.suite());
 		suite.addTest(ClasspathResolverTest.suite());
 		return suite;
 	}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.launcher;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.debug.core.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.internal.core.FeatureModelDelta;
+import org.eclipse.pde.internal.core.PluginModelDelta;
+import org.eclipse.pde.internal.launching.IPDEConstants;
+import org.eclipse.pde.internal.launching.launcher.BundleLauncherHelper;
+import org.eclipse.pde.internal.launching.launcher.BundleMapCache;
+import org.eclipse.pde.launching.IPDELauncherConstants;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+
+/**
+ * Tests that the cached bundle maps of launch configurations are discarded when the models
+ * change.
+ *
+ * @since 3.8
+ */
+public class BundleMapCacheTests extends TestCase {
+
+	private static final String PROJECT = "test.bundle.map.cache";
+
+	public static Test suite() {
+		return new TestSuite(BundleMapCacheTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+		if (project.exists()) {
+			project.delete(true, null);
+			ProjectCreationTests.waitForBuild();
+		}
+		super.tearDown();
+	}
+
+	private Map createMap() {
+		Map map = new HashMap();
+		map.put(PluginRegistry.findModel("org.eclipse.pde.core"), "default:default");
+		return map;
+	}
+
+	/**
+	 * Returns the cache holding a map for the given key
+	 */
+	private BundleMapCache putMap(Object key) {
+		BundleMapCache cache = BundleMapCache.getDefault();
+		cache.put(key, cache.getStamp(), createMap());
+		assertNotNull("The map should be cached", cache.get(key));
+		return cache;
+	}
+
+	/**
+	 * Cached maps are copies, changing them does not change the cache
+	 */
+	public void testCopies() {
+		Object key = new Object();
+		BundleMapCache cache = BundleMapCache.getDefault();
+		Map map = createMap();
+		cache.put(key, cache.getStamp(), map);
+		map.clear();
+		Map cached = cache.get(key);
+		assertEquals(1, cached.size());
+		cached.clear();
+		assertEquals(1, cache.get(key).size());
+	}
+
+	/**
+	 * A map computed while the models changed is not cached
+	 */
+	public void testStaleStamp() {
+		Object key = new Object();
+		BundleMapCache cache = BundleMapCache.getDefault();
+		long stamp = cache.getStamp();
+		cache.modelsChanged(new PluginModelDelta());
+		cache.put(key, stamp, createMap());
+		assertNull("A map computed before a change should not be cached", cache.get(key));
+	}
+
+	/**
+	 * Plug-in model, feature model and target state changes discard the maps
+	 */
+	public void testInvalidation() {
+		Object key = new Object();
+		BundleMapCache cache = putMap(key);
+		cache.modelsChanged(new PluginModelDelta());
+		assertNull("A plug-in model change should discard the maps", cache.get(key));
+
+		cache = putMap(key);
+		cache.modelsChanged(new FeatureModelDelta());
+		assertNull("A feature model change should discard the maps", cache.get(key));
+
+		cache = putMap(key);
+		cache.stateChanged(null);
+		assertNull("A new target state should discard the maps", cache.get(key));
+
+		cache = putMap(key);
+		cache.stateResolved(null);
+		assertNull("A resolved target state should discard the maps", cache.get(key));
+	}
+
+	/**
+	 * The bundles of a configuration are computed again once a workspace plug-in is added
+	 */
+	public void testWorkspacePluginAdded() throws Exception {
+		ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(IPDELauncherConstants.ECLIPSE_APPLICATION_LAUNCH_CONFIGURATION_TYPE);
+		ILaunchConfigurationWorkingCopy configuration = type.newInstance(null, "BundleMapCacheTests");
+		configuration.setAttribute(IPDELauncherConstants.USE_DEFAULT, true);
+		// no attribute migration
+		configuration.setAttribute(IPDEConstants.LAUNCHER_PDE_VERSION, "3.3");
+
+		Map map = BundleLauncherHelper.getMergedBundleMap(configuration, false);
+		assertEquals("An unchanged configuration should get the cached bundles", map, BundleLauncherHelper.getMergedBundleMap(configuration, false));
+
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(project);
+		description.setSymbolicName(PROJECT);
+		description.apply(null);
+		ProjectCreationTests.waitForBuild();
+		IPluginModelBase model = PluginRegistry.findModel(PROJECT);
+		assertNotNull(model);
+		assertFalse(map.containsKey(model));
+
+		map = BundleLauncherHelper.getMergedBundleMap(configuration, false);
+		assertTrue("The added plug-in should be launched", map.containsKey(model));
+	}
+}
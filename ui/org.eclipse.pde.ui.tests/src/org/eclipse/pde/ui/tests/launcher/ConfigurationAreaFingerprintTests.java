@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.launcher;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.debug.core.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.internal.core.plugin.ExternalPluginModel;
+import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.internal.launching.IPDEConstants;
+import org.eclipse.pde.internal.launching.launcher.ConfigurationAreaFingerprint;
+import org.eclipse.pde.internal.launching.launcher.LaunchConfigurationHelper;
+import org.eclipse.pde.internal.ui.tests.macro.MacroPlugin;
+import org.eclipse.pde.launching.IPDELauncherConstants;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+
+/**
+ * Tests that a configuration area kept between launches is reused for the same bundles,
+ * cleared when an external bundle changed, and that only the generated manifests of
+ * changed workspace bundles are discarded.
+ *
+ * @since 3.8
+ */
+public class ConfigurationAreaFingerprintTests extends TestCase {
+
+	private static final String PROJECT = "test.configuration.area";
+
+	/**
+	 * File the framework would leave in the configuration area
+	 */
+	private static final String CACHE_FILE = "cache.data";
+
+	private File fConfigDir;
+	private File fBundle;
+
+	public static Test suite() {
+		return new TestSuite(ConfigurationAreaFingerprintTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		File root = MacroPlugin.getDefault().getStateLocation().append("configurationArea").toFile();
+		CoreUtility.deleteContent(root);
+		fConfigDir = new File(root, "config");
+		fConfigDir.mkdirs();
+		fBundle = new File(root, "external_1.0.0.jar");
+		writeFile(fBundle);
+	}
+
+	protected void tearDown() throws Exception {
+		CoreUtility.deleteContent(fConfigDir.getParentFile());
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+		if (project.exists()) {
+			project.delete(true, null);
+			ProjectCreationTests.waitForBuild();
+		}
+		super.tearDown();
+	}
+
+	private void writeFile(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		OutputStream stream = new FileOutputStream(file);
+		try {
+			stream.write(new byte[] {1, 2, 3});
+		} finally {
+			stream.close();
+		}
+	}
+
+	private IPluginModelBase createExternalModel() throws Exception {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<plugin id=\"external\" version=\"1.0.0\"/>\n";
+		ExternalPluginModel model = new ExternalPluginModel();
+		model.setInstallLocation(fBundle.getAbsolutePath());
+		model.load(new ByteArrayInputStream(xml.getBytes("UTF-8")), false);
+		return model;
+	}
+
+	private ILaunchConfiguration createConfiguration() throws Exception {
+		ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(IPDELauncherConstants.ECLIPSE_APPLICATION_LAUNCH_CONFIGURATION_TYPE);
+		ILaunchConfigurationWorkingCopy configuration = type.newInstance(null, "ConfigurationAreaFingerprintTests");
+		configuration.setAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, true);
+		configuration.setAttribute(IPDEConstants.CONFIG_WARM_AREA, true);
+		return configuration;
+	}
+
+	private File createCacheFile() throws IOException {
+		File file = new File(fConfigDir, CACHE_FILE);
+		writeFile(file);
+		return file;
+	}
+
+	/**
+	 * The area is reused for the same bundles with the same start levels only
+	 */
+	public void testReuse() throws Exception {
+		Map bundles = new HashMap();
+		bundles.put(createExternalModel(), "default:default");
+		assertFalse("An area without fingerprint should not be reused", new ConfigurationAreaFingerprint(bundles).reuse(fConfigDir));
+		new ConfigurationAreaFingerprint(bundles).save(fConfigDir);
+		assertTrue("The same bundles should reuse the area", new ConfigurationAreaFingerprint(bundles).reuse(fConfigDir));
+
+		Map other = new HashMap();
+		other.put(createExternalModel(), "2:true");
+		assertFalse("Another start level should not reuse the area", new ConfigurationAreaFingerprint(other).reuse(fConfigDir));
+
+		other = new HashMap(bundles);
+		other.put(PluginRegistry.findModel("org.eclipse.pde.core"), "default:default");
+		assertFalse("Another bundle should not reuse the area", new ConfigurationAreaFingerprint(other).reuse(fConfigDir));
+	}
+
+	/**
+	 * The area is kept while the external bundle is unchanged and cleared once it changed
+	 */
+	public void testExternalBundleChanged() throws Exception {
+		ILaunchConfiguration configuration = createConfiguration();
+		Map bundles = new HashMap();
+		bundles.put(createExternalModel(), "default:default");
+		File cache = createCacheFile();
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, fConfigDir, bundles);
+		assertFalse("The first launch should clear the area", cache.exists());
+
+		cache = createCacheFile();
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, fConfigDir, bundles);
+		assertTrue("The area should be kept for the same bundles", cache.exists());
+
+		assertTrue(fBundle.setLastModified(fBundle.lastModified() - 10000));
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, fConfigDir, bundles);
+		assertFalse("The area should be cleared when an external bundle changed", cache.exists());
+		assertTrue("The new fingerprint should be saved", new ConfigurationAreaFingerprint(bundles).reuse(fConfigDir));
+	}
+
+	/**
+	 * The area is kept when a workspace bundle changed, only its generated manifest is deleted
+	 */
+	public void testWorkspaceBundleChanged() throws Exception {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(project);
+		description.setSymbolicName(PROJECT);
+		description.apply(null);
+		ProjectCreationTests.waitForBuild();
+		IPluginModelBase model = PluginRegistry.findModel(PROJECT);
+		assertNotNull(model);
+
+		ILaunchConfiguration configuration = createConfiguration();
+		Map bundles = new HashMap();
+		bundles.put(createExternalModel(), "default:default");
+		bundles.put(model, "default:default");
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, fConfigDir, bundles);
+
+		File cache = createCacheFile();
+		File manifests = new File(fConfigDir, "org.eclipse.osgi/manifests");
+		File generated = new File(manifests, model.getPluginBase().getId() + '_' + model.getPluginBase().getVersion() + ".MF");
+		writeFile(generated);
+		File other = new File(manifests, "external_1.0.0.MF");
+		writeFile(other);
+
+		IFile manifest = PDEProject.getManifest(project);
+		manifest.setLocalTimeStamp(manifest.getLocalTimeStamp() + 10000);
+		LaunchConfigurationHelper.clearConfigurationArea(configuration, fConfigDir, bundles);
+		assertTrue("The area should be kept when a workspace bundle changed", cache.exists());
+		assertFalse("The manifest of the changed bundle should be deleted", generated.exists());
+		assertTrue("The manifests of unchanged bundles should be kept", other.exists());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2009 IBM Corporation and others.
+ *  Copyright (c) 2005, 2011 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -27,6 +27,7 @@ public class AllXMLModelTests {
 		suite.addTest(ExtensionAttributeTestCase.suite());
 		suite.addTest(ExtensionElementTestCase.suite());
 		suite.addTest(ManifestEditorSpellCheckTestCase.suite());
+		suite.addTest(PluginModelLoadingTestCase.suite());
 		return suite;
 	}
 
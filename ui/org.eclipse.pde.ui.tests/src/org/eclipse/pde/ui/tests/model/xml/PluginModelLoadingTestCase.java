@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.model.xml;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.internal.core.plugin.*;
+
+/**
+ * Tests that plug-in models loaded from SAX events by {@link PluginBaseHandler} are the
+ * same as the models loaded from the document built by {@link PluginHandler}.
+ */
+public class PluginModelLoadingTestCase extends TestCase {
+
+	private static final String PLUGIN = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<?eclipse version=\"3.4\"?>\n"
+			+ "<plugin id=\"org.example.loading\" name=\"Loading\" version=\"1.2.3\" provider-name=\"Example\" class=\"org.example.Activator\">\n"
+			+ "  <runtime>\n"
+			+ "    <library name=\"loading.jar\">\n"
+			+ "      <export name=\"*\"/>\n"
+			+ "    </library>\n"
+			+ "    <Library name=\"icons/\" type=\"resource\">\n"
+			+ "      <export name=\"org.example.a.*\"/>\n"
+			+ "      <export name=\"org.example.b.*\"/>\n"
+			+ "    </Library>\n"
+			+ "    <library name=\"private.jar\"/>\n"
+			+ "  </runtime>\n"
+			+ "  <requires>\n"
+			+ "    <import plugin=\"org.eclipse.core.runtime\"/>\n"
+			+ "    <import plugin=\"org.eclipse.ui\" version=\"3.2.0\" match=\"compatible\" optional=\"true\" export=\"true\"/>\n"
+			+ "    <Import plugin=\"org.eclipse.jdt.core\" match=\"perfect\"/>\n"
+			+ "  </requires>\n"
+			+ "  <extension-point id=\"points\" name=\"Points\" schema=\"schema/points.exsd\"/>\n"
+			+ "  <extension-point id=\"other\" name=\"%other\"/>\n"
+			+ "  <extension point=\"org.eclipse.ui.views\">\n"
+			+ "    <category id=\"org.example.category\" name=\"Example\"/>\n"
+			+ "    <view id=\"org.example.view\" name=\"View\" category=\"org.example.category\" class=\"org.example.View\">\n"
+			+ "      <description>A view</description>\n"
+			+ "    </view>\n"
+			+ "  </extension>\n"
+			+ "  <extension id=\"builder\" name=\"Builder\" point=\"org.eclipse.core.resources.builders\">\n"
+			+ "    <builder hasNature=\"true\">\n"
+			+ "      <run class=\"org.example.Builder\">\n"
+			+ "        <parameter name=\"a\" value=\"1\"/>\n"
+			+ "        <parameter name=\"b\" value=\"2\"/>\n"
+			+ "      </run>\n"
+			+ "    </builder>\n"
+			+ "  </extension>\n"
+			+ "  <extension point=\"org.example.loading.points\">\n"
+			+ "    <point label=\"text\">\n"
+			+ "      leading text\n"
+			+ "      <child/>\n"
+			+ "      trailing text\n"
+			+ "    </point>\n"
+			+ "    <point label=\"cdata\">before <![CDATA[<b>markup</b>]]> after</point>\n"
+			+ "    <point label=\"comment\">first<!-- comment -->second</point>\n"
+			+ "    <point label=\"entities\">&lt;escaped&gt; &amp; &#65;</point>\n"
+			+ "    <point label=\"empty\">   </point>\n"
+			+ "  </extension>\n"
+			+ "</plugin>\n";
+
+	private static final String FRAGMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<?eclipse version=\"3.2\"?>\n"
+			+ "<fragment id=\"org.example.loading.fragment\" name=\"Fragment\" version=\"1.0.0\" plugin-id=\"org.example.loading\" plugin-version=\"1.2.0\" match=\"equivalent\">\n"
+			+ "  <runtime>\n"
+			+ "    <library name=\"fragment.jar\">\n"
+			+ "      <export name=\"*\"/>\n"
+			+ "    </library>\n"
+			+ "  </runtime>\n"
+			+ "  <extension point=\"org.example.loading.points\">\n"
+			+ "    <point label=\"fragment\">Fragment text</point>\n"
+			+ "  </extension>\n"
+			+ "</fragment>\n";
+
+	private static final String[] MALFORMED = new String[] {
+			// unclosed element in an extension
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<plugin id=\"org.example.broken\" version=\"1.0.0\">\n"
+					+ "  <extension point=\"org.eclipse.ui.views\">\n"
+					+ "    <view id=\"org.example.view\">\n"
+					+ "  </extension>\n"
+					+ "  <extension point=\"org.eclipse.ui.editors\"/>\n"
+					+ "</plugin>\n",
+			// truncated file
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<plugin id=\"org.example.truncated\" version=\"1.0.0\">\n"
+					+ "  <requires>\n"
+					+ "    <import plugin=\"org.eclipse.core.runtime\"/>\n"
+					+ "  </requires>\n"
+					+ "  <extension point=\"org.eclipse.ui.views\">\n"
+					+ "    <view id=\"org.",
+			// content after the root element
+			"<plugin id=\"org.example.trailing\" version=\"1.0.0\"/>\n<plugin id=\"org.example.second\"/>\n",
+			// not XML
+			"Manifest-Version: 1.0\nBundle-SymbolicName: org.example\n",
+			// empty
+			""};
+
+	public static Test suite() {
+		return new TestSuite(PluginModelLoadingTestCase.class);
+	}
+
+	/**
+	 * Plug-in model that can be loaded abbreviated
+	 */
+	private static class PluginModel extends ExternalPluginModel {
+		private static final long serialVersionUID = 1L;
+
+		PluginModel(boolean abbreviated) {
+			fAbbreviated = abbreviated;
+			setInstallLocation("/loading/plugin");
+		}
+	}
+
+	/**
+	 * Fragment model that can be loaded abbreviated
+	 */
+	private static class FragmentModel extends ExternalFragmentModel {
+		private static final long serialVersionUID = 1L;
+
+		FragmentModel(boolean abbreviated) {
+			fAbbreviated = abbreviated;
+			setInstallLocation("/loading/fragment");
+		}
+	}
+
+	private AbstractPluginModelBase loadSAX(String contents, boolean fragment, boolean abbreviated) throws Exception {
+		AbstractPluginModelBase model = fragment ? (AbstractPluginModelBase) new FragmentModel(abbreviated) : new PluginModel(abbreviated);
+		model.load(new ByteArrayInputStream(contents.getBytes("UTF-8")), false);
+		return model;
+	}
+
+	private AbstractPluginModelBase loadDOM(String contents, boolean fragment, boolean abbreviated) throws Exception {
+		AbstractPluginModelBase model = fragment ? (AbstractPluginModelBase) new FragmentModel(abbreviated) : new PluginModel(abbreviated);
+		model.load(new ByteArrayInputStream(contents.getBytes("UTF-8")), false, new PluginHandler(abbreviated));
+		return model;
+	}
+
+	private void assertSameModel(String contents, boolean fragment, boolean abbreviated) throws Exception {
+		String expected = describe(loadDOM(contents, fragment, abbreviated));
+		String actual = describe(loadSAX(contents, fragment, abbreviated));
+		assertEquals("SAX and DOM models should be the same", expected, actual);
+	}
+
+	/**
+	 * Returns a description of everything loaded into the model
+	 */
+	private String describe(IPluginModelBase model) {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("loaded=").append(model.isLoaded()).append('\n');
+		IPluginBase base = model.getPluginBase();
+		buffer.append("id=").append(base.getId()).append(" name=").append(base.getName());
+		buffer.append(" version=").append(base.getVersion()).append(" provider=").append(base.getProviderName());
+		buffer.append(" schema=").append(base.getSchemaVersion()).append('\n');
+		if (base instanceof IPlugin)
+			buffer.append("class=").append(((IPlugin) base).getClassName()).append('\n');
+		if (base instanceof IFragment) {
+			IFragment fragment = (IFragment) base;
+			buffer.append("host=").append(fragment.getPluginId()).append(' ').append(fragment.getPluginVersion());
+			buffer.append(" rule=").append(fragment.getRule()).append('\n');
+		}
+		IPluginLibrary[] libraries = base.getLibraries();
+		for (int i = 0; i < libraries.length; i++) {
+			IPluginLibrary library = libraries[i];
+			buffer.append("library ").append(library.getName()).append(" type=").append(library.getType());
+			buffer.append(" exported=").append(library.isExported()).append(" fully=").append(library.isFullyExported());
+			buffer.append(" filters=").append(Arrays.asList(library.getContentFilters()));
+			buffer.append(" packages=").append(Arrays.asList(library.getPackages())).append('\n');
+		}
+		IPluginImport[] imports = base.getImports();
+		for (int i = 0; i < imports.length; i++) {
+			IPluginImport pluginImport = imports[i];
+			buffer.append("import ").append(pluginImport.getId()).append(" version=").append(pluginImport.getVersion());
+			buffer.append(" match=").append(pluginImport.getMatch()).append(" optional=").append(pluginImport.isOptional());
+			buffer.append(" reexported=").append(pluginImport.isReexported()).append('\n');
+		}
+		IPluginExtensionPoint[] points = base.getExtensionPoints();
+		for (int i = 0; i < points.length; i++) {
+			IPluginExtensionPoint point = points[i];
+			buffer.append("extension-point ").append(point.getId()).append(" name=").append(point.getName());
+			buffer.append(" schema=").append(point.getSchema()).append(" line=").append(((PluginObject) point).getStartLine()).append('\n');
+		}
+		IPluginExtension[] extensions = base.getExtensions();
+		for (int i = 0; i < extensions.length; i++) {
+			IPluginExtension extension = extensions[i];
+			buffer.append("extension ").append(extension.getPoint()).append(" id=").append(extension.getId());
+			buffer.append(" name=").append(extension.getName()).append(" line=").append(((PluginObject) extension).getStartLine()).append('\n');
+			describe(extension.getChildren(), "  ", buffer);
+		}
+		return buffer.toString();
+	}
+
+	private void describe(IPluginObject[] children, String indent, StringBuffer buffer) {
+		for (int i = 0; i < children.length; i++) {
+			IPluginElement element = (IPluginElement) children[i];
+			buffer.append(indent).append(element.getName());
+			Map attributes = new TreeMap();
+			IPluginAttribute[] list = element.getAttributes();
+			for (int j = 0; j < list.length; j++) {
+				attributes.put(list[j].getName(), list[j].getValue());
+			}
+			buffer.append(' ').append(attributes).append(" text=").append(element.getText()).append('\n');
+			describe(element.getChildren(), indent + "  ", buffer);
+		}
+	}
+
+	public void testPlugin() throws Exception {
+		assertSameModel(PLUGIN, false, false);
+	}
+
+	public void testPluginAbbreviated() throws Exception {
+		assertSameModel(PLUGIN, false, true);
+	}
+
+	public void testFragment() throws Exception {
+		assertSameModel(FRAGMENT, true, false);
+	}
+
+	public void testFragmentAbbreviated() throws Exception {
+		assertSameModel(FRAGMENT, true, true);
+	}
+
+	public void testMalformed() throws Exception {
+		for (int i = 0; i < MALFORMED.length; i++) {
+			assertSameModel(MALFORMED[i], false, false);
+			assertSameModel(MALFORMED[i], true, false);
+			assertSameModel(MALFORMED[i], false, true);
+		}
+	}
+
+	/**
+	 * A file that cannot be parsed leaves an empty model that is not loaded, not the
+	 * objects read before the error.
+	 */
+	public void testMalformedNotLoaded() throws Exception {
+		IPluginModelBase model = loadSAX(MALFORMED[0], false, false);
+		assertFalse("Model should not be loaded", model.isLoaded());
+		assertEquals("No extensions should be loaded", 0, model.getPluginBase().getExtensions().length);
+		assertEquals("Id should not be loaded", "", model.getPluginBase().getId());
+	}
+
+	/**
+	 * The text of an element is the last run of text between its child elements, CDATA
+	 * sections and character references are part of the text, comments are skipped.
+	 */
+	public void testElementText() throws Exception {
+		IPluginModelBase model = loadSAX(PLUGIN, false, false);
+		IPluginExtension extension = model.getPluginBase().getExtensions()[2];
+		IPluginObject[] points = extension.getChildren();
+		assertEquals("Wrong number of elements", 5, points.length);
+		assertEquals("Wrong text after child", "trailing text", ((IPluginElement) points[0]).getText());
+		assertEquals("Wrong CDATA text", "before <b>markup</b> after", ((IPluginElement) points[1]).getText());
+		assertEquals("Wrong text around comment", "firstsecond", ((IPluginElement) points[2]).getText());
+		assertEquals("Wrong escaped text", "<escaped> & A", ((IPluginElement) points[3]).getText());
+		assertNull("Blank text should be ignored", ((IPluginElement) points[4]).getText());
+	}
+}
@@ -22,6 +22,10 @@ public class PDEPerformanceTests {
 		suite.addTest(SchemaTraversePerfTest.suite());
 		suite.addTest(OpenManifestEditorPerfTest.suite());
 		suite.addTest(TargetPlatformPerfTest.suite());
+		suite.addTest(DependencyCyclePerfTest.suite());
+		suite.addTest(XMLValidationPerfTest.suite());
+		suite.addTest(PluginSearchPerfTest.suite());
+		suite.addTest(AuxiliaryStatePerfTest.suite());
 		return suite;
 	}
 
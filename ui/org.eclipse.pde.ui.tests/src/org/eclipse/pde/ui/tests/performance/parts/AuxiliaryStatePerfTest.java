@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.io.*;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateObjectFactory;
+import org.eclipse.pde.internal.core.PDEAuxiliaryState;
+import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.internal.ui.tests.macro.MacroPlugin;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests the time it takes to read the auxiliary plug-in info of a target of 3,000 bundles
+ * at startup, from the binary cache file and from the xml file of previous versions.
+ * The time includes looking up the info of a tenth of the bundles, as opening the
+ * Plug-ins view or a launch configuration does.
+ */
+public class AuxiliaryStatePerfTest extends PerformanceTestCase {
+
+	private static final int BUNDLES = 3000;
+
+	private File fDir;
+
+	/**
+	 * Gives access to the protected methods of the state
+	 */
+	private static class TestState extends PDEAuxiliaryState {
+		private static final State STATE = StateObjectFactory.defaultFactory.createState(false);
+
+		void add(long id, Dictionary manifest) throws BundleException {
+			addAuxiliaryData(StateObjectFactory.defaultFactory.createBundleDescription(STATE, manifest, "bundle" + id, id), manifest, true); //$NON-NLS-1$
+		}
+
+		boolean read(File dir) {
+			return readPluginInfoCache(dir);
+		}
+
+		void save(File dir) {
+			savePluginInfo(dir);
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(AuxiliaryStatePerfTest.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDir = MacroPlugin.getDefault().getStateLocation().append("auxiliaryStatePerf").toFile(); //$NON-NLS-1$
+		CoreUtility.deleteContent(fDir);
+		fDir.mkdirs();
+	}
+
+	protected void tearDown() throws Exception {
+		CoreUtility.deleteContent(fDir);
+		super.tearDown();
+	}
+
+	/**
+	 * Writes the binary cache of the synthetic target
+	 */
+	private void writeBinaryCache() throws BundleException {
+		TestState state = new TestState();
+		for (int i = 0; i < BUNDLES; i++) {
+			Dictionary manifest = new Hashtable();
+			manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2"); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_SYMBOLICNAME, "org.eclipse.test.bundle" + i); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_VERSION, "1.0.0"); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_NAME, "%pluginName"); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_VENDOR, "%providerName"); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_ACTIVATOR, "org.eclipse.test.bundle" + i + ".Activator"); //$NON-NLS-1$ //$NON-NLS-2$
+			manifest.put(Constants.BUNDLE_CLASSPATH, "."); //$NON-NLS-1$
+			manifest.put(Constants.BUNDLE_LOCALIZATION, "plugin"); //$NON-NLS-1$
+			state.add(i, manifest);
+		}
+		state.save(fDir);
+	}
+
+	/**
+	 * Writes the synthetic target in the xml format of previous versions
+	 */
+	private void writeXmlCache() throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(fDir, ".pluginInfo")), "UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<map>\n"); //$NON-NLS-1$
+			for (int i = 0; i < BUNDLES; i++) {
+				writer.write("<bundle bundleID=\"" + i + "\" class=\"org.eclipse.test.bundle" + i + ".Activator\" provider=\"%providerName\" name=\"%pluginName\" localization=\"plugin\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				writer.write("<library name=\".\"/>\n</bundle>\n"); //$NON-NLS-1$
+			}
+			writer.write("</map>\n"); //$NON-NLS-1$
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void readCache() {
+		TestState state = new TestState();
+		assertTrue("The cache should be read", state.read(fDir)); //$NON-NLS-1$
+		for (int i = 0; i < BUNDLES; i += 10) {
+			assertNotNull(state.getClassName(i));
+		}
+	}
+
+	private void measureRead() {
+		// Warm-up Iterations
+		for (int i = 0; i < 10; i++) {
+			readCache();
+		}
+		// Test Iterations
+		for (int i = 0; i < 50; i++) {
+			startMeasuring();
+			readCache();
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testReadBinaryCache() throws Exception {
+		tagAsSummary("Read plug-in infos of 3,000 bundles", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		writeBinaryCache();
+		measureRead();
+	}
+
+	public void testReadXmlCache() throws Exception {
+		writeXmlCache();
+		measureRead();
+	}
+
+}
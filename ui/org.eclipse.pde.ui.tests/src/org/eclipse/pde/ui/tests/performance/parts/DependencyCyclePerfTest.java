@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.pde.internal.core.util.StronglyConnectedComponents;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+/**
+ * Tests the time it takes to find the dependency cycles of a synthetic graph of 10,000 plug-ins.
+ *
+ * The graph consists of rings of 10 plug-ins, each importing the next plug-in of its ring and
+ * a few random plug-ins of the previous rings, so every ring is one cycle.
+ */
+public class DependencyCyclePerfTest extends PerformanceTestCase {
+
+	private static final int NODES = 10000;
+	private static final int RING_SIZE = 10;
+	private static final int EXTRA_IMPORTS = 4;
+
+	public static Test suite() {
+		return new TestSuite(DependencyCyclePerfTest.class);
+	}
+
+	/**
+	 * Creates the synthetic dependency graph
+	 * @return the imports of each plug-in
+	 */
+	private int[][] createGraph() {
+		Random random = new Random(42);
+		int[][] graph = new int[NODES][];
+		for (int i = 0; i < NODES; i++) {
+			int ring = i / RING_SIZE;
+			int extra = ring == 0 ? 0 : EXTRA_IMPORTS;
+			graph[i] = new int[1 + extra];
+			graph[i][0] = ring * RING_SIZE + (i + 1) % RING_SIZE;
+			for (int j = 0; j < extra; j++) {
+				graph[i][1 + j] = random.nextInt(ring * RING_SIZE);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Computes the strongly connected components of the synthetic graph
+	 */
+	public void testFindCycles() throws Exception {
+		tagAsSummary("Find dependency cycles", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		int[][] graph = createGraph();
+
+		StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+		assertEquals("Every ring should be a component", NODES / RING_SIZE, components.getComponentCount()); //$NON-NLS-1$
+		for (int i = 0; i < components.getComponentCount(); i++) {
+			assertEquals("Wrong component size", RING_SIZE, components.getSize(i)); //$NON-NLS-1$
+		}
+
+		// Warm-up Iterations
+		for (int i = 0; i < 10; i++) {
+			new StronglyConnectedComponents(graph);
+		}
+		// Test Iterations
+		for (int i = 0; i < 100; i++) {
+			startMeasuring();
+			new StronglyConnectedComponents(graph);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.plugin.ExternalPluginModel;
+import org.eclipse.pde.internal.core.search.*;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+/**
+ * Tests the time it takes to search a synthetic registry of 5,000 plug-ins with a
+ * {@link PluginSearchIndex}.
+ *
+ * Each plug-in belongs to one of 50 groups, imports a few random plug-ins, declares two
+ * extension points and extends a few random extension points.  The searches cover exact,
+ * prefix and infix patterns for all the kinds of elements.
+ */
+public class PluginSearchPerfTest extends PerformanceTestCase {
+
+	private static final int PLUGINS = 5000;
+	private static final int GROUPS = 50;
+	private static final int IMPORTS = 4;
+	private static final int EXTENSIONS = 3;
+
+	private static final String[] SEARCH_STRINGS = new String[] {"org.example.group7.bundle1207", "org.example.group12.*", "*bundle42*", "org.example.group3.bundle303.point1", "*BUNDLE49*.point?", "org.example.group2?.bundle2*.point0"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	private static final int[] SEARCH_ELEMENTS = new int[] {PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.ELEMENT_EXTENSION_POINT};
+	private static final int[] SEARCH_LIMITS = new int[] {PluginSearchInput.LIMIT_ALL, PluginSearchInput.LIMIT_DECLARATIONS, PluginSearchInput.LIMIT_REFERENCES, PluginSearchInput.LIMIT_ALL, PluginSearchInput.LIMIT_REFERENCES, PluginSearchInput.LIMIT_DECLARATIONS};
+
+	private IPluginModelBase[] fModels;
+
+	public static Test suite() {
+		return new TestSuite(PluginSearchPerfTest.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		Random random = new Random(42);
+		fModels = new IPluginModelBase[PLUGINS];
+		for (int i = 0; i < PLUGINS; i++) {
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+			buffer.append("<plugin id=\"").append(getId(i)).append("\" version=\"1.0.0\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buffer.append("<requires>\n"); //$NON-NLS-1$
+			for (int j = 0; j < IMPORTS; j++) {
+				buffer.append("<import plugin=\"").append(getId(random.nextInt(PLUGINS))).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			buffer.append("</requires>\n"); //$NON-NLS-1$
+			buffer.append("<extension-point id=\"point0\" name=\"Point 0\"/>\n"); //$NON-NLS-1$
+			buffer.append("<extension-point id=\"point1\" name=\"Point 1\"/>\n"); //$NON-NLS-1$
+			for (int j = 0; j < EXTENSIONS; j++) {
+				buffer.append("<extension point=\"").append(getId(random.nextInt(PLUGINS))).append(".point").append(random.nextInt(2)).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			buffer.append("</plugin>\n"); //$NON-NLS-1$
+			ExternalPluginModel model = new ExternalPluginModel();
+			model.setInstallLocation("/synthetic/" + getId(i)); //$NON-NLS-1$
+			model.load(new ByteArrayInputStream(buffer.toString().getBytes("UTF-8")), false); //$NON-NLS-1$
+			fModels[i] = model;
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		fModels = null;
+		super.tearDown();
+	}
+
+	private static String getId(int plugin) {
+		return "org.example.group" + plugin % GROUPS + ".bundle" + plugin; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Runs the given query on the synthetic models
+	 * @param query index of the query
+	 * @param index the index to search or <code>null</code> to visit every model
+	 * @return the matches found
+	 */
+	private List search(int query, PluginSearchIndex index) {
+		PluginSearchInput input = new PluginSearchInput();
+		input.setSearchString(SEARCH_STRINGS[query]);
+		input.setSearchElement(SEARCH_ELEMENTS[query]);
+		input.setSearchLimit(SEARCH_LIMITS[query]);
+		input.setCaseSensitive(false);
+		input.setSearchScope(new PluginSearchScope() {
+			public IPluginModelBase[] getMatchingModels() {
+				return fModels;
+			}
+		});
+		final List matches = new ArrayList();
+		new PluginSearchOperation(input, new ISearchResultCollector() {
+			public void accept(Object match) {
+				matches.add(match);
+			}
+		}, index).execute(new NullProgressMonitor());
+		return matches;
+	}
+
+	/**
+	 * Runs the queries with an index of the synthetic models
+	 */
+	public void testIndexedSearch() throws Exception {
+		tagAsSummary("Search plug-ins with an index", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		PluginSearchIndex index = new PluginSearchIndex();
+		for (int i = 0; i < fModels.length; i++) {
+			index.add(fModels[i]);
+		}
+
+		for (int i = 0; i < SEARCH_STRINGS.length; i++) {
+			List expected = search(i, null);
+			assertFalse("Query should have matches: " + SEARCH_STRINGS[i], expected.isEmpty()); //$NON-NLS-1$
+			assertEquals("Index should find the same matches: " + SEARCH_STRINGS[i], expected, search(i, index)); //$NON-NLS-1$
+		}
+
+		// Warm-up Iterations
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < SEARCH_STRINGS.length; j++) {
+				search(j, index);
+			}
+		}
+		// Test Iterations
+		for (int i = 0; i < 100; i++) {
+			startMeasuring();
+			for (int j = 0; j < SEARCH_STRINGS.length; j++) {
+				search(j, index);
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+}
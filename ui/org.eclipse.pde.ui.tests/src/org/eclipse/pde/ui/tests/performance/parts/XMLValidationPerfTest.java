@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.io.ByteArrayInputStream;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.internal.core.builders.DefaultSAXParser;
+import org.eclipse.pde.internal.core.builders.XMLErrorReporter;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+import org.w3c.dom.*;
+
+/**
+ * Tests the time it takes to parse a large plugin.xml file for validation and to locate
+ * the line of every element, attribute and text content, as the error reporters do.
+ */
+public class XMLValidationPerfTest extends PerformanceTestCase {
+
+	private static final int EXTENSIONS = 2000;
+	private static final int ELEMENTS = 5;
+
+	private IProject fProject;
+	private IFile fFile;
+
+	/**
+	 * Reporter that locates every element and attribute of the file
+	 */
+	private static class LocatingReporter extends XMLErrorReporter {
+		int fLocated;
+
+		LocatingReporter(IFile file) {
+			super(file);
+		}
+
+		public void validateContent(IProgressMonitor monitor) {
+			Element root = getDocumentRoot();
+			if (root != null)
+				locate(root);
+		}
+
+		private void locate(Element element) {
+			getLine(element);
+			fLocated++;
+			NamedNodeMap attributes = element.getAttributes();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				getLine(element, attributes.item(i).getNodeName());
+				fLocated++;
+			}
+			NodeList children = element.getChildNodes();
+			boolean hasChildElements = false;
+			for (int i = 0; i < children.getLength(); i++) {
+				if (children.item(i) instanceof Element) {
+					hasChildElements = true;
+					locate((Element) children.item(i));
+				}
+			}
+			if (!hasChildElements)
+				getTextContent(element);
+		}
+
+		int getAttributeLine(Element element, String attName) {
+			return getLine(element, attName);
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(XMLValidationPerfTest.class);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.test.performance.PerformanceTestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject("XMLValidationPerfTest");
+		if (!fProject.exists())
+			fProject.create(null);
+		fProject.open(null);
+		fFile = fProject.getFile("plugin.xml");
+		ByteArrayInputStream stream = new ByteArrayInputStream(createPluginXML().getBytes("UTF-8"));
+		if (fFile.exists())
+			fFile.setContents(stream, true, false, null);
+		else
+			fFile.create(stream, true, null);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.test.performance.PerformanceTestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception {
+		fProject.delete(true, true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a plugin.xml file with many extensions and elements
+	 * @return the contents of the file
+	 */
+	private String createPluginXML() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<?eclipse version=\"3.4\"?>\n<plugin>\n");
+		for (int i = 0; i < EXTENSIONS; i++) {
+			buffer.append("   <!-- extension ").append(i).append(" -->\n");
+			buffer.append("   <extension\n         id=\"extension").append(i).append("\"\n         point=\"org.eclipse.ui.views\">\n");
+			for (int j = 0; j < ELEMENTS; j++) {
+				buffer.append("      <view\n            class=\"org.eclipse.test.View").append(j).append("\"\n");
+				buffer.append("            id=\"org.eclipse.test.view").append(i).append('.').append(j).append("\"\n");
+				buffer.append("            name=\"View &amp; ").append(j).append("\">\n");
+				buffer.append("         <description>Description of view ").append(j).append("</description>\n");
+				buffer.append("      </view>\n");
+			}
+			buffer.append("   </extension>\n");
+		}
+		buffer.append("</plugin>\n");
+		return buffer.toString();
+	}
+
+	/**
+	 * Parses the file and locates every element and attribute
+	 */
+	public void testValidateLargePluginXML() throws Exception {
+		tagAsSummary("Validate large plugin.xml", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+
+		LocatingReporter reporter = new LocatingReporter(fFile);
+		DefaultSAXParser.parse(fFile, reporter);
+		reporter.validateContent(null);
+		assertEquals("Wrong number of located nodes", 1 + EXTENSIONS * 3 + EXTENSIONS * ELEMENTS * 5, reporter.fLocated);
+		assertEquals("Wrong line", 6, reporter.getAttributeLine((Element) reporter.getDocumentRoot().getElementsByTagName("extension").item(0), "id"));
+
+		// Warm-up Iterations
+		for (int i = 0; i < 3; i++) {
+			reporter = new LocatingReporter(fFile);
+			DefaultSAXParser.parse(fFile, reporter);
+			reporter.validateContent(null);
+		}
+		// Test Iterations
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			reporter = new LocatingReporter(fFile);
+			DefaultSAXParser.parse(fFile, reporter);
+			reporter.validateContent(null);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.ischema.ISchemaAttribute;
+import org.eclipse.pde.internal.core.ischema.ISchemaElement;
+import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.schema.CompiledSchema;
+import org.eclipse.pde.internal.core.schema.SchemaRegistry;
+
+/**
+ * Tests that the compiled form of an extension point schema is reused while neither the
+ * schema nor the schemas it includes change, and compiled again when one of them does.
+ *
+ * @since 3.8
+ */
+public class CompiledSchemaTests extends TestCase {
+
+	private static final String PROJECT = "test.schema.include";
+	private static final String POINT = PROJECT + ".point";
+
+	private static final String PLUGIN_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<?eclipse version=\"3.4\"?>\n"
+			+ "<plugin>\n"
+			+ "   <extension-point id=\"point\" name=\"Point\" schema=\"schema/point.exsd\"/>\n"
+			+ "</plugin>\n";
+
+	private static final String POINT_SCHEMA = "<?xml version='1.0' encoding='UTF-8'?>\n"
+			+ "<schema targetNamespace=\"" + PROJECT + "\" xmlns=\"http://www.w3.org/2001/XMLSchema\">\n"
+			+ "<annotation><appInfo><meta.schema plugin=\"" + PROJECT + "\" id=\"point\" name=\"Point\"/></appInfo></annotation>\n"
+			+ "<include schemaLocation=\"included.exsd\"/>\n"
+			+ "<element name=\"extension\"><complexType>\n"
+			+ "<sequence><element ref=\"item\" minOccurs=\"0\" maxOccurs=\"unbounded\"/></sequence>\n"
+			+ "<attribute name=\"point\" type=\"string\" use=\"required\"/>\n"
+			+ "</complexType></element>\n"
+			+ "</schema>\n";
+
+	public static Test suite() {
+		return new TestSuite(CompiledSchemaTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		getProject().delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	private IProject getProject() {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+	}
+
+	/**
+	 * Returns an included schema declaring the item element with the given attributes
+	 */
+	private String getIncludedSchema(String[] attributes) {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+		buffer.append("<schema targetNamespace=\"" + PROJECT + "\" xmlns=\"http://www.w3.org/2001/XMLSchema\">\n");
+		buffer.append("<annotation><appInfo><meta.schema plugin=\"" + PROJECT + "\" id=\"included\" name=\"Included\"/></appInfo></annotation>\n");
+		buffer.append("<element name=\"item\"><complexType>\n");
+		for (int i = 0; i < attributes.length; i++) {
+			buffer.append("<attribute name=\"" + attributes[i] + "\" type=\"string\" use=\"required\"/>\n");
+		}
+		buffer.append("</complexType></element>\n");
+		buffer.append("</schema>\n");
+		return buffer.toString();
+	}
+
+	private void setContents(IFile file, String contents) throws CoreException {
+		ByteArrayInputStream stream = new ByteArrayInputStream(contents.getBytes());
+		if (file.exists())
+			file.setContents(stream, true, false, null);
+		else
+			file.create(stream, true, null);
+	}
+
+	/**
+	 * Returns the names of the required attributes of the item element in the compiled schema
+	 */
+	private String[] getRequiredAttributes(CompiledSchema compiled) {
+		ISchemaElement item = compiled.getSchema().findElement("item");
+		assertNotNull("The included element should be found", item);
+		CompiledSchema.CompiledElement element = compiled.getElement(item);
+		assertNotNull("The included element should be compiled", element);
+		ISchemaAttribute[] attributes = element.getRequiredAttributes();
+		String[] names = new String[attributes.length];
+		for (int i = 0; i < attributes.length; i++) {
+			names[i] = attributes[i].getName();
+		}
+		return names;
+	}
+
+	public void testIncludedSchemaChange() throws Exception {
+		IProject project = getProject();
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(project);
+		description.setSymbolicName(PROJECT);
+		description.setSingleton(true);
+		description.apply(null);
+		project.getFolder("schema").create(true, true, null);
+		setContents(project.getFile("schema/point.exsd"), POINT_SCHEMA);
+		IFile included = project.getFile("schema/included.exsd");
+		setContents(included, getIncludedSchema(new String[] {"name"}));
+		setContents(PDEProject.getPluginXml(project), PLUGIN_XML);
+		ProjectCreationTests.waitForBuild();
+
+		SchemaRegistry registry = PDECore.getDefault().getSchemaRegistry();
+		CompiledSchema compiled = registry.getCompiledSchema(POINT);
+		assertNotNull("The schema should be compiled", compiled);
+		String[] attributes = getRequiredAttributes(compiled);
+		assertEquals(1, attributes.length);
+		assertEquals("name", attributes[0]);
+		assertSame("An unchanged schema should not be compiled again", compiled, registry.getCompiledSchema(POINT));
+
+		// the registry reloads schemas whose time stamp changed
+		File file = included.getLocation().toFile();
+		long lastModified = file.lastModified();
+		setContents(included, getIncludedSchema(new String[] {"name", "value"}));
+		file.setLastModified(lastModified + 10000);
+
+		CompiledSchema recompiled = registry.getCompiledSchema(POINT);
+		assertNotSame("A change to an included schema should compile the including schema again", compiled, recompiled);
+		assertSame("The including schema itself did not change", compiled.getSchema(), recompiled.getSchema());
+		attributes = getRequiredAttributes(recompiled);
+		assertEquals(2, attributes.length);
+		assertEquals("name", attributes[0]);
+		assertEquals("value", attributes[1]);
+		assertSame("The recompiled schema should be reused", recompiled, registry.getCompiledSchema(POINT));
+	}
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.builders.DependencyLoop;
+import org.eclipse.pde.internal.core.builders.DependencyLoopFinder;
+
+/**
+ * Tests the dependency loops reported for workspace plug-ins.
+ *
+ * @since 3.8
+ */
+public class DependencyLoopFinderTests extends TestCase {
+
+	private List fProjects = new ArrayList();
+
+	public static Test suite() {
+		return new TestSuite(DependencyLoopFinderTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		for (Iterator iterator = fProjects.iterator(); iterator.hasNext();) {
+			((IProject) iterator.next()).delete(true, null);
+		}
+		fProjects.clear();
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a bundle project requiring the given bundles, as a fragment of the host when
+	 * the host is not <code>null</code>
+	 */
+	private void createBundle(String id, String host, String[] required) throws CoreException {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(id);
+		assertFalse("Project should not exist", project.exists());
+		IBundleProjectDescription description = service.getDescription(project);
+		description.setSymbolicName(id);
+		if (host != null)
+			description.setHost(service.newHost(host, null));
+		IRequiredBundleDescription[] bundles = new IRequiredBundleDescription[required.length];
+		for (int i = 0; i < required.length; i++) {
+			bundles[i] = service.newRequiredBundle(required[i], null, false, false);
+		}
+		description.setRequiredBundles(bundles);
+		description.apply(null);
+		fProjects.add(project);
+	}
+
+	private IPlugin getPlugin(String id) {
+		IPluginModelBase model = PluginRegistry.findModel(id);
+		assertNotNull("Missing model for " + id, model);
+		return (IPlugin) model.getPluginBase();
+	}
+
+	/**
+	 * Asserts the ids of the members of the loop, which start with the plug-in the loops
+	 * were computed for
+	 */
+	private void assertMembers(String[] expected, DependencyLoop loop) {
+		IPluginBase[] members = loop.getMembers();
+		String[] ids = new String[members.length];
+		for (int i = 0; i < members.length; i++) {
+			ids[i] = members[i].getId();
+		}
+		assertEquals("Wrong loop members", Arrays.asList(expected), Arrays.asList(ids));
+	}
+
+	/**
+	 * A plug-in requiring itself is a loop of one plug-in
+	 */
+	public void testSelfLoop() throws Exception {
+		createBundle("test.loop.a", null, new String[] {"test.loop.a"});
+		ProjectCreationTests.waitForBuild();
+		DependencyLoop[] loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.a"));
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.a"}, loops[0]);
+	}
+
+	/**
+	 * Two plug-ins requiring each other are a loop from either of them
+	 */
+	public void testTwoPluginLoop() throws Exception {
+		createBundle("test.loop.a", null, new String[] {"test.loop.b"});
+		createBundle("test.loop.b", null, new String[] {"test.loop.a"});
+		ProjectCreationTests.waitForBuild();
+		DependencyLoop[] loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.a"));
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.a", "test.loop.b"}, loops[0]);
+		loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.b"));
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.b", "test.loop.a"}, loops[0]);
+	}
+
+	/**
+	 * One loop is reported for each dependency of the plug-in leading back to it, following
+	 * the shortest chain, and loops the plug-in is not part of are not reported
+	 */
+	public void testNestedLoops() throws Exception {
+		createBundle("test.loop.a", null, new String[] {"test.loop.b", "test.loop.d"});
+		createBundle("test.loop.b", null, new String[] {"test.loop.a", "test.loop.c"});
+		createBundle("test.loop.c", null, new String[] {"test.loop.a"});
+		createBundle("test.loop.d", null, new String[] {"test.loop.e"});
+		createBundle("test.loop.e", null, new String[] {"test.loop.d"});
+		ProjectCreationTests.waitForBuild();
+		DependencyLoop[] loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.a"));
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.a", "test.loop.b"}, loops[0]);
+
+		loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.b"));
+		assertEquals("Wrong number of loops", 2, loops.length);
+		assertMembers(new String[] {"test.loop.b", "test.loop.a"}, loops[0]);
+		assertMembers(new String[] {"test.loop.b", "test.loop.c", "test.loop.a"}, loops[1]);
+
+		loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.d"));
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.d", "test.loop.e"}, loops[0]);
+	}
+
+	/**
+	 * The requirements of fragments are not followed, so a fragment requiring a plug-in
+	 * that requires its host does not make a loop
+	 */
+	public void testFragment() throws Exception {
+		createBundle("test.loop.a", null, new String[] {"test.loop.b"});
+		createBundle("test.loop.b", null, new String[0]);
+		createBundle("test.loop.f", "test.loop.b", new String[] {"test.loop.a"});
+		ProjectCreationTests.waitForBuild();
+		assertEquals("A fragment should not make a loop", 0, DependencyLoopFinder.findLoops(getPlugin("test.loop.a")).length);
+		assertEquals("A fragment should not make a loop", 0, DependencyLoopFinder.findLoops(getPlugin("test.loop.b")).length);
+	}
+
+	/**
+	 * Candidates are considered dependencies of the plug-in, in addition to or instead of
+	 * its requirements
+	 */
+	public void testCandidates() throws Exception {
+		createBundle("test.loop.a", null, new String[] {"test.loop.c"});
+		createBundle("test.loop.b", null, new String[] {"test.loop.a"});
+		createBundle("test.loop.c", null, new String[] {"test.loop.a"});
+		ProjectCreationTests.waitForBuild();
+		IPlugin[] candidates = new IPlugin[] {getPlugin("test.loop.b")};
+		DependencyLoop[] loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.a"), candidates);
+		assertEquals("Wrong number of loops", 2, loops.length);
+		assertMembers(new String[] {"test.loop.a", "test.loop.c"}, loops[0]);
+		assertMembers(new String[] {"test.loop.a", "test.loop.b"}, loops[1]);
+
+		loops = DependencyLoopFinder.findLoops(getPlugin("test.loop.a"), candidates, true);
+		assertEquals("Wrong number of loops", 1, loops.length);
+		assertMembers(new String[] {"test.loop.a", "test.loop.b"}, loops[0]);
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.internal.core.FeatureModelManager;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.ifeature.IFeatureModel;
+import org.eclipse.pde.internal.core.natures.PDE;
+import org.eclipse.pde.internal.core.project.PDEProject;
+
+/**
+ * Tests that feature models can be looked up while workspace features are added and
+ * removed on another thread, each lookup seeing either the table before or after a change.
+ *
+ * @since 3.8
+ */
+public class FeatureModelManagerTests extends TestCase {
+
+	private static final String STABLE = "test.feature.stable";
+	private static final String TOGGLED = "test.feature.toggled";
+	private static final String SHADOW = "test.feature.shadow";
+	private static final String VERSION = "1.0.0";
+
+	private static final int READERS = 4;
+	private static final int CHANGES = 20;
+
+	private volatile boolean fDone;
+
+	public static Test suite() {
+		return new TestSuite(FeatureModelManagerTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		String[] names = new String[] {STABLE, TOGGLED, SHADOW};
+		for (int i = 0; i < names.length; i++) {
+			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(names[i]);
+			if (project.exists())
+				project.delete(true, null);
+		}
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	private IProject createFeatureProject(String name) throws CoreException {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		project.create(null);
+		project.open(null);
+		IProjectDescription description = project.getDescription();
+		description.setNatureIds(new String[] {PDE.FEATURE_NATURE});
+		project.setDescription(description, null);
+		return project;
+	}
+
+	private void createFeatureXml(IProject project, String id, String version) throws CoreException {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<feature id=\"" + id + "\" label=\"" + id + "\" version=\"" + version + "\">\n</feature>\n";
+		PDEProject.getFeatureXml(project).create(new ByteArrayInputStream(xml.getBytes()), true, null);
+	}
+
+	/**
+	 * Returns a valid external feature, or <code>null</code> if the target has none
+	 */
+	private IFeatureModel findExternalFeature(FeatureModelManager manager) {
+		IFeatureModel[] models = manager.getExternalModels();
+		for (int i = 0; i < models.length; i++) {
+			if (models[i].isValid() && manager.findFeatureModel(models[i].getFeature().getId(), models[i].getFeature().getVersion()) == models[i])
+				return models[i];
+		}
+		return null;
+	}
+
+	/**
+	 * Readers always find the features that do not change while other features are added and
+	 * removed, including a workspace feature replacing an external feature with the same id
+	 * and version
+	 */
+	public void testConcurrentReads() throws Exception {
+		final FeatureModelManager manager = PDECore.getDefault().getFeatureModelManager();
+		createFeatureXml(createFeatureProject(STABLE), STABLE, VERSION);
+		assertNotNull(manager.findFeatureModel(STABLE, VERSION));
+		final IFeatureModel external = findExternalFeature(manager);
+		IProject toggled = createFeatureProject(TOGGLED);
+		IProject shadow = createFeatureProject(SHADOW);
+
+		final List errors = Collections.synchronizedList(new ArrayList());
+		Thread[] readers = new Thread[READERS];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread("FeatureModelManagerTests") {
+				public void run() {
+					try {
+						while (!fDone) {
+							if (manager.findFeatureModel(STABLE, VERSION) == null)
+								errors.add("The stable feature was not found");
+							IFeatureModel[] models = manager.findFeatureModels(TOGGLED);
+							if (models.length > 1)
+								errors.add("The toggled feature was found " + models.length + " times");
+							if (external != null && manager.findFeatureModel(external.getFeature().getId(), external.getFeature().getVersion()) == null)
+								errors.add("Neither the external feature nor the workspace feature replacing it was found");
+							manager.getModels();
+						}
+					} catch (Throwable e) {
+						errors.add(e.toString());
+					}
+				}
+			};
+			readers[i].start();
+		}
+		try {
+			for (int i = 0; i < CHANGES; i++) {
+				createFeatureXml(toggled, TOGGLED, VERSION);
+				if (external != null)
+					createFeatureXml(shadow, external.getFeature().getId(), external.getFeature().getVersion());
+				assertNotNull("The added feature should be found", manager.findFeatureModel(TOGGLED, VERSION));
+				if (external != null)
+					assertNotSame("The workspace feature should replace the external feature", external, manager.findFeatureModel(external.getFeature().getId(), external.getFeature().getVersion()));
+
+				PDEProject.getFeatureXml(toggled).delete(true, null);
+				if (external != null)
+					PDEProject.getFeatureXml(shadow).delete(true, null);
+				assertNull("The removed feature should not be found", manager.findFeatureModel(TOGGLED, VERSION));
+				if (external != null)
+					assertSame("The external feature should be active again", external, manager.findFeatureModel(external.getFeature().getId(), external.getFeature().getVersion()));
+			}
+		} finally {
+			fDone = true;
+			for (int i = 0; i < readers.length; i++) {
+				readers[i].join(30000);
+			}
+		}
+		assertEquals("Lookups failed while the features changed: " + errors, 0, errors.size());
+	}
+}
@@ -14,12 +14,15 @@ import junit.framework.*;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.osgi.service.resolver.VersionRange;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.core.plugin.PluginRegistry.PluginFilter;
 import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PDEExtensionRegistry;
 import org.osgi.framework.Version;
 
 /**
@@ -153,6 +156,65 @@ public class PluginRegistryTests extends TestCase {
 		assertEquals("org.junit", models[1].getPluginBase().getId());
 	}
 	
+	/**
+	 * An external plug-in shadowed by a workspace plug-in is not reported as extending the
+	 * extension points its external version extends, nor are its extensions of extension
+	 * points that are not defined
+	 */
+	public void testWorkspaceOverTargetExtensions() throws CoreException {
+		String id = "org.eclipse.pde.ui.templates";
+		String pointId = "org.eclipse.pde.ui.pluginContent";
+		// the test plug-in extends an extension point that is not defined
+		String undefinedId = "org.eclipse.pde.ui.tests";
+		String undefinedPointId = "org.eclipse.pde.ui.tests.undefinedPoint";
+		PDEExtensionRegistry registry = PDECore.getDefault().getExtensionsRegistry();
+		assertTrue("External plug-in should extend the extension point", contains(registry.findExtensionPlugins(pointId, false), id));
+		assertTrue("External plug-in should extend the undefined extension point", contains(registry.findExtensions(undefinedPointId, false), undefinedId));
+		assertTrue("External plug-in should extend the undefined extension point when active", contains(registry.findExtensions(undefinedPointId, true), undefinedId));
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(id);
+		IProject undefinedProject = ResourcesPlugin.getWorkspace().getRoot().getProject(undefinedId);
+		try {
+			IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(project);
+			description.setSymbolicName(id);
+			description.apply(null);
+			description = ProjectCreationTests.getBundleProjectService().getDescription(undefinedProject);
+			description.setSymbolicName(undefinedId);
+			description.apply(null);
+			waitForBuild();
+
+			IPluginModelBase[] models = registry.findExtensionPlugins(pointId, false);
+			assertFalse("Shadowed external plug-in should not be returned", contains(models, id));
+			models = registry.findExtensionPlugins(pointId, true);
+			assertFalse("Shadowed external plug-in should not be returned when active", contains(models, id));
+			assertFalse("Extensions of a shadowed external plug-in should not be returned", contains(registry.findExtensions(undefinedPointId, false), undefinedId));
+			assertFalse("Extensions of a shadowed external plug-in should not be returned when active", contains(registry.findExtensions(undefinedPointId, true), undefinedId));
+		} finally {
+			if (project.exists())
+				project.delete(true, null);
+			if (undefinedProject.exists())
+				undefinedProject.delete(true, null);
+			waitForBuild();
+		}
+		assertTrue("External plug-in should extend the extension point again", contains(registry.findExtensionPlugins(pointId, false), id));
+		assertTrue("External plug-in should extend the undefined extension point again", contains(registry.findExtensions(undefinedPointId, false), undefinedId));
+	}
+
+	private boolean contains(IPluginModelBase[] models, String id) {
+		for (int i = 0; i < models.length; i++) {
+			if (id.equals(models[i].getPluginBase().getId()))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean contains(IExtension[] extensions, String contributorId) {
+		for (int i = 0; i < extensions.length; i++) {
+			if (contributorId.equals(extensions[i].getContributor().getName()))
+				return true;
+		}
+		return false;
+	}
+	
 	public void testWorkspaceOverTarget() throws CoreException {
 		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("org.junit");
 		try {
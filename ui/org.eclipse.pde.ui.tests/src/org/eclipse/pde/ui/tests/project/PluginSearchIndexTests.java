@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.Set;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.search.PluginSearchIndex;
+import org.eclipse.pde.internal.core.util.PatternConstructor;
+
+/**
+ * Tests that the default plug-in search index follows the workspace plug-ins as they are
+ * added, changed and removed.
+ *
+ * @since 3.8
+ */
+public class PluginSearchIndexTests extends TestCase {
+
+	private static final String PROJECT = "test.search.index";
+	private static final String REQUIRED = "org.eclipse.core.runtime";
+
+	public static Test suite() {
+		return new TestSuite(PluginSearchIndexTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		IProject project = getProject();
+		if (project.exists())
+			project.delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	private IProject getProject() {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+	}
+
+	/**
+	 * Returns a plugin.xml declaring the given extension point and extending it
+	 */
+	private String getPluginXml(String pointId) {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		buffer.append("<?eclipse version=\"3.4\"?>\n");
+		buffer.append("<plugin>\n");
+		buffer.append("   <extension-point id=\"" + pointId + "\" name=\"Point\"/>\n");
+		buffer.append("   <extension point=\"" + PROJECT + "." + pointId + "\"/>\n");
+		buffer.append("</plugin>\n");
+		return buffer.toString();
+	}
+
+	private void setContents(IFile file, String contents) throws CoreException {
+		ByteArrayInputStream stream = new ByteArrayInputStream(contents.getBytes());
+		if (file.exists())
+			file.setContents(stream, true, false, null);
+		else
+			file.create(stream, true, null);
+	}
+
+	/**
+	 * Returns the models found by the default index for identifiers of the given kind
+	 */
+	private Set find(int kind, String search) {
+		Set result = new HashSet();
+		PluginSearchIndex.getDefault().findModels(kind, search, PatternConstructor.createPattern(search, true), result);
+		return result;
+	}
+
+	/**
+	 * Asserts that the workspace plug-in is among the models found for the given identifier
+	 */
+	private void assertFound(String message, int kind, String search) {
+		IPluginModelBase model = PluginRegistry.findModel(PROJECT);
+		assertNotNull("The workspace plug-in should be known", model);
+		Set result = find(kind, search);
+		assertTrue(message, result.contains(model));
+	}
+
+	/**
+	 * Asserts that the workspace plug-in is not found for the given identifier, nor any other
+	 * model unless the identifier is a plug-in that other plug-ins may require
+	 */
+	private void assertNotFound(String message, int kind, String search) {
+		IPluginModelBase model = PluginRegistry.findModel(PROJECT);
+		Set result = find(kind, search);
+		assertFalse(message, model != null && result.contains(model));
+		if (kind != PluginSearchIndex.PLUGIN_REFERENCE)
+			assertTrue(message, result.isEmpty());
+	}
+
+	/**
+	 * The identifiers of a workspace plug-in are indexed when it is added, replaced when its
+	 * plugin.xml and manifest change, and dropped when it is removed
+	 */
+	public void testModelDeltas() throws Exception {
+		// build a new default index before the plug-in exists so that it is only known from deltas
+		PluginSearchIndex.shutdown();
+		PluginSearchIndex.getDefault();
+		assertNotFound("The plug-in does not exist yet", PluginSearchIndex.PLUGIN_ID, PROJECT);
+
+		IProject project = getProject();
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(project);
+		description.setSymbolicName(PROJECT);
+		description.setSingleton(true);
+		description.apply(null);
+		setContents(PDEProject.getPluginXml(project), getPluginXml("point"));
+		ProjectCreationTests.waitForBuild();
+
+		assertFound("The added plug-in should be found", PluginSearchIndex.PLUGIN_ID, PROJECT);
+		assertFound("The added plug-in should be found by pattern", PluginSearchIndex.PLUGIN_ID, "*.search.ind?x");
+		assertFound("The added extension point should be found", PluginSearchIndex.EXTENSION_POINT_ID, PROJECT + ".point");
+		assertFound("The added extension should be found", PluginSearchIndex.EXTENSION_POINT_REFERENCE, PROJECT + ".point");
+		assertNotFound("The plug-in does not require " + REQUIRED + " yet", PluginSearchIndex.PLUGIN_REFERENCE, REQUIRED);
+
+		// change the extensions
+		setContents(PDEProject.getPluginXml(project), getPluginXml("other"));
+		ProjectCreationTests.waitForBuild();
+
+		assertFound("The changed extension point should be found", PluginSearchIndex.EXTENSION_POINT_ID, PROJECT + ".other");
+		assertFound("The changed extension should be found", PluginSearchIndex.EXTENSION_POINT_REFERENCE, PROJECT + ".other");
+		assertNotFound("The removed extension point should not be found", PluginSearchIndex.EXTENSION_POINT_ID, PROJECT + ".point");
+		assertNotFound("The removed extension should not be found", PluginSearchIndex.EXTENSION_POINT_REFERENCE, PROJECT + ".point");
+
+		// change the manifest
+		description = service.getDescription(project);
+		description.setRequiredBundles(new IRequiredBundleDescription[] {service.newRequiredBundle(REQUIRED, null, false, false)});
+		description.apply(null);
+		ProjectCreationTests.waitForBuild();
+
+		assertFound("The added requirement should be found", PluginSearchIndex.PLUGIN_REFERENCE, REQUIRED);
+		assertFound("The plug-in should still be found", PluginSearchIndex.PLUGIN_ID, PROJECT);
+		assertFound("The extension point should still be found", PluginSearchIndex.EXTENSION_POINT_ID, PROJECT + ".other");
+
+		// remove the plug-in
+		IPluginModelBase model = PluginRegistry.findModel(PROJECT);
+		project.delete(true, null);
+		ProjectCreationTests.waitForBuild();
+
+		assertNull("The plug-in should be removed", PluginRegistry.findModel(PROJECT));
+		assertFalse("The removed plug-in should not be indexed", PluginSearchIndex.getDefault().contains(model));
+		assertNotFound("The removed plug-in should not be found", PluginSearchIndex.PLUGIN_ID, PROJECT);
+		assertNotFound("The extension point of the removed plug-in should not be found", PluginSearchIndex.EXTENSION_POINT_ID, PROJECT + ".other");
+		assertNotFound("The extension of the removed plug-in should not be found", PluginSearchIndex.EXTENSION_POINT_REFERENCE, PROJECT + ".other");
+		assertFalse("The requirement of the removed plug-in should not be found", find(PluginSearchIndex.PLUGIN_REFERENCE, REQUIRED).contains(model));
+	}
+}
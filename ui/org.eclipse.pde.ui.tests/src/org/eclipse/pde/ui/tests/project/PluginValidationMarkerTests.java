@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.*;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.ICoreConstants;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.builders.PDEMarkerFactory;
+import org.eclipse.pde.internal.core.project.PDEProject;
+
+/**
+ * Tests the markers created by the manifest builder, which validates the manifest,
+ * plugin.xml and build.properties of a project on worker threads and applies their
+ * marker changes once all of them are done.
+ *
+ * @since 3.8
+ */
+public class PluginValidationMarkerTests extends TestCase {
+
+	private static final String PROJECT = "test.validation.markers";
+
+	private static final String BROKEN_PLUGIN_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<?eclipse version=\"3.4\"?>\n"
+			+ "<plugin>\n"
+			+ "   <extension point=\"does.not.exist.point\">\n"
+			+ "   </extension>\n"
+			+ "</plugin>\n";
+
+	private static final String PLUGIN_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<?eclipse version=\"3.4\"?>\n"
+			+ "<plugin>\n"
+			+ "</plugin>\n";
+
+	public static Test suite() {
+		return new TestSuite(PluginValidationMarkerTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		getProject().delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	private IProject getProject() {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+	}
+
+	/**
+	 * Creates the project with the given manifest requirements, bin.includes and plugin.xml
+	 */
+	private IProject setContents(IRequiredBundleDescription[] required, IPath[] binIncludes, String pluginXml) throws CoreException {
+		IProject project = getProject();
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(project);
+		description.setSymbolicName(PROJECT);
+		description.setSingleton(true);
+		description.setExecutionEnvironments(new String[] {"J2SE-1.4"});
+		description.setRequiredBundles(required);
+		description.setBinIncludes(binIncludes);
+		description.apply(null);
+		IFile file = PDEProject.getPluginXml(project);
+		ByteArrayInputStream stream = new ByteArrayInputStream(pluginXml.getBytes());
+		if (file.exists())
+			file.setContents(stream, true, false, null);
+		else
+			file.create(stream, true, null);
+		project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		ProjectCreationTests.waitForBuild();
+		return project;
+	}
+
+	private IMarker[] getMarkers(IFile file) throws CoreException {
+		return file.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_ZERO);
+	}
+
+	private Set getMessages(IFile file) throws CoreException {
+		IMarker[] markers = getMarkers(file);
+		Set messages = new HashSet();
+		for (int i = 0; i < markers.length; i++) {
+			messages.add(markers[i].getAttribute(IMarker.MESSAGE, ""));
+		}
+		return messages;
+	}
+
+	private IMarker findMarker(IFile file, int severity) throws CoreException {
+		IMarker[] markers = getMarkers(file);
+		for (int i = 0; i < markers.length; i++) {
+			if (markers[i].getAttribute(IMarker.SEVERITY, -1) == severity)
+				return markers[i];
+		}
+		return null;
+	}
+
+	/**
+	 * Errors in all three files end up as markers on the files, and are removed once the
+	 * files are fixed.
+	 */
+	public void testMarkersOnAllFiles() throws Exception {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IProject project = setContents(new IRequiredBundleDescription[] {service.newRequiredBundle("does.not.exist", null, false, false)}, new IPath[] {new Path(ICoreConstants.MANIFEST_FOLDER_NAME)}, BROKEN_PLUGIN_XML);
+		IFile manifest = PDEProject.getManifest(project);
+		IFile pluginXml = PDEProject.getPluginXml(project);
+		IFile buildProperties = PDEProject.getBuildProperties(project);
+
+		IMarker marker = findMarker(manifest, IMarker.SEVERITY_ERROR);
+		assertNotNull("Missing unresolved requirement error on MANIFEST.MF", marker);
+		assertEquals("Wrong marker type", PDEMarkerFactory.MARKER_ID, marker.getType());
+		assertTrue("Marker should have a line number", marker.getAttribute(IMarker.LINE_NUMBER, -1) > 0);
+
+		marker = findMarker(pluginXml, IMarker.SEVERITY_ERROR);
+		assertNotNull("Missing unresolved extension point error on plugin.xml", marker);
+		assertEquals("Wrong line of the extension", 4, marker.getAttribute(IMarker.LINE_NUMBER, -1));
+
+		marker = findMarker(buildProperties, IMarker.SEVERITY_WARNING);
+		assertNotNull("Missing bin.includes warning on build.properties", marker);
+		assertTrue("Warning should be about plugin.xml", marker.getAttribute(IMarker.MESSAGE, "").indexOf(ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR) >= 0);
+
+		Set manifestMessages = getMessages(manifest);
+		Set pluginMessages = getMessages(pluginXml);
+		Set buildMessages = getMessages(buildProperties);
+
+		setContents(null, new IPath[] {new Path(ICoreConstants.MANIFEST_FOLDER_NAME), new Path(ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR)}, PLUGIN_XML);
+		assertNull("MANIFEST.MF error should be removed", findMarker(manifest, IMarker.SEVERITY_ERROR));
+		assertNull("plugin.xml error should be removed", findMarker(pluginXml, IMarker.SEVERITY_ERROR));
+		manifestMessages.retainAll(getMessages(manifest));
+		pluginMessages.retainAll(getMessages(pluginXml));
+		buildMessages.retainAll(getMessages(buildProperties));
+		assertEquals("MANIFEST.MF markers should be removed", Collections.EMPTY_SET, manifestMessages);
+		assertEquals("plugin.xml markers should be removed", Collections.EMPTY_SET, pluginMessages);
+		assertEquals("build.properties markers should be removed", Collections.EMPTY_SET, buildMessages);
+	}
+
+	/**
+	 * Deferred marker changes of the builder, accessed reflectively as the class is internal
+	 * to the builders package
+	 */
+	private static class Deferred {
+		private static Class fClass;
+		private Object fInstance;
+
+		Deferred() throws Exception {
+			if (fClass == null)
+				fClass = PDECore.class.getClassLoader().loadClass("org.eclipse.pde.internal.core.builders.DeferredMarkers");
+			Constructor constructor = fClass.getDeclaredConstructor(new Class[0]);
+			constructor.setAccessible(true);
+			fInstance = constructor.newInstance(new Object[0]);
+		}
+
+		private Object invoke(Object target, String name, Class[] types, Object[] args) throws Exception {
+			Method method = fClass.getDeclaredMethod(name, types);
+			method.setAccessible(true);
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				if (e.getTargetException() instanceof Exception)
+					throw (Exception) e.getTargetException();
+				throw e;
+			}
+		}
+
+		void install() throws Exception {
+			invoke(fInstance, "install", new Class[0], new Object[0]);
+		}
+
+		void uninstall() throws Exception {
+			invoke(fInstance, "uninstall", new Class[0], new Object[0]);
+		}
+
+		void apply() throws Exception {
+			invoke(fInstance, "apply", new Class[0], new Object[0]);
+		}
+
+		IMarker createMarker(IResource resource, String type) throws Exception {
+			return (IMarker) invoke(null, "createMarker", new Class[] {IResource.class, String.class}, new Object[] {resource, type});
+		}
+
+		void deleteMarkers(IResource resource, String type) throws Exception {
+			invoke(null, "deleteMarkers", new Class[] {IResource.class, String.class, boolean.class, int.class}, new Object[] {resource, type, Boolean.FALSE, new Integer(IResource.DEPTH_ZERO)});
+		}
+	}
+
+	/**
+	 * Runs the given work on another thread and waits for it
+	 */
+	private void runOnWorker(final Deferred deferred, final IWorkspaceRunnable work) throws Exception {
+		final Exception[] failure = new Exception[1];
+		Thread thread = new Thread("Validation worker") {
+			public void run() {
+				try {
+					deferred.install();
+					try {
+						work.run(null);
+					} finally {
+						deferred.uninstall();
+					}
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			}
+		};
+		thread.start();
+		thread.join();
+		if (failure[0] != null)
+			throw failure[0];
+	}
+
+	/**
+	 * Markers created and deleted on a worker thread are only changed on the resource
+	 * by apply(), in the order the changes were made.  A deferred marker that is deleted
+	 * before being applied is never created.
+	 */
+	public void testDeferredChangesApplied() throws Exception {
+		final IFile file = setContents(null, new IPath[] {new Path(ICoreConstants.MANIFEST_FOLDER_NAME), new Path(ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR)}, PLUGIN_XML).getFile("deferred.txt");
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		IMarker old = file.createMarker(PDEMarkerFactory.MARKER_ID);
+		old.setAttribute(IMarker.MESSAGE, "old");
+
+		final Deferred deferred = new Deferred();
+		final IMarker[] created = new IMarker[2];
+		runOnWorker(deferred, new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				try {
+					deferred.deleteMarkers(file, PDEMarkerFactory.MARKER_ID);
+					created[0] = deferred.createMarker(file, PDEMarkerFactory.MARKER_ID);
+					created[0].setAttribute(IMarker.MESSAGE, "kept");
+					created[0].setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+					created[0].setAttribute(IMarker.LINE_NUMBER, 3);
+					created[1] = deferred.createMarker(file, PDEMarkerFactory.MARKER_ID);
+					created[1].setAttribute(IMarker.MESSAGE, "deleted");
+					created[1].delete();
+				} catch (CoreException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, e.getMessage(), e));
+				}
+			}
+		});
+
+		assertTrue("Deferred marker should exist", created[0].exists());
+		assertFalse("Deleted deferred marker should not exist", created[1].exists());
+		assertEquals("Wrong resource", file, created[0].getResource());
+		IMarker[] markers = file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
+		assertEquals("Changes should not be applied before apply()", 1, markers.length);
+		assertEquals("Wrong marker before apply()", old, markers[0]);
+
+		deferred.apply();
+		assertFalse("Old marker should be deleted", old.exists());
+		markers = file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
+		assertEquals("Wrong number of markers after apply()", 1, markers.length);
+		assertEquals("Wrong message", "kept", markers[0].getAttribute(IMarker.MESSAGE));
+		assertEquals("Wrong severity", IMarker.SEVERITY_ERROR, markers[0].getAttribute(IMarker.SEVERITY, -1));
+		assertEquals("Wrong line", 3, markers[0].getAttribute(IMarker.LINE_NUMBER, -1));
+
+		// applying again does not create the markers twice
+		deferred.apply();
+		assertEquals("Changes should only be applied once", 1, file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO).length);
+	}
+
+	/**
+	 * Marker changes are only deferred on a thread where a deferred markers is installed,
+	 * and a deferred PDE marker is a problem marker like the marker it stands for.
+	 */
+	public void testDeferredMarkerTypes() throws Exception {
+		final IFile file = setContents(null, new IPath[] {new Path(ICoreConstants.MANIFEST_FOLDER_NAME), new Path(ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR)}, PLUGIN_XML).getFile("types.txt");
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+
+		Deferred deferred = new Deferred();
+		IMarker immediate = deferred.createMarker(file, PDEMarkerFactory.MARKER_ID);
+		assertTrue("Marker should be created immediately without deferred markers", immediate.getId() >= 0);
+		assertEquals("Wrong marker", immediate, file.findMarker(immediate.getId()));
+		immediate.delete();
+
+		deferred.install();
+		try {
+			IMarker marker = deferred.createMarker(file, PDEMarkerFactory.MARKER_ID);
+			assertEquals("Deferred marker should have no id", -1, marker.getId());
+			assertEquals("Wrong type", PDEMarkerFactory.MARKER_ID, marker.getType());
+			assertTrue("Should be a subtype of itself", marker.isSubtypeOf(PDEMarkerFactory.MARKER_ID));
+			assertTrue("Should be a problem marker", marker.isSubtypeOf(IMarker.PROBLEM));
+			assertFalse("Should not be a task marker", marker.isSubtypeOf(IMarker.TASK));
+
+			IMarker task = deferred.createMarker(file, IMarker.TASK);
+			assertTrue("Task should be a subtype of itself", task.isSubtypeOf(IMarker.TASK));
+			assertFalse("Task should not be a problem marker", task.isSubtypeOf(IMarker.PROBLEM));
+			task.delete();
+		} finally {
+			deferred.uninstall();
+		}
+		assertEquals("Nothing should be created before apply()", 0, file.findMarkers(null, true, IResource.DEPTH_ZERO).length);
+		deferred.apply();
+		assertEquals("Wrong number of markers after apply()", 1, file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO).length);
+		assertEquals("Deleted task should not be created", 0, file.findMarkers(IMarker.TASK, false, IResource.DEPTH_ZERO).length);
+	}
+}
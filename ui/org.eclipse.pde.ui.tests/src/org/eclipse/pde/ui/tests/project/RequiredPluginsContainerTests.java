@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import java.io.ByteArrayInputStream;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.jdt.core.*;
+import org.eclipse.pde.core.build.IBuildEntry;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PluginModelManager;
+import org.eclipse.pde.internal.core.project.PDEProject;
+
+/**
+ * Tests that the required plug-ins class path containers are only replaced on projects
+ * whose class path actually changed, and are replaced on projects whose secondary
+ * dependencies changed.
+ *
+ * @since 3.8
+ */
+public class RequiredPluginsContainerTests extends TestCase {
+
+	private static final String HOST = "test.container.host";
+	private static final String DEPENDENT = "test.container.dependent";
+	private static final String SECONDARY = "test.container.secondary";
+
+	public static Test suite() {
+		return new TestSuite(RequiredPluginsContainerTests.class);
+	}
+
+	protected void tearDown() throws Exception {
+		getProject(SECONDARY).delete(true, null);
+		getProject(DEPENDENT).delete(true, null);
+		getProject(HOST).delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		super.tearDown();
+	}
+
+	private IProject getProject(String name) {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+	}
+
+	/**
+	 * Returns the required plug-ins container currently set on the project
+	 */
+	private IClasspathContainer getContainer(IProject project) throws JavaModelException {
+		return JavaCore.getClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, JavaCore.create(project));
+	}
+
+	/**
+	 * Creates the host project and a dependent project requiring it
+	 */
+	private void createProjects() throws CoreException {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription host = service.getDescription(getProject(HOST));
+		host.setSymbolicName(HOST);
+		host.apply(null);
+		IBundleProjectDescription dependent = service.getDescription(getProject(DEPENDENT));
+		dependent.setSymbolicName(DEPENDENT);
+		dependent.setRequiredBundles(new IRequiredBundleDescription[] {service.newRequiredBundle(HOST, null, false, false)});
+		dependent.apply(null);
+		ProjectCreationTests.waitForBuild();
+	}
+
+	/**
+	 * Waits until the container of the project is replaced
+	 */
+	private IClasspathContainer waitForNewContainer(IProject project, IClasspathContainer old) throws Exception {
+		long end = System.currentTimeMillis() + 30000;
+		IClasspathContainer container = getContainer(project);
+		while (container == old && System.currentTimeMillis() < end) {
+			Thread.sleep(100);
+			container = getContainer(project);
+		}
+		assertNotSame("Container of " + project.getName() + " should be replaced", old, container);
+		return container;
+	}
+
+	/**
+	 * Returns the entries recorded for the project by the model manager's cache
+	 */
+	private IClasspathEntry[] getCachedEntries(IProject project) {
+		return PluginModelManager.getInstance().getRequiredPluginsCache().getEntries(JavaCore.create(project));
+	}
+
+	/**
+	 * Changes both manifests in one operation so that both bundles are updated in the state,
+	 * but only the host's class path changes.  The dependent's container must be kept.
+	 */
+	public void testUnchangedContainerKept() throws Exception {
+		createProjects();
+		final IProject host = getProject(HOST);
+		final IProject dependent = getProject(DEPENDENT);
+		IClasspathContainer hostContainer = getContainer(host);
+		IClasspathContainer dependentContainer = getContainer(dependent);
+		assertNotNull("Missing host container", hostContainer);
+		assertNotNull("Missing dependent container", dependentContainer);
+
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+				IBundleProjectDescription description = service.getDescription(host);
+				description.setRequiredBundles(new IRequiredBundleDescription[] {service.newRequiredBundle("org.eclipse.core.runtime", null, false, false)});
+				description.apply(null);
+				description = service.getDescription(dependent);
+				description.setBundleName("Renamed");
+				description.apply(null);
+			}
+		}, null);
+		ProjectCreationTests.waitForBuild();
+
+		IClasspathContainer newHostContainer = waitForNewContainer(host, hostContainer);
+		assertTrue("Host container should have more entries", newHostContainer.getClasspathEntries().length > hostContainer.getClasspathEntries().length);
+		assertSame("Dependent container should be kept", dependentContainer, getContainer(dependent));
+	}
+
+	/**
+	 * The entries recorded for a project are dropped when it is closed or deleted.
+	 */
+	public void testRemovedProjectForgotten() throws Exception {
+		createProjects();
+		IProject dependent = getProject(DEPENDENT);
+		assertNotNull("Missing dependent container", getContainer(dependent));
+		assertNotNull("Entries of the dependent should be recorded", getCachedEntries(dependent));
+
+		dependent.close(null);
+		ProjectCreationTests.waitForBuild();
+		assertNull("Entries of a closed project should be dropped", getCachedEntries(dependent));
+
+		dependent.open(null);
+		ProjectCreationTests.waitForBuild();
+		assertNotNull("Missing dependent container", getContainer(dependent));
+		assertNotNull("Entries of the reopened dependent should be recorded", getCachedEntries(dependent));
+		dependent.delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		assertNull("Entries of a deleted project should be dropped", getCachedEntries(dependent));
+	}
+
+	/**
+	 * A project with a secondary dependency on a plug-in that does not exist yet is not part of
+	 * the resolver delta when the plug-in is created, its container must still be replaced.
+	 */
+	public void testSecondaryDependencyAdded() throws Exception {
+		final IProject secondary = getProject(SECONDARY);
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(secondary);
+				description.setSymbolicName(SECONDARY);
+				description.apply(null);
+				String contents = "bin.includes = META-INF/\n" + IBuildEntry.SECONDARY_DEPENDENCIES + " = " + HOST + "\n";
+				PDEProject.getBuildProperties(secondary).setContents(new ByteArrayInputStream(contents.getBytes()), true, false, null);
+			}
+		}, null);
+		ProjectCreationTests.waitForBuild();
+		IClasspathContainer container = getContainer(secondary);
+		assertNotNull("Missing secondary container", container);
+		assertEquals("Missing plug-ins should not be on the class path", 0, container.getClasspathEntries().length);
+
+		IBundleProjectDescription host = ProjectCreationTests.getBundleProjectService().getDescription(getProject(HOST));
+		host.setSymbolicName(HOST);
+		host.apply(null);
+		ProjectCreationTests.waitForBuild();
+
+		IClasspathEntry[] entries = waitForNewContainer(secondary, container).getClasspathEntries();
+		assertEquals("Wrong number of entries", 1, entries.length);
+		assertEquals("The secondary dependency should be on the class path", getProject(HOST).getFullPath(), entries[0].getPath());
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.BundleValidationOperation;
+import org.eclipse.pde.internal.core.plugin.ExternalPluginModel;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests that the resolved state of a launch validation is reused by the next validation
+ * with the same platform properties, and that the results of a validation do not change
+ * when a later validation reuses its state.
+ *
+ * @since 3.8
+ */
+public class BundleValidationOperationTests extends TestCase {
+
+	private static final State STATE = StateObjectFactory.defaultFactory.createState(false);
+
+	public static Test suite() {
+		return new TestSuite(BundleValidationOperationTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		BundleValidationOperation.clearCache();
+	}
+
+	protected void tearDown() throws Exception {
+		BundleValidationOperation.clearCache();
+		super.tearDown();
+	}
+
+	/**
+	 * Returns platform properties that no other validation uses
+	 */
+	private Dictionary[] getProperties(String value) {
+		Dictionary properties = new Hashtable();
+		properties.put("pde.test.validation", value);
+		return new Dictionary[] {properties};
+	}
+
+	/**
+	 * Returns a model for a bundle requiring the given bundle, or no bundle
+	 */
+	private IPluginModelBase createModel(long id, String symbolicName, String required) throws BundleException {
+		Dictionary manifest = new Hashtable();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, symbolicName);
+		manifest.put(Constants.BUNDLE_VERSION, "1.0.0");
+		if (required != null)
+			manifest.put(Constants.REQUIRE_BUNDLE, required);
+		ExternalPluginModel model = new ExternalPluginModel();
+		model.setBundleDescription(StateObjectFactory.defaultFactory.createBundleDescription(STATE, manifest, symbolicName, id));
+		return model;
+	}
+
+	private BundleValidationOperation validate(IPluginModelBase[] models, Dictionary[] properties) throws Exception {
+		BundleValidationOperation operation = new BundleValidationOperation(models, properties);
+		operation.run(new NullProgressMonitor());
+		return operation;
+	}
+
+	/**
+	 * Returns the symbolic names of the bundles with resolver errors
+	 */
+	private Set getErrorBundles(BundleValidationOperation operation) {
+		Set names = new HashSet();
+		for (Iterator iter = operation.getResolverErrors().keySet().iterator(); iter.hasNext();) {
+			names.add(((BundleDescription) iter.next()).getSymbolicName());
+		}
+		return names;
+	}
+
+	/**
+	 * The first validation creates a state, as does a validation with other properties
+	 */
+	public void testCacheMiss() throws Exception {
+		IPluginModelBase[] models = new IPluginModelBase[] {createModel(1, "a", null), createModel(2, "b", "c")};
+		BundleValidationOperation operation = validate(models, getProperties("1"));
+		assertFalse("The first validation should create a state", operation.isIncremental());
+		assertTrue(operation.hasErrors());
+		assertEquals(Collections.singleton("b"), getErrorBundles(operation));
+
+		operation = validate(models, getProperties("2"));
+		assertFalse("Other platform properties should not reuse the state", operation.isIncremental());
+		assertEquals(Collections.singleton("b"), getErrorBundles(operation));
+	}
+
+	/**
+	 * Validating the same bundles again reuses the state and gives the same errors
+	 */
+	public void testCacheHit() throws Exception {
+		IPluginModelBase[] models = new IPluginModelBase[] {createModel(1, "a", null), createModel(2, "b", "c")};
+		validate(models, getProperties("1"));
+		BundleValidationOperation operation = validate(models, getProperties("1"));
+		assertTrue("The state should be reused", operation.isIncremental());
+		assertTrue(operation.hasErrors());
+		assertEquals(Collections.singleton("b"), getErrorBundles(operation));
+		assertTrue(operation.hasBundle("a"));
+		assertFalse(operation.hasBundle("c"));
+		assertFalse(operation.isEmpty());
+	}
+
+	/**
+	 * Added, changed and removed bundles are updated in the reused state
+	 */
+	public void testIncrementalUpdate() throws Exception {
+		IPluginModelBase a = createModel(1, "a", null);
+		IPluginModelBase b = createModel(2, "b", "c");
+		validate(new IPluginModelBase[] {a, b}, getProperties("1"));
+
+		// add the missing bundle
+		BundleValidationOperation operation = validate(new IPluginModelBase[] {a, b, createModel(3, "c", null)}, getProperties("1"));
+		assertTrue(operation.isIncremental());
+		assertFalse("The added bundle should resolve b", operation.hasErrors());
+		assertTrue(operation.hasBundle("c"));
+
+		// remove it again
+		operation = validate(new IPluginModelBase[] {a, b}, getProperties("1"));
+		assertTrue(operation.isIncremental());
+		assertEquals(Collections.singleton("b"), getErrorBundles(operation));
+		assertFalse(operation.hasBundle("c"));
+
+		// change the requirement of b
+		operation = validate(new IPluginModelBase[] {a, createModel(2, "b", "a")}, getProperties("1"));
+		assertTrue(operation.isIncremental());
+		assertFalse("The changed bundle should resolve", operation.hasErrors());
+		assertTrue(operation.getResolverErrors().isEmpty());
+	}
+
+	/**
+	 * The results of a validation are kept when a later validation changes the reused state
+	 */
+	public void testResultsDetached() throws Exception {
+		IPluginModelBase a = createModel(1, "a", null);
+		BundleValidationOperation first = validate(new IPluginModelBase[] {a, createModel(2, "b", "c")}, getProperties("1"));
+		BundleValidationOperation second = validate(new IPluginModelBase[] {a, createModel(2, "b", "a")}, getProperties("1"));
+		assertTrue(second.isIncremental());
+		assertFalse(second.hasErrors());
+
+		assertTrue("The errors of the first validation should be kept", first.hasErrors());
+		Map errors = first.getResolverErrors();
+		assertEquals(1, errors.size());
+		Object[] bundleErrors = (Object[]) errors.values().iterator().next();
+		assertTrue(bundleErrors.length > 0);
+		assertEquals(ResolverError.MISSING_REQUIRE_BUNDLE, ((ResolverError) bundleErrors[0]).getType());
+
+		State state = first.getState();
+		assertNotSame("The reused state no longer holds the first bundles", second.getState(), state);
+		BundleDescription b = state.getBundle("b", null);
+		assertNotNull(b);
+		assertFalse("The state of the first validation should be resolved again", b.isResolved());
+	}
+
+	/**
+	 * A state returned to the caller is no longer reused
+	 */
+	public void testStateKept() throws Exception {
+		IPluginModelBase[] models = new IPluginModelBase[] {createModel(1, "a", null), createModel(2, "b", "c")};
+		BundleValidationOperation first = validate(models, getProperties("1"));
+		State state = first.getState();
+		assertSame(state, first.getState());
+
+		BundleValidationOperation second = validate(new IPluginModelBase[] {models[0]}, getProperties("1"));
+		assertFalse("The state of the caller should not be reused", second.isIncremental());
+		assertNotNull("The state of the caller should not change", state.getBundle("b", null));
+		assertFalse(state.getBundle("b", null).isResolved());
+
+		BundleValidationOperation third = validate(new IPluginModelBase[] {models[0]}, getProperties("1"));
+		assertTrue("The state of the second validation should be reused", third.isIncremental());
+	}
+}
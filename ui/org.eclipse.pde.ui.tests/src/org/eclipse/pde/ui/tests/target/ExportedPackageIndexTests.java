@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import junit.framework.*;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.internal.core.ExportedPackageIndex;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests that the index of exported packages is kept up to date from the deltas of the
+ * resolver state it indexes.
+ *
+ * @since 3.8
+ */
+public class ExportedPackageIndexTests extends TestCase {
+
+	private State fState;
+	private ExportedPackageIndex fIndex;
+
+	public static Test suite() {
+		return new TestSuite(ExportedPackageIndexTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fState = createState();
+		fIndex = new ExportedPackageIndex();
+	}
+
+	private State createState() {
+		State state = StateObjectFactory.defaultFactory.createState(true);
+		state.setPlatformProperties(new Hashtable());
+		return state;
+	}
+
+	/**
+	 * Creates a bundle with the given exports and requirements
+	 */
+	private BundleDescription createBundle(State state, long id, String name, String exports, String requires) throws BundleException {
+		Dictionary manifest = new Hashtable();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, name);
+		manifest.put(Constants.BUNDLE_VERSION, "1.0.0");
+		if (exports != null)
+			manifest.put(Constants.EXPORT_PACKAGE, exports);
+		if (requires != null)
+			manifest.put(Constants.REQUIRE_BUNDLE, requires);
+		return StateObjectFactory.defaultFactory.createBundleDescription(state, manifest, name, id);
+	}
+
+	/**
+	 * Resolves the state and passes the delta to the index, as the model manager does
+	 */
+	private void resolve() {
+		fIndex.stateResolved(fState.resolve(true));
+	}
+
+	/**
+	 * Asserts the names of the bundles exporting the package
+	 */
+	private void assertExporters(String packageName, String[] bundles) {
+		ExportPackageDescription[] exporters = fIndex.getExporters(fState, packageName);
+		assertEquals("Wrong number of exporters of " + packageName, bundles.length, exporters.length);
+		for (int i = 0; i < bundles.length; i++) {
+			boolean found = false;
+			for (int j = 0; j < exporters.length; j++) {
+				found |= bundles[i].equals(exporters[j].getExporter().getSymbolicName());
+			}
+			assertTrue(bundles[i] + " should export " + packageName, found);
+		}
+	}
+
+	/**
+	 * All exports are indexed and the export of a resolved bundle is preferred
+	 */
+	public void testInitialIndex() throws Exception {
+		fState.addBundle(createBundle(fState, 1, "a", "p;version=1.0", null));
+		fState.addBundle(createBundle(fState, 2, "b", "p;version=2.0, q", "missing"));
+		fState.resolve(false);
+		assertExporters("p", new String[] {"a", "b"});
+		assertExporters("q", new String[] {"b"});
+		assertExporters("r", new String[0]);
+		ExportPackageDescription export = fIndex.getExporter(fState, "p");
+		assertEquals("The export of the resolved bundle should be preferred", "a", export.getExporter().getSymbolicName());
+		assertEquals("An unresolved export should be returned without a resolved one", "b", fIndex.getExporter(fState, "q").getExporter().getSymbolicName());
+		assertNull(fIndex.getExporter(fState, "r"));
+	}
+
+	/**
+	 * The exports of added, removed and updated bundles are indexed again from the deltas
+	 */
+	public void testDeltas() throws Exception {
+		fState.addBundle(createBundle(fState, 1, "a", "p", null));
+		fState.addBundle(createBundle(fState, 2, "b", "p, q", null));
+		fState.resolve(false);
+		assertExporters("p", new String[] {"a", "b"});
+
+		fState.addBundle(createBundle(fState, 3, "c", "q, r", null));
+		resolve();
+		assertExporters("q", new String[] {"b", "c"});
+		assertExporters("r", new String[] {"c"});
+
+		fState.removeBundle(2);
+		resolve();
+		assertExporters("p", new String[] {"a"});
+		assertExporters("q", new String[] {"c"});
+
+		fState.updateBundle(createBundle(fState, 1, "a", "s", null));
+		resolve();
+		assertExporters("p", new String[0]);
+		assertExporters("s", new String[] {"a"});
+		assertExporters("r", new String[] {"c"});
+	}
+
+	/**
+	 * Querying another state indexes that state, and a full resolution discards the index
+	 */
+	public void testOtherState() throws Exception {
+		fState.addBundle(createBundle(fState, 1, "a", "p", null));
+		fState.resolve(false);
+		assertExporters("p", new String[] {"a"});
+
+		State other = createState();
+		other.addBundle(createBundle(other, 1, "b", "q", null));
+		other.resolve(false);
+		assertEquals(0, fIndex.getExporters(other, "p").length);
+		assertEquals(1, fIndex.getExporters(other, "q").length);
+		assertExporters("p", new String[] {"a"});
+
+		fState.addBundle(createBundle(fState, 2, "c", "p", null));
+		fIndex.stateResolved(null);
+		assertExporters("p", new String[] {"a", "c"});
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import junit.framework.*;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateObjectFactory;
+import org.eclipse.pde.internal.core.ICoreConstants;
+import org.eclipse.pde.internal.core.PDEAuxiliaryState;
+import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.internal.ui.tests.macro.MacroPlugin;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests that the auxiliary plug-in info is the same after it has been written to and
+ * read back from the binary cache file, and that the xml file of previous versions
+ * is still read.
+ *
+ * @since 3.8
+ */
+public class PDEAuxiliaryStateTests extends TestCase {
+
+	private static final String BINARY_FILE = ".pluginInfo.bin";
+	private static final String XML_FILE = ".pluginInfo";
+
+	private File fDir;
+
+	/**
+	 * Gives access to the protected methods of the state
+	 */
+	private static class TestState extends PDEAuxiliaryState {
+		private static final State STATE = StateObjectFactory.defaultFactory.createState(false);
+
+		void add(long id, Dictionary manifest, boolean hasBundleStructure) throws BundleException {
+			addAuxiliaryData(StateObjectFactory.defaultFactory.createBundleDescription(STATE, manifest, "bundle" + id, id), manifest, hasBundleStructure);
+		}
+
+		boolean read(File dir) {
+			return readPluginInfoCache(dir);
+		}
+
+		void save(File dir) {
+			savePluginInfo(dir);
+		}
+
+		boolean hasCache(File dir) {
+			return exists(dir);
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(PDEAuxiliaryStateTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDir = MacroPlugin.getDefault().getStateLocation().append("auxiliaryState").toFile();
+		CoreUtility.deleteContent(fDir);
+		fDir.mkdirs();
+	}
+
+	protected void tearDown() throws Exception {
+		CoreUtility.deleteContent(fDir);
+		super.tearDown();
+	}
+
+	private Dictionary createManifest(String id) {
+		Dictionary manifest = new Hashtable();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, id);
+		manifest.put(Constants.BUNDLE_VERSION, "1.0.0");
+		return manifest;
+	}
+
+	/**
+	 * Creates a state with a bundle that has every header, a patch fragment without optional
+	 * headers, and a plug-in without bundle structure
+	 */
+	private TestState createState() throws BundleException {
+		TestState state = new TestState();
+		Dictionary manifest = createManifest("a");
+		manifest.put(Constants.BUNDLE_NAME, "Bundle A");
+		manifest.put(Constants.BUNDLE_VENDOR, "Vendor");
+		manifest.put(Constants.BUNDLE_ACTIVATOR, "a.Activator");
+		manifest.put(Constants.BUNDLE_CLASSPATH, "a.jar, lib/b.jar");
+		manifest.put(Constants.BUNDLE_LOCALIZATION, "plugin");
+		manifest.put(ICoreConstants.EXTENSIBLE_API, "true");
+		manifest.put(ICoreConstants.ECLIPSE_SOURCE_BUNDLE, "a.source;version=\"1.0.0\"");
+		state.add(3, manifest, true);
+		manifest = createManifest("b");
+		manifest.put(ICoreConstants.PATCH_FRAGMENT, "true");
+		state.add(7, manifest, true);
+		manifest = createManifest("c");
+		manifest.put(Constants.BUNDLE_NAME, "Bundle A");
+		manifest.put(ICoreConstants.PLUGIN_CLASS, "c.Plugin");
+		manifest.put(Constants.BUNDLE_CLASSPATH, "lib/b.jar");
+		state.add(5, manifest, false);
+		return state;
+	}
+
+	/**
+	 * Checks the infos of the state created by {@link #createState()}
+	 */
+	private void assertState(PDEAuxiliaryState state) {
+		assertEquals("Bundle A", state.getPluginName(3));
+		assertEquals("Vendor", state.getProviderName(3));
+		assertEquals("a.Activator", state.getClassName(3));
+		assertEquals("plugin", state.getBundleLocalization(3));
+		assertEquals("a.source;version=\"1.0.0\"", state.getBundleSourceEntry(3));
+		assertTrue(state.hasExtensibleAPI(3));
+		assertFalse(state.isPatchFragment(3));
+		assertTrue(state.hasBundleStructure(3));
+		assertNull(state.getProject(3));
+		String[] libraries = state.getLibraryNames(3);
+		assertEquals(2, libraries.length);
+		assertEquals("a.jar", libraries[0]);
+		assertEquals("lib/b.jar", libraries[1]);
+
+		assertNull(state.getPluginName(7));
+		assertNull(state.getProviderName(7));
+		assertNull(state.getClassName(7));
+		assertNull(state.getBundleLocalization(7));
+		assertNull(state.getBundleSourceEntry(7));
+		assertFalse(state.hasExtensibleAPI(7));
+		assertTrue(state.isPatchFragment(7));
+		assertTrue(state.hasBundleStructure(7));
+		assertEquals(0, state.getLibraryNames(7).length);
+
+		assertEquals("Bundle A", state.getPluginName(5));
+		assertEquals("c.Plugin", state.getClassName(5));
+		assertFalse(state.hasBundleStructure(5));
+		libraries = state.getLibraryNames(5);
+		assertEquals(1, libraries.length);
+		assertEquals("lib/b.jar", libraries[0]);
+
+		assertNull("Unknown bundles have no info", state.getPluginName(4));
+		assertEquals("Unknown bundles have no libraries", 0, state.getLibraryNames(4).length);
+	}
+
+	/**
+	 * The infos read back from the binary file, one bundle at a time, are the ones written
+	 */
+	public void testBinaryRoundTrip() throws Exception {
+		TestState state = createState();
+		assertState(state);
+		state.save(fDir);
+		assertTrue("The binary file should be written", new File(fDir, BINARY_FILE).isFile());
+		assertTrue(state.hasCache(fDir));
+
+		TestState read = new TestState();
+		assertTrue("The binary file should be read", read.read(fDir));
+		assertState(read);
+	}
+
+	/**
+	 * Saving a state read from the binary file also writes the infos that were never accessed
+	 */
+	public void testSaveAfterPartialRead() throws Exception {
+		createState().save(fDir);
+		TestState read = new TestState();
+		assertTrue(read.read(fDir));
+		assertEquals("a.Activator", read.getClassName(3));
+
+		File other = new File(fDir, "other");
+		other.mkdirs();
+		read.save(other);
+		TestState reread = new TestState();
+		assertTrue(reread.read(other));
+		assertState(reread);
+	}
+
+	/**
+	 * The xml file written by previous versions is read and replaced by the binary file on save
+	 */
+	public void testXmlFallback() throws Exception {
+		StringBuffer xml = new StringBuffer();
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml.append("<map>\n");
+		xml.append("<bundle bundleID=\"3\" class=\"a.Activator\" provider=\"Vendor\" name=\"Bundle A\" hasExtensibleAPI=\"true\" localization=\"plugin\" bundleSource=\"a.source;version=&quot;1.0.0&quot;\">\n");
+		xml.append("<library name=\"a.jar\"/>\n");
+		xml.append("<library name=\"lib/b.jar\"/>\n");
+		xml.append("</bundle>\n");
+		xml.append("<bundle bundleID=\"7\" patch=\"true\"/>\n");
+		xml.append("<bundle bundleID=\"5\" class=\"c.Plugin\" name=\"Bundle A\" isBundle=\"false\">\n");
+		xml.append("<library name=\"lib/b.jar\"/>\n");
+		xml.append("</bundle>\n");
+		xml.append("</map>\n");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(fDir, XML_FILE)), "UTF-8");
+		try {
+			writer.write(xml.toString());
+		} finally {
+			writer.close();
+		}
+
+		TestState state = new TestState();
+		assertFalse("Only the binary file is a current cache", state.hasCache(fDir));
+		assertTrue("The xml file should be read", state.read(fDir));
+		assertState(state);
+
+		state.save(fDir);
+		assertTrue("The binary file should be written", new File(fDir, BINARY_FILE).isFile());
+		assertFalse("The xml file should be deleted", new File(fDir, XML_FILE).exists());
+		TestState read = new TestState();
+		assertTrue(read.read(fDir));
+		assertState(read);
+	}
+
+	/**
+	 * A binary file that is not a plug-in info cache is not read
+	 */
+	public void testInvalidBinary() throws Exception {
+		OutputStream out = new FileOutputStream(new File(fDir, BINARY_FILE));
+		try {
+			out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+		} finally {
+			out.close();
+		}
+		assertFalse("An invalid file should not be read", new TestState().read(fDir));
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import junit.framework.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.util.ParallelRunner;
+
+/**
+ * Tests the runner used to resolve target locations and read bundles concurrently.
+ *
+ * @since 3.8
+ */
+public class ParallelRunnerTests extends TestCase {
+
+	private static final int COUNT = 1000;
+	private static final int THREADS = 4;
+
+	public static Test suite() {
+		return new TestSuite(ParallelRunnerTests.class);
+	}
+
+	/**
+	 * Runs the work on another thread so that a runner that never returns fails the test
+	 * instead of hanging it, and returns what the runner threw, or <code>null</code>
+	 */
+	private Throwable runWithTimeout(final ParallelRunner.Work work, final IProgressMonitor monitor) throws InterruptedException {
+		final Throwable[] thrown = new Throwable[1];
+		Thread thread = new Thread("ParallelRunnerTests") {
+			public void run() {
+				try {
+					ParallelRunner.run("ParallelRunnerTests", COUNT, THREADS, work, monitor);
+				} catch (Throwable e) {
+					thrown[0] = e;
+				}
+			}
+		};
+		thread.start();
+		thread.join(30000);
+		assertFalse("The runner should return", thread.isAlive());
+		return thrown[0];
+	}
+
+	/**
+	 * Every index is run once and all progress is reported
+	 */
+	public void testRunAll() throws Exception {
+		final int[] results = new int[COUNT];
+		final int[] worked = new int[1];
+		IProgressMonitor monitor = new NullProgressMonitor() {
+			public void worked(int work) {
+				worked[0] += work;
+			}
+		};
+		assertNull(runWithTimeout(new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) {
+				results[index] += index + 1;
+			}
+		}, monitor));
+		for (int i = 0; i < COUNT; i++)
+			assertEquals("The work should have run once for index " + i, i + 1, results[i]);
+		assertEquals("All of the work should be reported", COUNT, worked[0]);
+	}
+
+	/**
+	 * A core exception thrown by the work is thrown to the caller
+	 */
+	public void testCoreException() throws Exception {
+		Throwable thrown = runWithTimeout(new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) throws CoreException {
+				if (index == COUNT / 2)
+					throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, "failed"));
+			}
+		}, new NullProgressMonitor());
+		assertTrue("The core exception should be thrown", thrown instanceof CoreException);
+		assertEquals("failed", ((CoreException) thrown).getStatus().getMessage());
+	}
+
+	/**
+	 * A runtime exception thrown on a worker thread is thrown to the caller
+	 */
+	public void testRuntimeException() throws Exception {
+		final RuntimeException exception = new IllegalStateException("failed");
+		Throwable thrown = runWithTimeout(new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) {
+				if (index == COUNT / 2)
+					throw exception;
+			}
+		}, new NullProgressMonitor());
+		assertSame("The runtime exception should be thrown", exception, thrown);
+	}
+
+	/**
+	 * An error thrown on a worker thread does not leave the caller waiting for the work
+	 * of the dead worker and is thrown to the caller
+	 */
+	public void testError() throws Exception {
+		final Error error = new Error("failed");
+		Throwable thrown = runWithTimeout(new ParallelRunner.Work() {
+			public void run(int index, IProgressMonitor workMonitor) {
+				if (index == 0)
+					throw error;
+			}
+		}, new NullProgressMonitor());
+		assertSame("The error should be thrown", error, thrown);
+	}
+
+	/**
+	 * Cancelling the monitor stops the work
+	 */
+	public void testCancel() throws Exception {
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		final int[] count = new int[1];
+		final boolean[] done = new boolean[1];
+		Thread thread = new Thread("ParallelRunnerTests") {
+			public void run() {
+				try {
+					done[0] = ParallelRunner.run("ParallelRunnerTests", COUNT, THREADS, new ParallelRunner.Work() {
+						public void run(int index, IProgressMonitor workMonitor) {
+							synchronized (count) {
+								count[0]++;
+							}
+							monitor.setCanceled(true);
+						}
+					}, monitor);
+				} catch (CoreException e) {
+					// fails below
+				}
+			}
+		};
+		done[0] = true;
+		thread.start();
+		thread.join(30000);
+		assertFalse("The runner should return", thread.isAlive());
+		assertFalse("The runner should report the cancellation", done[0]);
+		assertTrue("Not all of the work should have run", count[0] < COUNT);
+	}
+}
@@ -14,7 +14,8 @@ import org.eclipse.pde.core.target.*;
 
 import java.io.FileWriter;
 
-import java.io.File;
+import java.io.*;
+import java.util.jar.*;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import org.eclipse.core.runtime.*;
@@ -25,6 +26,7 @@ import org.eclipse.pde.core.plugin.TargetPlatform;
 import org.eclipse.pde.internal.core.*;
 import org.eclipse.pde.internal.core.target.IUBundleContainer;
 import org.eclipse.pde.internal.core.target.TargetPlatformService;
+import org.osgi.framework.Constants;
 
 public class TargetDefinitionResolutionTests extends AbstractTargetTest {
 	
@@ -89,6 +91,120 @@ public class TargetDefinitionResolutionTests extends AbstractTargetTest {
 		}
 	}
 	
+	/**
+	 * Tests that resolving the locations of a target concurrently finds the same bundles
+	 * as resolving each location on its own, and keeps the statuses in location order.
+	 * 
+	 * @throws Exception
+	 */
+	public void testConcurrentLocationResolution() throws Exception {
+		IPath location = extractAbcdePlugins();
+		ITargetLocation[] locations = new ITargetLocation[] {
+				getTargetService().newDirectoryLocation(location.append("plugins").toOSString()),
+				getTargetService().newDirectoryLocation("***SHOULD NOT EXIST***"),
+				getTargetService().newDirectoryLocation(TargetPlatform.getDefaultLocation() + "/plugins"),
+				getTargetService().newProfileLocation(TargetPlatform.getDefaultLocation(), null)};
+		ITargetDefinition definition = getNewTarget();
+		definition.setTargetLocations(locations);
+		IStatus status = definition.resolve(null);
+		assertEquals("Only the missing directory should fail", 1, status.getChildren().length);
+		
+		ITargetDefinition serial = getNewTarget();
+		for (int i = 0; i < locations.length; i++) {
+			ITargetLocation copy = i == 3 ? getTargetService().newProfileLocation(TargetPlatform.getDefaultLocation(), null) : getTargetService().newDirectoryLocation(locations[i].getLocation(false));
+			copy.resolve(serial, null);
+			assertTrue("Location " + i + " should be resolved", locations[i].isResolved());
+			assertEquals("Wrong number of bundles for location " + i, copy.getBundles() == null ? 0 : copy.getBundles().length, locations[i].getBundles() == null ? 0 : locations[i].getBundles().length);
+		}
+	}
+	
+	/**
+	 * Tests that resolving a directory again recreates the same bundles from the directory's index
+	 * and picks up removed bundles.
+	 *
+	 * @throws Exception
+	 */
+	public void testIndexedDirectoryResolution() throws Exception {
+		IPath location = extractAbcdePlugins().append("plugins");
+		ITargetLocation first = getTargetService().newDirectoryLocation(location.toOSString());
+		first.resolve(getNewTarget(), null);
+		TargetBundle[] bundles = first.getBundles();
+		assertTrue("Bundles should have been found", bundles.length > 1);
+
+		ITargetLocation second = getTargetService().newDirectoryLocation(location.toOSString());
+		second.resolve(getNewTarget(), null);
+		TargetBundle[] indexed = second.getBundles();
+		assertEquals("Wrong number of indexed bundles", bundles.length, indexed.length);
+		for (int i = 0; i < bundles.length; i++) {
+			assertEquals("Wrong indexed bundle", bundles[i].getBundleInfo(), indexed[i].getBundleInfo());
+			assertEquals("Wrong indexed fragment state", bundles[i].isFragment(), indexed[i].isFragment());
+			assertEquals("Wrong indexed source state", bundles[i].isSourceBundle(), indexed[i].isSourceBundle());
+			assertEquals("Wrong indexed source target", bundles[i].getSourceTarget(), indexed[i].getSourceTarget());
+		}
+
+		File removed = new File(bundles[0].getBundleInfo().getLocation());
+		if (removed.isDirectory()) {
+			delete(removed);
+		} else {
+			assertTrue("Could not remove bundle", removed.delete());
+		}
+		ITargetLocation third = getTargetService().newDirectoryLocation(location.toOSString());
+		third.resolve(getNewTarget(), null);
+		assertEquals("The removed bundle should be gone", bundles.length - 1, third.getBundles().length);
+	}
+
+	/**
+	 * Tests that a file that could not be read, such as a bundle that is still being copied, is
+	 * not recorded in the directory's index and is opened again on the next resolution.
+	 *
+	 * @throws Exception
+	 */
+	public void testUnreadableBundleNotIndexed() throws Exception {
+		IPath location = extractAbcdePlugins().append("plugins");
+		ITargetLocation first = getTargetService().newDirectoryLocation(location.toOSString());
+		first.resolve(getNewTarget(), null);
+		int count = first.getBundles().length;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.getMainAttributes().putValue(Constants.BUNDLE_SYMBOLICNAME, "copied.bundle");
+		manifest.getMainAttributes().putValue(Constants.BUNDLE_VERSION, "1.0.0");
+		new JarOutputStream(bytes, manifest).close();
+		byte[] contents = bytes.toByteArray();
+
+		// a file of the same size and time stamp as the bundle, which cannot be opened yet
+		File file = location.append("copied.bundle_1.0.0.jar").toFile();
+		long time = System.currentTimeMillis() - 60000;
+		write(file, new byte[contents.length]);
+		file.setLastModified(time);
+		ITargetLocation second = getTargetService().newDirectoryLocation(location.toOSString());
+		second.resolve(getNewTarget(), null);
+		assertEquals("The partial file should not be a bundle", count, second.getBundles().length);
+
+		write(file, contents);
+		file.setLastModified(time);
+		ITargetLocation third = getTargetService().newDirectoryLocation(location.toOSString());
+		third.resolve(getNewTarget(), null);
+		assertEquals("The copied bundle should have been found", count + 1, third.getBundles().length);
+	}
+
+	/**
+	 * Writes the given contents to a file
+	 * @param file
+	 * @param contents
+	 * @throws IOException
+	 */
+	private void write(File file, byte[] contents) throws IOException {
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			stream.write(contents);
+		} finally {
+			stream.close();
+		}
+	}
+
 	/**
 	 * Tests that if we find a bundle with a bad or missing manifest when resolving we create the
 	 * correct status.
@@ -18,6 +18,7 @@ public class ALLXMLUtilTests {
 	public static Test suite() {
 		TestSuite suite = new TestSuite("XML Utilities Test Suite"); //$NON-NLS-1$
 		suite.addTest(ParserWrapperTestCase.suite());
+		suite.addTest(XMLElementLocatorTests.suite());
 		return suite;
 	}
 
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.util.xml;
+
+import java.io.StringReader;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.pde.internal.core.builders.XMLElementLocator;
+import org.eclipse.pde.internal.core.util.SAXParserWrapper;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Tests the locator shared by the XML error reporters of PDE and DS, which finds the lines
+ * of elements and attributes and the text content of elements from the offsets recorded
+ * while parsing.
+ *
+ * @since 3.8
+ */
+public class XMLElementLocatorTests extends TestCase {
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //$NON-NLS-1$
+			+ "<root>\n" //$NON-NLS-1$
+			+ "   <!-- <child name=\"commented\"/> -->\n" //$NON-NLS-1$
+			+ "   <child name=\"a\"\n" //$NON-NLS-1$
+			+ "         value='1'\n" //$NON-NLS-1$
+			+ "         other = \"x &amp; y\">\n" //$NON-NLS-1$
+			+ "      some text\n" //$NON-NLS-1$
+			+ "   </child>\n" //$NON-NLS-1$
+			+ "   <empty name=\"b\"/>\n" //$NON-NLS-1$
+			+ "   <child name=\"c\"><nested/></child>\n" //$NON-NLS-1$
+			+ "</root>\n"; //$NON-NLS-1$
+
+	private XMLElementLocator fLocator;
+
+	/**
+	 * Locations of the parsed elements in document order
+	 */
+	private List fLocations;
+
+	public static Test suite() {
+		return new TestSuite(XMLElementLocatorTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fLocator = new XMLElementLocator(XML);
+		fLocations = new ArrayList();
+		final Stack stack = new Stack();
+		DefaultHandler handler = new DefaultHandler() {
+			private Locator fSAXLocator;
+
+			public void setDocumentLocator(Locator locator) {
+				fSAXLocator = locator;
+			}
+
+			public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+				try {
+					XMLElementLocator.Location location = fLocator.startElement(qName, fSAXLocator);
+					fLocations.add(location);
+					stack.push(location);
+				} catch (BadLocationException e) {
+					throw new SAXException(e);
+				}
+			}
+
+			public void endElement(String uri, String localName, String qName) throws SAXException {
+				fLocator.endElement((XMLElementLocator.Location) stack.pop(), fSAXLocator);
+			}
+		};
+		SAXParserWrapper parser = new SAXParserWrapper();
+		parser.parse(new InputSource(new StringReader(XML)), handler);
+		assertEquals("Wrong number of elements", 5, fLocations.size()); //$NON-NLS-1$
+	}
+
+	private XMLElementLocator.Location getLocation(int index) {
+		return (XMLElementLocator.Location) fLocations.get(index);
+	}
+
+	/**
+	 * Elements are found on the line of their start tag, skipping commented tags
+	 */
+	public void testElementLines() {
+		assertEquals(2, fLocator.getLine(getLocation(0)));
+		assertEquals("Commented tags should be skipped", 4, fLocator.getLine(getLocation(1))); //$NON-NLS-1$
+		assertEquals(9, fLocator.getLine(getLocation(2)));
+		assertEquals(10, fLocator.getLine(getLocation(3)));
+		assertEquals(10, fLocator.getLine(getLocation(4)));
+		assertEquals("Unknown elements are on the first line", 1, fLocator.getLine(null)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Attributes are found on their own line, whatever their quotes and spacing
+	 */
+	public void testAttributeLines() {
+		XMLElementLocator.Location child = getLocation(1);
+		assertEquals(4, fLocator.getLine(child, "name")); //$NON-NLS-1$
+		assertEquals(5, fLocator.getLine(child, "value")); //$NON-NLS-1$
+		assertEquals(6, fLocator.getLine(child, "other")); //$NON-NLS-1$
+		assertEquals("Missing attributes should be on the element line", 4, fLocator.getLine(child, "missing")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(9, fLocator.getLine(getLocation(2), "name")); //$NON-NLS-1$
+	}
+
+	/**
+	 * The text content is the trimmed text between the start and end tags
+	 */
+	public void testTextContent() {
+		assertEquals("some text", fLocator.getTextContent(getLocation(1))); //$NON-NLS-1$
+		assertNull("Empty elements have no text content", fLocator.getTextContent(getLocation(2))); //$NON-NLS-1$
+		assertEquals("<nested/>", fLocator.getTextContent(getLocation(3))); //$NON-NLS-1$
+	}
+}
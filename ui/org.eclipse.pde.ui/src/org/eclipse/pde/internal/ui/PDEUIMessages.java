@@ -384,6 +384,7 @@ public class PDEUIMessages extends NLS {
 	public static String ExportOptionsTab_allowBinaryCycles;
 
 	public static String ExportOptionsTab_use_workspace_classfiles;
+	public static String ExportOptionsTab_compile_dirty_plugins;
 
 	public static String ExtensionsPage_sortAlpha;
 
@@ -957,6 +958,7 @@ public class PDEUIMessages extends NLS {
 
 	public static String ConfigurationTab_name;
 	public static String ConfigurationTab_clearArea;
+	public static String ConfigurationTab_warmArea;
 	public static String ConfigurationTab_configAreaGroup;
 	public static String ConfigurationTab_useDefaultLoc;
 	public static String ConfigurationTab_configLog;
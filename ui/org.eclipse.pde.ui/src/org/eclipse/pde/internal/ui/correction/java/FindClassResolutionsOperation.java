@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -120,10 +120,12 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
 	}
 
 	private static Set getValidPackages(String pkgName) {
-		ExportPackageDescription[] knownPackages = PDECore.getDefault().getModelManager().getState().getState().getExportedPackages();
+		State state = PDECore.getDefault().getModelManager().getState().getState();
+		ExportPackageDescription[] knownPackages = PDECore.getDefault().getModelManager().getExportedPackageIndex().getExporters(state, pkgName);
 		Set validPackages = new HashSet();
 		for (int i = 0; i < knownPackages.length; i++) {
-			if (knownPackages[i].getName().equals(pkgName)) {
+			// only offer the exports the state reports, i.e. the selected exports of resolved bundles
+			if (knownPackages[i].getSupplier().isResolved() && isSelected(knownPackages[i])) {
 				validPackages.add(knownPackages[i]);
 			}
 		}
@@ -137,6 +139,15 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
 		return validPackages;
 	}
 
+	private static boolean isSelected(ExportPackageDescription export) {
+		ExportPackageDescription[] selected = export.getSupplier().getSelectedExports();
+		for (int i = 0; i < selected.length; i++) {
+			if (selected[i] == export)
+				return true;
+		}
+		return false;
+	}
+
 	private Set getVisiblePackages() {
 		IPluginModelBase base = PluginRegistry.findModel(fProject);
 		BundleDescription desc = base.getBundleDescription();
@@ -13,6 +13,7 @@ package org.eclipse.pde.internal.ui.launcher;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.pde.internal.launching.IPDEConstants;
 import org.eclipse.pde.internal.launching.launcher.LaunchArgumentsHelper;
 import org.eclipse.pde.internal.ui.PDEUIMessages;
 import org.eclipse.pde.launching.IPDELauncherConstants;
@@ -27,6 +28,7 @@ public class ConfigurationAreaBlock extends BaseBlock {
 
 	private Button fUseDefaultLocationButton;
 	private Button fClearConfig;
+	private Button fWarmConfig;
 	private String fLastEnteredConfigArea;
 	private String fLastKnownConfigName;
 	private static String DEFAULT_DIR = "${workspace_loc}/.metadata/.plugins/org.eclipse.pde.core/"; //$NON-NLS-1$
@@ -84,6 +86,13 @@ public class ConfigurationAreaBlock extends BaseBlock {
 		fClearConfig.addSelectionListener(fListener);
 
 		createButtons(buttons, new String[] {PDEUIMessages.BaseBlock_workspace, PDEUIMessages.BaseBlock_filesystem, PDEUIMessages.BaseBlock_variables});
+
+		fWarmConfig = new Button(group, SWT.CHECK);
+		fWarmConfig.setText(PDEUIMessages.ConfigurationTab_warmArea);
+		gd = new GridData();
+		gd.horizontalSpan = 2;
+		fWarmConfig.setLayoutData(gd);
+		fWarmConfig.addSelectionListener(fListener);
 	}
 
 	public void initializeFrom(ILaunchConfiguration configuration) throws CoreException {
@@ -96,6 +105,7 @@ public class ConfigurationAreaBlock extends BaseBlock {
 			fLocationText.setEnabled(true);
 
 		fClearConfig.setSelection(configuration.getAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, false));
+		fWarmConfig.setSelection(configuration.getAttribute(IPDEConstants.CONFIG_WARM_AREA, false));
 
 		if (useDefaultArea) {
 			fLastEnteredConfigArea = DEFAULT_DIR + fLastKnownConfigName;
@@ -115,6 +125,7 @@ public class ConfigurationAreaBlock extends BaseBlock {
 		}
 		configuration.setAttribute(IPDELauncherConstants.CONFIG_LOCATION, getLocation());
 		configuration.setAttribute(IPDELauncherConstants.CONFIG_CLEAR_AREA, fClearConfig.getSelection());
+		configuration.setAttribute(IPDEConstants.CONFIG_WARM_AREA, fWarmConfig.getSelection());
 	}
 
 	public void setDefaults(ILaunchConfigurationWorkingCopy configuration, boolean isJUnit) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -295,6 +295,10 @@ public abstract class BaseExportWizardPage extends AbstractExportWizardPage {
 		return fOptionsTab.useWorkspaceCompiledClasses();
 	}
 
+	protected boolean compileDirtyPlugins() {
+		return fOptionsTab.compileDirtyPlugins();
+	}
+
 	protected boolean doGenerateAntFile() {
 		return fOptionsTab.doGenerateAntFile();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,6 +34,7 @@ public class ExportOptionsTab extends AbstractExportTab {
 	private static final String S_QUALIFIER_NAME = "qualifierName"; //$NON-NLS-1$
 	private static final String S_ALLOW_BINARY_CYCLES = "allowBinaryCycles"; //$NON-NLS-1$
 	private static final String S_USE_WORKSPACE_COMPILED_CLASSES = "useWorkspaceCompiledClasses"; //$NON-NLS-1$
+	private static final String S_COMPILE_DIRTY_PLUGINS = "compileDirtyPlugins"; //$NON-NLS-1$
 
 	private Button fIncludeSourceButton;
 	private Combo fIncludeSourceCombo;
@@ -45,6 +46,7 @@ public class ExportOptionsTab extends AbstractExportTab {
 	private Text fQualifierText;
 	private Button fAllowBinaryCycles;
 	private Button fUseWSCompiledClasses;
+	private Button fCompileDirtyPlugins;
 
 	public ExportOptionsTab(BaseExportWizardPage page) {
 		super(page);
@@ -100,6 +102,12 @@ public class ExportOptionsTab extends AbstractExportTab {
 	protected void addUseWorkspaceCompiledClassesSection(Composite comp) {
 		fUseWSCompiledClasses = new Button(comp, SWT.CHECK);
 		fUseWSCompiledClasses.setText(PDEUIMessages.ExportOptionsTab_use_workspace_classfiles);
+
+		fCompileDirtyPlugins = new Button(comp, SWT.CHECK);
+		fCompileDirtyPlugins.setText(PDEUIMessages.ExportOptionsTab_compile_dirty_plugins);
+		GridData gd = new GridData();
+		gd.horizontalIndent = 20;
+		fCompileDirtyPlugins.setLayoutData(gd);
 	}
 
 	protected String getJarButtonText() {
@@ -171,6 +179,8 @@ public class ExportOptionsTab extends AbstractExportTab {
 		fQualifierText.setEnabled(fQualifierButton.getSelection());
 		fAllowBinaryCycles.setSelection(getInitialAllowBinaryCyclesSelection(settings));
 		fUseWSCompiledClasses.setSelection(getInitialUseWorkspaceCompiledClassesSelection(settings));
+		fCompileDirtyPlugins.setSelection(settings.getBoolean(S_COMPILE_DIRTY_PLUGINS));
+		fCompileDirtyPlugins.setEnabled(fUseWSCompiledClasses.getSelection());
 		hookListeners();
 	}
 
@@ -183,6 +193,7 @@ public class ExportOptionsTab extends AbstractExportTab {
 		settings.put(S_QUALIFIER_NAME, fQualifierText.getText());
 		settings.put(S_ALLOW_BINARY_CYCLES, fAllowBinaryCycles.getSelection());
 		settings.put(S_USE_WORKSPACE_COMPILED_CLASSES, fUseWSCompiledClasses.getSelection());
+		settings.put(S_COMPILE_DIRTY_PLUGINS, fCompileDirtyPlugins.getSelection());
 		saveCombo(settings, S_ANT_FILENAME, fAntCombo);
 	}
 
@@ -251,6 +262,11 @@ public class ExportOptionsTab extends AbstractExportTab {
 				fPage.pageChanged();
 			}
 		});
+		fUseWSCompiledClasses.addSelectionListener(new SelectionAdapter() {
+			public void widgetSelected(SelectionEvent e) {
+				fCompileDirtyPlugins.setEnabled(fUseWSCompiledClasses.getSelection());
+			}
+		});
 	}
 
 	protected String validate() {
@@ -282,6 +298,10 @@ public class ExportOptionsTab extends AbstractExportTab {
 		return fUseWSCompiledClasses.getSelection();
 	}
 
+	protected boolean compileDirtyPlugins() {
+		return fUseWSCompiledClasses.getSelection() && fCompileDirtyPlugins.getSelection();
+	}
+
 	protected boolean useJARFormat() {
 		return fJarButton.getSelection();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,7 @@ public class PluginExportWizard extends AntGeneratingExportWizard {
 		info.exportSourceBundle = fPage.doExportSourceBundles();
 		info.allowBinaryCycles = fPage.allowBinaryCycles();
 		info.useWorkspaceCompiledClasses = fPage.useWorkspaceCompiledClasses();
+		info.compileDirtyPlugins = fPage.compileDirtyPlugins();
 		info.destinationDirectory = fPage.getDestination();
 		info.zipFileName = fPage.getFileName();
 		info.items = fPage.getSelectedItems();
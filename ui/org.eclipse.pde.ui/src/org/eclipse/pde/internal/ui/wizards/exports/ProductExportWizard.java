@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -74,6 +74,8 @@ public class ProductExportWizard extends BaseExportWizard {
 		info.exportMetadata = fPage.doExportMetadata();
 		info.destinationDirectory = fPage.getDestination();
 		info.zipFileName = fPage.getFileName();
+		// products are always compiled from source, so useWorkspaceCompiledClasses and
+		// compileDirtyPlugins are intentionally left unset
 		if (fPage2 != null && fPage.doMultiPlatform())
 			info.targets = fPage2.getTargets();
 		if (fProductModel.getProduct().useFeatures())